@@ -0,0 +1,354 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded front door for activity ingestion, shedding load instead of queueing without limit
+ * Activities and baskets sent through here run on the caller's thread, but
+ * only a fixed number at once. The rest wait in a bounded queue per
+ * priority, and whatever does not fit is turned away straight away:
+ * - CHECKOUT work (RemoveFromStock, and baskets of removals only) always
+ *   goes before RESTOCK work (AddToStock and anything else): a slot that
+ *   frees up is handed to the oldest waiting checkout, and only to a
+ *   restock if no checkout is waiting
+ * - a full queue rejects at once with OVERLOADED, and so does a wait that
+ *   reaches the maximum wait, so no caller waits longer than that
+ * - getRetryAfterMillis estimates when the current queue will have drained,
+ *   as a hint for when to try again (the HTTP API sends it as Retry-After)
+ *
+ * During a spike the manager therefore keeps working at its best rate, and
+ * checkout latency stays bounded by the maximum wait; restocks are shed
+ * first. Queue depths and shed counts are kept per priority.
+ *
+ * Example:
+ *   ActivityAdmission admission = new ActivityAdmission(manager, 8, 256, 64, 50);
+ *   OperationOutcome outcome = admission.tryAddActivityToProduct("P001", "RemoveFromStock", 1, LocalDate.now());
+ *   if (outcome == OperationOutcome.OVERLOADED) {
+ *       // Try again after admission.getRetryAfterMillis()
+ *   }
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class ActivityAdmission {
+
+    /**
+     * Priority an operation is admitted with
+     */
+    public enum Priority {
+        // Checkouts: removals, served first
+        CHECKOUT,
+        // Restocks and other activities, shed first
+        RESTOCK
+    }
+
+    // Weight of the newest service time in the running average (out of 8)
+    private static final int AVERAGE_WEIGHT = 1;
+
+    private final SupermarketManager manager;
+    private final int maxConcurrent;
+    private final int[] queueLimits;
+    private final long maxWaitNanos;
+
+    // Guards running and the wait queues
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<ArrayDeque<Waiter>> waiting = List.of(new ArrayDeque<>(), new ArrayDeque<>()); // By priority
+    private int running;
+
+    // Statistics per priority (indexed by ordinal)
+    private final AtomicLongArray admitted = new AtomicLongArray(2);
+    private final AtomicLongArray rejected = new AtomicLongArray(2);
+    private final AtomicLongArray timedOut = new AtomicLongArray(2);
+    private final AtomicLong averageServiceNanos = new AtomicLong();
+
+    // A caller waiting for a slot; granted is set by the thread handing the slot over
+    private static final class Waiter {
+        private final Condition ready;
+        private boolean granted;
+
+        Waiter(Condition ready) {
+            this.ready = ready;
+        }
+    }
+
+    /**
+     * Creates a front door for a manager
+     *
+     * @param manager Manager the admitted operations run on
+     * @param maxConcurrent Operations allowed to run at once (e.g. the number of cores)
+     * @param checkoutQueueLimit Checkouts allowed to wait for a slot
+     * @param restockQueueLimit Restocks allowed to wait for a slot
+     * @param maxWaitMillis Longest time an operation waits before it is rejected
+     * @throws IllegalArgumentException if maxConcurrent is not positive, or a limit or the wait is negative
+     */
+    public ActivityAdmission(SupermarketManager manager, int maxConcurrent, int checkoutQueueLimit,
+            int restockQueueLimit, long maxWaitMillis) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("Concurrency limit must be positive: " + maxConcurrent);
+        }
+        if (checkoutQueueLimit < 0 || restockQueueLimit < 0 || maxWaitMillis < 0) {
+            throw new IllegalArgumentException("Queue limits and the maximum wait cannot be negative");
+        }
+        this.manager = manager;
+        this.maxConcurrent = maxConcurrent;
+        this.queueLimits = new int[] {checkoutQueueLimit, restockQueueLimit};
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    }
+
+    // ---------------------------------------------------------------
+    // Admitted operations
+    // ---------------------------------------------------------------
+
+    /**
+     * Adds an activity to a product if admitted (see SupermarketManager.tryAddActivityToProduct)
+     *
+     * @param ProductID ID of the product to update
+     * @param activityName AddToStock or RemoveFromStock
+     * @param ProductQuantity Number of items added or removed
+     * @param activityDate Date of the activity
+     * @return Outcome of the activity, or OVERLOADED if it was not admitted
+     */
+    public OperationOutcome tryAddActivityToProduct(String ProductID, String activityName, int ProductQuantity,
+            LocalDate activityDate) {
+        return tryAddActivityToProduct(null, ProductID, activityName, ProductQuantity, activityDate);
+    }
+
+    /**
+     * Adds an activity with an idempotency key if admitted
+     * A rejected activity was not applied, so it can be retried with the same key.
+     *
+     * @param activityKey Caller's key for the movement (null for none)
+     * @param ProductID ID of the product to update
+     * @param activityName AddToStock or RemoveFromStock
+     * @param ProductQuantity Number of items added or removed
+     * @param activityDate Date of the activity
+     * @return Outcome of the activity, or OVERLOADED if it was not admitted
+     */
+    public OperationOutcome tryAddActivityToProduct(String activityKey, String ProductID, String activityName,
+            int ProductQuantity, LocalDate activityDate) {
+        Priority priority = "RemoveFromStock".equals(activityName) ? Priority.CHECKOUT : Priority.RESTOCK;
+        if (!acquire(priority)) {
+            return OperationOutcome.OVERLOADED;
+        }
+        long start = System.nanoTime();
+        try {
+            return manager.tryAddActivityToProduct(activityKey, ProductID, activityName, ProductQuantity,
+                    activityDate);
+        } finally {
+            release(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Applies a basket if admitted (see SupermarketManager.applyBasket)
+     * A basket of removals only is a checkout; any other basket is a restock.
+     * It takes one slot however many lines it has.
+     *
+     * @param basket Lines to apply all-or-nothing
+     * @param activityDate Date of every activity in the basket
+     * @return Result of the basket, with outcome OVERLOADED if it was not admitted
+     */
+    public BasketResult applyBasket(StockBasket basket, LocalDate activityDate) {
+        if (!acquire(priorityOf(basket))) {
+            return new BasketResult(OperationOutcome.OVERLOADED, null, 0);
+        }
+        long start = System.nanoTime();
+        try {
+            return manager.applyBasket(basket, activityDate);
+        } finally {
+            release(System.nanoTime() - start);
+        }
+    }
+
+    private static Priority priorityOf(StockBasket basket) {
+        for (StockBasket.Line line : basket.getLines()) {
+            if (!"RemoveFromStock".equals(line.getActivityName())) {
+                return Priority.RESTOCK;
+            }
+        }
+        return Priority.CHECKOUT;
+    }
+
+    // ---------------------------------------------------------------
+    // Admission
+    // ---------------------------------------------------------------
+
+    // Takes a slot, waiting in the priority's queue if need be; false if rejected
+    private boolean acquire(Priority priority) {
+        int p = priority.ordinal();
+        lock.lock();
+        try {
+            // A free slot is only taken directly if nobody who goes first is waiting for one
+            if (running < maxConcurrent && noneWaitingUpTo(p)) {
+                running++;
+                admitted.incrementAndGet(p);
+                return true;
+            }
+            if (waiting.get(p).size() >= queueLimits[p]) {
+                rejected.incrementAndGet(p);
+                return false;
+            }
+            Waiter waiter = new Waiter(lock.newCondition());
+            waiting.get(p).addLast(waiter);
+            long remaining = maxWaitNanos;
+            while (!waiter.granted && remaining > 0) {
+                try {
+                    remaining = waiter.ready.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            if (waiter.granted) {
+                admitted.incrementAndGet(p);
+                return true;
+            }
+            waiting.get(p).remove(waiter);
+            timedOut.incrementAndGet(p);
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean noneWaitingUpTo(int priority) {
+        for (int p = 0; p <= priority; p++) {
+            if (!waiting.get(p).isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Hands the slot to the first waiter in priority order, or frees it
+    private void release(long serviceNanos) {
+        averageServiceNanos.getAndUpdate(average ->
+                average == 0 ? serviceNanos : average + (serviceNanos - average) * AVERAGE_WEIGHT / 8);
+        lock.lock();
+        try {
+            for (ArrayDeque<Waiter> queue : waiting) {
+                Waiter next = queue.pollFirst();
+                if (next != null) {
+                    next.granted = true; // The slot passes on; running stays the same
+                    next.ready.signal();
+                    return;
+                }
+            }
+            running--;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Statistics
+    // ---------------------------------------------------------------
+
+    /**
+     * Estimates how long until a rejected caller is likely to be admitted
+     * Based on the operations queued now and the recent average service time.
+     *
+     * @return Suggested wait before retrying, in milliseconds (at least 1)
+     */
+    public long getRetryAfterMillis() {
+        long queued = getQueueDepth(Priority.CHECKOUT) + getQueueDepth(Priority.RESTOCK);
+        long drainNanos = (queued + 1) * averageServiceNanos.get() / maxConcurrent;
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(drainNanos));
+    }
+
+    /**
+     * @param priority Priority
+     * @return Operations of that priority waiting for a slot now
+     */
+    public int getQueueDepth(Priority priority) {
+        lock.lock();
+        try {
+            return waiting.get(priority.ordinal()).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Operations running now
+     */
+    public int getRunning() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param priority Priority
+     * @return Operations of that priority admitted so far
+     */
+    public long getAdmittedCount(Priority priority) {
+        return admitted.get(priority.ordinal());
+    }
+
+    /**
+     * @param priority Priority
+     * @return Operations of that priority shed so far (queue full or waited too long)
+     */
+    public long getShedCount(Priority priority) {
+        return rejected.get(priority.ordinal()) + timedOut.get(priority.ordinal());
+    }
+
+    /**
+     * @param priority Priority
+     * @return Operations of that priority shed because they waited the maximum wait
+     */
+    public long getTimedOutCount(Priority priority) {
+        return timedOut.get(priority.ordinal());
+    }
+
+    /**
+     * @return Recent average time an admitted operation takes to run, in microseconds
+     */
+    public double getAverageServiceMicros() {
+        return averageServiceNanos.get() / 1e3;
+    }
+
+    /**
+     * Formats the admission statistics as JSON (served at GET /metrics/admission)
+     *
+     * @return JSON object with the limits, and per priority the queue depth and counts
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\"maxConcurrent\":").append(maxConcurrent)
+                .append(",\"running\":").append(getRunning())
+                .append(",\"maxWaitMillis\":").append(TimeUnit.NANOSECONDS.toMillis(maxWaitNanos))
+                .append(",\"retryAfterMillis\":").append(getRetryAfterMillis());
+        for (Priority priority : Priority.values()) {
+            json.append(",\"").append(priority.name().toLowerCase(Locale.ROOT)).append("\":{")
+                    .append("\"queueLimit\":").append(queueLimits[priority.ordinal()])
+                    .append(",\"queueDepth\":").append(getQueueDepth(priority))
+                    .append(",\"admitted\":").append(getAdmittedCount(priority))
+                    .append(",\"shed\":").append(getShedCount(priority))
+                    .append(",\"timedOut\":").append(getTimedOutCount(priority))
+                    .append('}');
+        }
+        return json.append('}').toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("running %d/%d, checkout queue %d (admitted %d, shed %d), "
+                        + "restock queue %d (admitted %d, shed %d), retry after %d ms",
+                getRunning(), maxConcurrent,
+                getQueueDepth(Priority.CHECKOUT), getAdmittedCount(Priority.CHECKOUT), getShedCount(Priority.CHECKOUT),
+                getQueueDepth(Priority.RESTOCK), getAdmittedCount(Priority.RESTOCK), getShedCount(Priority.RESTOCK),
+                getRetryAfterMillis());
+    }
+}
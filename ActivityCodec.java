@@ -0,0 +1,472 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary encoding for a product's activity sequence
+ * Used for histories on disk (CatalogStore) and in replication snapshots,
+ * where the plain encoding (two strings, an int and a long per activity,
+ * about 50 bytes) is mostly repetition.
+ *
+ * Each activity is written as:
+ * - a header byte: type in 2 bits (AddToStock, RemoveFromStock, other, none),
+ *   whether it has a date, whether its ID has the generated ACT<millis>_<n> form
+ * - the ID: for generated IDs, the change in milliseconds from the previous
+ *   activity and the counter, as varints; any other ID is written in full
+ * - the quantity as a zig-zag varint
+ * - the date as the zig-zag varint change in days from the previous date
+ *   (from 2020-01-01 for the first activity of a block)
+ * A typical activity takes 5-8 bytes.
+ *
+ * Activities are grouped in blocks (64 by default). Deltas restart at every
+ * block and the encoding starts with the byte offset of each block, so
+ * Cursor.seek jumps to any activity by decoding at most one block.
+ *
+ * Cursor decodes in place: moving through the activities and reading their
+ * quantity, type and date allocates nothing; an ID string or Activity object
+ * is only built when asked for.
+ *
+ * Layout: count, block size, block count, block offsets (all varints), then the blocks.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public final class ActivityCodec {
+
+    /** Activities per block unless told otherwise */
+    public static final int DEFAULT_BLOCK_SIZE = 64;
+
+    // Header byte bits
+    private static final int TYPE_MASK = 0b11;
+    private static final int TYPE_ADD = 0;
+    private static final int TYPE_REMOVE = 1;
+    private static final int TYPE_OTHER = 2; // Name written in full
+    private static final int TYPE_NONE = 3; // Null name
+    private static final int HAS_DATE = 1 << 2;
+    private static final int GENERATED_ID = 1 << 3;
+
+    private static final String ADD_TO_STOCK = "AddToStock";
+    private static final String REMOVE_FROM_STOCK = "RemoveFromStock";
+    private static final String ID_PREFIX = "ACT";
+
+    // Dates in a block are deltas from this day (2020-01-01) on, so recent dates start small
+    private static final long BASE_DAY = 18_262;
+
+    /**
+     * Private constructor - static helpers only
+     */
+    private ActivityCodec() {
+    }
+
+    // ---------------------------------------------------------------
+    // Encoding
+    // ---------------------------------------------------------------
+
+    /**
+     * Encodes activities with the default block size
+     *
+     * @param activities Activities in the order they should be read back (oldest first for histories)
+     * @return Encoded bytes
+     */
+    public static byte[] encode(List<Activity> activities) {
+        return encode(activities, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Encodes activities
+     *
+     * @param activities Activities in the order they should be read back
+     * @param blockSize Activities per block: smaller blocks seek faster, larger ones compress slightly better
+     * @return Encoded bytes
+     * @throws IllegalArgumentException if blockSize is not positive
+     */
+    public static byte[] encode(List<Activity> activities, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        int count = activities.size();
+        int blocks = (count + blockSize - 1) / blockSize;
+        Output data = new Output(count * 8);
+        int[] blockOffsets = new int[blocks];
+        long previousMillis = 0;
+        long previousDay = BASE_DAY;
+        for (int i = 0; i < count; i++) {
+            if (i % blockSize == 0) {
+                blockOffsets[i / blockSize] = data.size;
+                previousMillis = 0;
+                previousDay = BASE_DAY;
+            }
+            Activity activity = activities.get(i);
+            String id = activity.getActivityID();
+            String name = activity.getActivityName();
+            LocalDate date = activity.getActivityDate();
+            long millis = generatedIdMillis(id);
+
+            int header = typeOf(name);
+            if (date != null) {
+                header |= HAS_DATE;
+            }
+            if (millis >= 0) {
+                header |= GENERATED_ID;
+            }
+            data.writeByte(header);
+            if (millis >= 0) {
+                data.writeSignedVarint(millis - previousMillis);
+                data.writeVarint(generatedIdCounter(id));
+                previousMillis = millis;
+            } else {
+                data.writeString(id);
+            }
+            if ((header & TYPE_MASK) == TYPE_OTHER) {
+                data.writeString(name);
+            }
+            data.writeSignedVarint(activity.getActivityProductQuantity());
+            if (date != null) {
+                data.writeSignedVarint(date.toEpochDay() - previousDay);
+                previousDay = date.toEpochDay();
+            }
+        }
+
+        Output out = new Output(data.size + 8 + blocks * 2);
+        out.writeVarint(count);
+        out.writeVarint(blockSize);
+        out.writeVarint(blocks);
+        for (int offset : blockOffsets) {
+            out.writeVarint(offset);
+        }
+        out.write(data.bytes, data.size);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes every activity
+     *
+     * @param encoded Bytes from encode
+     * @return Activities in the order they were encoded
+     */
+    public static List<Activity> decode(byte[] encoded) {
+        Cursor cursor = new Cursor(encoded);
+        List<Activity> activities = new ArrayList<>(cursor.size());
+        while (cursor.next()) {
+            activities.add(cursor.toActivity());
+        }
+        return activities;
+    }
+
+    private static int typeOf(String name) {
+        if (name == null) {
+            return TYPE_NONE;
+        }
+        if (ADD_TO_STOCK.equals(name)) {
+            return TYPE_ADD;
+        }
+        return REMOVE_FROM_STOCK.equals(name) ? TYPE_REMOVE : TYPE_OTHER;
+    }
+
+    // Milliseconds of an ID of the form SupermarketManager generates (ACT<millis>_<n>), or -1
+    // Only IDs that print back exactly the same (no leading zeros) count as generated
+    private static long generatedIdMillis(String id) {
+        if (id == null || !id.startsWith(ID_PREFIX)) {
+            return -1;
+        }
+        int underscore = id.indexOf('_', ID_PREFIX.length());
+        if (!isPlainNumber(id, ID_PREFIX.length(), underscore, 18)
+                || !isPlainNumber(id, underscore + 1, id.length(), 9)) {
+            return -1;
+        }
+        return Long.parseLong(id, ID_PREFIX.length(), underscore, 10);
+    }
+
+    private static int generatedIdCounter(String id) {
+        return Integer.parseInt(id, id.indexOf('_', ID_PREFIX.length()) + 1, id.length(), 10);
+    }
+
+    // Digits only, no leading zero unless it is just "0", at most maxDigits long
+    private static boolean isPlainNumber(String text, int from, int to, int maxDigits) {
+        if (from < 0 || to <= from || to - from > maxDigits || (text.charAt(from) == '0' && to - from > 1)) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Growable byte buffer with varint helpers
+    private static final class Output {
+        private byte[] bytes;
+        private int size;
+
+        Output(int capacity) {
+            bytes = new byte[Math.max(16, capacity)];
+        }
+
+        void writeByte(int b) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, size * 2);
+            }
+            bytes[size++] = (byte) b;
+        }
+
+        void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        // Zig-zag: small negative numbers stay small
+        void writeSignedVarint(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        // Length + 1 (0 for null), then UTF-8
+        void writeString(String text) {
+            if (text == null) {
+                writeVarint(0);
+                return;
+            }
+            byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+            writeVarint(utf8.length + 1L);
+            write(utf8, utf8.length);
+        }
+
+        void write(byte[] source, int length) {
+            if (size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+            }
+            System.arraycopy(source, 0, bytes, size, length);
+            size += length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Decoding
+    // ---------------------------------------------------------------
+
+    /**
+     * Reads encoded activities one at a time, in place
+     * Call next() to move to each activity, then read its fields. Not thread safe.
+     *
+     * Example (no allocation per activity):
+     *   ActivityCodec.Cursor cursor = new ActivityCodec.Cursor(bytes);
+     *   while (cursor.next()) {
+     *       if (cursor.isRemoveFromStock()) removed += cursor.getQuantity();
+     *   }
+     */
+    public static final class Cursor {
+        private final byte[] bytes;
+        private final int count;
+        private final int blockSize;
+        private final int[] blockStarts;
+
+        private int position;
+        private int index = -1;
+        private long previousMillis;
+        private long previousDay;
+
+        // Current activity
+        private int header;
+        private long idMillis;
+        private int idCounter;
+        private int idOffset;
+        private int idLength;
+        private int nameOffset;
+        private int nameLength;
+        private int quantity;
+        private long epochDay;
+
+        /**
+         * Opens encoded activities, positioned before the first
+         *
+         * @param encoded Bytes from ActivityCodec.encode
+         */
+        public Cursor(byte[] encoded) {
+            this.bytes = encoded;
+            this.count = (int) readVarint();
+            this.blockSize = (int) readVarint();
+            int blocks = (int) readVarint();
+            this.blockStarts = new int[blocks];
+            for (int b = 0; b < blocks; b++) {
+                blockStarts[b] = (int) readVarint();
+            }
+            int dataStart = position;
+            for (int b = 0; b < blocks; b++) {
+                blockStarts[b] += dataStart;
+            }
+        }
+
+        /**
+         * @return Number of activities encoded
+         */
+        public int size() {
+            return count;
+        }
+
+        /**
+         * Moves to the next activity
+         *
+         * @return true if there is one, false at the end
+         */
+        public boolean next() {
+            if (index + 1 >= count) {
+                index = count;
+                return false;
+            }
+            index++;
+            if (index % blockSize == 0) {
+                position = blockStarts[index / blockSize];
+                previousMillis = 0;
+                previousDay = BASE_DAY;
+            }
+            header = bytes[position++] & 0xFF;
+            if ((header & GENERATED_ID) != 0) {
+                idMillis = previousMillis + readSignedVarint();
+                idCounter = (int) readVarint();
+                previousMillis = idMillis;
+            } else {
+                idLength = (int) readVarint() - 1;
+                idOffset = position;
+                position += Math.max(0, idLength);
+            }
+            if ((header & TYPE_MASK) == TYPE_OTHER) {
+                nameLength = (int) readVarint() - 1;
+                nameOffset = position;
+                position += Math.max(0, nameLength);
+            }
+            quantity = (int) readSignedVarint();
+            if ((header & HAS_DATE) != 0) {
+                epochDay = previousDay + readSignedVarint();
+                previousDay = epochDay;
+            }
+            return true;
+        }
+
+        /**
+         * Positions the cursor so that the next call to next() reads an activity
+         * Decodes from the start of that activity's block only.
+         *
+         * @param target Index of the activity (0 = first encoded)
+         * @throws IndexOutOfBoundsException if target is not between 0 and size()
+         */
+        public void seek(int target) {
+            if (target < 0 || target > count) {
+                throw new IndexOutOfBoundsException("Activity " + target + " of " + count);
+            }
+            int blockFirst = target / blockSize * blockSize;
+            index = blockFirst - 1; // next() opens the block
+            while (index + 1 < target) {
+                next();
+            }
+        }
+
+        /**
+         * @return Index of the current activity
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return Quantity of the current activity
+         */
+        public int getQuantity() {
+            return quantity;
+        }
+
+        /**
+         * @return true if the current activity is an AddToStock
+         */
+        public boolean isAddToStock() {
+            return (header & TYPE_MASK) == TYPE_ADD;
+        }
+
+        /**
+         * @return true if the current activity is a RemoveFromStock
+         */
+        public boolean isRemoveFromStock() {
+            return (header & TYPE_MASK) == TYPE_REMOVE;
+        }
+
+        /**
+         * @return true if the current activity has a date
+         */
+        public boolean hasDate() {
+            return (header & HAS_DATE) != 0;
+        }
+
+        /**
+         * @return Date of the current activity as an epoch day (only meaningful if hasDate)
+         */
+        public long getEpochDay() {
+            return epochDay;
+        }
+
+        /**
+         * @return Type name of the current activity (shared constants for the two stock types)
+         */
+        public String getActivityName() {
+            switch (header & TYPE_MASK) {
+                case TYPE_ADD:
+                    return ADD_TO_STOCK;
+                case TYPE_REMOVE:
+                    return REMOVE_FROM_STOCK;
+                case TYPE_OTHER:
+                    return string(nameOffset, nameLength);
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * @return ID of the current activity (builds a new string)
+         */
+        public String getActivityID() {
+            if ((header & GENERATED_ID) != 0) {
+                return ID_PREFIX + idMillis + "_" + idCounter;
+            }
+            return string(idOffset, idLength);
+        }
+
+        /**
+         * @return The current activity as an Activity object
+         */
+        public Activity toActivity() {
+            return new Activity(getActivityID(), getActivityName(), quantity,
+                    hasDate() ? LocalDate.ofEpochDay(epochDay) : null);
+        }
+
+        private String string(int offset, int length) {
+            return length < 0 ? null : new String(bytes, offset, length, StandardCharsets.UTF_8);
+        }
+
+        private long readVarint() {
+            long value = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        private long readSignedVarint() {
+            long raw = readVarint();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Full activity history of a manager: recent raw activities plus daily rollups
+ * Products themselves only keep their last few activities. This listener
+ * follows every accepted activity and:
+ * - adds it straight away to its product's daily rollup (units added/removed per day)
+ * - keeps the raw activity only for a retention window (e.g. 30 days)
+ *
+ * A background job compacts raw activities older than the window away; their
+ * totals are already in the rollups, so period totals and daily reports read
+ * the rollups and give the same answer before and after compaction, while
+ * memory stays bounded by (recent activities + products x days).
+ *
+ * Deleted products keep their rollups for reporting; their raw activities go.
+ * Activities without a date (the manager accepts them) belong to no day, so
+ * they are counted in getUndatedActivityCount and otherwise skipped.
+ *
+ * Usage:
+ *   ActivityHistory history = ActivityHistory.attach(manager, 30);
+ *   history.start(1, TimeUnit.HOURS);
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class ActivityHistory implements SupermarketChangeListener {
+
+    /**
+     * History of one product, guarded by its own monitor
+     */
+    private static final class ProductHistory {
+        // Raw activities within the retention window, in arrival order
+        final ArrayDeque<Activity> raw = new ArrayDeque<>();
+        // Day -> totals of that day
+        final TreeMap<LocalDate, DailyRollup> daily = new TreeMap<>();
+    }
+
+    private final Map<String, ProductHistory> histories = new ConcurrentHashMap<>();
+
+    // Number of days raw activities are kept
+    private final int retentionDays;
+
+    // Runs the compaction job (created by start)
+    private ScheduledExecutorService compactor;
+
+    // Totals for monitoring the compaction
+    private final AtomicLong compactedActivities = new AtomicLong();
+    private final AtomicLong undatedActivities = new AtomicLong();
+
+    /**
+     * Creates a history that is not yet following a manager
+     *
+     * @param retentionDays Number of days raw activities are kept before compaction
+     */
+    public ActivityHistory(int retentionDays) {
+        if (retentionDays < 0) {
+            throw new IllegalArgumentException("Retention cannot be negative: " + retentionDays);
+        }
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * Creates a history following a manager, seeded with the activities its
+     * products still hold
+     *
+     * @param manager Manager to follow
+     * @param retentionDays Number of days raw activities are kept
+     * @return The attached history
+     */
+    public static ActivityHistory attach(SupermarketManager manager, int retentionDays) {
+        ActivityHistory history = new ActivityHistory(retentionDays);
+        manager.addChangeListener(history, products -> {
+            for (Product product : products) {
+                List<Activity> kept = product.getActivities().getAllElements();
+                for (int i = kept.size() - 1; i >= 0; i--) { // Oldest first
+                    history.record(product.getProductID(), kept.get(i));
+                }
+            }
+        });
+        return history;
+    }
+
+    // ---------------------------------------------------------------
+    // Following the manager
+    // ---------------------------------------------------------------
+
+    @Override
+    public void productCreated(long sequence, Product product, Activity initialActivity) {
+        record(product.getProductID(), initialActivity);
+    }
+
+    @Override
+    public void productDeleted(long sequence, String productId) {
+        ProductHistory history = histories.get(productId);
+        if (history != null) {
+            synchronized (history) {
+                history.raw.clear();
+            }
+        }
+    }
+
+    @Override
+    public void activityApplied(long sequence, String productId, Activity activity) {
+        record(productId, activity);
+    }
+
+    // Rollup stage: every accepted activity goes into its day's totals at once
+    // This runs inside the manager's publish loop after the change is applied,
+    // so it must not throw: an undated activity is only counted
+    private void record(String productId, Activity activity) {
+        if (activity == null || activity.getActivityDate() == null) {
+            undatedActivities.incrementAndGet();
+            return;
+        }
+        ProductHistory history = histories.computeIfAbsent(productId, id -> new ProductHistory());
+        synchronized (history) {
+            history.raw.addLast(activity);
+            history.daily.computeIfAbsent(activity.getActivityDate(), DailyRollup::new).add(activity);
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Compaction
+    // ---------------------------------------------------------------
+
+    /**
+     * Starts compacting in the background at a fixed interval
+     *
+     * @param interval Time between compactions
+     * @param unit Unit of the interval
+     */
+    public synchronized void start(long interval, TimeUnit unit) {
+        if (compactor != null) {
+            return;
+        }
+        compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "activity-history-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+        compactor.scheduleWithFixedDelay(() -> compact(LocalDate.now()), interval, interval, unit);
+    }
+
+    /**
+     * Stops the background compaction
+     */
+    public synchronized void shutdown() {
+        if (compactor != null) {
+            compactor.shutdownNow();
+            compactor = null;
+        }
+    }
+
+    /**
+     * Drops raw activities older than the retention window
+     * Their totals stay in the daily rollups. Each product is locked only
+     * while its own activities are trimmed.
+     *
+     * @param today Date the retention window is counted back from
+     * @return Number of raw activities compacted away
+     */
+    public long compact(LocalDate today) {
+        LocalDate cutoff = today.minusDays(retentionDays);
+        long removed = 0;
+        for (ProductHistory history : histories.values()) {
+            synchronized (history) {
+                int before = history.raw.size();
+                history.raw.removeIf(activity -> activity.getActivityDate().isBefore(cutoff));
+                removed += before - history.raw.size();
+            }
+        }
+        compactedActivities.addAndGet(removed);
+        return removed;
+    }
+
+    // ---------------------------------------------------------------
+    // Queries
+    // ---------------------------------------------------------------
+
+    /**
+     * Returns a product's totals for each day of a period that had activity
+     *
+     * @param productId ID of the product
+     * @param from First day (inclusive)
+     * @param to Last day (inclusive)
+     * @return Daily totals in date order (empty if the product has no history)
+     */
+    public List<DailyRollup> getDailyTotals(String productId, LocalDate from, LocalDate to) {
+        List<DailyRollup> result = new ArrayList<>();
+        ProductHistory history = histories.get(productId);
+        if (history != null) {
+            synchronized (history) {
+                for (DailyRollup day : history.daily.subMap(from, true, to, true).values()) {
+                    result.add(day.copy());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a product's totals over a whole period
+     * Reads only the rollups, so it costs one step per day however many
+     * activities there were, and is unaffected by compaction.
+     *
+     * @param productId ID of the product
+     * @param from First day (inclusive)
+     * @param to Last day (inclusive)
+     * @return Totals, dated with the first day of the period
+     */
+    public DailyRollup getPeriodTotals(String productId, LocalDate from, LocalDate to) {
+        DailyRollup total = new DailyRollup(from);
+        ProductHistory history = histories.get(productId);
+        if (history != null) {
+            synchronized (history) {
+                for (DailyRollup day : history.daily.subMap(from, true, to, true).values()) {
+                    total.add(day);
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the whole catalog's totals for each day of a period
+     *
+     * @param from First day (inclusive)
+     * @param to Last day (inclusive)
+     * @return Daily totals over all products, in date order
+     */
+    public List<DailyRollup> getCatalogDailyTotals(LocalDate from, LocalDate to) {
+        TreeMap<LocalDate, DailyRollup> totals = new TreeMap<>();
+        for (ProductHistory history : histories.values()) {
+            synchronized (history) {
+                for (DailyRollup day : history.daily.subMap(from, true, to, true).values()) {
+                    totals.computeIfAbsent(day.getDate(), DailyRollup::new).add(day);
+                }
+            }
+        }
+        return new ArrayList<>(totals.values());
+    }
+
+    /**
+     * Returns a product's raw activities in a period, in the order they were accepted
+     * Only activities inside the retention window are still available; use
+     * the rollup queries for older periods.
+     *
+     * @param productId ID of the product
+     * @param from First day (inclusive)
+     * @param to Last day (inclusive)
+     * @return Raw activities still kept for the period
+     */
+    public List<Activity> getActivities(String productId, LocalDate from, LocalDate to) {
+        List<Activity> result = new ArrayList<>();
+        ProductHistory history = histories.get(productId);
+        if (history != null) {
+            synchronized (history) {
+                for (Activity activity : history.raw) {
+                    LocalDate date = activity.getActivityDate();
+                    if (!date.isBefore(from) && !date.isAfter(to)) {
+                        result.add(activity);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return Number of raw activities currently kept
+     */
+    public long getRawActivityCount() {
+        long count = 0;
+        for (ProductHistory history : histories.values()) {
+            synchronized (history) {
+                count += history.raw.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return Number of daily rollups kept (products x active days)
+     */
+    public long getRollupCount() {
+        long count = 0;
+        for (ProductHistory history : histories.values()) {
+            synchronized (history) {
+                count += history.daily.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return Number of raw activities compacted away so far
+     */
+    public long getCompactedActivityCount() {
+        return compactedActivities.get();
+    }
+
+    /**
+     * @return Number of activities skipped because they had no date
+     */
+    public long getUndatedActivityCount() {
+        return undatedActivities.get();
+    }
+
+    /**
+     * @return Number of days raw activities are kept
+     */
+    public int getRetentionDays() {
+        return retentionDays;
+    }
+}
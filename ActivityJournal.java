@@ -0,0 +1,660 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of every change made to a manager, kept in segment files
+ * Registered as a change listener, the journal writes one record per product
+ * creation, deletion and activity, in the order the manager applied them.
+ * Records are numbered with the journal's own sequence, which carries on
+ * across restarts (the manager's change sequence starts again at 1).
+ *
+ * Files: journal-<first sequence>.log in one directory. A segment is closed
+ * and a new one started once it reaches the segment size (64 MB by default),
+ * and every open starts a new segment, so closed segments never change and
+ * can be read (or memory-mapped, see ActivityLogAnalytics) while the
+ * journal keeps writing.
+ *
+ * Segment layout: magic, version, first sequence, then records of
+ * - length of the body (int) and CRC32C of the body (int)
+ * - body: type ('C', 'D' or 'A'), sequence (long), product ID (UTF), and for
+ *   'C' and 'A' the activity: kind (0 add, 1 remove, 2 other), quantity (int),
+ *   epoch day (long), activity ID (UTF), name (UTF, only for kind 2); 'C'
+ *   then adds the product name (UTF) and entry epoch day (long)
+ * The fixed-size fields come first so scans can read them without decoding
+ * the strings.
+ *
+ * Threads: the listener methods run on the manager's change path, so they
+ * only encode and number the record and hand it to the journal's writer
+ * thread through a bounded queue (64K records), waking it once per batch
+ * of records or for a flush, sync or close. The writer does all the
+ * file work: buffering, writing, rolling segments and forcing them. A
+ * record is never dropped for lack of room; if the disk falls a full queue
+ * behind, logging waits for it.
+ *
+ * Durability: the writer collects records in a buffer and writes it when it
+ * fills, on flush() and on close(); sync() also forces them to the disk.
+ * These wait for the writer to reach the last record logged before the
+ * call. A crash can lose what was not flushed; opening the journal again
+ * cuts off a record that was only partly written.
+ *
+ * Write errors cannot be thrown from the listener methods, so the first one
+ * is kept and reported as an ERROR event (to the manager's sink when the
+ * journal is attached): later records are dropped and flush, sync and close
+ * throw it.
+ *
+ * Closed segments whose records are all in a durable checkpoint are trimmed
+ * by BackgroundCheckpointer (see trimSegmentsThrough): moved into the
+ * archive/ subdirectory, where recovery no longer reads them but
+ * ActivityLogAnalytics still does, or deleted if the checkpointer is told to.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class ActivityJournal implements SupermarketChangeListener, AutoCloseable {
+
+    /** Segment size unless told otherwise */
+    public static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+
+    static final byte CREATED = 'C';
+    static final byte DELETED = 'D';
+    static final byte ACTIVITY = 'A';
+
+    static final byte KIND_ADD = 0;
+    static final byte KIND_REMOVE = 1;
+    static final byte KIND_OTHER = 2;
+
+    // Marker for a missing date
+    static final long NO_DATE = Long.MIN_VALUE;
+
+    // Segment header: magic, version, first sequence
+    static final int SEGMENT_HEADER_BYTES = 16;
+    // Record header: body length, CRC
+    static final int RECORD_HEADER_BYTES = 8;
+    // Body offsets of the fixed fields
+    static final int BODY_SEQUENCE = 1;
+    static final int BODY_PRODUCT_ID = 9;
+
+    private static final int MAGIC = 0x534D4A4C; // "SMJL"
+    private static final int VERSION = 1;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    static final String ARCHIVE_DIRECTORY = "archive";
+    private static final int BUFFER_BYTES = 64 * 1024;
+    // Records waiting for the writer thread, and most handled in one go
+    private static final int QUEUE_RECORDS = 64 * 1024;
+    private static final int MAX_BATCH = 1_024;
+    // Longest the writer sleeps before picking up a part batch
+    private static final long IDLE_NANOS = 50_000_000L;
+
+    private final Path directory;
+    private final long segmentBytes;
+
+    // Logging side, under the journal's lock: records are encoded and numbered here
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream(128);
+    private final DataOutputStream bodyOut = new DataOutputStream(body);
+    private final CRC32C crc = new CRC32C();
+    private volatile long lastSequence; // Read without the lock by checkpoints
+    private long recordsWritten;
+    private boolean closed;
+    private int unsignalled; // Entries queued since the writer was last woken
+
+    // Hand-off to the writer thread, which never takes the journal's lock
+    private final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_RECORDS);
+    private final Thread writer;
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+    private volatile EventSink eventSink = new ConsoleEventSink(EventSink.Level.INFO);
+
+    // Writer thread only
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private FileChannel segment;
+    private long segmentSize;
+    private long writtenSequence;
+
+    private ActivityJournal(Path directory, long segmentBytes, long lastSequence) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.lastSequence = lastSequence;
+        this.writtenSequence = lastSequence;
+        this.writer = new Thread(this::writeLoop, "activity-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Opens a journal directory with the default segment size
+     *
+     * @param directory Directory of the segments (created if missing)
+     * @return Journal, appending after the last complete record already there
+     * @throws IOException if the directory cannot be read or written
+     */
+    public static ActivityJournal open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * Opens a journal directory
+     * A record left partly written by a crash is cut off the last segment.
+     *
+     * @param directory Directory of the segments (created if missing)
+     * @param segmentBytes Size at which a segment is closed and a new one started
+     * @return Journal, appending after the last complete record already there
+     * @throws IOException if the directory cannot be read or written
+     * @throws IllegalArgumentException if segmentBytes is too small for a record or over 2 GB
+     */
+    public static ActivityJournal open(Path directory, long segmentBytes) throws IOException {
+        if (segmentBytes < 4096 || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size must be between 4 KB and 2 GB: " + segmentBytes);
+        }
+        Files.createDirectories(directory);
+        long lastSequence = 0;
+        List<Path> segments = segments(directory);
+        if (!segments.isEmpty()) {
+            lastSequence = repairLastSegment(segments.get(segments.size() - 1));
+        }
+        return new ActivityJournal(directory, segmentBytes, lastSequence);
+    }
+
+    /**
+     * Opens a journal and registers it with a manager, so every later change is logged
+     *
+     * @param manager Manager whose changes to log
+     * @param directory Directory of the segments
+     * @return Journal (close it after removing it from the manager)
+     * @throws IOException if the directory cannot be read or written
+     */
+    public static ActivityJournal attach(SupermarketManager manager, Path directory) throws IOException {
+        ActivityJournal journal = open(directory);
+        journal.setEventSink(manager.getEventSink());
+        manager.addChangeListener(journal);
+        return journal;
+    }
+
+    /**
+     * Lists a directory's segments in sequence order
+     *
+     * @param directory Journal directory
+     * @return Segment files, oldest first (empty if the directory does not exist)
+     * @throws IOException if the directory cannot be read
+     */
+    static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                segments.add(file);
+            }
+        }
+        Collections.sort(segments); // Fixed-width sequence numbers sort by name
+        return segments;
+    }
+
+    /**
+     * Lists the segments trimmed into a journal directory's archive
+     *
+     * @param directory Journal directory
+     * @return Archived segment files, oldest first (empty if there are none)
+     * @throws IOException if the archive cannot be read
+     */
+    static List<Path> archivedSegments(Path directory) throws IOException {
+        return segments(directory.resolve(ARCHIVE_DIRECTORY));
+    }
+
+    /**
+     * Trims closed segments holding only records up to a sequence
+     * The newest segment is always kept: the journal may still be writing to
+     * it, and its name carries the numbering on after a restart.
+     *
+     * @param directory Journal directory
+     * @param sequence Last sequence recovery no longer needs
+     * @param archive true to move the segments into archive/, false to delete them
+     * @return Number of segments trimmed
+     * @throws IOException if a segment cannot be moved or deleted
+     */
+    static int trimSegmentsThrough(Path directory, long sequence, boolean archive) throws IOException {
+        List<Path> segments = segments(directory);
+        Path archiveDirectory = directory.resolve(ARCHIVE_DIRECTORY);
+        int trimmed = 0;
+        // A segment ends where the next one starts; only a closed segment has a next one
+        for (int i = 0; i + 1 < segments.size() && firstSequence(segments.get(i + 1)) - 1 <= sequence; i++) {
+            Path segment = segments.get(i);
+            if (archive) {
+                Files.createDirectories(archiveDirectory);
+                Files.move(segment, archiveDirectory.resolve(segment.getFileName()), StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                Files.delete(segment);
+            }
+            trimmed++;
+        }
+        return trimmed;
+    }
+
+    /**
+     * @param segment Segment file
+     * @return Sequence of the segment's first record, from its name
+     */
+    static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Checks the record at a position of a segment
+     *
+     * @param segment Segment contents (e.g. memory-mapped), limited to the file size
+     * @param position Start of a record
+     * @param checksum CRC to compute with (reset here)
+     * @return Position of the next record, or -1 if there is no complete, intact record here
+     */
+    static int nextRecord(ByteBuffer segment, int position, CRC32C checksum) {
+        if (segment.limit() - position < RECORD_HEADER_BYTES) {
+            return -1;
+        }
+        int length = segment.getInt(position);
+        int bodyStart = position + RECORD_HEADER_BYTES;
+        if (length <= BODY_PRODUCT_ID || length > segment.limit() - bodyStart) {
+            return -1;
+        }
+        int limit = segment.limit();
+        checksum.reset();
+        segment.limit(bodyStart + length).position(bodyStart);
+        checksum.update(segment); // Moves the position to the limit
+        segment.limit(limit);
+        return (int) checksum.getValue() == segment.getInt(position + 4) ? bodyStart + length : -1;
+    }
+
+    /**
+     * Checks that a segment starts with a valid header
+     *
+     * @param segment Segment contents
+     * @return true if the magic and version match
+     */
+    static boolean hasValidHeader(ByteBuffer segment) {
+        return segment.limit() >= SEGMENT_HEADER_BYTES && segment.getInt(0) == MAGIC && segment.getInt(4) == VERSION;
+    }
+
+    // Cuts a torn record off the last segment and returns the last sequence written
+    // A segment left without any complete record is deleted (its name is reused)
+    private static long repairLastSegment(Path file) throws IOException {
+        long lastSequence = firstSequence(file) - 1;
+        int validBytes;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer contents = ByteBuffer.allocate((int) channel.size());
+            while (contents.hasRemaining() && channel.read(contents) >= 0) {
+                // Read the whole segment
+            }
+            contents.flip();
+            validBytes = 0;
+            if (hasValidHeader(contents)) {
+                CRC32C checksum = new CRC32C();
+                int position = SEGMENT_HEADER_BYTES;
+                int next;
+                while ((next = nextRecord(contents, position, checksum)) > 0) {
+                    lastSequence = contents.getLong(position + RECORD_HEADER_BYTES + BODY_SEQUENCE);
+                    position = next;
+                }
+                validBytes = position;
+            }
+            if (validBytes > SEGMENT_HEADER_BYTES && validBytes < contents.limit()) {
+                channel.truncate(validBytes);
+            }
+        }
+        if (validBytes <= SEGMENT_HEADER_BYTES) {
+            Files.delete(file);
+        }
+        return lastSequence;
+    }
+
+    // ---------------------------------------------------------------
+    // Logging changes (called by the manager, one change at a time)
+    // ---------------------------------------------------------------
+
+    @Override
+    public synchronized void productCreated(long sequence, Product product, Activity initialActivity) {
+        try {
+            startRecord(CREATED, product.getProductID());
+            writeActivity(initialActivity);
+            bodyOut.writeUTF(String.valueOf(product.getProductName()));
+            bodyOut.writeLong(dayOf(product.getProductEntryDate()));
+            append();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public synchronized void productDeleted(long sequence, String productId) {
+        try {
+            startRecord(DELETED, productId);
+            append();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public synchronized void activityApplied(long sequence, String productId, Activity activity) {
+        try {
+            startRecord(ACTIVITY, productId);
+            writeActivity(activity);
+            append();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void startRecord(byte type, String productId) throws IOException {
+        body.reset();
+        bodyOut.writeByte(type);
+        bodyOut.writeLong(lastSequence + 1);
+        bodyOut.writeUTF(productId);
+    }
+
+    private void writeActivity(Activity activity) throws IOException {
+        String name = activity.getActivityName();
+        byte kind = "AddToStock".equals(name) ? KIND_ADD : "RemoveFromStock".equals(name) ? KIND_REMOVE : KIND_OTHER;
+        bodyOut.writeByte(kind);
+        bodyOut.writeInt(activity.getActivityProductQuantity());
+        bodyOut.writeLong(dayOf(activity.getActivityDate()));
+        bodyOut.writeUTF(String.valueOf(activity.getActivityID()));
+        if (kind == KIND_OTHER) {
+            bodyOut.writeUTF(String.valueOf(name));
+        }
+    }
+
+    private static long dayOf(LocalDate date) {
+        return date == null ? NO_DATE : date.toEpochDay();
+    }
+
+    // Numbers the record in body and hands it, header included, to the writer thread
+    private void append() {
+        if (closed || failure.get() != null) {
+            return;
+        }
+        byte[] bytes = body.toByteArray();
+        crc.reset();
+        crc.update(bytes);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + bytes.length);
+        record.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes);
+        enqueue(new Entry(record.array(), false, false));
+        lastSequence++;
+        recordsWritten++;
+    }
+
+    // Queues an entry, waiting for room if the writer is a full queue behind
+    // The writer is woken for a request or a batch's worth of records, not for each one
+    // Records are never dropped, so an interrupt is kept for later rather than obeyed
+    private void enqueue(Entry entry) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(entry);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (entry.record == null || ++unsignalled >= MAX_BATCH) {
+            unsignalled = 0;
+            LockSupport.unpark(writer);
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Keeps the first failure and reports it; later records are dropped
+    private void fail(IOException e) {
+        if (failure.compareAndSet(null, e)) {
+            EventSink sink = eventSink;
+            if (sink.isEnabled(EventSink.Level.ERROR)) {
+                sink.emit(new SupermarketEvent(EventSink.Level.ERROR, SupermarketEvent.Operation.JOURNAL, null,
+                        null, null, null, 0, 0,
+                        "Journal write failed in " + directory + ", changes are no longer logged: " + e));
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Writer thread (the only one touching the segment files)
+    // ---------------------------------------------------------------
+
+    // A record to write, or a request to write out what came before it
+    private static final class Entry {
+        private final byte[] record;
+        private final boolean force;
+        private final boolean close;
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        Entry(byte[] record, boolean force, boolean close) {
+            this.record = record;
+            this.force = force;
+            this.close = close;
+        }
+    }
+
+    // Handles whatever has been queued as one batch, sleeping while there is nothing
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            queue.drainTo(batch, MAX_BATCH);
+            if (batch.isEmpty()) {
+                Thread.interrupted(); // Only close() stops the writer
+                LockSupport.parkNanos(IDLE_NANOS);
+                continue;
+            }
+            for (Entry entry : batch) {
+                if (entry.record != null) {
+                    write(entry.record);
+                } else {
+                    carryOut(entry);
+                    if (entry.close) {
+                        return;
+                    }
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    // Adds a record to the buffer, rolling the segment when it is full
+    private void write(byte[] record) {
+        if (failure.get() != null) {
+            return;
+        }
+        try {
+            if (segment == null || segmentSize + buffer.position() + record.length > segmentBytes) {
+                roll();
+            }
+            if (buffer.remaining() < record.length) {
+                writeBuffer();
+            }
+            if (record.length > buffer.capacity()) {
+                writeFully(ByteBuffer.wrap(record));
+            } else {
+                buffer.put(record);
+            }
+            writtenSequence++;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    // Writes out (and for sync forces) every record queued before the request, then releases its caller
+    private void carryOut(Entry request) {
+        try {
+            if (failure.get() == null) {
+                writeBuffer();
+                if (request.force && segment != null) {
+                    segment.force(false);
+                }
+            }
+            if (request.close && segment != null) {
+                segment.close();
+            }
+        } catch (IOException e) {
+            fail(e);
+        } finally {
+            request.done.countDown();
+        }
+    }
+
+    // Closes the current segment and starts the next one
+    private void roll() throws IOException {
+        if (segment != null) {
+            writeBuffer();
+            segment.force(false); // A sync queued later covers only the newest segment
+            segment.close();
+        }
+        Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, writtenSequence + 1, SEGMENT_SUFFIX));
+        segment = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentSize = 0;
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putLong(writtenSequence + 1).flip();
+        writeFully(header);
+    }
+
+    private void writeBuffer() throws IOException {
+        if (buffer.position() > 0 && segment != null) {
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+        }
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            segmentSize += segment.write(bytes);
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Flushing and closing
+    // ---------------------------------------------------------------
+
+    /**
+     * Writes every record logged so far to the segment file (they survive a process crash)
+     * Waits for the writer thread to get there.
+     *
+     * @throws IOException if this or an earlier write failed
+     */
+    public void flush() throws IOException {
+        waitFor(new Entry(null, false, false));
+    }
+
+    /**
+     * Writes every record logged so far and forces them to the disk (they survive a power loss)
+     * The writer thread forces the file; changes keep being logged, and the
+     * manager keeps applying them, while the caller waits for the disk.
+     *
+     * @throws IOException if this or an earlier write failed
+     */
+    public void sync() throws IOException {
+        waitFor(new Entry(null, true, false));
+    }
+
+    // Queues a request behind every record logged so far and waits until the writer has carried it out
+    private void waitFor(Entry request) throws IOException {
+        boolean queued;
+        synchronized (this) {
+            queued = !closed;
+            if (queued) {
+                enqueue(request);
+            }
+        }
+        if (queued) {
+            try {
+                request.done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for the journal writer");
+            }
+        }
+        IOException failed = failure.get();
+        if (failed != null) {
+            throw failed;
+        }
+    }
+
+    /**
+     * Chooses where a write failure is reported
+     * attach() uses the manager's sink; otherwise failures go to the console.
+     *
+     * @param eventSink Sink for the first write failure (must not be null)
+     */
+    public void setEventSink(EventSink eventSink) {
+        this.eventSink = Objects.requireNonNull(eventSink, "eventSink");
+    }
+
+    /**
+     * @return Directory of the segments
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return Sequence of the last record logged (0 if the journal is empty)
+     */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * @return Number of records logged since the journal was opened
+     */
+    public synchronized long getRecordsWritten() {
+        return recordsWritten;
+    }
+
+    /**
+     * Writes the records logged so far, closes the current segment and stops the writer thread
+     * Remove the journal from its manager first; later changes are not logged.
+     *
+     * @throws IOException if writing failed
+     */
+    @Override
+    public void close() throws IOException {
+        Entry request = new Entry(null, false, true);
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            enqueue(request);
+        }
+        try {
+            request.done.await();
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // The writer still closes the segment
+        }
+        IOException failed = failure.get();
+        if (failed != null) {
+            throw failed;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers recently applied activity keys so retried deliveries are ignored
+ * Tills deliver stock movements at-least-once; each movement carries a key
+ * chosen by the till, and a key that was already applied must not change the
+ * stock again.
+ *
+ * Structure (per segment, one of SEGMENTS chosen by the key's hash):
+ * - two generations, "current" and "previous", each covering half the window
+ * - every generation has a Bloom filter in front of an exact set of 64-bit key
+ *   fingerprints; a new key (the normal case) is answered by the small Bloom
+ *   filter without touching the large exact set
+ * - when a generation is older than half the window it becomes "previous" and
+ *   the old "previous" is dropped, so keys are remembered for at least half the
+ *   window and at most the whole window
+ *
+ * Memory is bounded: a generation holds at most about maxKeys keys, so at
+ * most about 2 * maxKeys are remembered. If keys arrive faster than that the
+ * generation rotates early, shortening the window instead of growing. Each key costs 10-20 Bloom bits plus 16-32 bytes of
+ * exact set (kept at most half full), and exact sets start small and grow
+ * with the keys actually seen.
+ *
+ * Fingerprints are 64-bit hashes, so two different keys are only confused
+ * with a chance of about n^2 / 2^65 (about one in two million for 4 million
+ * keys).
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public final class ActivityKeyFilter {
+
+    // Number of independently locked segments (power of two)
+    private static final int SEGMENTS = 64;
+
+    // Bloom filter bits per expected key and number of bits tested per key
+    private static final int BLOOM_BITS_PER_KEY = 10;
+    private static final int BLOOM_PROBES = 4;
+
+    // Smallest exact-set table; tables start small and double as keys arrive
+    private static final int MIN_TABLE_SIZE = 16;
+
+    private final Segment[] segments;
+    private final long generationNanos;
+    private final int bloomWords; // Per generation and segment
+    private final int keysPerGeneration; // Per segment
+    private final LongSupplier clock;
+
+    /**
+     * Creates a filter
+     *
+     * @param window How long a key is remembered (at least half of this, at most all of it)
+     * @param maxKeys Largest number of keys expected within one window
+     */
+    public ActivityKeyFilter(Duration window, int maxKeys) {
+        this(window, maxKeys, System::nanoTime);
+    }
+
+    /**
+     * Creates a filter with its own clock (for tests)
+     *
+     * @param window How long a key is remembered
+     * @param maxKeys Largest number of keys expected within one window
+     * @param clock Source of the time in nanoseconds
+     */
+    ActivityKeyFilter(Duration window, int maxKeys, LongSupplier clock) {
+        if (window.isZero() || window.isNegative() || maxKeys <= 0) {
+            throw new IllegalArgumentException("window and maxKeys must be positive");
+        }
+        this.generationNanos = Math.max(1, window.toNanos() / 2);
+        // A whole window's keys fit in one generation, with slack for uneven segments
+        this.keysPerGeneration = maxKeys / SEGMENTS + maxKeys / SEGMENTS / 8 + 64;
+        this.bloomWords = Integer.highestOneBit(Math.max(64, keysPerGeneration * BLOOM_BITS_PER_KEY - 1)) >>> 5;
+        this.clock = clock;
+        this.segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Tells whether a key was recorded within the window
+     *
+     * @param activityKey Key of the movement
+     * @return true if the key was seen before (the movement is a repeat)
+     */
+    public boolean contains(String activityKey) {
+        long fingerprint = fingerprint(activityKey);
+        Segment segment = segmentFor(fingerprint);
+        synchronized (segment) {
+            segment.rotate(clock.getAsLong());
+            return segment.current.contains(fingerprint) || segment.previous.contains(fingerprint);
+        }
+    }
+
+    /**
+     * Records a key as applied
+     *
+     * @param activityKey Key of the movement
+     * @return true if the key was new, false if it was already recorded
+     */
+    public boolean add(String activityKey) {
+        long fingerprint = fingerprint(activityKey);
+        Segment segment = segmentFor(fingerprint);
+        synchronized (segment) {
+            segment.rotate(clock.getAsLong());
+            if (segment.current.contains(fingerprint) || segment.previous.contains(fingerprint)) {
+                return false;
+            }
+            segment.current.add(fingerprint);
+            return true;
+        }
+    }
+
+    /**
+     * @return Number of keys currently remembered
+     */
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.current.size + segment.previous.size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return Approximate bytes used by the Bloom filters and exact sets
+     */
+    public long getMemoryBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                bytes += segment.current.memoryBytes() + segment.previous.memoryBytes();
+            }
+        }
+        return bytes;
+    }
+
+    // Segment from the top bits; the lower bits feed the Bloom filter and exact set
+    private Segment segmentFor(long fingerprint) {
+        return segments[(int) (fingerprint >>> 58) & (SEGMENTS - 1)];
+    }
+
+    // 64-bit FNV-1a over the key's characters, finished with the MurmurHash3 mixer
+    // 0 is reserved for empty exact-set slots
+    static long fingerprint(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+
+    /**
+     * One segment: two generations plus the time the current one started
+     * Guarded by its own monitor.
+     */
+    private final class Segment {
+        Generation current = new Generation(bloomWords);
+        Generation previous = Generation.EMPTY;
+        long currentStart = clock.getAsLong();
+
+        // Starts a new generation when the current one is too old or full
+        void rotate(long now) {
+            long age = now - currentStart;
+            if (age < generationNanos && current.size < keysPerGeneration) {
+                return;
+            }
+            // Nothing recorded for a whole window: the previous generation has expired too
+            previous = age >= 2 * generationNanos ? Generation.EMPTY : current;
+            current = new Generation(bloomWords);
+            currentStart = now;
+        }
+    }
+
+    /**
+     * Keys recorded during one half window: a Bloom filter and an exact
+     * open-addressing set of fingerprints (linear probing)
+     */
+    private static final class Generation {
+        // Shared stand-in for "no previous generation"; never added to
+        static final Generation EMPTY = new Generation(1);
+
+        final long[] bloom;
+        long[] table;
+        int size;
+
+        Generation(int bloomWords) {
+            this.bloom = new long[bloomWords];
+            this.table = new long[MIN_TABLE_SIZE];
+        }
+
+        boolean contains(long fingerprint) {
+            if (!mightContain(fingerprint)) {
+                return false; // Fast path: definitely never recorded
+            }
+            int mask = table.length - 1;
+            for (int slot = (int) (fingerprint >>> 32) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+                if (table[slot] == fingerprint) {
+                    return true;
+                }
+            }
+            return false; // Bloom false positive
+        }
+
+        void add(long fingerprint) {
+            int h1 = (int) fingerprint;
+            int h2 = (int) (fingerprint >>> 32) | 1;
+            int mask = (bloom.length << 6) - 1;
+            for (int i = 0; i < BLOOM_PROBES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                bloom[bit >>> 6] |= 1L << bit;
+            }
+            if ((size + 1) * 2 > table.length) {
+                grow();
+            }
+            insert(table, fingerprint);
+            size++;
+        }
+
+        private boolean mightContain(long fingerprint) {
+            int h1 = (int) fingerprint;
+            int h2 = (int) (fingerprint >>> 32) | 1;
+            int mask = (bloom.length << 6) - 1;
+            for (int i = 0; i < BLOOM_PROBES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                if ((bloom[bit >>> 6] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Doubles the exact set, keeping it at most half full
+        private void grow() {
+            long[] bigger = new long[table.length * 2];
+            for (long fingerprint : table) {
+                if (fingerprint != 0) {
+                    insert(bigger, fingerprint);
+                }
+            }
+            table = bigger;
+        }
+
+        private long memoryBytes() {
+            return 8L * (bloom.length + table.length);
+        }
+    }
+
+    private static void insert(long[] table, long fingerprint) {
+        int mask = table.length - 1;
+        int slot = (int) (fingerprint >>> 32) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = fingerprint;
+    }
+}
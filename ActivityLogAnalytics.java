@@ -0,0 +1,388 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Read-only analytics over the activity journal (see ActivityJournal)
+ * Month-end questions - units moved per product, per day and per activity
+ * type - are answered from the journal itself instead of loading history
+ * into Activity objects:
+ * - every segment is memory-mapped and its records are read in place: the
+ *   kind, quantity and date are fixed-size fields, and the product ID is
+ *   hashed and compared as bytes, so no object is created per record
+ * - segments are scanned in parallel, each into its own tables, and the
+ *   tables are merged at the end (a product ID string is made once per
+ *   product per segment)
+ * - each record's checksum is verified; a segment's scan stops at a record
+ *   that is incomplete (still being written) or damaged
+ * - segments that BackgroundCheckpointer has trimmed into the journal's
+ *   archive/ are read too, so checkpoints do not shorten the history; a
+ *   segment trimmed while the scan runs is read from the archive, and one
+ *   deleted meanwhile (see BackgroundCheckpointer.setArchiveSegments) is
+ *   skipped and counted in ActivityLogReport.getMissingSegmentCount
+ *
+ * Example:
+ *   ActivityLogReport march = ActivityLogAnalytics.scan(journalDirectory,
+ *           LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31));
+ *   march.getProductTotals().get("P001").getUnitsRemoved();
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public final class ActivityLogAnalytics {
+
+    // Widest range of days a segment totals in a dense array (about 11 years, 128 KB)
+    // Days beyond it, such as a mistyped year, go to a map instead
+    private static final int MAX_DENSE_DAYS = 4096;
+
+    /**
+     * Private constructor - static helpers only
+     */
+    private ActivityLogAnalytics() {
+    }
+
+    /**
+     * Totals every activity in the journal
+     *
+     * @param directory Journal directory
+     * @return Totals per product and per day
+     * @throws IOException if a segment cannot be read
+     */
+    public static ActivityLogReport scan(Path directory) throws IOException {
+        return scan(directory, null, null);
+    }
+
+    /**
+     * Totals the activities dated within a range
+     *
+     * @param directory Journal directory
+     * @param from First activity date included (null for no lower bound)
+     * @param to Last activity date included (null for no upper bound)
+     * @return Totals per product and per day; with a bound, activities without a date are left out
+     * @throws IOException if a segment cannot be read
+     */
+    public static ActivityLogReport scan(Path directory, LocalDate from, LocalDate to) throws IOException {
+        long start = System.nanoTime();
+        List<Path> segments = segmentsToScan(directory);
+        Path archive = directory.resolve(ActivityJournal.ARCHIVE_DIRECTORY);
+        boolean bounded = from != null || to != null;
+        long fromDay = from == null ? Long.MIN_VALUE + 1 : from.toEpochDay(); // NO_DATE stays below
+        long toDay = to == null ? Long.MAX_VALUE : to.toEpochDay();
+
+        List<SegmentScan> scans;
+        try {
+            scans = segments.parallelStream()
+                    .map(segment -> scanSegment(segment, archive, bounded, fromDay, toDay))
+                    .toList();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        ActivityLogReport report = new ActivityLogReport();
+        for (SegmentScan scan : scans) {
+            if (scan == null) {
+                report.segmentMissing();
+            } else {
+                scan.addTo(report);
+            }
+        }
+        report.setElapsedMillis((System.nanoTime() - start) / 1e6);
+        return report;
+    }
+
+    // Live and archived segments, oldest first
+    // The live ones are listed first: a segment archived between the two
+    // listings is then in the second, and one listed twice is read once
+    private static List<Path> segmentsToScan(Path directory) throws IOException {
+        Map<Path, Path> byName = new TreeMap<>(); // Fixed-width sequence numbers sort by name
+        for (Path segment : ActivityJournal.segments(directory)) {
+            byName.put(segment.getFileName(), segment);
+        }
+        for (Path segment : ActivityJournal.archivedSegments(directory)) {
+            byName.put(segment.getFileName(), segment);
+        }
+        return new ArrayList<>(byName.values());
+    }
+
+    // Scans a segment where it was listed, or in the archive if it was trimmed
+    // since; null if it was deleted
+    private static SegmentScan scanSegment(Path segment, Path archive, boolean bounded, long fromDay, long toDay) {
+        try {
+            return scanFile(segment, bounded, fromDay, toDay);
+        } catch (NoSuchFileException e) {
+            Path archived = archive.resolve(segment.getFileName());
+            if (!archived.equals(segment)) {
+                try {
+                    return scanFile(archived, bounded, fromDay, toDay);
+                } catch (NoSuchFileException gone) {
+                    // Deleted, not archived
+                } catch (IOException failure) {
+                    throw new UncheckedIOException(failure);
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Maps one segment and totals its records
+    private static SegmentScan scanFile(Path segment, boolean bounded, long fromDay, long toDay) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            SegmentScan scan = new SegmentScan(bytes);
+            if (ActivityJournal.hasValidHeader(bytes)) {
+                scan.run(bounded, fromDay, toDay);
+            }
+            return scan;
+        }
+    }
+
+    // Totals of one segment, keyed by product ID bytes and by day
+    private static final class SegmentScan {
+        private final MappedByteBuffer bytes;
+        private final CRC32C checksum = new CRC32C();
+        private long records;
+        private int validBytes;
+
+        // Products: open addressing from hash to entry number (-1 = empty)
+        // Keys are copied into a small arena of 8-byte words: comparing against the
+        // first occurrence in the mapping would touch a far-away page for almost
+        // every record, and whole words take an eighth of the reads
+        private int[] slots = new int[1024];
+        private int products;
+        private int[] keyHash = new int[512];
+        private int[] keyOffset = new int[512];
+        private int[] keyLength = new int[512];
+        private long[] keyWords = new long[512 * 2];
+        private int keyWordsUsed;
+        private long[] productTotals = new long[512 * 4]; // added, removed, other, activities
+
+        // Days: totals indexed from firstDay, and days outside that range by epoch day
+        private long firstDay;
+        private long[] dayTotals = new long[0];
+        private Map<Long, long[]> sparseDays; // Created on first use
+
+        SegmentScan(MappedByteBuffer bytes) {
+            this.bytes = bytes;
+            Arrays.fill(slots, -1);
+        }
+
+        void run(boolean bounded, long fromDay, long toDay) {
+            int position = ActivityJournal.SEGMENT_HEADER_BYTES;
+            int next;
+            while ((next = ActivityJournal.nextRecord(bytes, position, checksum)) > 0) {
+                records++;
+                int body = position + ActivityJournal.RECORD_HEADER_BYTES;
+                byte type = bytes.get(body);
+                if (type == ActivityJournal.CREATED || type == ActivityJournal.ACTIVITY) {
+                    int idLength = bytes.getShort(body + ActivityJournal.BODY_PRODUCT_ID) & 0xFFFF;
+                    int idStart = body + ActivityJournal.BODY_PRODUCT_ID + 2;
+                    int fields = idStart + idLength;
+                    int kind = bytes.get(fields);
+                    int quantity = bytes.getInt(fields + 1);
+                    long day = bytes.getLong(fields + 5);
+                    boolean dated = day != ActivityJournal.NO_DATE;
+                    if (!bounded || (dated && day >= fromDay && day <= toDay)) {
+                        // Look up first: adding a product or day may replace the totals array
+                        int entry = product(idStart, idLength);
+                        add(productTotals, 4 * entry, kind, quantity);
+                        if (dated) {
+                            int index = dayIndex(day);
+                            if (index >= 0) {
+                                add(dayTotals, 4 * index, kind, quantity);
+                            } else {
+                                add(sparseDay(day), 0, kind, quantity);
+                            }
+                        }
+                    }
+                }
+                position = next;
+            }
+            validBytes = position;
+        }
+
+        private static void add(long[] totals, int at, int kind, int quantity) {
+            totals[at + Math.min(kind, ActivityJournal.KIND_OTHER)] += quantity;
+            totals[at + 3]++;
+        }
+
+        // Entry number of a product ID (given as bytes in the segment), added if new
+        private int product(int start, int length) {
+            long mixed = length;
+            for (int i = 0; i < length; i += 8) {
+                // Multiplying spreads IDs that differ only in a few bits (e.g. digits) over the table
+                mixed = (mixed + word(start + i, length - i)) * 0x9E3779B97F4A7C15L;
+            }
+            int hash = (int) (mixed >>> 32);
+            int mask = slots.length - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int entry = slots[slot];
+                if (entry < 0) {
+                    return addProduct(slot, hash, start, length);
+                }
+                if (keyHash[entry] == hash && sameKey(entry, start, length)) {
+                    return entry;
+                }
+            }
+        }
+
+        // Eight bytes of the segment as a word; past the end of the key, the missing bytes are 0
+        private long word(int position, int remaining) {
+            if (remaining >= 8) {
+                return bytes.getLong(position);
+            }
+            long word = 0;
+            for (int i = 0; i < remaining; i++) {
+                word |= (bytes.get(position + i) & 0xFFL) << (56 - 8 * i);
+            }
+            return word;
+        }
+
+        private boolean sameKey(int entry, int start, int length) {
+            if (keyLength[entry] != length) {
+                return false;
+            }
+            int offset = keyOffset[entry];
+            for (int i = 0; i < length; i += 8) {
+                if (word(start + i, length - i) != keyWords[offset++]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int addProduct(int slot, int hash, int start, int length) {
+            int entry = products++;
+            if (entry == keyOffset.length) {
+                keyHash = Arrays.copyOf(keyHash, entry * 2);
+                keyOffset = Arrays.copyOf(keyOffset, entry * 2);
+                keyLength = Arrays.copyOf(keyLength, entry * 2);
+                productTotals = Arrays.copyOf(productTotals, entry * 2 * 4);
+            }
+            int words = (length + 7) / 8;
+            if (keyWordsUsed + words > keyWords.length) {
+                keyWords = Arrays.copyOf(keyWords, Math.max(keyWords.length * 2, keyWordsUsed + words));
+            }
+            keyHash[entry] = hash;
+            keyOffset[entry] = keyWordsUsed;
+            keyLength[entry] = length;
+            for (int i = 0; i < length; i += 8) {
+                keyWords[keyWordsUsed++] = word(start + i, length - i);
+            }
+            slots[slot] = entry;
+            if (products * 2 > slots.length) {
+                rehash();
+            }
+            return entry;
+        }
+
+        // Doubles the slot table (kept at most half full)
+        private void rehash() {
+            slots = new int[slots.length * 2];
+            Arrays.fill(slots, -1);
+            int mask = slots.length - 1;
+            for (int entry = 0; entry < products; entry++) {
+                int slot = keyHash[entry] & mask;
+                while (slots[slot] >= 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = entry;
+            }
+        }
+
+        // Decodes a product ID from the key arena (modified UTF-8, as writeUTF wrote it)
+        private String readUTF(int offset, int length) {
+            byte[] utf = new byte[length + 2];
+            utf[0] = (byte) (length >>> 8);
+            utf[1] = (byte) length;
+            for (int i = 0; i < length; i++) {
+                utf[2 + i] = (byte) (keyWords[offset + i / 8] >>> (56 - 8 * (i % 8)));
+            }
+            try {
+                return new DataInputStream(new ByteArrayInputStream(utf)).readUTF();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // Checked by the record CRC, so cannot happen
+            }
+        }
+
+        // Position of a day in dayTotals, growing the range if needed
+        // Returns -1 if the range would grow past MAX_DENSE_DAYS (see sparseDay)
+        private int dayIndex(long day) {
+            int days = dayTotals.length / 4;
+            if (days == 0) {
+                firstDay = day;
+                dayTotals = new long[4 * 32];
+                return 0;
+            }
+            if (day < firstDay) {
+                long needed = firstDay - day;
+                if (days + needed > MAX_DENSE_DAYS) {
+                    return -1;
+                }
+                int extra = (int) Math.min(Math.max(needed, days), MAX_DENSE_DAYS - days);
+                long[] grown = new long[(days + extra) * 4];
+                System.arraycopy(dayTotals, 0, grown, extra * 4, dayTotals.length);
+                dayTotals = grown;
+                firstDay -= extra;
+            } else if (day - firstDay >= days) {
+                long needed = day - firstDay + 1;
+                if (needed > MAX_DENSE_DAYS) {
+                    return -1;
+                }
+                dayTotals = Arrays.copyOf(dayTotals, (int) Math.min(Math.max(needed, days * 2L), MAX_DENSE_DAYS) * 4);
+            }
+            return (int) (day - firstDay);
+        }
+
+        // Totals of a day outside the dense range
+        private long[] sparseDay(long day) {
+            if (sparseDays == null) {
+                sparseDays = new HashMap<>();
+            }
+            return sparseDays.computeIfAbsent(day, d -> new long[4]);
+        }
+
+        // Merges this segment's tables into the report (run on one thread)
+        void addTo(ActivityLogReport report) {
+            report.segmentScanned(records, validBytes);
+            ActivityLogReport.Totals overall = report.overall();
+            for (int entry = 0; entry < products; entry++) {
+                String productId = readUTF(keyOffset[entry], keyLength[entry]);
+                int at = entry * 4;
+                report.product(productId).add(productTotals[at], productTotals[at + 1], productTotals[at + 2],
+                        productTotals[at + 3]);
+                overall.add(productTotals[at], productTotals[at + 1], productTotals[at + 2], productTotals[at + 3]);
+            }
+            for (int index = 0; index < dayTotals.length / 4; index++) {
+                int at = index * 4;
+                if (dayTotals[at + 3] > 0) {
+                    report.day(LocalDate.ofEpochDay(firstDay + index)).add(dayTotals[at], dayTotals[at + 1],
+                            dayTotals[at + 2], dayTotals[at + 3]);
+                }
+            }
+            if (sparseDays != null) {
+                for (Map.Entry<Long, long[]> day : sparseDays.entrySet()) {
+                    long[] totals = day.getValue();
+                    report.day(LocalDate.ofEpochDay(day.getKey())).add(totals[0], totals[1], totals[2], totals[3]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Units moved according to the activity journal, per product and per day
+ * Produced by ActivityLogAnalytics. Creations count as AddToStock (their
+ * initial stock); deletions only count as records scanned.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class ActivityLogReport {
+
+    /**
+     * Units moved by each activity type, and the number of activities
+     */
+    public static class Totals {
+        private long unitsAdded;
+        private long unitsRemoved;
+        private long otherUnits;
+        private long activities;
+
+        // Counts one activity of a journal kind
+        void add(int kind, long units) {
+            if (kind == ActivityJournal.KIND_ADD) {
+                unitsAdded += units;
+            } else if (kind == ActivityJournal.KIND_REMOVE) {
+                unitsRemoved += units;
+            } else {
+                otherUnits += units;
+            }
+            activities++;
+        }
+
+        // Adds totals counted elsewhere
+        void add(long added, long removed, long other, long count) {
+            unitsAdded += added;
+            unitsRemoved += removed;
+            otherUnits += other;
+            activities += count;
+        }
+
+        /**
+         * @return Units added with AddToStock (including initial stock)
+         */
+        public long getUnitsAdded() {
+            return unitsAdded;
+        }
+
+        /**
+         * @return Units removed with RemoveFromStock
+         */
+        public long getUnitsRemoved() {
+            return unitsRemoved;
+        }
+
+        /**
+         * @return Units of any other activity type
+         */
+        public long getOtherUnits() {
+            return otherUnits;
+        }
+
+        /**
+         * @return Units added minus units removed
+         */
+        public long getNetUnits() {
+            return unitsAdded - unitsRemoved;
+        }
+
+        /**
+         * @return Number of activities counted
+         */
+        public long getActivities() {
+            return activities;
+        }
+
+        @Override
+        public String toString() {
+            return "added=" + unitsAdded + " removed=" + unitsRemoved
+                    + (otherUnits == 0 ? "" : " other=" + otherUnits) + " activities=" + activities;
+        }
+    }
+
+    private final Map<String, Totals> byProduct = new HashMap<>();
+    private final SortedMap<LocalDate, Totals> byDay = new TreeMap<>();
+    private final Totals overall = new Totals();
+    private int segments;
+    private int missingSegments;
+    private long records;
+    private long bytesScanned;
+    private double elapsedMillis;
+
+    // Totals of a product, created on first use
+    Totals product(String productId) {
+        return byProduct.computeIfAbsent(productId, id -> new Totals());
+    }
+
+    // Totals of a day, created on first use
+    Totals day(LocalDate date) {
+        return byDay.computeIfAbsent(date, d -> new Totals());
+    }
+
+    // Totals over everything
+    Totals overall() {
+        return overall;
+    }
+
+    // Counts one scanned segment
+    void segmentScanned(long segmentRecords, long segmentBytes) {
+        segments++;
+        records += segmentRecords;
+        bytesScanned += segmentBytes;
+    }
+
+    // Counts a segment deleted before it could be read
+    void segmentMissing() {
+        missingSegments++;
+    }
+
+    void setElapsedMillis(double elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * @return Totals per product ID
+     */
+    public Map<String, Totals> getProductTotals() {
+        return Collections.unmodifiableMap(byProduct);
+    }
+
+    /**
+     * @return Totals per activity date, oldest first (activities without a date are left out)
+     */
+    public SortedMap<LocalDate, Totals> getDailyTotals() {
+        return Collections.unmodifiableSortedMap(byDay);
+    }
+
+    /**
+     * @return Totals over all products and days
+     */
+    public Totals getTotals() {
+        return overall;
+    }
+
+    /**
+     * @return Number of journal segments scanned
+     */
+    public int getSegmentCount() {
+        return segments;
+    }
+
+    /**
+     * @return Number of journal segments deleted while the scan ran; their
+     *         activities are not in the totals
+     */
+    public int getMissingSegmentCount() {
+        return missingSegments;
+    }
+
+    /**
+     * @return Number of journal records read (of every type, in or out of the date range)
+     */
+    public long getRecordCount() {
+        return records;
+    }
+
+    /**
+     * @return Bytes of journal read
+     */
+    public long getBytesScanned() {
+        return bytesScanned;
+    }
+
+    /**
+     * @return Time the scan took, in milliseconds
+     */
+    public double getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return Scan speed in megabytes per second
+     */
+    public double getMegabytesPerSecond() {
+        return elapsedMillis <= 0 ? 0 : bytesScanned / (1024.0 * 1024.0) / (elapsedMillis / 1000.0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d products, %d days: %s (%d records, %,d bytes in %d segments, %.1f ms, %.0f MB/s)",
+                byProduct.size(), byDay.size(), overall, records, bytesScanned, segments,
+                elapsedMillis, getMegabytesPerSecond());
+    }
+}
@@ -0,0 +1,128 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous, batched event sink
+ * Operations only drop their event into a bounded queue; a background thread
+ * takes whatever has accumulated, formats the whole batch and writes it with
+ * a single print call. Checkout threads therefore never format text or wait
+ * on the console lock.
+ *
+ * If the queue is full (the console cannot keep up), new events are dropped
+ * and counted rather than slowing the caller down.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class AsyncEventSink implements EventSink, AutoCloseable {
+
+    // Largest number of events written in one batch
+    private static final int MAX_BATCH = 1_024;
+
+    private final PrintStream out;
+    private final Level minimumLevel;
+    private final BlockingQueue<SupermarketEvent> queue;
+    private final Thread writer;
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final AtomicLong writtenEvents = new AtomicLong();
+    private volatile boolean running = true;
+
+    /**
+     * Creates and starts an asynchronous sink
+     *
+     * @param out Stream batches are written to
+     * @param minimumLevel Lowest level that is kept
+     * @param capacity Maximum number of events waiting to be written
+     */
+    public AsyncEventSink(PrintStream out, Level minimumLevel, int capacity) {
+        this.out = out;
+        this.minimumLevel = minimumLevel;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::writeLoop, "async-event-sink");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public boolean isEnabled(Level level) {
+        return running && level.compareTo(minimumLevel) >= 0;
+    }
+
+    @Override
+    public void emit(SupermarketEvent event) {
+        if (!queue.offer(event)) {
+            droppedEvents.incrementAndGet(); // Never block the caller
+        }
+    }
+
+    /**
+     * @return Number of events dropped because the queue was full
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * @return Number of events written so far
+     */
+    public long getWrittenEvents() {
+        return writtenEvents.get();
+    }
+
+    /**
+     * @return Number of events waiting to be written
+     */
+    public int getQueuedEvents() {
+        return queue.size();
+    }
+
+    /**
+     * Stops accepting events and waits until the queued ones are written
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Background thread: waits for the first event, then drains the rest as one batch
+    private void writeLoop() {
+        List<SupermarketEvent> batch = new ArrayList<>(MAX_BATCH);
+        StringBuilder text = new StringBuilder();
+        String newLine = System.lineSeparator();
+        while (running || !queue.isEmpty()) {
+            try {
+                SupermarketEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+
+                // Format the whole batch, then print it in one call
+                for (SupermarketEvent event : batch) {
+                    text.append(event.toMessage()).append(newLine);
+                }
+                out.print(text);
+                out.flush();
+                writtenEvents.addAndGet(batch.size());
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                batch.clear();
+                text.setLength(0);
+            }
+        }
+    }
+}
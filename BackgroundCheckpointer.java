@@ -0,0 +1,269 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes checkpoints of a journaled manager while it keeps running, and trims the journal behind them
+ * A checkpoint is a CatalogStore save in the journal directory
+ * (checkpoint-<sequence>/). It is taken without stopping activity processing:
+ * - the product list is taken under the catalog read lock, so only
+ *   creations and deletions wait, and only for the length of a list copy
+ * - each product is copied in memory under its own lock, which is also when
+ *   the manager logs that product's activities to the journal, so the copy
+ *   holds exactly the product's records up to the journal sequence read at
+ *   that moment; the copy is written to disk after the lock is released
+ * - JournalRecovery loads the newest checkpoint and replays only the journal
+ *   records each product has not seen
+ *
+ * The products are therefore copied at slightly different moments (a fuzzy
+ * checkpoint), but every product is exact for its own journal sequence, and
+ * an activity waits at most for one product's copy.
+ *
+ * Once a checkpoint is on disk, and the journal records it contains are too,
+ * older checkpoints are deleted and the journal segments holding only
+ * records before it are trimmed. Recovery no longer needs those segments,
+ * but ActivityLogAnalytics scans every activity ever logged, so by default
+ * they are moved into the journal's archive/ subdirectory, which the scans
+ * still read. setArchiveSegments(false) deletes them instead, bounding the
+ * disk used; scans then cover only the activity since the last checkpoint.
+ *
+ * The manager must log to the journal as a change listener (see
+ * ActivityJournal.attach); checkpoints are not taken under a
+ * SingleWriterPipeline, whose writer thread does not take product locks.
+ *
+ * Example:
+ *   ActivityJournal journal = ActivityJournal.attach(manager, journalDirectory);
+ *   BackgroundCheckpointer checkpointer = new BackgroundCheckpointer(manager, journal);
+ *   checkpointer.start(5, TimeUnit.MINUTES);
+ *   ...
+ *   JournalRecovery.recover(journalDirectory, threads); // Starts from the newest checkpoint
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class BackgroundCheckpointer {
+
+    private static final String CHECKPOINT_PREFIX = "checkpoint-";
+    private static final String CHECKPOINT_TEMP = "checkpoint.tmp";
+
+    private final SupermarketManager manager;
+    private final ActivityJournal journal;
+    private final Path directory;
+    private ScheduledExecutorService scheduler;
+
+    // Written by checkpoint(), read without waiting for one in progress
+    private volatile long checkpointsTaken;
+    private volatile long lastSequence;
+    private volatile double lastMillis;
+    private volatile long segmentsTrimmed;
+    private volatile IOException lastFailure;
+
+    // Move trimmed segments into the archive (true) or delete them
+    private volatile boolean archiveSegments = true;
+
+    /**
+     * Creates a checkpointer writing into the journal's directory
+     *
+     * @param manager Manager the journal is attached to
+     * @param journal Journal logging the manager's changes
+     */
+    public BackgroundCheckpointer(SupermarketManager manager, ActivityJournal journal) {
+        this.manager = manager;
+        this.journal = journal;
+        this.directory = journal.getDirectory();
+    }
+
+    /**
+     * Chooses what happens to the journal segments a checkpoint makes unnecessary
+     *
+     * @param archiveSegments true to keep them in archive/ for analytics (the
+     *        default), false to delete them
+     */
+    public void setArchiveSegments(boolean archiveSegments) {
+        this.archiveSegments = archiveSegments;
+    }
+
+    /**
+     * @return true if trimmed segments are archived, false if they are deleted
+     */
+    public boolean isArchivingSegments() {
+        return archiveSegments;
+    }
+
+    /**
+     * Lists a journal directory's checkpoints
+     *
+     * @param directory Journal directory
+     * @return Checkpoint directories, newest first (empty if there are none)
+     * @throws IOException if the directory cannot be read
+     */
+    static List<Path> checkpoints(Path directory) throws IOException {
+        List<Path> checkpoints = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return checkpoints;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, CHECKPOINT_PREFIX + "*")) {
+            for (Path file : files) {
+                if (Files.isDirectory(file)) {
+                    checkpoints.add(file);
+                }
+            }
+        }
+        checkpoints.sort(Collections.reverseOrder()); // Fixed-width sequence numbers sort by name
+        return checkpoints;
+    }
+
+    // ---------------------------------------------------------------
+    // Checkpointing
+    // ---------------------------------------------------------------
+
+    /**
+     * Starts taking checkpoints in the background at a fixed interval
+     * A failed checkpoint is kept in getLastFailure and retried at the next interval.
+     *
+     * @param interval Time between the end of one checkpoint and the start of the next
+     * @param unit Unit of the interval
+     */
+    public synchronized void start(long interval, TimeUnit unit) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "background-checkpointer");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY); // Checkout threads come first
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint();
+            } catch (IOException e) {
+                // Kept in lastFailure by checkpoint()
+            }
+        }, interval, interval, unit);
+    }
+
+    /**
+     * Stops the background checkpoints, letting one in progress finish
+     */
+    public void shutdown() {
+        ScheduledExecutorService stopping;
+        synchronized (this) {
+            stopping = scheduler;
+            scheduler = null;
+        }
+        if (stopping != null) {
+            stopping.shutdown();
+            try {
+                stopping.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Takes a checkpoint now, on the calling thread
+     * Activities carry on meanwhile. Steps: copy the products into
+     * checkpoint.tmp, force the journal to disk (a product copy may hold
+     * records still in the journal's buffer, and the journal must not restart
+     * numbering below them after a crash), rename the directory to
+     * checkpoint-<sequence>, then delete older checkpoints and trim the segments.
+     *
+     * @return Journal sequence of the checkpoint (records up to it are no longer needed)
+     * @throws IOException if the checkpoint cannot be written; the journal is left whole
+     */
+    public synchronized long checkpoint() throws IOException {
+        long start = System.nanoTime();
+        try {
+            Path temp = directory.resolve(CHECKPOINT_TEMP);
+            deleteCheckpoint(temp); // Left by an earlier failure
+            long sequence = CatalogStore.save(manager, temp, journal);
+            journal.sync();
+            Path target = directory.resolve(String.format("%s%020d", CHECKPOINT_PREFIX, sequence));
+            if (Files.exists(target)) {
+                deleteCheckpoint(temp); // Nothing logged since that one, so it holds the same
+            } else {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                CatalogStore.forceDirectory(directory);
+            }
+
+            // The new checkpoint is durable: what it replaces can go
+            for (Path older : checkpoints(directory)) {
+                if (!older.equals(target)) {
+                    deleteCheckpoint(older);
+                }
+            }
+            segmentsTrimmed += ActivityJournal.trimSegmentsThrough(directory, sequence, archiveSegments);
+            checkpointsTaken++;
+            lastSequence = sequence;
+            lastMillis = (System.nanoTime() - start) / 1e6;
+            lastFailure = null;
+            return sequence;
+        } catch (IOException e) {
+            lastFailure = e;
+            throw e;
+        }
+    }
+
+    private static void deleteCheckpoint(Path checkpoint) throws IOException {
+        if (!Files.isDirectory(checkpoint)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(checkpoint)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(checkpoint);
+    }
+
+    // ---------------------------------------------------------------
+    // Statistics
+    // ---------------------------------------------------------------
+
+    /**
+     * @return Number of checkpoints taken
+     */
+    public long getCheckpointsTaken() {
+        return checkpointsTaken;
+    }
+
+    /**
+     * @return Journal sequence of the last checkpoint (0 if none was taken)
+     */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * @return Time the last checkpoint took, in milliseconds
+     */
+    public double getLastMillis() {
+        return lastMillis;
+    }
+
+    /**
+     * @return Number of journal segments archived or deleted behind checkpoints
+     */
+    public long getSegmentsTrimmed() {
+        return segmentsTrimmed;
+    }
+
+    /**
+     * @return Error of the last checkpoint, or null if it succeeded
+     */
+    public IOException getLastFailure() {
+        return lastFailure;
+    }
+}
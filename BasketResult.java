@@ -0,0 +1,61 @@
+package com.mycompany.supermarketmanagementsystem;
+
+/**
+ * Result of SupermarketManager.applyBasket
+ * Says whether the basket was applied and, if not, which product stopped it.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class BasketResult {
+
+    private final OperationOutcome outcome;
+    private final String failedProductId;
+    private final int attempts;
+
+    /**
+     * Creates a result
+     *
+     * @param outcome SUCCESS, or why the basket was rejected
+     * @param failedProductId Product of the line that failed (null on success)
+     * @param attempts Number of commit attempts made (1 when there was no conflict)
+     */
+    BasketResult(OperationOutcome outcome, String failedProductId, int attempts) {
+        this.outcome = outcome;
+        this.failedProductId = failedProductId;
+        this.attempts = attempts;
+    }
+
+    /**
+     * @return SUCCESS, NOT_FOUND, INSUFFICIENT_STOCK or INVALID_INPUT (OVERLOADED from ActivityAdmission)
+     */
+    public OperationOutcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return true if every line was applied
+     */
+    public boolean isSuccess() {
+        return outcome == OperationOutcome.SUCCESS;
+    }
+
+    /**
+     * @return ID of the product whose line failed, or null on success
+     */
+    public String getFailedProductId() {
+        return failedProductId;
+    }
+
+    /**
+     * @return Number of commit attempts; more than 1 means other writers conflicted
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    @Override
+    public String toString() {
+        return outcome + (failedProductId == null ? "" : " (" + failedProductId + ")") + " after " + attempts + " attempt(s)";
+    }
+}
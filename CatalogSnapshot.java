@@ -0,0 +1,123 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Consistent point-in-time view of the whole catalog
+ * Obtained from SupermarketManager.snapshot(). Every product and quantity is
+ * exactly as it was when the snapshot was taken, no matter how long the
+ * report takes, while checkouts keep changing the live catalog.
+ *
+ * A snapshot holds on to old product versions until it is closed, so always
+ * close it (try-with-resources) once the report is done.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class CatalogSnapshot implements AutoCloseable {
+
+    private final VersionedCatalog catalog;
+    private final long version;
+    private boolean closed;
+
+    /**
+     * Creates a snapshot (see VersionedCatalog.openSnapshot)
+     *
+     * @param catalog Catalog the snapshot reads from
+     * @param version Version the snapshot sees
+     */
+    CatalogSnapshot(VersionedCatalog catalog, long version) {
+        this.catalog = catalog;
+        this.version = version;
+    }
+
+    /**
+     * @return Catalog version this snapshot sees
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns all products as they were at the snapshot, in creation order
+     * The returned products are detached copies without activity history.
+     *
+     * @return Products visible in the snapshot
+     */
+    public List<Product> getProducts() {
+        List<VersionedCatalog.Version> visible = visibleVersions();
+        List<Product> result = new ArrayList<>(visible.size());
+        for (VersionedCatalog.Version v : visible) {
+            result.add(toProduct(v));
+        }
+        return result;
+    }
+
+    /**
+     * Returns one product as it was at the snapshot
+     *
+     * @param ProductID ID of the product
+     * @return Detached copy of the product, or null if it did not exist then
+     */
+    public Product getProduct(String ProductID) {
+        checkOpen();
+        VersionedCatalog.Version v = catalog.visible(ProductID, version);
+        return v == null ? null : toProduct(v);
+    }
+
+    /**
+     * @return Number of products in the snapshot
+     */
+    public int getProductCount() {
+        return visibleVersions().size();
+    }
+
+    /**
+     * @return Total stock quantity in the snapshot
+     */
+    public long getTotalStockQuantity() {
+        long total = 0;
+        for (VersionedCatalog.Version v : visibleVersions()) {
+            total += v.quantity;
+        }
+        return total;
+    }
+
+    /**
+     * Releases the snapshot so the versions it kept can be reclaimed
+     * Closing twice has no effect.
+     */
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            catalog.closeSnapshot(version);
+        }
+    }
+
+    // Collects the version of every product visible at this snapshot, in creation order
+    private List<VersionedCatalog.Version> visibleVersions() {
+        checkOpen();
+        List<VersionedCatalog.Version> visible = new ArrayList<>();
+        for (VersionedCatalog.Version head : catalog.heads()) {
+            VersionedCatalog.Version v = VersionedCatalog.visible(head, version);
+            if (v != null) {
+                visible.add(v);
+            }
+        }
+        visible.sort(Comparator.comparingLong(v -> v.createdVersion));
+        return visible;
+    }
+
+    private synchronized void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Snapshot has been closed");
+        }
+    }
+
+    private static Product toProduct(VersionedCatalog.Version v) {
+        return new Product(v.productId, v.productName, v.entryDate, v.quantity);
+    }
+}
@@ -0,0 +1,490 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Saves a manager's catalog to a directory and loads it back lazily
+ * Two files are written:
+ * - catalog.dat   : every product's ID, name, entry date, quantity and open
+ *                   stock lots, plus where its history is in histories.dat
+ * - histories.dat : one segment per product holding its kept activities,
+ *                   compressed with ActivityCodec
+ *
+ * Loading reads only catalog.dat, so quantities, lots and every query that
+ * needs no history are available straight away. A product's history is
+ * read from its segment (one positional read) the first time it is asked
+ * for - getActivities, getActivitiesSortedByProductQuantity or a new
+ * activity. Startup time and resident memory therefore follow the products
+ * actually used rather than the whole catalog's history.
+ *
+ * The store must stay open while unloaded histories may still be needed;
+ * after close, asking for one throws UncheckedIOException. Saving writes
+ * temporary files, forces them to the disk and moves them into place, so an
+ * interrupted save leaves the previous files (a save ID in both files
+ * detects a mixed pair).
+ *
+ * Saves taken as journal checkpoints (see BackgroundCheckpointer) also
+ * record the journal sequence each product was copied at, and the sequence
+ * at which the product list was taken, so JournalRecovery knows which
+ * journal records a product already contains.
+ *
+ * Example:
+ *   CatalogStore.save(manager, Path.of("data"));
+ *   try (CatalogStore store = CatalogStore.open(Path.of("data"))) {
+ *       SupermarketManager loaded = store.getManager();
+ *       ...
+ *   }
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class CatalogStore implements AutoCloseable {
+
+    /** Products, quantities and lots, read eagerly */
+    public static final String CATALOG_FILE = "catalog.dat";
+
+    /** Per-product activity histories, read on demand */
+    public static final String HISTORY_FILE = "histories.dat";
+
+    private static final int MAGIC = 0x534D4353; // "SMCS"
+    private static final int VERSION = 3; // 2: histories in ActivityCodec form, 3: journal sequences
+
+    private final SupermarketManager manager;
+    private final FileChannel histories;
+    private final AtomicInteger loadedHistories = new AtomicInteger();
+    private int productCount;
+    private long journalSequence;
+
+    // Checkpoint loading: products are kept here for JournalRecovery instead of going into the manager
+    private final List<Product> checkpointProducts;
+    private long[] productSequences;
+
+    private CatalogStore(FileChannel histories, boolean checkpoint) {
+        this.manager = new SupermarketManager();
+        this.histories = histories;
+        this.checkpointProducts = checkpoint ? new ArrayList<>() : null;
+        this.productSequences = checkpoint ? new long[1024] : null;
+    }
+
+    // ---------------------------------------------------------------
+    // Saving
+    // ---------------------------------------------------------------
+
+    /**
+     * Saves a manager's catalog and histories to a directory, replacing any earlier save
+     * Each product is copied under its lock. Histories of products loaded lazily
+     * and not used yet are copied from their store's file as saved, without
+     * being decoded or kept in memory.
+     *
+     * @param manager Manager to save
+     * @param directory Directory for the files (created if missing)
+     * @throws IOException if the files cannot be written
+     */
+    public static void save(SupermarketManager manager, Path directory) throws IOException {
+        save(manager, directory, null, null);
+    }
+
+    /**
+     * Saves a manager loaded from a store back over that store's directory
+     * The store is closed once every product is copied, before its files are
+     * replaced (Windows cannot replace a file that is still open), and also if
+     * the save fails. Histories not loaded by then can no longer be read, so
+     * this is for saving on exit.
+     *
+     * @param manager Manager to save (normally loadedFrom.getManager())
+     * @param directory Directory for the files (created if missing)
+     * @param loadedFrom Store the manager was loaded from, closed by this call
+     * @throws IOException if the files cannot be written or the store cannot be closed
+     */
+    public static void save(SupermarketManager manager, Path directory, CatalogStore loadedFrom) throws IOException {
+        save(manager, directory, null, loadedFrom);
+    }
+
+    /**
+     * Saves a manager's catalog as a checkpoint of its journal
+     * The journal sequence is read when the product list is taken (no creation
+     * or deletion is in progress then) and again as each product is copied
+     * under its lock, which is also when the manager logs that product's
+     * activities. Every record up to a product's sequence is in the copy and
+     * none after it, although products are copied at different moments.
+     *
+     * @param manager Manager to save
+     * @param directory Directory for the files (created if missing)
+     * @param journal Journal attached to the manager, or null for a plain save
+     * @return Journal sequence when the product list was taken (0 without a journal)
+     * @throws IOException if the files cannot be written
+     */
+    static long save(SupermarketManager manager, Path directory, ActivityJournal journal) throws IOException {
+        return save(manager, directory, journal, null);
+    }
+
+    private static long save(SupermarketManager manager, Path directory, ActivityJournal journal,
+            CatalogStore loadedFrom) throws IOException {
+        Path catalogTemp = directory.resolve(CATALOG_FILE + ".tmp");
+        Path historyTemp = directory.resolve(HISTORY_FILE + ".tmp");
+        long saveId = ThreadLocalRandom.current().nextLong();
+        long[] listedAt = {0};
+
+        try {
+            Files.createDirectories(directory);
+            writeFiles(manager, catalogTemp, historyTemp, saveId, journal, listedAt);
+        } finally {
+            if (loadedFrom != null) {
+                loadedFrom.close(); // Every history is copied; its files are replaced next
+            }
+        }
+        force(historyTemp);
+        force(catalogTemp);
+        // Histories first: the catalog that points into them is only replaced once they are in place
+        Files.move(historyTemp, directory.resolve(HISTORY_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(catalogTemp, directory.resolve(CATALOG_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(directory);
+        return listedAt[0];
+    }
+
+    // Writes both files under temporary names; listedAt receives the journal sequence at the listing
+    private static void writeFiles(SupermarketManager manager, Path catalogTemp, Path historyTemp, long saveId,
+            ActivityJournal journal, long[] listedAt) throws IOException {
+        try (DataOutputStream catalog = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(catalogTemp)));
+             DataOutputStream history = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(historyTemp)))) {
+            writeHeader(catalog, saveId);
+            writeHeader(history, saveId);
+            catalog.writeInt(manager.getHistoryDepth());
+            long[] historyOffset = {history.size()};
+            try {
+                // Copied in memory under the product's lock, written to the files after it
+                manager.forEachProductLocked(() -> listedAt[0] = sequenceOf(journal),
+                        product -> new ProductCopy(product, sequenceOf(journal)), copy -> {
+                    try {
+                        history.write(copy.history);
+                        catalog.writeBoolean(true); // Another product follows
+                        catalog.write(copy.fields);
+                        catalog.writeLong(historyOffset[0]);
+                        catalog.writeInt(copy.history.length);
+                        catalog.writeLong(copy.journalSequence);
+                        historyOffset[0] += copy.history.length;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            catalog.writeBoolean(false); // End of the products
+            catalog.writeLong(listedAt[0]); // Journal sequence at the listing
+        }
+    }
+
+    private static long sequenceOf(ActivityJournal journal) {
+        return journal == null ? 0 : journal.getLastSequence();
+    }
+
+    // Forces a written file's contents to the disk
+    private static void force(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Forces a directory's entries (e.g. renamed files) to the disk
+     * Not every platform can open a directory for this; there it is skipped.
+     *
+     * @param directory Directory to force
+     */
+    static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directories cannot be opened as files on some platforms
+        }
+    }
+
+    private static void writeHeader(DataOutputStream out, long saveId) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(saveId);
+    }
+
+    // One product as read under its lock: catalog fields up to the lots, encoded history
+    private static final class ProductCopy {
+        private final byte[] fields;
+        private final byte[] history;
+        private final long journalSequence;
+
+        ProductCopy(Product product, long journalSequence) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            try {
+                writeProduct(new DataOutputStream(bytes), product);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // Not thrown by an in-memory stream
+            }
+            this.fields = bytes.toByteArray();
+            // A history still on disk is copied as saved: loading it would keep it on the heap for good
+            this.history = product.getHistorySource() instanceof HistorySegment segment ? segment.read()
+                    : encodeHistory(product.getActivities().getAllElements());
+            this.journalSequence = journalSequence;
+        }
+    }
+
+    // Followed in the file by the history offset and length, then the journal sequence
+    private static void writeProduct(DataOutputStream out, Product product) throws IOException {
+        out.writeUTF(product.getProductID());
+        out.writeUTF(product.getProductName());
+        ReplicationProtocol.writeDate(out, product.getProductEntryDate());
+        out.writeInt(product.getProductQuantity());
+        out.writeInt(product.getHistoryDepth());
+        List<StockLot> lots = product.getStockLots(); // Oldest first
+        out.writeInt(lots.size());
+        for (StockLot lot : lots) {
+            out.writeBoolean(lot.getSourceActivityId() != null);
+            if (lot.getSourceActivityId() != null) {
+                out.writeUTF(lot.getSourceActivityId());
+            }
+            ReplicationProtocol.writeDate(out, lot.getReceivedDate());
+            out.writeInt(lot.getReceivedQuantity());
+            out.writeInt(lot.getRemainingQuantity());
+        }
+    }
+
+    // One product's history, oldest activity first (newest first is how the product keeps it)
+    private static byte[] encodeHistory(List<Activity> newestFirst) {
+        List<Activity> oldestFirst = new ArrayList<>(newestFirst);
+        Collections.reverse(oldestFirst);
+        return ActivityCodec.encode(oldestFirst);
+    }
+
+    // ---------------------------------------------------------------
+    // Loading
+    // ---------------------------------------------------------------
+
+    /**
+     * Loads a saved catalog into a new manager
+     * Only the catalog file is read now; histories load per product on first use.
+     *
+     * @param directory Directory written by save
+     * @return Open store; its manager holds the loaded products
+     * @throws IOException if the files are missing, damaged or from different saves
+     */
+    public static CatalogStore open(Path directory) throws IOException {
+        return open(directory, false);
+    }
+
+    /**
+     * Loads a checkpoint without putting its products into the manager
+     * JournalRecovery takes them from getCheckpointProducts and replays the
+     * journal over them.
+     *
+     * @param directory Directory written by save with a journal
+     * @return Open store holding the products and their journal sequences
+     * @throws IOException if the files are missing, damaged or from different saves
+     */
+    static CatalogStore openCheckpoint(Path directory) throws IOException {
+        return open(directory, true);
+    }
+
+    private static CatalogStore open(Path directory, boolean checkpoint) throws IOException {
+        FileChannel histories = FileChannel.open(directory.resolve(HISTORY_FILE), StandardOpenOption.READ);
+        try {
+            CatalogStore store = new CatalogStore(histories, checkpoint);
+            store.readCatalog(directory.resolve(CATALOG_FILE));
+            return store;
+        } catch (IOException | RuntimeException e) {
+            histories.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Tells whether a directory holds a saved catalog
+     *
+     * @param directory Directory to look in
+     * @return true if both files are present
+     */
+    public static boolean exists(Path directory) {
+        return Files.isRegularFile(directory.resolve(CATALOG_FILE)) && Files.isRegularFile(directory.resolve(HISTORY_FILE));
+    }
+
+    private void readCatalog(Path catalogFile) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(16);
+        readFully(header, 0);
+        header.flip();
+        long historySaveId = readHeader(header.getInt(), header.getInt(), header.getLong(), HISTORY_FILE);
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(catalogFile)))) {
+            long catalogSaveId = readHeader(in.readInt(), in.readInt(), in.readLong(), CATALOG_FILE);
+            if (catalogSaveId != historySaveId) {
+                throw new IOException(CATALOG_FILE + " and " + HISTORY_FILE + " come from different saves");
+            }
+            manager.setHistoryDepth(in.readInt());
+            while (in.readBoolean()) {
+                Product product = readProduct(in);
+                long sequence = in.readLong();
+                if (checkpointProducts == null) {
+                    manager.restoreProduct(product);
+                } else {
+                    if (productCount == productSequences.length) {
+                        productSequences = Arrays.copyOf(productSequences, productCount * 2);
+                    }
+                    checkpointProducts.add(product);
+                    productSequences[productCount] = sequence;
+                }
+                productCount++;
+            }
+            journalSequence = in.readLong();
+        }
+    }
+
+    private static long readHeader(int magic, int version, long saveId, String file) throws IOException {
+        if (magic != MAGIC) {
+            throw new IOException(file + " is not a saved catalog");
+        }
+        if (version != VERSION) {
+            throw new IOException(file + " has unsupported version " + version);
+        }
+        return saveId;
+    }
+
+    private Product readProduct(DataInputStream in) throws IOException {
+        String id = in.readUTF();
+        String name = in.readUTF();
+        LocalDate entryDate = ReplicationProtocol.readDate(in);
+        int quantity = in.readInt();
+        int historyDepth = in.readInt();
+        int lotCount = in.readInt();
+        List<StockLot> lots = new ArrayList<>(lotCount);
+        for (int i = 0; i < lotCount; i++) {
+            String sourceActivityId = in.readBoolean() ? in.readUTF() : null;
+            LocalDate receivedDate = ReplicationProtocol.readDate(in);
+            int received = in.readInt();
+            StockLot lot = new StockLot(sourceActivityId, receivedDate, received, i);
+            lot.take(received - in.readInt());
+            lots.add(lot);
+        }
+        long historyOffset = in.readLong();
+        int historyLength = in.readInt();
+
+        Product product = new Product(id, name, entryDate, 0, historyDepth);
+        product.restoreStock(quantity, lots);
+        product.setHistorySource(new HistorySegment(historyOffset, historyLength));
+        return product;
+    }
+
+    // Where one product's history is in the history file
+    private final class HistorySegment implements Supplier<List<Activity>> {
+        private final long offset;
+        private final int length;
+
+        HistorySegment(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public List<Activity> get() {
+            List<Activity> oldestFirst = ActivityCodec.decode(read());
+            loadedHistories.incrementAndGet();
+            return oldestFirst;
+        }
+
+        // The segment as saved: the history oldest first, in ActivityCodec form
+        byte[] read() {
+            try {
+                ByteBuffer bytes = ByteBuffer.allocate(length);
+                readFully(bytes, offset);
+                return bytes.array();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot load activity history from " + HISTORY_FILE, e);
+            }
+        }
+    }
+
+    // Positional reads are safe from many threads at once
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = histories.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException(HISTORY_FILE + " is truncated");
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Accessors
+    // ---------------------------------------------------------------
+
+    /**
+     * @return Manager holding the loaded products
+     */
+    public SupermarketManager getManager() {
+        return manager;
+    }
+
+    /**
+     * @return Number of products loaded
+     */
+    public int getProductCount() {
+        return productCount;
+    }
+
+    /**
+     * @return Journal sequence the save was taken at (0 if it was saved without a journal)
+     */
+    public long getJournalSequence() {
+        return journalSequence;
+    }
+
+    /**
+     * @return Products of a store opened with openCheckpoint, in catalog order
+     */
+    List<Product> getCheckpointProducts() {
+        return checkpointProducts;
+    }
+
+    /**
+     * @param index Position in getCheckpointProducts
+     * @return Journal sequence the product was copied at; its later records are not in the copy
+     */
+    long getProductJournalSequence(int index) {
+        return productSequences[index];
+    }
+
+    /**
+     * @return Number of product histories read from disk so far
+     */
+    public int getLoadedHistoryCount() {
+        return loadedHistories.get();
+    }
+
+    /**
+     * Closes the history file; histories not loaded yet can no longer be read
+     *
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        histories.close();
+    }
+}
@@ -0,0 +1,115 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.time.LocalDate;
+
+/**
+ * One change captured from a SupermarketManager (change-data-capture event)
+ * Published by ChangeEventPublisher to downstream systems such as the online
+ * shop's stock feed. Events are immutable and numbered with the manager's
+ * change sequence, so a subscriber can resume after the last one it handled.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class ChangeEvent {
+
+    /**
+     * Kind of change
+     */
+    public enum Type {
+        PRODUCT_CREATED,
+        PRODUCT_DELETED,
+        ACTIVITY_APPLIED
+    }
+
+    private final Type type;
+    private final long sequence;
+    private final String productId;
+    private final String productName;
+    private final String activityId;
+    private final String activityName;
+    private final int quantity;
+    private final LocalDate date;
+
+    /**
+     * Creates an event
+     *
+     * @param type Kind of change
+     * @param sequence Change sequence number
+     * @param productId ID of the product changed
+     * @param productName Name of the product (creations only)
+     * @param activity Activity applied (initial activity for creations, null for deletions)
+     */
+    ChangeEvent(Type type, long sequence, String productId, String productName, Activity activity) {
+        this.type = type;
+        this.sequence = sequence;
+        this.productId = productId;
+        this.productName = productName;
+        this.activityId = activity == null ? null : activity.getActivityID();
+        this.activityName = activity == null ? null : activity.getActivityName();
+        this.quantity = activity == null ? 0 : activity.getActivityProductQuantity();
+        this.date = activity == null ? null : activity.getActivityDate();
+    }
+
+    /**
+     * @return Kind of change
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return Change sequence number (resume after it with fromSequence = sequence + 1)
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return ID of the product changed
+     */
+    public String getProductId() {
+        return productId;
+    }
+
+    /**
+     * @return Product name for PRODUCT_CREATED, null otherwise
+     */
+    public String getProductName() {
+        return productName;
+    }
+
+    /**
+     * @return Activity ID (the initial activity for PRODUCT_CREATED), null for deletions
+     */
+    public String getActivityId() {
+        return activityId;
+    }
+
+    /**
+     * @return AddToStock or RemoveFromStock, null for deletions
+     */
+    public String getActivityName() {
+        return activityName;
+    }
+
+    /**
+     * @return Quantity of the activity, 0 for deletions
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * @return Date of the activity, null for deletions
+     */
+    public LocalDate getDate() {
+        return date;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + type + " " + productId
+                + (activityName == null ? "" : " " + activityName + " " + quantity);
+    }
+}
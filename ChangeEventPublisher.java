@@ -0,0 +1,350 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change-data-capture stream of a SupermarketManager, as a Flow.Publisher
+ * Every product creation, deletion and applied activity becomes a ChangeEvent
+ * that subscribers receive in sequence order, at the pace they request.
+ *
+ * The checkout path never waits for a subscriber:
+ * - the change is written into a shared ring of the last retainedEvents
+ *   events and offered to each subscriber's own bounded buffer; both are quick
+ *   and never block
+ * - a subscriber whose buffer is full (it requests too slowly) stops being
+ *   buffered and later catches up by reading the ring from where it got to;
+ *   only if it falls further behind than the ring it is failed with onError
+ * - events are delivered on the executor, never on the checkout thread
+ *
+ * subscribe(subscriber, fromSequence) resumes a stream: the subscriber first
+ * receives retained events from that sequence on, then live events.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class ChangeEventPublisher implements Flow.Publisher<ChangeEvent>, SupermarketChangeListener, AutoCloseable {
+
+    // Last events, for resuming and catching up (index = sequence % length)
+    private final ChangeEvent[] retained;
+    private long firstSequence; // First event published (guarded by retained)
+    private long lastSequence;  // Last event published (guarded by retained)
+
+    // Capacity of each subscriber's buffer
+    private final int bufferSize;
+
+    private final Executor executor;
+    private final ExecutorService ownedExecutor; // Shut down on close, if we created it
+    private final List<EventSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicLong overflows = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * Creates a publisher delivering on its own virtual threads
+     *
+     * @param retainedEvents Number of past events kept for resuming
+     * @param bufferSize Events buffered per subscriber before it has to catch up from the ring
+     */
+    public ChangeEventPublisher(int retainedEvents, int bufferSize) {
+        this(retainedEvents, bufferSize, null);
+    }
+
+    /**
+     * Creates a publisher delivering on the given executor
+     *
+     * @param retainedEvents Number of past events kept for resuming
+     * @param bufferSize Events buffered per subscriber
+     * @param executor Executor delivering to subscribers (null for virtual threads)
+     */
+    public ChangeEventPublisher(int retainedEvents, int bufferSize, Executor executor) {
+        if (retainedEvents <= 0 || bufferSize <= 0) {
+            throw new IllegalArgumentException("retainedEvents and bufferSize must be positive");
+        }
+        this.retained = new ChangeEvent[retainedEvents];
+        this.bufferSize = bufferSize;
+        this.ownedExecutor = executor == null ? Executors.newVirtualThreadPerTaskExecutor() : null;
+        this.executor = executor == null ? ownedExecutor : executor;
+    }
+
+    /**
+     * Creates a publisher and registers it with a manager
+     *
+     * @param manager Manager whose changes are published
+     * @param retainedEvents Number of past events kept for resuming
+     * @param bufferSize Events buffered per subscriber
+     * @return The attached publisher
+     */
+    public static ChangeEventPublisher attach(SupermarketManager manager, int retainedEvents, int bufferSize) {
+        ChangeEventPublisher publisher = new ChangeEventPublisher(retainedEvents, bufferSize);
+        manager.addChangeListener(publisher);
+        return publisher;
+    }
+
+    // ---------------------------------------------------------------
+    // Capturing changes (called on the checkout path)
+    // ---------------------------------------------------------------
+
+    @Override
+    public void productCreated(long sequence, Product product, Activity initialActivity) {
+        publish(new ChangeEvent(ChangeEvent.Type.PRODUCT_CREATED, sequence, product.getProductID(),
+                product.getProductName(), initialActivity));
+    }
+
+    @Override
+    public void productDeleted(long sequence, String productId) {
+        publish(new ChangeEvent(ChangeEvent.Type.PRODUCT_DELETED, sequence, productId, null, null));
+    }
+
+    @Override
+    public void activityApplied(long sequence, String productId, Activity activity) {
+        publish(new ChangeEvent(ChangeEvent.Type.ACTIVITY_APPLIED, sequence, productId, null, activity));
+    }
+
+    // Retains the event, then offers it to every subscriber; never blocks
+    private void publish(ChangeEvent event) {
+        if (closed) {
+            return;
+        }
+        synchronized (retained) {
+            retained[(int) (event.getSequence() % retained.length)] = event;
+            if (firstSequence == 0) {
+                firstSequence = event.getSequence();
+            }
+            lastSequence = event.getSequence();
+        }
+        for (EventSubscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    // Returns the retained event with a sequence number, null if it has not
+    // happened yet; throws if it is too old to be retained
+    private ChangeEvent retainedEvent(long sequence) {
+        synchronized (retained) {
+            if (sequence > lastSequence) {
+                return null;
+            }
+            long oldest = Math.max(firstSequence, lastSequence - retained.length + 1);
+            if (sequence < oldest) {
+                throw new IllegalStateException("Events from sequence " + sequence + " are no longer retained");
+            }
+            return retained[(int) (sequence % retained.length)];
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Subscribing
+    // ---------------------------------------------------------------
+
+    /**
+     * Subscribes to changes made from now on
+     *
+     * @param subscriber Subscriber to receive events
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super ChangeEvent> subscriber) {
+        subscribe(subscriber, Long.MAX_VALUE);
+    }
+
+    /**
+     * Subscribes starting from a sequence number (resume)
+     * Events still retained from that sequence on are delivered first.
+     *
+     * @param subscriber Subscriber to receive events
+     * @param fromSequence First sequence number wanted (last handled + 1)
+     */
+    public void subscribe(Flow.Subscriber<? super ChangeEvent> subscriber, long fromSequence) {
+        EventSubscription subscription;
+        synchronized (retained) {
+            // Registered under the ring's lock: every later event is either
+            // offered to it or (while catching up) found in the ring
+            long next = Math.min(fromSequence, lastSequence + 1);
+            subscription = new EventSubscription(subscriber, next, next <= lastSequence);
+            if (!closed) {
+                subscriptions.add(subscription);
+            }
+        }
+        subscriber.onSubscribe(subscription);
+        subscription.signal(); // Completes straight away if already closed
+    }
+
+    /**
+     * Stops publishing; subscribers receive what is left in their buffers and then onComplete
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (EventSubscription subscription : subscriptions) {
+            subscription.signal();
+        }
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown(); // Lets the final deliveries run
+        }
+    }
+
+    /**
+     * @return Sequence number of the last event published
+     */
+    public long getLastSequence() {
+        synchronized (retained) {
+            return lastSequence;
+        }
+    }
+
+    /**
+     * @return Number of times a subscriber's buffer overflowed and it had to catch up from the ring
+     */
+    public long getOverflowCount() {
+        return overflows.get();
+    }
+
+    /**
+     * @return Number of active subscriptions
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * One subscriber's position, buffer and demand
+     * Buffer and position are guarded by the subscription's monitor; delivery
+     * runs on the executor, one drain at a time (wip counter).
+     */
+    private final class EventSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super ChangeEvent> subscriber;
+        private final ArrayDeque<ChangeEvent> buffer = new ArrayDeque<>();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private long nextSequence;        // Next sequence to deliver
+        private boolean catchingUp;       // Reading from the ring instead of the buffer
+        private volatile boolean cancelled;
+        private boolean finished;          // Only touched by the draining thread
+
+        EventSubscription(Flow.Subscriber<? super ChangeEvent> subscriber, long nextSequence, boolean catchingUp) {
+            this.subscriber = subscriber;
+            this.nextSequence = Math.max(1, nextSequence);
+            this.catchingUp = catchingUp;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Request must be positive: " + n));
+                return;
+            }
+            long current;
+            long updated;
+            do {
+                current = requested.get();
+                updated = current + n < 0 ? Long.MAX_VALUE : current + n; // Cap at "unbounded"
+            } while (!requested.compareAndSet(current, updated));
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+
+        // Checkout path: buffer the event, or switch to catching up if the buffer is full
+        void offer(ChangeEvent event) {
+            synchronized (this) {
+                if (catchingUp) {
+                    return; // Will be read from the ring
+                }
+                if (buffer.size() < bufferSize) {
+                    buffer.addLast(event);
+                } else {
+                    buffer.clear();
+                    catchingUp = true;
+                    overflows.incrementAndGet();
+                }
+            }
+            if (requested.get() > 0) {
+                signal();
+            }
+        }
+
+        // Schedules a drain unless one is already running
+        void signal() {
+            if (wip.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException afterClose) {
+                    drain(); // Our executor is shut down: finish on the caller's thread
+                }
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            while (true) {
+                while (!cancelled && requested.get() > 0) {
+                    ChangeEvent event;
+                    try {
+                        event = next();
+                    } catch (IllegalStateException lagged) {
+                        cancel();
+                        subscriber.onError(lagged); // Fell behind further than the ring keeps
+                        break;
+                    }
+                    if (event == null) {
+                        break;
+                    }
+                    try {
+                        subscriber.onNext(event);
+                    } catch (RuntimeException subscriberFailure) {
+                        cancel(); // A subscriber must not throw; stop delivering to it
+                        break;
+                    }
+                    if (requested.get() != Long.MAX_VALUE) {
+                        requested.decrementAndGet();
+                    }
+                }
+                if (!cancelled && closed && !finished && isEmpty()) {
+                    finished = true;
+                    cancel();
+                    subscriber.onComplete();
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        // Next event in sequence, from the ring while catching up, otherwise from the buffer
+        private synchronized ChangeEvent next() {
+            if (catchingUp) {
+                ChangeEvent event = retainedEvent(nextSequence);
+                if (event != null) {
+                    nextSequence = event.getSequence() + 1;
+                    return event;
+                }
+                catchingUp = false; // Caught up: later events arrive through the buffer
+            }
+            ChangeEvent event;
+            do {
+                event = buffer.pollFirst();
+            } while (event != null && event.getSequence() < nextSequence); // Already read from the ring
+            if (event != null) {
+                nextSequence = event.getSequence() + 1;
+            }
+            return event;
+        }
+
+        private synchronized boolean isEmpty() {
+            return !catchingUp && buffer.isEmpty() || catchingUp && nextSequence > getLastSequence();
+        }
+    }
+}
@@ -0,0 +1,694 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Column-oriented (struct-of-arrays) product catalog
+ * An alternative to keeping one Product object per product. All products
+ * are stored in parallel primitive arrays, one entry per row:
+ * - idCodes / nameCodes : dictionary-encoded ID and name (see StringDictionary)
+ * - entryDays           : entry date as an epoch day
+ * - quantities          : current stock quantity
+ * - histories           : last 4 activities, only created once a product has any
+ *
+ * A catalog of 10M products is therefore a handful of large arrays instead of
+ * tens of millions of small objects, which keeps garbage collection cheap.
+ * Full scans (total stock, "quantity below X") read one contiguous int array.
+ *
+ * getProduct returns a Product that is a lightweight view over the columns:
+ * it holds only the product's ID code and reads and writes the arrays
+ * directly. Views are created per lookup, so compare products by ID.
+ * A view of a deleted product throws IllegalStateException when used.
+ * Stock lots are not kept: a view reports its whole quantity as one lot
+ * received on the entry date.
+ *
+ * Deleting moves the last row into the freed row, so rows stay dense and
+ * scans never skip holes. Product order is therefore not insertion order.
+ *
+ * Thread Safety: one read/write lock. Scans and lookups share the read lock,
+ * every change takes the write lock.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class ColumnarProductCatalog implements ProductCatalog {
+
+    // Number of activities kept per product, as in Product
+    private static final int HISTORY_SIZE = 4;
+
+    // Marker for a missing entry date
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    // Dictionaries for the string columns
+    private final StringDictionary ids;
+    private final StringDictionary names;
+
+    // Row columns (valid entries: 0 .. size-1)
+    private int[] idCodes;
+    private int[] nameCodes;
+    private int[] entryDays;
+    private int[] quantities;
+    private CustomLinkedList<Activity>[] histories;
+    private int size;
+
+    // ID code -> row, or -1 if the product is not in the catalog
+    private int[] rowOfId;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Creates an empty catalog with a small initial capacity
+     */
+    public ColumnarProductCatalog() {
+        this(1_024);
+    }
+
+    /**
+     * Creates an empty catalog sized for the expected number of products
+     * Sizing up front avoids copying the columns while loading.
+     *
+     * @param expectedProducts Expected number of products
+     */
+    public ColumnarProductCatalog(int expectedProducts) {
+        int capacity = Math.max(16, expectedProducts);
+        this.ids = new StringDictionary(capacity);
+        // Names repeat a lot (same product in many sizes/branches), start smaller
+        this.names = new StringDictionary(Math.max(16, capacity / 4));
+        this.idCodes = new int[capacity];
+        this.nameCodes = new int[capacity];
+        this.entryDays = new int[capacity];
+        this.quantities = new int[capacity];
+        this.histories = newHistoryArray(capacity);
+        this.rowOfId = new int[capacity];
+        Arrays.fill(rowOfId, -1);
+    }
+
+    /**
+     * Creates a columnar copy of existing products, including their recent activities
+     *
+     * @param products Products to copy (for example SupermarketManager.getAllProducts())
+     * @return New catalog holding the same products
+     */
+    public static ColumnarProductCatalog copyOf(Collection<Product> products) {
+        ColumnarProductCatalog catalog = new ColumnarProductCatalog(products.size());
+        for (Product product : products) {
+            OperationOutcome outcome = catalog.addProduct(product.getProductID(), product.getProductName(),
+                    product.getProductEntryDate(), product.getProductQuantity());
+            List<Activity> history = product.getActivities().getAllElements();
+            if (outcome == OperationOutcome.SUCCESS && !history.isEmpty()) {
+                // Replay oldest first so the newest ends up at the front again
+                CustomLinkedList<Activity> copy = new CustomLinkedList<>(HISTORY_SIZE);
+                for (int i = history.size() - 1; i >= 0; i--) {
+                    copy.addFirst(history.get(i));
+                }
+                catalog.histories[catalog.size - 1] = copy;
+            }
+        }
+        return catalog;
+    }
+
+    // ---------------------------------------------------------------
+    // Changes
+    // ---------------------------------------------------------------
+
+    /**
+     * Adds a product
+     * Unlike SupermarketManager.createProduct no initial activity is recorded;
+     * this is plain storage, used for bulk loading.
+     *
+     * @param ProductID Unique product identifier
+     * @param ProductName Name of the product
+     * @param ProductEntryDate Date when product was added (may be null)
+     * @param ProductQuantity Stock quantity
+     * @return SUCCESS, DUPLICATE or INVALID_INPUT
+     */
+    @Override
+    public OperationOutcome addProduct(String ProductID, String ProductName, LocalDate ProductEntryDate,
+            int ProductQuantity) {
+        if (ProductID == null || ProductID.trim().isEmpty()
+                || ProductName == null || ProductName.trim().isEmpty() || ProductQuantity < 0) {
+            return OperationOutcome.INVALID_INPUT;
+        }
+        lock.writeLock().lock();
+        try {
+            int idCode = encodeId(ProductID);
+            if (rowOfId[idCode] >= 0) {
+                return OperationOutcome.DUPLICATE;
+            }
+            if (size == quantities.length) {
+                growColumns();
+            }
+            int row = size++;
+            idCodes[row] = idCode;
+            nameCodes[row] = names.encode(ProductName);
+            entryDays[row] = toEpochDay(ProductEntryDate);
+            quantities[row] = ProductQuantity;
+            histories[row] = null;
+            rowOfId[idCode] = row;
+            return OperationOutcome.SUCCESS;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a product
+     * The last row is moved into the freed row so the columns stay dense.
+     *
+     * @param ProductID ID of the product to remove
+     * @return SUCCESS or NOT_FOUND
+     */
+    @Override
+    public OperationOutcome removeProduct(String ProductID) {
+        lock.writeLock().lock();
+        try {
+            int idCode = ids.lookup(ProductID);
+            if (idCode < 0 || rowOfId[idCode] < 0) {
+                return OperationOutcome.NOT_FOUND;
+            }
+            int row = rowOfId[idCode];
+            int last = --size;
+            if (row != last) {
+                idCodes[row] = idCodes[last];
+                nameCodes[row] = nameCodes[last];
+                entryDays[row] = entryDays[last];
+                quantities[row] = quantities[last];
+                histories[row] = histories[last];
+                rowOfId[idCodes[row]] = row;
+            }
+            histories[last] = null; // The vacated last row must not keep a history alive
+            rowOfId[idCode] = -1;
+            return OperationOutcome.SUCCESS;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Changes a product's ID, keeping its row and history
+     * Views of the product taken before the change no longer find it; the
+     * view the change was made through follows it (see Product.setProductID).
+     *
+     * @param ProductID Current ID of the product
+     * @param newProductID New ID
+     * @return SUCCESS, NOT_FOUND, DUPLICATE if the new ID is taken, or INVALID_INPUT
+     */
+    public OperationOutcome renameProduct(String ProductID, String newProductID) {
+        if (newProductID == null || newProductID.trim().isEmpty()) {
+            return OperationOutcome.INVALID_INPUT;
+        }
+        lock.writeLock().lock();
+        try {
+            int row = rowOf(ProductID);
+            return row < 0 ? OperationOutcome.NOT_FOUND : renameAt(row, newProductID);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies an activity with the same rules as SupermarketManager.addActivityToProduct
+     *
+     * @param ProductID ID of the product to update
+     * @param activity Activity to apply (AddToStock/RemoveFromStock)
+     * @return SUCCESS, NOT_FOUND, INSUFFICIENT_STOCK or INVALID_INPUT
+     */
+    @Override
+    public OperationOutcome applyActivity(String ProductID, Activity activity) {
+        if (activity.getActivityProductQuantity() < 0) {
+            return OperationOutcome.INVALID_INPUT;
+        }
+        lock.writeLock().lock();
+        try {
+            int row = rowOf(ProductID);
+            if (row < 0) {
+                return OperationOutcome.NOT_FOUND;
+            }
+            if ("RemoveFromStock".equals(activity.getActivityName())
+                    && quantities[row] < activity.getActivityProductQuantity()) {
+                return OperationOutcome.INSUFFICIENT_STOCK;
+            }
+            applyAt(row, activity);
+            return OperationOutcome.SUCCESS;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Lookups
+    // ---------------------------------------------------------------
+
+    /**
+     * Returns a view of a product
+     *
+     * @param ProductID ID of the product
+     * @return View over the product's row, or null if not found
+     */
+    @Override
+    public Product getProduct(String ProductID) {
+        lock.readLock().lock();
+        try {
+            int idCode = ids.lookup(ProductID);
+            return idCode < 0 || rowOfId[idCode] < 0 ? null : new ProductView(idCode);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Views of all products, in row order
+     */
+    @Override
+    public List<Product> getAllProducts() {
+        lock.readLock().lock();
+        try {
+            List<Product> result = new ArrayList<>(size);
+            for (int row = 0; row < size; row++) {
+                result.add(new ProductView(idCodes[row]));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Number of products in the catalog
+     */
+    @Override
+    public int getProductCount() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Number of distinct product names stored
+     */
+    public int getDistinctNameCount() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Column scans
+    // ---------------------------------------------------------------
+
+    /**
+     * Sums the stock of all products with one pass over the quantity column
+     *
+     * @return Total stock quantity
+     */
+    @Override
+    public long getTotalStockQuantity() {
+        lock.readLock().lock();
+        try {
+            int[] column = quantities;
+            long total = 0;
+            for (int row = 0, n = size; row < n; row++) {
+                total += column[row];
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts products whose stock is below a threshold
+     *
+     * @param threshold Quantity threshold (exclusive)
+     * @return Number of products with quantity &lt; threshold
+     */
+    @Override
+    public int countQuantityBelow(int threshold) {
+        lock.readLock().lock();
+        try {
+            int[] column = quantities;
+            int count = 0;
+            for (int row = 0, n = size; row < n; row++) {
+                if (column[row] < threshold) {
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the products whose stock is below a threshold
+     *
+     * @param threshold Quantity threshold (exclusive)
+     * @return Views of the matching products
+     */
+    public List<Product> getProductsBelow(int threshold) {
+        lock.readLock().lock();
+        try {
+            List<Product> result = new ArrayList<>();
+            for (int row = 0; row < size; row++) {
+                if (quantities[row] < threshold) {
+                    result.add(new ProductView(idCodes[row]));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts products entered within a date range
+     *
+     * @param from First entry date included
+     * @param to Last entry date included
+     * @return Number of products entered between from and to
+     */
+    public int countEnteredBetween(LocalDate from, LocalDate to) {
+        int first = (int) from.toEpochDay();
+        int last = (int) to.toEpochDay();
+        lock.readLock().lock();
+        try {
+            int[] column = entryDays;
+            int count = 0;
+            for (int row = 0, n = size; row < n; row++) {
+                int day = column[row];
+                if (day >= first && day <= last) {
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Helpers
+    // ---------------------------------------------------------------
+
+    // Row of a product ID, or -1 (caller holds a lock)
+    private int rowOf(String ProductID) {
+        int idCode = ids.lookup(ProductID);
+        return idCode < 0 ? -1 : rowOfId[idCode];
+    }
+
+    // Code of an ID, making room for it in rowOfId (caller holds the write lock)
+    private int encodeId(String ProductID) {
+        int idCode = ids.encode(ProductID);
+        if (idCode >= rowOfId.length) {
+            int oldLength = rowOfId.length;
+            rowOfId = Arrays.copyOf(rowOfId, grow(oldLength, idCode + 1));
+            Arrays.fill(rowOfId, oldLength, rowOfId.length, -1);
+        }
+        return idCode;
+    }
+
+    // Moves a row to a new ID (caller holds the write lock)
+    private OperationOutcome renameAt(int row, String newProductID) {
+        int newCode = encodeId(newProductID);
+        if (newCode == idCodes[row]) {
+            return OperationOutcome.SUCCESS;
+        }
+        if (rowOfId[newCode] >= 0) {
+            return OperationOutcome.DUPLICATE;
+        }
+        rowOfId[idCodes[row]] = -1;
+        rowOfId[newCode] = row;
+        idCodes[row] = newCode;
+        return OperationOutcome.SUCCESS;
+    }
+
+    // Row of a view's product; fails if it was deleted (caller holds a lock)
+    private int liveRow(int idCode) {
+        int row = rowOfId[idCode];
+        if (row < 0) {
+            throw new IllegalStateException("Product " + ids.decode(idCode) + " is no longer in the catalog");
+        }
+        return row;
+    }
+
+    // Same stock rules as Product.addActivity (caller holds the write lock)
+    private void applyAt(int row, Activity activity) {
+        history(row).addFirst(activity);
+        if ("AddToStock".equals(activity.getActivityName())) {
+            quantities[row] += activity.getActivityProductQuantity();
+        } else if ("RemoveFromStock".equals(activity.getActivityName())) {
+            quantities[row] = Math.max(0, quantities[row] - activity.getActivityProductQuantity());
+        }
+    }
+
+    // History of a row, created on first use (caller holds the write lock)
+    private CustomLinkedList<Activity> history(int row) {
+        CustomLinkedList<Activity> history = histories[row];
+        if (history == null) {
+            history = new CustomLinkedList<>(HISTORY_SIZE);
+            histories[row] = history;
+        }
+        return history;
+    }
+
+    private void growColumns() {
+        int capacity = grow(quantities.length, size + 1);
+        idCodes = Arrays.copyOf(idCodes, capacity);
+        nameCodes = Arrays.copyOf(nameCodes, capacity);
+        entryDays = Arrays.copyOf(entryDays, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        histories = Arrays.copyOf(histories, capacity);
+    }
+
+    // New capacity: 1.5x the current one, at least minimum
+    private static int grow(int current, int minimum) {
+        return Math.max(minimum, current + (current >> 1));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CustomLinkedList<Activity>[] newHistoryArray(int capacity) {
+        return (CustomLinkedList<Activity>[]) new CustomLinkedList<?>[capacity];
+    }
+
+    private static int toEpochDay(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    private static LocalDate fromEpochDay(int day) {
+        return day == NO_DATE ? null : LocalDate.ofEpochDay(day);
+    }
+
+    /**
+     * Flyweight Product: only remembers the product's ID code and reads or
+     * writes the catalog's columns on every call
+     * Every public Product method is overridden, since the fields of Product
+     * itself are never filled in.
+     */
+    private final class ProductView extends Product {
+
+        // Changed only by setProductID (under the write lock)
+        private int idCode;
+
+        ProductView(int idCode) {
+            this.idCode = idCode;
+        }
+
+        @Override
+        public String getProductID() {
+            lock.readLock().lock();
+            try {
+                return ids.decode(idCode);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Changes the product's ID (see renameProduct)
+         *
+         * @param ProductID New product ID
+         * @throws IllegalArgumentException if the ID is empty or belongs to another product
+         */
+        @Override
+        public void setProductID(String ProductID) {
+            if (ProductID == null || ProductID.trim().isEmpty()) {
+                throw new IllegalArgumentException("Product ID cannot be empty");
+            }
+            lock.writeLock().lock();
+            try {
+                int row = liveRow(idCode);
+                if (renameAt(row, ProductID) != OperationOutcome.SUCCESS) {
+                    throw new IllegalArgumentException("Product ID " + ProductID + " is already in the catalog");
+                }
+                idCode = idCodes[row];
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public String getProductName() {
+            lock.readLock().lock();
+            try {
+                return names.decode(nameCodes[liveRow(idCode)]);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public void setProductName(String ProductName) {
+            lock.writeLock().lock();
+            try {
+                nameCodes[liveRow(idCode)] = names.encode(ProductName);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public LocalDate getProductEntryDate() {
+            lock.readLock().lock();
+            try {
+                return fromEpochDay(entryDays[liveRow(idCode)]);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public void setProductEntryDate(LocalDate ProductEntryDate) {
+            lock.writeLock().lock();
+            try {
+                entryDays[liveRow(idCode)] = toEpochDay(ProductEntryDate);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public int getProductQuantity() {
+            lock.readLock().lock();
+            try {
+                return quantities[liveRow(idCode)];
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public void setProductQuantity(int ProductQuantity) {
+            lock.writeLock().lock();
+            try {
+                quantities[liveRow(idCode)] = Math.max(0, ProductQuantity);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public void addActivity(Activity activity) {
+            lock.writeLock().lock();
+            try {
+                applyAt(liveRow(idCode), activity);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public CustomLinkedList<Activity> getActivities() {
+            lock.writeLock().lock(); // May create the history
+            try {
+                return history(liveRow(idCode));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public List<Activity> getActivitiesSortedByProductQuantity() {
+            List<Activity> activityList;
+            lock.readLock().lock();
+            try {
+                CustomLinkedList<Activity> history = histories[liveRow(idCode)];
+                activityList = history == null ? new ArrayList<>() : history.getAllElements();
+            } finally {
+                lock.readLock().unlock();
+            }
+            SortAlgorithms.bubbleSortActivities(activityList);
+            return activityList;
+        }
+
+        /**
+         * The catalog keeps one quantity per product, not its deliveries, so the
+         * whole quantity is reported as a single lot received on the entry date
+         *
+         * @return That lot, or an empty list if the quantity is 0 or there is no entry date
+         */
+        @Override
+        public List<StockLot> getStockLots() {
+            List<StockLot> lots = new ArrayList<>(1);
+            lock.readLock().lock();
+            try {
+                int row = liveRow(idCode);
+                LocalDate entryDate = fromEpochDay(entryDays[row]);
+                if (quantities[row] > 0 && entryDate != null) {
+                    lots.add(new StockLot(null, entryDate, quantities[row], 0));
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            return lots;
+        }
+
+        /**
+         * @return Entry date while there is stock (see getStockLots), otherwise null
+         */
+        @Override
+        public LocalDate getOldestStockDate() {
+            List<StockLot> lots = getStockLots();
+            return lots.isEmpty() ? null : lots.get(0).getReceivedDate();
+        }
+
+        /**
+         * @param cutoff First date that does not count
+         * @return The whole quantity if the product was entered before the cutoff (see getStockLots), otherwise 0
+         */
+        @Override
+        public int getStockReceivedBefore(LocalDate cutoff) {
+            for (StockLot lot : getStockLots()) {
+                if (lot.getReceivedDate().isBefore(cutoff)) {
+                    return lot.getRemainingQuantity();
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * @return Always true: the history column is in memory
+         */
+        @Override
+        public boolean isHistoryLoaded() {
+            return true;
+        }
+
+        // A view holds no data of its own; the columns are counted as a whole
+        @Override
+        void accountMemory(MemoryFootprint footprint) {
+            footprint.addSampled(MemoryFootprint.PRODUCTS, MemoryFootprint.shallowSize(getClass()));
+            footprint.sampledProduct(0);
+        }
+    }
+}
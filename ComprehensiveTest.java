@@ -1,269 +1,1840 @@
-package com.mycompany.supermarketmanagementsystem;
-/**
- * Comprehensive test class to demonstrate all system functionalities
- * Provides automated testing for report evidence. This class simulates various
- * user scenarios and edge cases to ensure the supermarket management system
- * works correctly under different conditions.
- * 
- * @author Group 10
- * @version 1.0
- */
-public class ComprehensiveTest {
-    
-    // Reference to the supermarkety manager that will be tested
-    private final SupermarketManager manager;
-    
-    /**
-     * Constructor initializes the test environment by creating a new
-     * SupermarketManager instance that will be used throughout all tests.
-     */
-    public ComprehensiveTest() {
-        this.manager = new SupermarketManager();
-    }
-    
-    /**
-     * Main test execution method that orchestrates all individual tests.
-     * This is the entry point for running the complete test suite.
-     * Displays formatted headers and executes each functionality test in sequence.
-     */
-   public void runAllTests() {
-       // Display a decorative header for the test suite
-        System.out.println("\n" + "╔══════════════════════════════════════════════════════════════╗");
-        System.out.println("║                 COMPREHENSIVE SYSTEM TESTING                    ║");
-        System.out.println("╚══════════════════════════════════════════════════════════════╝");
-
-       // Execute each test function in the required order
-       testFunctionality1(); // F1: Create products with various scenarios
-       testFunctionality2(); // F2: Display all products
-       testFunctionality3(); // F3: Delete product functionality
-       testFunctionality4(); // F4: Add activities to products
-       testFunctionality5(); // F5: Display sorted activities
-       testLastFourRestriction(); // Additional test: Last 4 activities restriction
-       testDataValidation(); // Additional test: Input validation edge cases
-       
-       // Display test completion message
-       System.out.println("\n" + "=".repeat(70));
-       System.out.println("ALL TEST COMPLETED SUCCESSFULLY");
-       System.out.println("=".repeat(70));
-    }
-   
-   /**
-    * Tests Functinality 1: Product Creation
-    * This test validates that products can be created with valid data
-    * and handles edge cases like duplicates and negative quantities.
-    */
-    private void testFunctionality1() {
-       System.out.println("\n" + "-".repeat(40));
-       System.out.println("TEST F1: CREATE PRODUCTS");
-       System.out.println("-".repeat(40));
-       
-       // Test 1: Createb products with void data
-       System.out.println("Creating three valid products....");
-       manager.createProduct("P100", "Test Product 1", java.time.LocalDate.now(), 50);
-       manager.createProduct("P200", "Test Product 2", java.time.LocalDate.now(), 30);
-       manager.createProduct("P300", "Test Product 3", java.time.LocalDate.now(), 40);
-       
-       // Test 2: Attempt to create product with duplicate product ID
-       System.out.println("\nAttempting to create product with duplicate ID 'P100'...");
-       manager.createProduct("P100", "Duplicate Product", java.time.LocalDate.now(),20);
-       
-       // Test 3: Attempt to create product with negative quantity
-       System.out.println("\nAttempting to create product with negative quantity...");
-       manager.createProduct("P400", "Negative Test", java.time.LocalDate.now(), -10);
-    }
-    
-    /**
-     * Tests Functionality 2: Display All Products
-     * This test verifies that all products in the system can be displayed
-     * in a readable format after creation.
-     */
-    private void testFunctionality2(){
-       System.out.println("\n" + "-".repeat(40));
-       System.out.println("TEST F2: DISPLAY ALL PRODUCTS");
-       System.out.println("-".repeat(40));
-       
-       System.out.println("Displaying all products currently in the system...");
-       manager.displayAllProducts();
-   }
-    
-    /**
-     * Tests Functionality 3: Delete Product
-     * This test verifies product deletion works correctly and handles
-     * attempts to delete non-existent products gracefully.
-     */
-   private void testFunctionality3() {
-       System.out.println("\n" + "-".repeat(40));
-       System.out.println("TEST F3: DELETE PRODUCT");
-       System.out.println("-".repeat(40));
-       
-       // Display products before deletion
-       System.out.println("Brfore deletion:");
-       manager.displayAllProducts();
-       
-       //Delete an existing product
-       System.out.println("\nDeleting product with ID 'p200'...");
-       manager.deleteProduct("P200");
-       
-       //Display products after deletation to confirm removal
-       System.out.println("After deletion:");
-       manager.displayAllProducts();
-       
-       // Test deleting non-existent product
-       System.out.println("\nAttempting to delete non-existen product...");
-       manager.deleteProduct("NONEXISTENT");
-   }
-   
-   /**
-    * Tests Functionality 4: Add Activities to products
-    * This test validates that activities can be added to products,
-    * including both AddToStock an RemoveToStock operations.
-    * Also tests edge cases Like negative quantities and insufficient stock.
-    */
-    private void testFunctionality4() {
-       System.out.println("\n" + "-".repeat(40));
-       System.out.println("TEST F4: ADD ACTIVITIES");
-       System.out.println("-".repeat(40));
-       
-       // Test 1: Add Stock to existing product
-       System.out.println("\nAdding Stock from product 'P100'...");
-       manager.addActivityToProduct("P100", "AddStock", 25, java.time.LocalDate.now().plusDays(1));
-       
-       // Test 2: Remove Stock from product
-       System.out.println("\nRemoving stock from product 'P100'...");
-       manager.addActivityToProduct("P100", "RemoveFromStock", 15, java.time.LocalDate.now().plusDays(2));
-       
-       // Test 3: Attempt to add negative quantity
-       System.out.println("\nAttempting to add negative quantity...");
-       manager.addActivityToProduct("P100", "AddToStock", -5, java.time.LocalDate.now());
-       
-       // Test 4: Attempt to remove more stock than available
-       System.out.println("\nAttempting to remove stock than available...");
-       manager.addActivityToProduct("P100", "RemoveFromStock", 1000, java.time.LocalDate.now());
-       
-       // Display final product state to verify updates
-       System.out.println("\nFinal product state after all activities:");
-       manager.displayAllProducts();
-   }
-   
-    /**
-     * Tests Functionality 5: Display sorted Activities
-     * This test verifies that activities for a product can be displayed
-     * in sorted order (Likely by date or activity ID).
-     */
-   private void testFunctionality5(){
-       System.out.println("\n" + "-".repeat(40));
-       System.out.println("TEST F5: DISPLAY SORTED ACTIVITIES");
-       System.out.println("-".repeat(40));
-       
-       // Add multiple activities to a product for testing
-       System.out.println("Adding multiple activities to product 'P300'...");
-       manager.addActivityToProduct("P300", "AddToStock", 50, java.time.LocalDate.now().plusDays(1));
-       manager.addActivityToProduct("P300", "RemoveFromStock", 10, java.time.LocalDate.now().plusDays(2));
-       manager.addActivityToProduct("P300", "AddToStock", 30, java.time.LocalDate.now().plusDays(3));
-       manager.addActivityToProduct("P300", "RemoveFromStock", 20, java.time.LocalDate.now().plusDays(4));
-       
-       //Display the activities , which should be sorted
-       System.out.println("\nDisplaying sorted activities for product 'P300'");
-       manager.displayProductActivities("P300");
-   }
-   
-   /**
-    * Tests the "Last 4 Activities" restriction feature.
-    * This test verifies that when more than 4 activities are added to a product,
-    * only the most recent 4 are retained and displayed.
-    */
-   private void testLastFourRestriction() {
-       System.out.println("\n" + "-".repeat(50));
-       System.out.println("TEST: LAST 4 ACTIVITIES RESTRICTION");
-       System.out.println("-".repeat(50));
-      
-       // Create a new product specifically for this test
-       System.out.println("Creating test product 'TEST001'...");
-       manager.createProduct("TEST001", "Restriction Test Product", java.time.LocalDate.now(), 100);
-       
-       System.out.println("\nAdding 6 activities to product TEST001...");
-       System.out.println("System should keep only the last 4 activities.");
-       
-       // Add 6 activities - system should keep only last 4 according to requirement
-       // Activity 1: Will be removed when we exceed 4 activities
-       
-       manager.addActivityToProduct("TEST001", "AddToStock", 10,
-               java.time.LocalDate.now().plusDays(1));
-       
-       // Activity 2: Will be removed when we exceed 4 activities
-       // Note: Typo in activity name - should be "RemoveFromSTock" not "RemoveToStock"
-       
-       manager.addActivityToProduct("Test001", "RemoveToStock", 5,
-               java.time.LocalDate.now().plusDays(2));
-       
-       // Activity 3: Will be kept (3rd olddest of the Last 4)
-       manager.addActivityToProduct("TEST001", "AddToStock", 20,
-               java.time.LocalDate.now().plusDays(3));
-       
-       // Activity 4: Will be kept (4th oldest of the last 4) 
-       manager.addActivityToProduct("TEST001", "RemoveFromStock", 8,
-               java.time.LocalDate.now().plusDays(4));
-       
-       // Activity 5: will be kept (2nd most recent)
-       manager.addActivityToProduct("TEST001", "AddToStock", 15,
-               java.time.LocalDate.now().plusDays(5)); 
-       
-       // Activity 6: will be kept (Most recent)
-       manager.addActivityToProduct("TEST001", "RemoveFromStock", 3,
-                java.time.LocalDate.now().plusDays(6)); 
-                
-       // Display activities - should show only the last 4 (Activities 3-6)
-        System.out.println("Displaying activities - should show only LAST 4:");
-        manager.displayProductActivities("TEST001");
-    }
-   
-   /**
-    * Tests various data validation scenarios.
-    * This test ensures the system properly handles invalid or edge case inputs
-    * without crashing and provides appropriate error messages.
-    */
-   private void testDataValidation() {
-       System.out.println("\n" + "-".repeat(40));
-       System.out.println("TEST: DATA VALIDATION");
-       System.out.println("-".repeat(40));
-       
-       System.out.println("Testing various invalid inputs to ensure proper validation...");
-       
-       // Test 1: Empty product ID 
-       System.out.println("\n1. Testing empty product ID...");
-       manager.createProduct("", "Empty ID Test", java.time.LocalDate.now(),10);
-       
-       // Test 2: Empty product name
-       System.out.println("\n2. Testing empty product name...");
-       manager.createProduct("P500", "", java.time.LocalDate.now(), 10);
-       
-       // Test 3: Invalid activity type
-       System.out.println("\n3. Testing invalid activity type...");
-       manager.addActivityToProduct("P100", "InvalidType", 10,
-               java.time.LocalDate.now());
-       
-       
-       // Note: Additional validation tests could include:
-       // - Null date values
-       // - Product ID with speciap chracters
-       // - Very Large quantity values
-       // - Dates in the past/future depending on business rules
-   }
-   
-   /**
-    * Main method to run the comprehensive test suite.
-    * This is the entry Point when the class is executed directly
-    * 
-    * @param args Command Line arguments (not used in this test)
-    */
-   public static void main(String[] args) {
-       System.out.println("Starting Comprehensive Test Suite...");
-       System.out.println("=".repeat(70));
-       
-       // Create test instance and run all tests
-       ComprehensiveTest test = new ComprehensiveTest();
-       test.runAllTests();
-       
-       System.out.println("\nTest execution completed. Check output above for the results.");
-   }
+package com.mycompany.supermarketmanagementsystem;
+/**
+ * Comprehensive test class to demonstrate all system functionalities
+ * Provides automated testing for report evidence. This class simulates various
+ * user scenarios and edge cases to ensure the supermarket management system
+ * works correctly under different conditions.
+ * 
+ * @author Group 10
+ * @version 1.0
+ */
+public class ComprehensiveTest {
+    
+    // Reference to the supermarkety manager that will be tested
+    private final SupermarketManager manager;
+    
+    /**
+     * Constructor initializes the test environment by creating a new
+     * SupermarketManager instance that will be used throughout all tests.
+     */
+    public ComprehensiveTest() {
+        this.manager = new SupermarketManager();
+    }
+    
+    /**
+     * Main test execution method that orchestrates all individual tests.
+     * This is the entry point for running the complete test suite.
+     * Displays formatted headers and executes each functionality test in sequence.
+     */
+   public void runAllTests() {
+       // Display a decorative header for the test suite
+        System.out.println("\n" + "╔══════════════════════════════════════════════════════════════╗");
+        System.out.println("║                 COMPREHENSIVE SYSTEM TESTING                    ║");
+        System.out.println("╚══════════════════════════════════════════════════════════════╝");
+
+       // Execute each test function in the required order
+       testFunctionality1(); // F1: Create products with various scenarios
+       testFunctionality2(); // F2: Display all products
+       testFunctionality3(); // F3: Delete product functionality
+       testFunctionality4(); // F4: Add activities to products
+       testFunctionality5(); // F5: Display sorted activities
+       testLastFourRestriction(); // Additional test: Last 4 activities restriction
+       testDataValidation(); // Additional test: Input validation edge cases
+       testHttpApi(); // Additional test: HTTP/JSON API on localhost
+       testSingleWriterPipeline(); // Additional test: ring-buffer single-writer mode
+       testShardedManager(); // Additional test: hash-partitioned shards
+       testReplication(); // Additional test: primary/replica log shipping
+       testEventSinks(); // Additional test: structured outcomes and event sinks
+       testColumnarCatalog(); // Additional test: struct-of-arrays catalog
+       testOffHeapCatalog(); // Additional test: off-heap and memory-mapped catalog
+       testSnapshots(); // Additional test: MVCC point-in-time snapshots
+       testBaskets(); // Additional test: all-or-nothing basket transactions
+       testActivityKeys(); // Additional test: repeated activity keys are applied once
+       testSortedActivityView(); // Additional test: cached quantity-sorted history
+       testStockLots(); // Additional test: FIFO stock lots and stock age
+       testActivityHistory(); // Additional test: daily rollups and compaction
+       testDemandForecast(); // Additional test: streaming stock-out forecast
+       testChangeEvents(); // Additional test: change event stream with backpressure
+       testProductQueries(); // Additional test: predicate queries and index selection
+       testEntryDateIndex(); // Additional test: entry date index for ageing queries
+       testMemoryFootprint(); // Additional test: sampled memory accounting
+       testLazyHistory(); // Additional test: saved catalog with histories loaded on first use
+       testActivityCodec(); // Additional test: compressed activity encoding
+       testActivityJournal(); // Additional test: journal segments and memory-mapped analytics
+       testJournalRecovery(); // Additional test: parallel replay matches the crashed manager
+       testBackgroundCheckpoint(); // Additional test: checkpoints during activity plus the journal recover exactly
+       testAdmissionControl(); // Additional test: bounded queues, checkout priority and load shedding
+       testTombstoneDeletion(); // Additional test: O(1) deletion hides products at once, compaction keeps order
+       
+       // Display test completion message
+       System.out.println("\n" + "=".repeat(70));
+       System.out.println("ALL TEST COMPLETED SUCCESSFULLY");
+       System.out.println("=".repeat(70));
+    }
+   
+   /**
+    * Tests Functinality 1: Product Creation
+    * This test validates that products can be created with valid data
+    * and handles edge cases like duplicates and negative quantities.
+    */
+    private void testFunctionality1() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST F1: CREATE PRODUCTS");
+       System.out.println("-".repeat(40));
+       
+       // Test 1: Createb products with void data
+       System.out.println("Creating three valid products....");
+       manager.createProduct("P100", "Test Product 1", java.time.LocalDate.now(), 50);
+       manager.createProduct("P200", "Test Product 2", java.time.LocalDate.now(), 30);
+       manager.createProduct("P300", "Test Product 3", java.time.LocalDate.now(), 40);
+       
+       // Test 2: Attempt to create product with duplicate product ID
+       System.out.println("\nAttempting to create product with duplicate ID 'P100'...");
+       manager.createProduct("P100", "Duplicate Product", java.time.LocalDate.now(),20);
+       
+       // Test 3: Attempt to create product with negative quantity
+       System.out.println("\nAttempting to create product with negative quantity...");
+       manager.createProduct("P400", "Negative Test", java.time.LocalDate.now(), -10);
+    }
+    
+    /**
+     * Tests Functionality 2: Display All Products
+     * This test verifies that all products in the system can be displayed
+     * in a readable format after creation.
+     */
+    private void testFunctionality2(){
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST F2: DISPLAY ALL PRODUCTS");
+       System.out.println("-".repeat(40));
+       
+       System.out.println("Displaying all products currently in the system...");
+       manager.displayAllProducts();
+   }
+    
+    /**
+     * Tests Functionality 3: Delete Product
+     * This test verifies product deletion works correctly and handles
+     * attempts to delete non-existent products gracefully.
+     */
+   private void testFunctionality3() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST F3: DELETE PRODUCT");
+       System.out.println("-".repeat(40));
+       
+       // Display products before deletion
+       System.out.println("Brfore deletion:");
+       manager.displayAllProducts();
+       
+       //Delete an existing product
+       System.out.println("\nDeleting product with ID 'p200'...");
+       manager.deleteProduct("P200");
+       
+       //Display products after deletation to confirm removal
+       System.out.println("After deletion:");
+       manager.displayAllProducts();
+       
+       // Test deleting non-existent product
+       System.out.println("\nAttempting to delete non-existen product...");
+       manager.deleteProduct("NONEXISTENT");
+   }
+   
+   /**
+    * Tests Functionality 4: Add Activities to products
+    * This test validates that activities can be added to products,
+    * including both AddToStock an RemoveToStock operations.
+    * Also tests edge cases Like negative quantities and insufficient stock.
+    */
+    private void testFunctionality4() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST F4: ADD ACTIVITIES");
+       System.out.println("-".repeat(40));
+       
+       // Test 1: Add Stock to existing product
+       System.out.println("\nAdding Stock from product 'P100'...");
+       manager.addActivityToProduct("P100", "AddStock", 25, java.time.LocalDate.now().plusDays(1));
+       
+       // Test 2: Remove Stock from product
+       System.out.println("\nRemoving stock from product 'P100'...");
+       manager.addActivityToProduct("P100", "RemoveFromStock", 15, java.time.LocalDate.now().plusDays(2));
+       
+       // Test 3: Attempt to add negative quantity
+       System.out.println("\nAttempting to add negative quantity...");
+       manager.addActivityToProduct("P100", "AddToStock", -5, java.time.LocalDate.now());
+       
+       // Test 4: Attempt to remove more stock than available
+       System.out.println("\nAttempting to remove stock than available...");
+       manager.addActivityToProduct("P100", "RemoveFromStock", 1000, java.time.LocalDate.now());
+       
+       // Display final product state to verify updates
+       System.out.println("\nFinal product state after all activities:");
+       manager.displayAllProducts();
+   }
+   
+    /**
+     * Tests Functionality 5: Display sorted Activities
+     * This test verifies that activities for a product can be displayed
+     * in sorted order (Likely by date or activity ID).
+     */
+   private void testFunctionality5(){
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST F5: DISPLAY SORTED ACTIVITIES");
+       System.out.println("-".repeat(40));
+       
+       // Add multiple activities to a product for testing
+       System.out.println("Adding multiple activities to product 'P300'...");
+       manager.addActivityToProduct("P300", "AddToStock", 50, java.time.LocalDate.now().plusDays(1));
+       manager.addActivityToProduct("P300", "RemoveFromStock", 10, java.time.LocalDate.now().plusDays(2));
+       manager.addActivityToProduct("P300", "AddToStock", 30, java.time.LocalDate.now().plusDays(3));
+       manager.addActivityToProduct("P300", "RemoveFromStock", 20, java.time.LocalDate.now().plusDays(4));
+       
+       //Display the activities , which should be sorted
+       System.out.println("\nDisplaying sorted activities for product 'P300'");
+       manager.displayProductActivities("P300");
+   }
+   
+   /**
+    * Tests the "Last 4 Activities" restriction feature.
+    * This test verifies that when more than 4 activities are added to a product,
+    * only the most recent 4 are retained and displayed.
+    */
+   private void testLastFourRestriction() {
+       System.out.println("\n" + "-".repeat(50));
+       System.out.println("TEST: LAST 4 ACTIVITIES RESTRICTION");
+       System.out.println("-".repeat(50));
+      
+       // Create a new product specifically for this test
+       System.out.println("Creating test product 'TEST001'...");
+       manager.createProduct("TEST001", "Restriction Test Product", java.time.LocalDate.now(), 100);
+       
+       System.out.println("\nAdding 6 activities to product TEST001...");
+       System.out.println("System should keep only the last 4 activities.");
+       
+       // Add 6 activities - system should keep only last 4 according to requirement
+       // Activity 1: Will be removed when we exceed 4 activities
+       
+       manager.addActivityToProduct("TEST001", "AddToStock", 10,
+               java.time.LocalDate.now().plusDays(1));
+       
+       // Activity 2: Will be removed when we exceed 4 activities
+       // Note: Typo in activity name - should be "RemoveFromSTock" not "RemoveToStock"
+       
+       manager.addActivityToProduct("Test001", "RemoveToStock", 5,
+               java.time.LocalDate.now().plusDays(2));
+       
+       // Activity 3: Will be kept (3rd olddest of the Last 4)
+       manager.addActivityToProduct("TEST001", "AddToStock", 20,
+               java.time.LocalDate.now().plusDays(3));
+       
+       // Activity 4: Will be kept (4th oldest of the last 4) 
+       manager.addActivityToProduct("TEST001", "RemoveFromStock", 8,
+               java.time.LocalDate.now().plusDays(4));
+       
+       // Activity 5: will be kept (2nd most recent)
+       manager.addActivityToProduct("TEST001", "AddToStock", 15,
+               java.time.LocalDate.now().plusDays(5)); 
+       
+       // Activity 6: will be kept (Most recent)
+       manager.addActivityToProduct("TEST001", "RemoveFromStock", 3,
+                java.time.LocalDate.now().plusDays(6)); 
+                
+       // Display activities - should show only the last 4 (Activities 3-6)
+        System.out.println("Displaying activities - should show only LAST 4:");
+        manager.displayProductActivities("TEST001");
+    }
+   
+   /**
+    * Tests various data validation scenarios.
+    * This test ensures the system properly handles invalid or edge case inputs
+    * without crashing and provides appropriate error messages.
+    */
+   private void testDataValidation() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: DATA VALIDATION");
+       System.out.println("-".repeat(40));
+       
+       System.out.println("Testing various invalid inputs to ensure proper validation...");
+       
+       // Test 1: Empty product ID 
+       System.out.println("\n1. Testing empty product ID...");
+       manager.createProduct("", "Empty ID Test", java.time.LocalDate.now(),10);
+       
+       // Test 2: Empty product name
+       System.out.println("\n2. Testing empty product name...");
+       manager.createProduct("P500", "", java.time.LocalDate.now(), 10);
+       
+       // Test 3: Invalid activity type
+       System.out.println("\n3. Testing invalid activity type...");
+       manager.addActivityToProduct("P100", "InvalidType", 10,
+               java.time.LocalDate.now());
+       
+       
+       // Note: Additional validation tests could include:
+       // - Null date values
+       // - Product ID with speciap chracters
+       // - Very Large quantity values
+       // - Dates in the past/future depending on business rules
+   }
+   
+   /**
+    * Tests the embedded HTTP API against a server on localhost.
+    * Starts the server on a free port, calls each endpoint once with the JDK
+    * HTTP client and prints the status codes returned.
+    */
+   private void testHttpApi() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: HTTP API");
+       System.out.println("-".repeat(40));
+       
+       SupermarketHttpServer server = null;
+       try {
+           server = new SupermarketHttpServer(new SupermarketManager(), "localhost", 0);
+           server.start();
+           String base = "http://localhost:" + server.getPort();
+           java.net.http.HttpClient client = java.net.http.HttpClient.newHttpClient();
+           
+           // Create, read, add activity, list, recent activities, delete
+           System.out.println("POST /products -> " + send(client, "POST", base + "/products",
+                   "{\"productId\":\"H001\",\"productName\":\"Http Milk\",\"entryDate\":\"2024-01-10\",\"quantity\":20}"));
+           System.out.println("POST /products (duplicate) -> " + send(client, "POST", base + "/products",
+                   "{\"productId\":\"H001\",\"productName\":\"Again\",\"quantity\":1}"));
+           System.out.println("GET /products/H001 -> " + send(client, "GET", base + "/products/H001", null));
+           System.out.println("POST /products/H001/activities -> " + send(client, "POST", base + "/products/H001/activities",
+                   "{\"activityName\":\"RemoveFromStock\",\"quantity\":5,\"activityDate\":\"2024-01-11\"}"));
+           System.out.println("POST /products/H001/activities (too many) -> " + send(client, "POST", base + "/products/H001/activities",
+                   "{\"activityName\":\"RemoveFromStock\",\"quantity\":500}"));
+           System.out.println("GET /products?offset=0&limit=10 -> " + send(client, "GET", base + "/products?offset=0&limit=10", null));
+           System.out.println("GET /products?enteredFrom=2024-01-01&enteredTo=2024-01-31 -> " + send(client, "GET",
+                   base + "/products?enteredFrom=2024-01-01&enteredTo=2024-01-31", null));
+           System.out.println("GET /products/H001/activities?limit=2 -> " + send(client, "GET", base + "/products/H001/activities?limit=2", null));
+           System.out.println("DELETE /products/H001 -> " + send(client, "DELETE", base + "/products/H001", null));
+           System.out.println("GET /products/H001 (deleted) -> " + send(client, "GET", base + "/products/H001", null));
+           for (int i = 0; i < 3; i++) {
+               send(client, "GET", base + "/products/H001/junk" + i, null); // Unknown paths share one route
+           }
+           RequestMetrics metrics = server.getMetrics();
+           System.out.println("Unknown paths counted under one route (expected 3): "
+                   + metrics.getCount("GET /products/{unknown}"));
+           System.out.println("p99 never above the slowest request: "
+                   + (metrics.getPercentileMicros("GET /products/{id}", 99) <= metrics.getPercentileMicros("GET /products/{id}", 100)));
+           System.out.println("GET /metrics -> " + send(client, "GET", base + "/metrics", null));
+           System.out.println("GET /metrics/memory -> " + send(client, "GET", base + "/metrics/memory", null));
+       } catch (Exception e) {
+           System.out.println("HTTP API test failed: " + e);
+       } finally {
+           if (server != null) {
+               server.stop(0);
+           }
+       }
+   }
+   
+   /**
+    * Tests the single-writer pipeline mode.
+    * Submits creates, single activities and a batch through the ring buffer
+    * and checks the final quantity with a query run on the writer thread.
+    */
+   private void testSingleWriterPipeline() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: SINGLE-WRITER PIPELINE");
+       System.out.println("-".repeat(40));
+       
+       SingleWriterPipeline pipeline = new SingleWriterPipeline(new SupermarketManager(), 8);
+       pipeline.start();
+       try {
+           java.time.LocalDate today = java.time.LocalDate.now();
+           System.out.println("Create SW001 -> " + pipeline.createProduct("SW001", "Ring Product", today, 10).join());
+           System.out.println("Remove 4 -> " + pipeline.addActivity("SW001", "RemoveFromStock", 4, today).join());
+           System.out.println("Remove 100 (insufficient) -> " + pipeline.addActivity("SW001", "RemoveFromStock", 100, today).join());
+           
+           // Batch of consecutive events claimed in one go
+           java.util.List<SingleWriterPipeline.ActivityCommand> batch = new java.util.ArrayList<>();
+           for (int i = 0; i < 5; i++) {
+               batch.add(new SingleWriterPipeline.ActivityCommand("SW001", "AddToStock", 2, today));
+           }
+           pipeline.submitActivities(batch).forEach(java.util.concurrent.CompletableFuture::join);
+           
+           // Expected: 10 + 10 (initial activity) - 4 + 5 * 2 = 26
+           int quantity = pipeline.query(m -> m.getProduct("SW001").getProductQuantity()).join();
+           System.out.println("Final quantity (expected 26): " + quantity);
+           pipeline.shutdown();
+           System.out.println("Events applied: " + pipeline.getEventCount() + " in " + pipeline.getBatchCount() + " batches");
+           
+           // Producers racing a shutdown: every accepted event is applied, the rest are refused
+           SingleWriterPipeline racing = new SingleWriterPipeline(new SupermarketManager(), 4);
+           racing.start();
+           racing.createProduct("SW002", "Race Product", today, 0).join();
+           java.util.List<java.util.concurrent.CompletableFuture<Boolean>> accepted =
+                   java.util.Collections.synchronizedList(new java.util.ArrayList<>());
+           Thread[] producers = new Thread[4];
+           for (int t = 0; t < producers.length; t++) {
+               producers[t] = new Thread(() -> {
+                   try {
+                       while (true) {
+                           accepted.add(racing.addActivity("SW002", "AddToStock", 1, today));
+                       }
+                   } catch (IllegalStateException e) {
+                       // Refused after shutdown
+                   }
+               });
+               producers[t].start();
+           }
+           Thread.sleep(20);
+           racing.shutdown();
+           for (Thread producer : producers) {
+               producer.join();
+           }
+           boolean allDone = true;
+           synchronized (accepted) {
+               for (java.util.concurrent.CompletableFuture<Boolean> future : accepted) {
+                   allDone &= future.isDone();
+               }
+           }
+           System.out.println("Every accepted event applied after shutdown: " + allDone + " ("
+                   + accepted.size() + " events)");
+       } catch (InterruptedException e) {
+           Thread.currentThread().interrupt();
+       }
+   }
+   
+   /**
+    * Tests the sharded manager.
+    * Creates products that spread over several shards, applies activities
+    * and checks that catalog-wide counts and totals merge every shard.
+    */
+   private void testShardedManager() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: SHARDED MANAGER");
+       System.out.println("-".repeat(40));
+       
+       ShardedSupermarketManager sharded = new ShardedSupermarketManager(4);
+       java.time.LocalDate today = java.time.LocalDate.now();
+       for (int i = 1; i <= 6; i++) {
+           sharded.createProduct("SH00" + i, "Shard Product " + i, today, 10);
+           System.out.println("SH00" + i + " -> shard " + sharded.shardFor("SH00" + i));
+       }
+       sharded.addActivityToProduct("SH001", "RemoveFromStock", 5, today);
+       sharded.addActivityToProductAsync("SH002", "AddToStock", 5, today).join();
+       
+       // Each product starts at 20 (initial quantity + initial activity)
+       System.out.println("Product count (expected 6): " + sharded.getProductCount());
+       System.out.println("Total stock (expected 120): " + sharded.getTotalStockQuantity());
+       sharded.displayAllProducts();
+       try {
+           sharded.shutdown();
+       } catch (InterruptedException e) {
+           Thread.currentThread().interrupt();
+       }
+   }
+   
+   /**
+    * Tests primary/replica replication over a localhost socket.
+    * Changes made before the replica connects arrive in the snapshot, later
+    * ones through the change stream; both must end up on the replica.
+    */
+   private void testReplication() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: REPLICATION");
+       System.out.println("-".repeat(40));
+       
+       SupermarketManager primaryManager = new SupermarketManager();
+       primaryManager.setHistoryDepth(8); // Deeper than the default; the replica must keep the same
+       ReplicationPrimary primary = null;
+       ReplicaSupermarket replica = null;
+       try {
+           primary = new ReplicationPrimary(primaryManager, 0);
+           primary.start();
+           java.time.LocalDate today = java.time.LocalDate.now();
+           
+           // Before the replica connects: shipped in the snapshot
+           primaryManager.createProduct("R001", "Replicated Tea", today, 30);
+           primaryManager.addActivityToProduct("R001", "RemoveFromStock", 10, today);
+           for (int i = 0; i < 4; i++) {
+               primaryManager.addActivityToProduct("R001", "AddToStock", 1, today);
+           }
+           
+           replica = new ReplicaSupermarket("localhost", primary.getPort());
+           replica.start();
+           waitForReplica(replica, primaryManager);
+           
+           // After the replica connects: shipped as individual changes
+           primaryManager.createProduct("R002", "Replicated Coffee", today, 5);
+           primaryManager.addActivityToProduct("R001", "AddToStock", 7, today);
+           primaryManager.deleteProduct("R002");
+           primaryManager.createProduct("R003", "Replicated Cocoa", today, 5);
+           for (int i = 0; i < 5; i++) {
+               primaryManager.addActivityToProduct("R003", "AddToStock", 1, today);
+           }
+           waitForReplica(replica, primaryManager);
+           
+           System.out.println("Primary R001 quantity: " + primaryManager.getProduct("R001").getProductQuantity());
+           System.out.println("Replica R001 quantity: " + replica.getProduct("R001").getProductQuantity());
+           System.out.println("Replica has R002 (expected false): " + (replica.getProduct("R002") != null));
+           System.out.println("Replica activities for R001 and R003 (expected 7 6): "
+                   + replica.getRecentActivities("R001", 10).size() + " " + replica.getRecentActivities("R003", 10).size());
+           System.out.println(replica.getMetricsReport());
+       } catch (Exception e) {
+           System.out.println("Replication test failed: " + e);
+       } finally {
+           if (replica != null) {
+               replica.stop();
+           }
+           if (primary != null) {
+               primary.stop();
+           }
+       }
+   }
+   
+   /**
+    * Tests structured operation outcomes and the event sinks.
+    * A silent manager must still report outcomes; an asynchronous sink must
+    * write every event it accepted once it is closed.
+    */
+   private void testEventSinks() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: EVENT SINKS AND OUTCOMES");
+       System.out.println("-".repeat(40));
+       
+       java.time.LocalDate today = java.time.LocalDate.now();
+       SupermarketManager silent = new SupermarketManager();
+       silent.setEventSink(EventSink.NONE);
+       System.out.println("Create E001: " + silent.tryCreateProduct("E001", "Event Bread", today, 5));
+       System.out.println("Create E001 again (DUPLICATE): " + silent.tryCreateProduct("E001", "Event Bread", today, 5));
+       System.out.println("Create with empty ID (INVALID_INPUT): " + silent.tryCreateProduct("", "Event Bread", today, 5));
+       System.out.println("Remove 999 from E001 (INSUFFICIENT_STOCK): "
+               + silent.tryAddActivityToProduct("E001", "RemoveFromStock", 999, today));
+       System.out.println("Add stock to E999 (NOT_FOUND): "
+               + silent.tryAddActivityToProduct("E999", "AddToStock", 1, today));
+       System.out.println("Delete E001: " + silent.tryDeleteProduct("E001"));
+       
+       // Only WARN and above: the two rejections below are written, the success is not
+       java.io.ByteArrayOutputStream captured = new java.io.ByteArrayOutputStream();
+       AsyncEventSink async = new AsyncEventSink(new java.io.PrintStream(captured, true),
+               EventSink.Level.WARN, 1_024);
+       SupermarketManager logged = new SupermarketManager();
+       logged.setEventSink(async);
+       logged.createProduct("E002", "Event Milk", today, 2);
+       logged.createProduct("E002", "Event Milk", today, 2);
+       logged.deleteProduct("E404");
+       async.close();
+       System.out.println("Async sink written events (expected 2): " + async.getWrittenEvents());
+       System.out.print("Async sink output:\n" + captured);
+   }
+   
+   /**
+    * Tests the columnar catalog: copying from the manager, flyweight product
+    * views, column scans and dense deletion.
+    */
+   private void testColumnarCatalog() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: COLUMNAR CATALOG");
+       System.out.println("-".repeat(40));
+       
+       java.time.LocalDate today = java.time.LocalDate.now();
+       ColumnarProductCatalog columnar = ColumnarProductCatalog.copyOf(manager.getAllProducts());
+       System.out.println("Products copied (manager/columnar): " + manager.getProductCount() + "/" + columnar.getProductCount());
+       long managerStock = 0;
+       for (Product product : manager.getAllProducts()) {
+           managerStock += product.getProductQuantity();
+       }
+       System.out.println("Total stock (manager/columnar): " + managerStock + "/" + columnar.getTotalStockQuantity());
+       
+       columnar.addProduct("C001", "Columnar Rice", today, 3);
+       columnar.addProduct("C002", "Columnar Rice", today, 40);
+       System.out.println("Duplicate add (DUPLICATE): " + columnar.addProduct("C001", "Columnar Rice", today, 3));
+       System.out.println("Distinct names <= products: " + (columnar.getDistinctNameCount() <= columnar.getProductCount()));
+       
+       Product view = columnar.getProduct("C001");
+       columnar.applyActivity("C001", new Activity("ACT1", "AddToStock", 7, today));
+       System.out.println("View sees the update (expected 10): " + view.getProductQuantity());
+       System.out.println("Remove too much (INSUFFICIENT_STOCK): "
+               + columnar.applyActivity("C001", new Activity("ACT2", "RemoveFromStock", 99, today)));
+       System.out.println("Products below 20 include C001: " + columnar.getProductsBelow(20).stream()
+               .anyMatch(p -> "C001".equals(p.getProductID())));
+       
+       
+       // Renaming keeps the row; a taken ID is refused with an outcome (or IllegalArgumentException on a view)
+       System.out.println("Rename C002 to C001 (DUPLICATE): " + columnar.renameProduct("C002", "C001"));
+       Product renamed = columnar.getProduct("C002");
+       renamed.setProductID("C003");
+       System.out.println("C003 after rename through a view: " + columnar.getProduct("C003"));
+       try {
+           renamed.setProductID("C001");
+           System.out.println("Rename to a taken ID was accepted");
+       } catch (IllegalArgumentException e) {
+           System.out.println("Rename to a taken ID refused: " + e.getMessage());
+       }
+       java.util.List<StockLot> lots = renamed.getStockLots();
+       System.out.println("Stock lots of a view (expected one lot of the whole quantity, on the entry date): "
+               + lots.size() + " " + (lots.get(0).getRemainingQuantity() == renamed.getProductQuantity()
+                       && lots.get(0).getReceivedDate().equals(renamed.getProductEntryDate()))
+               + ", oldest stock on the entry date: " + renamed.getProductEntryDate().equals(renamed.getOldestStockDate()));
+       
+       columnar.removeProduct("C001");
+       System.out.println("C001 after removal (expected null): " + columnar.getProduct("C001"));
+       System.out.println("C003 still intact: " + columnar.getProduct("C003"));
+   }
+   
+   /**
+    * Tests the off-heap catalog in direct memory and backed by a mapped file.
+    * The file-backed catalog must come back with its products after reopening.
+    */
+   private void testOffHeapCatalog() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: OFF-HEAP CATALOG");
+       System.out.println("-".repeat(40));
+       
+       java.time.LocalDate today = java.time.LocalDate.now();
+       OffHeapProductCatalog offHeap = new OffHeapProductCatalog(100);
+       offHeap.addProduct("O001", "Off-heap Oats", today, 12);
+       offHeap.addProduct("O002", "Off-heap Salt", today, 3);
+       System.out.println("Duplicate add (DUPLICATE): " + offHeap.addProduct("O001", "Off-heap Oats", today, 1));
+       System.out.println("Over-long ID (INVALID_INPUT): " + offHeap.addProduct("X".repeat(40), "Too long", today, 1));
+       
+       Product view = offHeap.getProduct("O001");
+       for (int i = 1; i <= 5; i++) {
+           view.addActivity(new Activity("ACT" + i, "AddToStock", i, today));
+       }
+       System.out.println("O001 quantity (expected 27): " + view.getProductQuantity());
+       System.out.println("O001 history keeps last 4: " + view.getActivities().size()
+               + ", newest " + view.getActivities().getAllElements().get(0).getActivityID());
+       System.out.println("Total stock (expected 30): " + offHeap.getTotalStockQuantity());
+       System.out.println("Products below 10 (expected 1): " + offHeap.countQuantityBelow(10));
+       offHeap.removeProduct("O002");
+       offHeap.addProduct("O003", "Off-heap Rice", today, 8);
+       System.out.println("Products after remove/add (expected 2): " + offHeap.getProductCount());
+       view.setProductID("O004");
+       System.out.println("Renamed O001 -> O004 keeps its record: " + offHeap.getProduct("O004")
+               + ", O001 gone: " + (offHeap.getProduct("O001") == null));
+       System.out.println("Rename to a taken ID (DUPLICATE): " + offHeap.renameProduct("O004", "O003"));
+       System.out.println("Stock received before tomorrow (expected 27 in one lot): "
+               + view.getStockReceivedBefore(today.plusDays(1)) + " in " + view.getStockLots().size() + " lot");
+       
+       java.nio.file.Path file = null;
+       try {
+           file = java.nio.file.Files.createTempFile("offheap-test", ".dat");
+           java.nio.file.Files.delete(file);
+           try (OffHeapProductCatalog mapped = OffHeapProductCatalog.open(file, 100)) {
+               mapped.addProduct("M001", "Mapped Flour", today, 40);
+               mapped.applyActivity("M001", new Activity("ACTM", "RemoveFromStock", 15, today));
+           }
+           try (OffHeapProductCatalog reopened = OffHeapProductCatalog.open(file, 100)) {
+               System.out.println("Reopened file: " + reopened.getProduct("M001"));
+           }
+       } catch (java.io.IOException e) {
+           System.out.println("Mapped catalog test failed: " + e);
+       } finally {
+           if (file != null) {
+               file.toFile().delete();
+           }
+       }
+   }
+   
+   /**
+    * Tests point-in-time snapshots: changes made after a snapshot is opened
+    * must not show in it, and old versions must be reclaimed once it closes.
+    */
+   private void testSnapshots() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: MVCC SNAPSHOTS");
+       System.out.println("-".repeat(40));
+       
+       java.time.LocalDate today = java.time.LocalDate.now();
+       SupermarketManager versioned = new SupermarketManager();
+       versioned.setEventSink(EventSink.NONE);
+       versioned.createProduct("S001", "Snapshot Jam", today, 10);
+       versioned.createProduct("S002", "Snapshot Honey", today, 4);
+       
+       try (CatalogSnapshot snapshot = versioned.snapshot()) {
+           int quantityBefore = snapshot.getProduct("S001").getProductQuantity();
+           versioned.addActivityToProduct("S001", "AddToStock", 5, today);
+           versioned.deleteProduct("S002");
+           versioned.createProduct("S003", "Snapshot Syrup", today, 7);
+           
+           System.out.println("Snapshot S001 unchanged: " + (snapshot.getProduct("S001").getProductQuantity() == quantityBefore));
+           System.out.println("Live S001 increased by 5: " + (versioned.getProduct("S001").getProductQuantity() == quantityBefore + 5));
+           System.out.println("Snapshot still has deleted S002: " + (snapshot.getProduct("S002") != null));
+           System.out.println("Snapshot does not have new S003: " + (snapshot.getProduct("S003") == null));
+           System.out.println("Snapshot products (expected 2): " + snapshot.getProductCount());
+           System.out.println("Versions kept while open (more than 2): " + versioned.getRetainedVersionCount());
+       }
+       System.out.println("Versions kept after close (expected 2): " + versioned.getRetainedVersionCount());
+       
+       // Name and date changes are versions too
+       try (CatalogSnapshot before = versioned.snapshot()) {
+           versioned.getProduct("S001").setProductName("Snapshot Marmalade");
+           versioned.getProduct("S001").setProductEntryDate(today.minusDays(3));
+           try (CatalogSnapshot after = versioned.snapshot()) {
+               System.out.println("Older snapshot keeps the old name (expected Snapshot Jam): "
+                       + before.getProduct("S001").getProductName());
+               System.out.println("New snapshot sees the new name and date (expected Snapshot Marmalade true): "
+                       + after.getProduct("S001").getProductName() + " "
+                       + after.getProduct("S001").getProductEntryDate().equals(today.minusDays(3)));
+           }
+       }
+   }
+   
+   /**
+    * Tests basket transactions: a good basket applies every line, and a basket
+    * with one bad line changes nothing at all.
+    */
+   private void testBaskets() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: BASKET TRANSACTIONS");
+       System.out.println("-".repeat(40));
+       
+       java.time.LocalDate today = java.time.LocalDate.now();
+       SupermarketManager store = new SupermarketManager();
+       store.setEventSink(EventSink.NONE);
+       store.createProduct("B001", "Basket Bread", today, 10);
+       store.createProduct("B002", "Basket Butter", today, 3);
+       int bread = store.getProduct("B001").getProductQuantity();
+       int butter = store.getProduct("B002").getProductQuantity();
+       
+       BasketResult applied = store.applyBasket(new StockBasket().remove("B001", 2).remove("B002", 1).add("B001", 5), today);
+       System.out.println("Basket applied: " + applied);
+       System.out.println("B001 changed by +3: " + (store.getProduct("B001").getProductQuantity() == bread + 3));
+       System.out.println("B002 changed by -1: " + (store.getProduct("B002").getProductQuantity() == butter - 1));
+       
+       BasketResult tooMuch = store.applyBasket(new StockBasket().remove("B001", 1).remove("B002", 1_000), today);
+       System.out.println("Too much butter rejected: " + tooMuch);
+       System.out.println("Nothing applied (B001 unchanged): " + (store.getProduct("B001").getProductQuantity() == bread + 3));
+       
+       BasketResult unknown = store.applyBasket(new StockBasket().add("B001", 1).add("B999", 1), today);
+       System.out.println("Unknown product rejected: " + unknown);
+       System.out.println("Nothing applied (B001 unchanged): " + (store.getProduct("B001").getProductQuantity() == bread + 3));
+   }
+   
+   /**
+    * Tests idempotent activities: a movement delivered twice with the same key
+    * changes the stock once, and keys are forgotten after the window.
+    */
+   private void testActivityKeys() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: IDEMPOTENT ACTIVITY KEYS");
+       System.out.println("-".repeat(40));
+       
+       java.time.LocalDate today = java.time.LocalDate.now();
+       SupermarketManager till = new SupermarketManager();
+       till.setEventSink(EventSink.NONE);
+       till.createProduct("K001", "Keyed Milk", today, 10);
+       int before = till.getProduct("K001").getProductQuantity();
+       
+       OperationOutcome first = till.tryAddActivityToProduct("till-1:42", "K001", "RemoveFromStock", 3, today);
+       OperationOutcome retry = till.tryAddActivityToProduct("till-1:42", "K001", "RemoveFromStock", 3, today);
+       System.out.println("First delivery: " + first + ", retry: " + retry + " (expected SUCCESS, DUPLICATE)");
+       System.out.println("Stock reduced once: " + (till.getProduct("K001").getProductQuantity() == before - 3));
+       
+       OperationOutcome rejected = till.tryAddActivityToProduct("till-1:43", "K001", "RemoveFromStock", 1_000, today);
+       till.addActivityToProduct("K001", "AddToStock", 1_000, today);
+       OperationOutcome afterRestock = till.tryAddActivityToProduct("till-1:43", "K001", "RemoveFromStock", 1_000, today);
+       System.out.println("Rejected key can be retried: " + rejected + " then " + afterRestock);
+       
+       long[] now = {0};
+       ActivityKeyFilter filter = new ActivityKeyFilter(java.time.Duration.ofMinutes(10), 1_000, () -> now[0]);
+       filter.add("old-key");
+       now[0] = java.time.Duration.ofMinutes(6).toNanos();
+       boolean stillKnown = filter.contains("old-key");
+       now[0] = java.time.Duration.ofMinutes(11).toNanos();
+       System.out.println("Key remembered within window: " + stillKnown + ", forgotten after: " + !filter.contains("old-key"));
+       
+       int missing = 0;
+       ActivityKeyFilter many = new ActivityKeyFilter(java.time.Duration.ofHours(1), 200_000);
+       for (int i = 0; i < 100_000; i++) {
+           many.add("key-" + i);
+       }
+       for (int i = 0; i < 100_000; i++) {
+           if (!many.contains("key-" + i)) {
+               missing++;
+           }
+       }
+       int falseRepeats = 0;
+       for (int i = 100_000; i < 200_000; i++) {
+           if (many.contains("key-" + i)) {
+               falseRepeats++;
+           }
+       }
+       System.out.println("100,000 keys: missing " + missing + ", new keys taken for repeats " + falseRepeats
+               + " (expected 0, 0), memory " + many.getMemoryBytes() / 1024 + " KB");
+   }
+   
+   /**
+    * Tests the quantity-sorted activity view: it must match the custom bubble
+    * sort, follow evictions, and be reused while the product is unchanged.
+    */
+   private void testSortedActivityView() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: SORTED ACTIVITY VIEW");
+       System.out.println("-".repeat(40));
+       
+       java.time.LocalDate today = java.time.LocalDate.now();
+       SupermarketManager deep = new SupermarketManager();
+       deep.setEventSink(EventSink.NONE);
+       deep.setHistoryDepth(16);
+       deep.createProduct("V001", "View Rice", today, 1_000);
+       java.util.Random random = new java.util.Random(36);
+       for (int i = 0; i < 40; i++) {
+           deep.addActivityToProduct("V001", (i & 1) == 0 ? "AddToStock" : "RemoveFromStock", random.nextInt(20), today);
+       }
+       
+       Product product = deep.getProduct("V001");
+       java.util.List<Activity> expected = product.getActivities().getAllElements();
+       SortAlgorithms.bubbleSortActivities(expected);
+       java.util.List<Activity> sorted = deep.getActivitiesSortedByQuantity("V001");
+       System.out.println("History depth 16 kept: " + product.getActivities().size());
+       System.out.println("Matches bubble sort: " + sorted.equals(expected));
+       System.out.println("Unchanged product returns same list: " + (sorted == deep.getActivitiesSortedByQuantity("V001")));
+       
+       deep.addActivityToProduct("V001", "AddToStock", 7, today);
+       expected = product.getActivities().getAllElements();
+       SortAlgorithms.bubbleSortActivities(expected);
+       System.out.println("Follows new activity and eviction: " + deep.getActivitiesSortedByQuantity("V001").equals(expected));
+   }
+   
+   /**
+    * Tests FIFO stock lots: removals take the oldest deliveries first, and the
+    * catalog-wide stock age query follows creation, removal and deletion.
+    */
+   private void testStockLots() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: FIFO STOCK LOTS");
+       System.out.println("-".repeat(40));
+       
+       java.time.LocalDate today = java.time.LocalDate.now();
+       SupermarketManager shop = new SupermarketManager();
+       shop.setEventSink(EventSink.NONE);
+       shop.createProduct("L001", "Lot Yoghurt", today.minusDays(30), 0);
+       shop.addActivityToProduct("L001", "AddToStock", 10, today.minusDays(20)); // Old delivery
+       shop.addActivityToProduct("L001", "AddToStock", 5, today.minusDays(2));   // Fresh delivery
+       shop.addActivityToProduct("L001", "RemoveFromStock", 12, today);
+       
+       java.util.List<StockLot> lots = shop.getStockLots("L001");
+       System.out.println("Open lots (expected 1, fresh delivery with 3 left): " + lots);
+       System.out.println("Lots add up to quantity: "
+               + (lots.stream().mapToInt(StockLot::getRemainingQuantity).sum() == shop.getProduct("L001").getProductQuantity()));
+       
+       shop.createProduct("L002", "Lot Cheese", today.minusDays(30), 0);
+       shop.addActivityToProduct("L002", "AddToStock", 7, today.minusDays(15));
+       System.out.println("Stock older than 7 days (expected 7): " + shop.getStockOlderThan(7));
+       System.out.println("Products with stock older than 7 days (expected L002): "
+               + shop.getProductsWithStockReceivedBefore(today.minusDays(7)).get(0).getProductID());
+       shop.deleteProduct("L002");
+       System.out.println("After deleting L002 (expected 0): " + shop.getStockOlderThan(7));
+   }
+   
+   /**
+    * Tests the activity history: daily totals are built as activities arrive
+    * and stay the same after old raw activities are compacted away.
+    */
+   private void testActivityHistory() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: DAILY ROLLUPS AND COMPACTION");
+       System.out.println("-".repeat(40));
+       
+       java.time.LocalDate today = java.time.LocalDate.now();
+       SupermarketManager shop = new SupermarketManager();
+       shop.setEventSink(EventSink.NONE);
+       ActivityHistory history = ActivityHistory.attach(shop, 30);
+       shop.createProduct("H001", "History Tea", today.minusDays(90), 0);
+       for (int day = 90; day >= 0; day--) {
+           shop.addActivityToProduct("H001", "AddToStock", 10, today.minusDays(day));
+           shop.addActivityToProduct("H001", "RemoveFromStock", 4, today.minusDays(day));
+       }
+       
+       DailyRollup before = history.getPeriodTotals("H001", today.minusDays(90), today);
+       long rawBefore = history.getRawActivityCount();
+       long compacted = history.compact(today);
+       DailyRollup after = history.getPeriodTotals("H001", today.minusDays(90), today);
+       System.out.println("Period totals before compaction: " + before);
+       System.out.println("Same totals after compaction: " + (before.getUnitsAdded() == after.getUnitsAdded()
+               && before.getUnitsRemoved() == after.getUnitsRemoved() && before.getActivityCount() == after.getActivityCount()));
+       System.out.println("Raw activities " + rawBefore + " -> " + history.getRawActivityCount()
+               + " (compacted " + compacted + ", 31 days x 2 kept)");
+       System.out.println("Daily totals for 60 days ago: " + history.getDailyTotals("H001", today.minusDays(60), today.minusDays(60)));
+       System.out.println("Raw activities for 60 days ago (expected 0): "
+               + history.getActivities("H001", today.minusDays(60), today.minusDays(60)).size());
+       
+       // Undated activities are accepted by the manager; the history only counts them
+       shop.createProduct("H002", "Undated Tea", null, 5);
+       boolean applied = shop.addActivityToProduct("H002", "RemoveFromStock", 1, null);
+       history.compact(today);
+       System.out.println("Undated activities applied and skipped (expected true 2): " + applied + " "
+               + history.getUndatedActivityCount());
+   }
+   
+   /**
+    * Tests the streaming forecast: a product sold steadily is projected to run
+    * out and appears in the stock-out query; a product without sales does not.
+    */
+   private void testDemandForecast() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: DEMAND FORECAST");
+       System.out.println("-".repeat(40));
+       
+       java.time.LocalDate start = java.time.LocalDate.of(2024, 3, 1);
+       SupermarketManager shop = new SupermarketManager();
+       shop.setEventSink(EventSink.NONE);
+       DemandForecaster forecaster = DemandForecaster.attach(shop, 0.5, 2, 7);
+       shop.createProduct("F001", "Forecast Bananas", start, 50); // 100 in stock (initial activity counts too)
+       shop.createProduct("F002", "Forecast Candles", start, 50);
+       for (int day = 1; day <= 5; day++) {
+           shop.addActivityToProduct("F001", "RemoveFromStock", 10, start.plusDays(day));
+       }
+       
+       ReorderSuggestion bananas = forecaster.getForecast("F001");
+       System.out.println("F001 forecast: " + bananas);
+       System.out.println("Rate close to 10/day: " + (bananas.getDailyRemovalRate() > 9 && bananas.getDailyRemovalRate() <= 10));
+       java.util.List<ReorderSuggestion> soon = forecaster.getProductsStockingOutWithin(start.plusDays(5), 7);
+       System.out.println("Running out within 7 days (expected only F001): " + soon.size() + " "
+               + (soon.isEmpty() ? "-" : soon.get(0).getProductId()));
+       System.out.println("F002 without sales never runs out: " + (forecaster.getForecast("F002").getProjectedStockoutDate() == null));
+       shop.addActivityToProduct("F001", "AddToStock", 200, start.plusDays(5));
+       System.out.println("After restocking F001 (expected 0): " + forecaster.getProductsStockingOutWithin(start.plusDays(5), 7).size());
+       
+       // Undated activities count towards today instead of failing the publish loop
+       shop.createProduct("F003", "Undated Matches", null, 20);
+       shop.addActivityToProduct("F003", "RemoveFromStock", 5, null);
+       System.out.println("Undated F003 forecast: " + forecaster.getForecast("F003"));
+   }
+   
+   /**
+    * Tests the change event stream: events arrive in order at the pace
+    * requested, a subscriber can resume from a sequence number, and a
+    * subscriber that requests nothing never holds up checkouts.
+    */
+   private void testChangeEvents() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: CHANGE EVENT STREAM");
+       System.out.println("-".repeat(40));
+       
+       try {
+           SupermarketManager shop = new SupermarketManager();
+           shop.setEventSink(EventSink.NONE);
+           ChangeEventPublisher publisher = ChangeEventPublisher.attach(shop, 1_000, 4);
+           java.util.List<ChangeEvent> received = new java.util.concurrent.CopyOnWriteArrayList<>();
+           java.util.concurrent.Flow.Subscription[] oneAtATime = new java.util.concurrent.Flow.Subscription[1];
+           publisher.subscribe(new java.util.concurrent.Flow.Subscriber<ChangeEvent>() {
+               public void onSubscribe(java.util.concurrent.Flow.Subscription subscription) { oneAtATime[0] = subscription; }
+               public void onNext(ChangeEvent event) { received.add(event); }
+               public void onError(Throwable error) { }
+               public void onComplete() { }
+           });
+           shop.createProduct("E001", "Event Apples", java.time.LocalDate.now(), 10);
+           for (int i = 0; i < 20; i++) {
+               shop.addActivityToProduct("E001", "RemoveFromStock", 1, java.time.LocalDate.now());
+           }
+           shop.deleteProduct("E001");
+           System.out.println("Published (expected 22): " + publisher.getLastSequence());
+           System.out.println("Received before any request (expected 0): " + received.size());
+           oneAtATime[0].request(1);
+           waitForEvents(received, 1);
+           System.out.println("Received after request(1) (expected 1): " + received.size() + " "
+                   + received.get(0).getType());
+           oneAtATime[0].request(Long.MAX_VALUE);
+           waitForEvents(received, 22);
+           boolean inOrder = true;
+           for (int i = 0; i < received.size(); i++) {
+               inOrder &= received.get(i).getSequence() == i + 1;
+           }
+           System.out.println("Received after catching up (expected 22): " + received.size() + ", in order: " + inOrder
+                   + ", last " + received.get(received.size() - 1).getType());
+           
+           // Takes one event and stops asking: checkouts carry on, its buffer
+           // overflows and it later catches up from the retained events
+           java.util.List<ChangeEvent> slow = new java.util.concurrent.CopyOnWriteArrayList<>();
+           java.util.concurrent.Flow.Subscription[] slowSubscription = new java.util.concurrent.Flow.Subscription[1];
+           publisher.subscribe(new java.util.concurrent.Flow.Subscriber<ChangeEvent>() {
+               public void onSubscribe(java.util.concurrent.Flow.Subscription subscription) {
+                   slowSubscription[0] = subscription;
+                   subscription.request(1);
+               }
+               public void onNext(ChangeEvent event) { slow.add(event); }
+               public void onError(Throwable error) { }
+               public void onComplete() { }
+           });
+           shop.createProduct("E002", "Event Pears", java.time.LocalDate.now(), 10);
+           for (int i = 0; i < 9; i++) {
+               shop.addActivityToProduct("E002", "RemoveFromStock", 1, java.time.LocalDate.now());
+           }
+           waitForEvents(slow, 1);
+           System.out.println("Slow subscriber received (expected 1): " + slow.size()
+                   + ", buffer overflowed: " + (publisher.getOverflowCount() > 0));
+           slowSubscription[0].request(Long.MAX_VALUE);
+           waitForEvents(slow, 10);
+           System.out.println("Slow subscriber after catching up (expected 10, #23 to #32): " + slow.size() + ", #"
+                   + slow.get(0).getSequence() + " to #" + slow.get(slow.size() - 1).getSequence());
+       
+           java.util.List<ChangeEvent> resumed = new java.util.concurrent.CopyOnWriteArrayList<>();
+           publisher.subscribe(new java.util.concurrent.Flow.Subscriber<ChangeEvent>() {
+               public void onSubscribe(java.util.concurrent.Flow.Subscription subscription) { subscription.request(Long.MAX_VALUE); }
+               public void onNext(ChangeEvent event) { resumed.add(event); }
+               public void onError(Throwable error) { }
+               public void onComplete() { }
+           }, 20);
+           waitForEvents(resumed, 13);
+           System.out.println("Resumed from sequence 20 (expected 13 events, first #20): " + resumed.size() + " "
+                   + (resumed.isEmpty() ? "-" : "#" + resumed.get(0).getSequence()));
+           publisher.close();
+       } catch (InterruptedException e) {
+           Thread.currentThread().interrupt();
+       }
+   }
+   
+   /**
+    * Tests ad-hoc product queries: composed conditions, projection and limit,
+    * and the planner choosing the ID or name index over a scan.
+    */
+   private void testProductQueries() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: PRODUCT QUERIES");
+       System.out.println("-".repeat(40));
+       
+       SupermarketManager shop = new SupermarketManager();
+       shop.setEventSink(EventSink.NONE);
+       java.time.LocalDate february = java.time.LocalDate.of(2024, 2, 1);
+       shop.createProduct("Q001", "Whole Milk", february.minusDays(10), 0);
+       shop.createProduct("Q002", "Skimmed Milk", february.plusDays(3), 4);
+       shop.createProduct("Q003", "Milk Chocolate", february.minusDays(40), 3);
+       shop.createProduct("Q004", "Bread", february.minusDays(5), 40);
+       shop.createProduct("Q005", "bread", february.plusDays(1), 2);
+       
+       ProductQuery lowAndOld = ProductQuery.where(
+               ProductPredicate.quantityBelow(10).and(ProductPredicate.enteredBefore(february)));
+       System.out.println("Quantity < 10 and entered before 2024-02-01 (expected [Q001, Q003]): "
+               + shop.query(lowAndOld, Product::getProductID));
+       ProductQuery milkOut = ProductQuery.where(
+               ProductPredicate.nameContains("MILK").and(ProductPredicate.quantityEquals(0)));
+       System.out.println("Name contains 'milk' and quantity = 0 (expected [Whole Milk]): "
+               + shop.query(milkOut, Product::getProductName));
+       System.out.println("Milk products, limit 2 (expected 2): "
+               + shop.query(ProductQuery.where(ProductPredicate.nameContains("milk")).limit(2)).size());
+       System.out.println("Quantity 0 or above 30 (expected [Q001, Q004]): "
+               + shop.query(ProductQuery.where(ProductPredicate.quantityEquals(0)
+                       .or(ProductPredicate.quantityAtLeast(31))), Product::getProductID));
+       
+       ProductQuery byId = ProductQuery.where(ProductPredicate.idEquals("Q004").and(ProductPredicate.quantityAtLeast(1)));
+       System.out.println("By ID (expected [Q004]): " + shop.query(byId, Product::getProductID));
+       System.out.println("Plan uses the ID index: " + shop.explain(byId).startsWith("ID index"));
+       ProductQuery byName = ProductQuery.where(ProductPredicate.nameEquals("BREAD"));
+       System.out.println("By name, any case (expected [Q004, Q005]): " + shop.query(byName, Product::getProductID));
+       System.out.println("Plan uses the name index: " + shop.explain(byName).startsWith("name index"));
+       System.out.println("Plan for quantity only is a scan: " + shop.explain(lowAndOld).startsWith("scan"));
+       
+       shop.getProduct("Q005").setProductName("Rye Bread");
+       System.out.println("After renaming Q005 (expected [Q004] and [Q005]): " + shop.query(byName, Product::getProductID)
+               + " " + shop.query(ProductQuery.where(ProductPredicate.nameEquals("rye bread")), Product::getProductID));
+       Product q005 = shop.getProduct("Q005");
+       boolean refused = false;
+       try {
+           q005.setProductID("Q050");
+       } catch (IllegalStateException expected) {
+           refused = true;
+       }
+       System.out.println("Changing the ID of a listed product refused (expected true): " + refused
+               + ", still found as Q005: " + (shop.getProduct("Q005") == q005));
+       Product q004 = shop.getProduct("Q004");
+       shop.deleteProduct("Q004");
+       System.out.println("After deleting Q004 (expected []): " + shop.query(byName, Product::getProductID));
+       q004.setProductID("Q040");
+       System.out.println("A deleted product can change its ID (expected Q040): " + q004.getProductID());
+       System.out.println("Bounds at the extremes match nothing (expected [] []): "
+               + shop.query(ProductQuery.where(ProductPredicate.quantityBelow(Integer.MIN_VALUE)), Product::getProductID)
+               + " " + shop.query(ProductQuery.where(ProductPredicate.enteredBefore(java.time.LocalDate.MIN)),
+                       Product::getProductID));
+   }
+   
+   /**
+    * Tests the entry date index: range and oldest-first queries stay correct
+    * as products are created, deleted and have their entry date changed.
+    */
+   private void testEntryDateIndex() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: ENTRY DATE INDEX");
+       System.out.println("-".repeat(40));
+       
+       SupermarketManager shop = new SupermarketManager();
+       shop.setEventSink(EventSink.NONE);
+       java.time.LocalDate january = java.time.LocalDate.of(2024, 1, 1);
+       shop.createProduct("D003", "Ageing Rice", january.plusDays(20), 5);
+       shop.createProduct("D001", "Ageing Flour", january, 5);
+       shop.createProduct("D002", "Ageing Sugar", january.plusDays(10), 5);
+       shop.createProduct("D004", "Ageing Salt", january.plusDays(10), 5);
+       shop.createProduct("D005", "Ageing Oats", january.plusDays(40), 5);
+       
+       java.util.function.Function<java.util.List<Product>, java.util.List<String>> ids =
+               products -> products.stream().map(Product::getProductID).collect(java.util.stream.Collectors.toList());
+       System.out.println("Entered 2024-01-05 to 2024-01-21 (expected [D002, D004, D003]): "
+               + ids.apply(shop.getProductsEnteredBetween(january.plusDays(4), january.plusDays(20))));
+       System.out.println("Oldest 2 (expected [D001, D002]): " + ids.apply(shop.getOldestProducts(2)));
+       
+       shop.getProduct("D005").setProductEntryDate(january.minusDays(30));
+       System.out.println("After back-dating D005, oldest 2 (expected [D005, D001]): " + ids.apply(shop.getOldestProducts(2)));
+       shop.deleteProduct("D001");
+       System.out.println("After deleting D001, oldest 2 (expected [D005, D002]): " + ids.apply(shop.getOldestProducts(2)));
+       System.out.println("Entered in February (expected []): "
+               + ids.apply(shop.getProductsEnteredBetween(january.plusMonths(1), january.plusMonths(2).minusDays(1))));
+       
+       ProductQuery oldAndLow = ProductQuery.where(ProductPredicate.enteredBefore(january.plusDays(15))
+               .and(ProductPredicate.quantityBelow(20)));
+       System.out.println("Query entered before 2024-01-16, in catalog order (expected [D002, D004, D005]): "
+               + shop.query(oldAndLow, Product::getProductID));
+       System.out.println("Plan uses the entry date index: " + shop.explain(oldAndLow).startsWith("entry date index"));
+   }
+   
+   /**
+    * Tests the memory footprint estimate: every structure is accounted for,
+    * a small sample gives nearly the same answer as measuring everything,
+    * and longer histories show up as more activity memory.
+    */
+   private void testMemoryFootprint() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: MEMORY FOOTPRINT");
+       System.out.println("-".repeat(40));
+       
+       SupermarketManager shop = new SupermarketManager();
+       shop.setEventSink(EventSink.NONE);
+       java.time.LocalDate today = java.time.LocalDate.now();
+       for (int i = 0; i < 500; i++) {
+           shop.createProduct(String.format("M%03d", i), "Memory Product " + i, today, 100);
+           shop.addActivityToProduct(String.format("M%03d", i), "RemoveFromStock", 1, today);
+       }
+       MemoryFootprint full = shop.estimateMemoryFootprint(500);
+       MemoryFootprint sampled = shop.estimateMemoryFootprint(50);
+       System.out.println(full);
+       boolean allCounted = true;
+       for (long bytes : full.getBytesByStructure().values()) {
+           allCounted &= bytes > 0;
+       }
+       System.out.println("Every structure counted: " + allCounted);
+       System.out.println("Sampled 50 of 500 (expected 50): " + sampled.getSampledProducts()
+               + ", within 5% of measuring all: "
+               + (Math.abs(sampled.getTotalBytes() - full.getTotalBytes()) < full.getTotalBytes() * 0.05));
+       System.out.println("Activities per product (expected 2.0): " + full.getActivitiesPerProduct());
+       
+       for (int i = 0; i < 500; i++) {
+           shop.addActivityToProduct(String.format("M%03d", i), "AddToStock", 1, today);
+           shop.addActivityToProduct(String.format("M%03d", i), "AddToStock", 1, today);
+       }
+       MemoryFootprint longer = shop.estimateMemoryFootprint();
+       System.out.println("Activity memory doubled with twice the activities: "
+               + (longer.getBytesByStructure().get(MemoryFootprint.ACTIVITIES)
+                       == 2 * full.getBytesByStructure().get(MemoryFootprint.ACTIVITIES)));
+       System.out.println("Projection for 1,000,000 products x 4 activities (MB): "
+               + longer.estimateBytesFor(1_000_000, 4) / (1024 * 1024));
+   }
+   
+   /**
+    * Tests saving a catalog and loading it back with lazily loaded histories
+    * Quantities and lots must be there straight after loading, and a history
+    * must be read from disk only when it is first asked for.
+    */
+   private void testLazyHistory() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: LAZY HISTORY LOADING");
+       System.out.println("-".repeat(40));
+       
+       java.nio.file.Path directory = null;
+       try {
+           directory = java.nio.file.Files.createTempDirectory("catalog-store");
+           SupermarketManager shop = new SupermarketManager();
+           shop.setEventSink(EventSink.NONE);
+           java.time.LocalDate day = java.time.LocalDate.of(2024, 3, 1);
+           for (int i = 0; i < 100; i++) {
+               String id = String.format("L%03d", i);
+               shop.createProduct(id, "Lazy Product " + i, day, 10);
+               shop.addActivityToProduct(id, "AddToStock", 5, day.plusDays(1));
+               shop.addActivityToProduct(id, "RemoveFromStock", 3 + i % 5, day.plusDays(2));
+           }
+           CatalogStore.save(shop, directory);
+           
+           try (CatalogStore store = CatalogStore.open(directory)) {
+               SupermarketManager loaded = store.getManager();
+               System.out.println("Products loaded (expected 100): " + store.getProductCount());
+               System.out.println("Histories read after loading (expected 0): " + store.getLoadedHistoryCount());
+               System.out.println("L007 quantity (expected " + shop.getProduct("L007").getProductQuantity() + "): "
+                       + loaded.getProduct("L007").getProductQuantity() + ", lots match: "
+                       + (loaded.getStockLots("L007").size() == shop.getStockLots("L007").size()));
+               System.out.println("Histories read after quantity queries (expected 0): " + store.getLoadedHistoryCount());
+               
+               Product product = loaded.getProduct("L007");
+               System.out.println("L007 history loaded before use (expected false): " + product.isHistoryLoaded());
+               System.out.println("L007 history: " + product.getActivities().getAllElements());
+               System.out.println("Same history as saved (expected true): "
+                       + product.getActivities().getAllElements().toString()
+                               .equals(shop.getProduct("L007").getActivities().getAllElements().toString()));
+               System.out.println("Sorted by quantity: " + product.getActivitiesSortedByProductQuantity());
+               System.out.println("Histories read (expected 1): " + store.getLoadedHistoryCount());
+               
+               loaded.setEventSink(EventSink.NONE);
+               loaded.addActivityToProduct("L008", "RemoveFromStock", 2, day.plusDays(3));
+               System.out.println("L008 history after a new activity (expected 4): "
+                       + loaded.getProduct("L008").getActivities().size()
+                       + ", quantity (expected " + (shop.getProduct("L008").getProductQuantity() - 2) + "): "
+                       + loaded.getProduct("L008").getProductQuantity());
+               System.out.println("Histories read (expected 2): " + store.getLoadedHistoryCount());
+               
+               // Saving again (as a checkpoint does) copies unloaded histories without loading them
+               java.nio.file.Path again = directory.resolve("again");
+               CatalogStore.save(loaded, again);
+               System.out.println("Histories read after saving (expected 2): " + store.getLoadedHistoryCount()
+                       + ", L009 still on disk: " + !loaded.getProduct("L009").isHistoryLoaded());
+               try (CatalogStore copy = CatalogStore.open(again)) {
+                   System.out.println("Copied history same as saved (expected true): "
+                           + copy.getManager().getProduct("L009").getActivities().getAllElements().toString()
+                                   .equals(shop.getProduct("L009").getActivities().getAllElements().toString()));
+               }
+               for (String file : new String[] {CatalogStore.CATALOG_FILE, CatalogStore.HISTORY_FILE}) {
+                   again.resolve(file).toFile().delete();
+               }
+               again.toFile().delete();
+           }
+           
+           // Saving on exit over the store's own files closes the store first (Windows cannot replace open files)
+           CatalogStore exiting = CatalogStore.open(directory);
+           exiting.getManager().setEventSink(EventSink.NONE);
+           exiting.getManager().addActivityToProduct("L010", "AddToStock", 4, day.plusDays(3));
+           CatalogStore.save(exiting.getManager(), directory, exiting);
+           try (CatalogStore reloaded = CatalogStore.open(directory)) {
+               System.out.println("Saved over its own files (expected 100 products, L010 history 4): "
+                       + reloaded.getProductCount() + " products, L010 history "
+                       + reloaded.getManager().getProduct("L010").getActivities().size());
+           }
+       } catch (java.io.IOException e) {
+           System.out.println("Catalog store failed: " + e);
+       } finally {
+           if (directory != null) {
+               for (String file : new String[] {CatalogStore.CATALOG_FILE, CatalogStore.HISTORY_FILE}) {
+                   directory.resolve(file).toFile().delete();
+               }
+               directory.toFile().delete();
+           }
+       }
+   }
+   
+   /**
+    * Tests the compressed activity encoding: unusual activities survive the
+    * round trip, seeking lands on the right activity and the encoding is
+    * several times smaller than the plain one.
+    */
+   private void testActivityCodec() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: ACTIVITY CODEC");
+       System.out.println("-".repeat(40));
+       
+       java.util.List<Activity> activities = new java.util.ArrayList<>();
+       long millis = 1_717_000_000_000L;
+       java.time.LocalDate day = java.time.LocalDate.of(2024, 6, 1);
+       for (int i = 0; i < 200; i++) {
+           millis += i % 7 * 13;
+           activities.add(new Activity("ACT" + millis + "_" + (i * 37 % 1000),
+                   i % 3 == 0 ? "RemoveFromStock" : "AddToStock", 1 + i % 40, day.plusDays(i / 10)));
+       }
+       activities.add(new Activity("MANUAL-1", "Adjustment", -5, null));
+       activities.add(new Activity("ACT007_1", null, 0, day)); // Leading zero: not a generated ID
+       activities.add(new Activity("ACT" + millis + "_12", "AddToStock", 1_000_000, day.minusDays(400)));
+       
+       byte[] encoded = ActivityCodec.encode(activities, 16);
+       System.out.println("Round trip identical (expected true): "
+               + ActivityCodec.decode(encoded).toString().equals(activities.toString()));
+       
+       ActivityCodec.Cursor cursor = new ActivityCodec.Cursor(encoded);
+       cursor.seek(130);
+       cursor.next();
+       System.out.println("Seek to activity 130 (expected true): "
+               + cursor.toActivity().toString().equals(activities.get(130).toString()));
+       cursor.seek(201);
+       cursor.next();
+       System.out.println("Seek to a manual activity (expected ACT007_1, null, date): "
+               + cursor.getActivityID() + ", " + cursor.getActivityName() + ", " + (cursor.hasDate() ? "date" : "no date"));
+       
+       int removed = 0;
+       int expectedRemoved = 0;
+       for (Activity activity : activities) {
+           if ("RemoveFromStock".equals(activity.getActivityName())) {
+               expectedRemoved += activity.getActivityProductQuantity();
+           }
+       }
+       cursor.seek(0);
+       while (cursor.next()) {
+           if (cursor.isRemoveFromStock()) {
+               removed += cursor.getQuantity();
+           }
+       }
+       System.out.println("Removed quantity from a cursor scan (expected " + expectedRemoved + "): " + removed);
+       
+       java.io.ByteArrayOutputStream plain = new java.io.ByteArrayOutputStream();
+       try (java.io.DataOutputStream out = new java.io.DataOutputStream(plain)) {
+           for (Activity activity : activities) {
+               ReplicationProtocol.writeActivity(out, activity);
+           }
+       } catch (java.io.IOException e) {
+           throw new java.io.UncheckedIOException(e);
+       }
+       System.out.println("Plain bytes: " + plain.size() + ", encoded bytes: " + encoded.length
+               + ", at least 5x smaller: " + (plain.size() >= 5 * encoded.length));
+       System.out.println("Empty sequence round trip (expected []): "
+               + ActivityCodec.decode(ActivityCodec.encode(java.util.List.of())));
+   }
+   
+   /**
+    * Tests the activity journal and the analytics scan over it: totals per
+    * product and per day match what was applied, a date range narrows them,
+    * and reopening the journal cuts off a torn record and carries on numbering.
+    */
+   private void testActivityJournal() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: ACTIVITY JOURNAL AND ANALYTICS");
+       System.out.println("-".repeat(40));
+       
+       java.nio.file.Path directory = null;
+       try {
+           directory = java.nio.file.Files.createTempDirectory("activity-journal");
+           SupermarketManager shop = new SupermarketManager();
+           shop.setEventSink(EventSink.NONE);
+           ActivityJournal journal = ActivityJournal.open(directory, 4096); // Small segments: several files
+           shop.addChangeListener(journal);
+           java.time.LocalDate day = java.time.LocalDate.of(2024, 3, 1);
+           long removedJ003 = 0;
+           long addedOnDay3 = 0;
+           for (int p = 0; p < 10; p++) {
+               shop.createProduct("J00" + p, "Journal Product " + p, day, 100);
+           }
+           for (int i = 0; i < 300; i++) {
+               String id = "J00" + (i % 10);
+               java.time.LocalDate date = day.plusDays(i % 7);
+               if (i % 3 == 0) {
+                   shop.addActivityToProduct(id, "RemoveFromStock", 2, date);
+                   removedJ003 += id.equals("J003") ? 2 : 0;
+               } else {
+                   shop.addActivityToProduct(id, "AddToStock", 1, date);
+                   addedOnDay3 += i % 7 == 3 ? 1 : 0;
+               }
+           }
+           shop.deleteProduct("J009");
+           shop.removeChangeListener(journal);
+           journal.close();
+           
+           ActivityLogReport report = ActivityLogAnalytics.scan(directory);
+           System.out.println(report);
+           System.out.println("Records (expected 311): " + report.getRecordCount()
+                   + ", several segments: " + (report.getSegmentCount() > 1));
+           System.out.println("Activities (expected 310): " + report.getTotals().getActivities());
+           System.out.println("J003 units removed (expected " + removedJ003 + "): "
+                   + report.getProductTotals().get("J003").getUnitsRemoved());
+           System.out.println("Units added on " + day.plusDays(3) + " (expected " + addedOnDay3 + "): "
+                   + report.getDailyTotals().get(day.plusDays(3)).getUnitsAdded());
+           ActivityLogReport range = ActivityLogAnalytics.scan(directory, day.plusDays(3), day.plusDays(3));
+           System.out.println("Days in a one-day range (expected 1): " + range.getDailyTotals().size()
+                   + ", same added units: " + (range.getTotals().getUnitsAdded() == addedOnDay3));
+           
+           // A crash in the middle of a record leaves a torn tail
+           java.util.List<java.nio.file.Path> segments = ActivityJournal.segments(directory);
+           java.nio.file.Path last = segments.get(segments.size() - 1);
+           long intactSize = java.nio.file.Files.size(last);
+           java.nio.file.Files.write(last, new byte[] {0, 0, 0, 40, 1, 2, 3}, java.nio.file.StandardOpenOption.APPEND);
+           try (ActivityJournal reopened = ActivityJournal.open(directory, 4096)) {
+               System.out.println("Torn record cut off (expected true): " + (java.nio.file.Files.size(last) == intactSize));
+               System.out.println("Numbering carries on from (expected 311): " + reopened.getLastSequence());
+               
+               // Dates centuries apart (a mistyped year, the largest date) must not need a dense range
+               SupermarketManager odd = new SupermarketManager();
+               odd.setEventSink(EventSink.NONE);
+               odd.addChangeListener(reopened);
+               odd.createProduct("J100", "Mistyped Dates", day, 1);
+               odd.addActivityToProduct("J100", "AddToStock", 5, java.time.LocalDate.of(202, 3, 1));
+               odd.addActivityToProduct("J100", "AddToStock", 7, java.time.LocalDate.MAX);
+               odd.removeChangeListener(reopened);
+           }
+           java.util.SortedMap<java.time.LocalDate, ActivityLogReport.Totals> daily =
+                   ActivityLogAnalytics.scan(directory).getDailyTotals();
+           System.out.println("Far-apart dates totalled (expected 5 7): "
+                   + daily.get(java.time.LocalDate.of(202, 3, 1)).getUnitsAdded() + " "
+                   + daily.get(java.time.LocalDate.MAX).getUnitsAdded());
+           
+           // The writer thread cannot create a segment: the failure is reported once, changes carry on
+           java.nio.file.Path gone = java.nio.file.Files.createTempDirectory("activity-journal-gone");
+           ActivityJournal failing = ActivityJournal.open(gone, 4096);
+           java.nio.file.Files.delete(gone);
+           java.io.ByteArrayOutputStream errors = new java.io.ByteArrayOutputStream();
+           failing.setEventSink(new ConsoleEventSink(new java.io.PrintStream(errors, true), EventSink.Level.WARN));
+           SupermarketManager unlogged = new SupermarketManager();
+           unlogged.setEventSink(EventSink.NONE);
+           unlogged.addChangeListener(failing);
+           unlogged.createProduct("J200", "Unlogged Product", day, 3);
+           int before = unlogged.getProduct("J200").getProductQuantity();
+           unlogged.addActivityToProduct("J200", "AddToStock", 2, day);
+           System.out.println("Changes still applied (expected 2 more units): "
+                   + (unlogged.getProduct("J200").getProductQuantity() - before) + " more units");
+           boolean thrown = false;
+           try {
+               failing.flush();
+           } catch (java.io.IOException expected) {
+               thrown = true;
+           }
+           System.out.println("Flush throws the write failure (expected true): " + thrown);
+           System.out.println("Failure reported once (expected 1): "
+                   + (errors.toString().split("Journal write failed", -1).length - 1));
+           unlogged.removeChangeListener(failing);
+           try {
+               failing.close();
+           } catch (java.io.IOException expected) {
+               // Same failure again
+           }
+       } catch (java.io.IOException e) {
+           System.out.println("Journal failed: " + e);
+       } finally {
+           if (directory != null) {
+               java.io.File[] files = directory.toFile().listFiles();
+               if (files != null) {
+                   for (java.io.File file : files) {
+                       file.delete();
+                   }
+               }
+               directory.toFile().delete();
+           }
+       }
+   }
+   
+   /**
+    * Tests crash recovery from the journal: replaying on one thread and on
+    * four must both rebuild every product (quantity, lots, recent activities
+    * and catalog order) exactly as the manager had them.
+    */
+   private void testJournalRecovery() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: PARALLEL JOURNAL RECOVERY");
+       System.out.println("-".repeat(40));
+       
+       java.nio.file.Path directory = null;
+       try {
+           directory = java.nio.file.Files.createTempDirectory("journal-recovery");
+           SupermarketManager shop = new SupermarketManager();
+           shop.setEventSink(EventSink.NONE);
+           ActivityJournal journal = ActivityJournal.open(directory, 8192);
+           shop.addChangeListener(journal);
+           java.util.Random random = new java.util.Random(47);
+           java.time.LocalDate day = java.time.LocalDate.of(2024, 4, 1);
+           for (int p = 0; p < 40; p++) {
+               shop.createProduct(String.format("R%02d", p), "Recovery Product " + p, day.plusDays(p % 5), 20 + p);
+           }
+           for (int i = 0; i < 2_000; i++) {
+               String id = String.format("R%02d", random.nextInt(40));
+               if (i % 250 == 0) {
+                   shop.deleteProduct(id); // Later activities for it are rejected, a re-create starts afresh
+                   shop.createProduct(id, "Recreated " + id, day.plusDays(10), 5);
+               }
+               shop.addActivityToProduct(id, random.nextBoolean() ? "AddToStock" : "RemoveFromStock",
+                       1 + random.nextInt(9), day.plusDays(random.nextInt(30)));
+           }
+           journal.sync();
+           // Crash: the journal is never closed and the manager is abandoned
+           
+           for (int threads : new int[] {1, 4}) {
+               JournalRecovery recovery = JournalRecovery.recover(directory, threads);
+               System.out.println(recovery);
+               System.out.println("Same products, state and order as before the crash (expected true): "
+                       + sameCatalog(shop, recovery.getManager()));
+           }
+           System.out.println("Complete (expected true): " + JournalRecovery.recover(directory, 2).isComplete());
+           journal.close();
+           
+           // Damage one record halfway through the journal: replay must stop just before it
+           java.util.List<java.nio.file.Path> segments = ActivityJournal.segments(directory);
+           java.nio.file.Path damaged = segments.get(segments.size() / 2);
+           byte[] bytes = java.nio.file.Files.readAllBytes(damaged);
+           bytes[ActivityJournal.SEGMENT_HEADER_BYTES + ActivityJournal.RECORD_HEADER_BYTES
+                   + ActivityJournal.BODY_PRODUCT_ID + 3] ^= 0x55;
+           java.nio.file.Files.write(damaged, bytes);
+           JournalRecovery serial = JournalRecovery.recover(directory, 1);
+           JournalRecovery parallel = JournalRecovery.recover(directory, 4);
+           System.out.println(parallel);
+           System.out.println("Stopped early on 1 and 4 threads (expected true): "
+                   + (!serial.isComplete() && !parallel.isComplete()));
+           System.out.println("Both stopped at the same record (expected true): "
+                   + (serial.getLastSequence() == parallel.getLastSequence()
+                   && serial.getRecordsReplayed() == parallel.getRecordsReplayed()
+                   && serial.getLastSequence() < 2042));
+           System.out.println("Same products on 1 and 4 threads (expected true): "
+                   + sameCatalog(serial.getManager(), parallel.getManager()));
+       } catch (java.io.IOException e) {
+           System.out.println("Recovery failed: " + e);
+       } finally {
+           if (directory != null) {
+               java.io.File[] files = directory.toFile().listFiles();
+               if (files != null) {
+                   for (java.io.File file : files) {
+                       file.delete();
+                   }
+               }
+               directory.toFile().delete();
+           }
+       }
+   }
+   
+   /**
+    * Helper for the recovery test: compares two catalogs product by product
+    */
+   private boolean sameCatalog(SupermarketManager expected, SupermarketManager actual) {
+       java.util.List<Product> left = expected.getAllProducts();
+       java.util.List<Product> right = actual.getAllProducts();
+       if (left.size() != right.size()) {
+           return false;
+       }
+       for (int i = 0; i < left.size(); i++) {
+           Product a = left.get(i);
+           Product b = right.get(i);
+           if (!a.toString().equals(b.toString())
+                   || !a.getActivities().getAllElements().toString().equals(b.getActivities().getAllElements().toString())
+                   || !a.getStockLots().toString().equals(b.getStockLots().toString())) {
+               return false;
+           }
+       }
+       return true;
+   }
+   
+   /**
+    * Tests background checkpoints: checkpoints taken while several threads
+    * keep adding activities, plus the journal after them, must recover the
+    * catalog exactly; older checkpoints are deleted and older segments
+    * archived, where analytics still reads them.
+    */
+   private void testBackgroundCheckpoint() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: BACKGROUND CHECKPOINT");
+       System.out.println("-".repeat(40));
+       
+       java.nio.file.Path directory = null;
+       try {
+           directory = java.nio.file.Files.createTempDirectory("journal-checkpoint");
+           SupermarketManager shop = new SupermarketManager();
+           shop.setEventSink(EventSink.NONE);
+           ActivityJournal journal = ActivityJournal.open(directory, 4096);
+           shop.addChangeListener(journal);
+           java.time.LocalDate day = java.time.LocalDate.of(2024, 5, 1);
+           for (int p = 0; p < 30; p++) {
+               shop.createProduct(String.format("K%02d", p), "Checkpoint Product " + p, day, 50);
+           }
+           int segmentsBefore = ActivityJournal.segments(directory).size();
+           
+           BackgroundCheckpointer checkpointer = new BackgroundCheckpointer(shop, journal);
+           Thread[] workers = new Thread[4];
+           for (int t = 0; t < workers.length; t++) {
+               int seed = t;
+               workers[t] = new Thread(() -> {
+                   java.util.Random random = new java.util.Random(seed);
+                   for (int i = 0; i < 1_500; i++) {
+                       shop.addActivityToProduct(String.format("K%02d", random.nextInt(30)),
+                               random.nextBoolean() ? "AddToStock" : "RemoveFromStock",
+                               1 + random.nextInt(5), day.plusDays(random.nextInt(20)));
+                   }
+               });
+               workers[t].start();
+           }
+           // Checkpoints taken while the workers run
+           while (isAnyAlive(workers)) {
+               checkpointer.checkpoint();
+           }
+           for (Thread worker : workers) {
+               worker.join();
+           }
+           // After the last checkpoint: a deletion, a re-creation and more activity
+           long checkpointSequence = checkpointer.checkpoint();
+           shop.deleteProduct("K03");
+           shop.createProduct("K03", "Recreated K03", day.plusDays(30), 7);
+           shop.addActivityToProduct("K03", "RemoveFromStock", 2, day.plusDays(31));
+           shop.addActivityToProduct("K04", "AddToStock", 9, day.plusDays(31));
+           journal.flush();
+           // Crash: the journal is never closed and the manager is abandoned
+           
+           System.out.println("Checkpoints taken during the run (expected > 1): " + checkpointer.getCheckpointsTaken());
+           System.out.println("Old segments trimmed (expected true): "
+                   + (checkpointer.getSegmentsTrimmed() >= segmentsBefore));
+           ActivityLogReport all = ActivityLogAnalytics.scan(directory);
+           System.out.println("Analytics still reads every record (expected true): "
+                   + (all.getRecordCount() == journal.getLastSequence()) + ", from "
+                   + ActivityJournal.archivedSegments(directory).size() + " archived segments");
+           System.out.println("Checkpoints kept (expected 1): " + BackgroundCheckpointer.checkpoints(directory).size());
+           JournalRecovery recovery = JournalRecovery.recover(directory, 3);
+           System.out.println(recovery);
+           System.out.println("Started from the last checkpoint (expected true): "
+                   + (recovery.getCheckpointSequence() == checkpointSequence));
+           System.out.println("Same products, state and order as before the crash (expected true): "
+                   + sameCatalog(shop, recovery.getManager()));
+           journal.close();
+       } catch (java.io.IOException e) {
+           System.out.println("Checkpoint failed: " + e);
+       } catch (InterruptedException e) {
+           Thread.currentThread().interrupt();
+       } finally {
+           if (directory != null) {
+               java.io.File[] files = directory.toFile().listFiles();
+               if (files != null) {
+                   for (java.io.File file : files) {
+                       java.io.File[] inner = file.listFiles(); // Checkpoint directories
+                       if (inner != null) {
+                           for (java.io.File saved : inner) {
+                               saved.delete();
+                           }
+                       }
+                       file.delete();
+                   }
+               }
+               directory.toFile().delete();
+           }
+       }
+   }
+   
+   /**
+    * Helper for the checkpoint test
+    */
+   private static boolean isAnyAlive(Thread[] threads) {
+       for (Thread thread : threads) {
+           if (thread.isAlive()) {
+               return true;
+           }
+       }
+       return false;
+   }
+   
+   /**
+    * Tests admission control: with every slot busy and the queues full,
+    * activities are rejected at once with OVERLOADED; a freed slot goes to a
+    * waiting checkout before a waiting restock; a wait past the limit is shed.
+    */
+   private void testAdmissionControl() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: ADMISSION CONTROL");
+       System.out.println("-".repeat(40));
+       
+       SupermarketManager shop = new SupermarketManager();
+       shop.setEventSink(EventSink.NONE);
+       java.time.LocalDate day = java.time.LocalDate.of(2024, 6, 1);
+       for (String id : new String[] {"A1", "A2", "A3", "A4"}) {
+           shop.createProduct(id, "Admission " + id, day, 10);
+       }
+       // Holds the first admitted activity (and so the only slot) until released
+       java.util.concurrent.CountDownLatch release = new java.util.concurrent.CountDownLatch(1);
+       java.util.List<String> applied = java.util.Collections.synchronizedList(new java.util.ArrayList<>());
+       shop.addChangeListener(new SupermarketChangeListener() {
+           @Override
+           public void productCreated(long sequence, Product product, Activity initialActivity) {
+           }
+           
+           @Override
+           public void productDeleted(long sequence, String productId) {
+           }
+           
+           @Override
+           public void activityApplied(long sequence, String productId, Activity activity) {
+               applied.add(productId);
+               try {
+                   release.await();
+               } catch (InterruptedException e) {
+                   Thread.currentThread().interrupt();
+               }
+           }
+       });
+       
+       ActivityAdmission admission = new ActivityAdmission(shop, 1, 1, 1, 10_000);
+       Thread holder = new Thread(() -> admission.tryAddActivityToProduct("A1", "RemoveFromStock", 1, day));
+       Thread restock = new Thread(() -> admission.tryAddActivityToProduct("A2", "AddToStock", 5, day));
+       Thread checkout = new Thread(() -> admission.tryAddActivityToProduct("A3", "RemoveFromStock", 1, day));
+       try {
+           holder.start();
+           waitUntil(() -> admission.getRunning() == 1);
+           restock.start();
+           waitUntil(() -> admission.getQueueDepth(ActivityAdmission.Priority.RESTOCK) == 1);
+           checkout.start();
+           waitUntil(() -> admission.getQueueDepth(ActivityAdmission.Priority.CHECKOUT) == 1);
+           
+           long start = System.nanoTime();
+           OperationOutcome shed = admission.tryAddActivityToProduct("A4", "AddToStock", 5, day);
+           System.out.println("Restock with its queue full (expected OVERLOADED): " + shed);
+           System.out.println("Rejected at once (expected true): " + (System.nanoTime() - start < 1_000_000_000L));
+           BasketResult basket = admission.applyBasket(new StockBasket().remove("A4", 1), day);
+           System.out.println("Checkout basket with its queue full (expected OVERLOADED): " + basket.getOutcome());
+           System.out.println("Retry hint given (expected true): " + (admission.getRetryAfterMillis() >= 1));
+           
+           release.countDown();
+           holder.join();
+           restock.join();
+           checkout.join();
+           System.out.println("Order applied (expected [A1, A3, A2]): " + applied);
+           System.out.println("Shed checkouts (expected 1): " + admission.getShedCount(ActivityAdmission.Priority.CHECKOUT));
+           System.out.println("Shed restocks (expected 1): " + admission.getShedCount(ActivityAdmission.Priority.RESTOCK));
+           System.out.println("A4 unchanged (expected 20): " + shop.getProduct("A4").getProductQuantity());
+           
+           // A wait longer than the limit is shed too
+           ActivityAdmission impatient = new ActivityAdmission(shop, 1, 10, 10, 20);
+           java.util.concurrent.CountDownLatch hold = new java.util.concurrent.CountDownLatch(1);
+           Thread busy = new Thread(() -> impatient.applyBasket(new StockBasket().remove("A1", 1), day));
+           shop.addChangeListener(new SupermarketChangeListener() {
+               @Override
+               public void productCreated(long sequence, Product product, Activity initialActivity) {
+               }
+               
+               @Override
+               public void productDeleted(long sequence, String productId) {
+               }
+               
+               @Override
+               public void activityApplied(long sequence, String productId, Activity activity) {
+                   try {
+                       hold.await();
+                   } catch (InterruptedException e) {
+                       Thread.currentThread().interrupt();
+                   }
+               }
+           });
+           busy.start();
+           waitUntil(() -> impatient.getRunning() == 1);
+           System.out.println("Checkout waiting past the limit (expected OVERLOADED): "
+                   + impatient.tryAddActivityToProduct("A2", "RemoveFromStock", 1, day));
+           System.out.println("Timed out (expected 1): " + impatient.getTimedOutCount(ActivityAdmission.Priority.CHECKOUT));
+           hold.countDown();
+           busy.join();
+           System.out.println(impatient);
+       } catch (InterruptedException e) {
+           Thread.currentThread().interrupt();
+       } finally {
+           release.countDown();
+       }
+   }
+   
+   /**
+    * Helper for the admission test: waits (up to 5 seconds) for a condition
+    */
+   private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+       long deadline = System.currentTimeMillis() + 5_000;
+       while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+           Thread.sleep(1);
+       }
+   }
+   
+   /**
+    * Tests tombstone deletion: deleted products disappear from every read at
+    * once, pages and order skip their slots, and compaction (explicit or
+    * triggered by a mass delisting) keeps the order and later deletions right.
+    */
+   private void testTombstoneDeletion() {
+       System.out.println("\n" + "-".repeat(40));
+       System.out.println("TEST: TOMBSTONE DELETION AND COMPACTION");
+       System.out.println("-".repeat(40));
+       
+       SupermarketManager shop = new SupermarketManager();
+       shop.setEventSink(EventSink.NONE);
+       java.time.LocalDate day = java.time.LocalDate.of(2024, 7, 1);
+       for (int i = 0; i < 10; i++) {
+           shop.createProduct("T" + i, "Tombstone " + i, day.plusDays(i), 5);
+       }
+       shop.deleteProduct("T2");
+       shop.deleteProduct("T5");
+       shop.deleteProduct("T7");
+       System.out.println("Order (expected [T0, T1, T3, T4, T6, T8, T9]): " + ids(shop.getAllProducts()));
+       System.out.println("Count (expected 7): " + shop.getProductCount());
+       System.out.println("Tombstones (expected 3): " + shop.getTombstoneCount());
+       System.out.println("Page from 2, size 3 (expected [T3, T4, T6]): " + ids(shop.getProductsPage(2, 3)));
+       System.out.println("Deleted product found (expected false): " + (shop.getProduct("T5") != null));
+       System.out.println("Entered in range (expected [T4, T6]): "
+               + ids(shop.getProductsEnteredBetween(day.plusDays(4), day.plusDays(7))));
+       
+       shop.createProduct("T5", "Tombstone 5 again", day, 5);
+       System.out.println("Slots reclaimed (expected 3): " + shop.compactCatalog());
+       System.out.println("Order after compaction (expected [T0, T1, T3, T4, T6, T8, T9, T5]): "
+               + ids(shop.getAllProducts()));
+       shop.deleteProduct("T8");
+       System.out.println("Delete after compaction (expected [T0, T1, T3, T4, T6, T9, T5]): "
+               + ids(shop.getAllProducts()));
+       
+       // Mass delisting: deletions compact inline once tombstones outnumber live products
+       SupermarketManager large = new SupermarketManager();
+       large.setEventSink(EventSink.NONE);
+       for (int i = 0; i < 20_000; i++) {
+           large.createProduct(String.format("M%05d", i), "Mass " + i, day, 1);
+       }
+       for (int i = 0; i < 20_000; i++) {
+           if (i % 4 != 3) {
+               large.deleteProduct(String.format("M%05d", i));
+           }
+       }
+       java.util.List<Product> left = large.getAllProducts();
+       boolean ordered = left.size() == 5_000;
+       for (int i = 0; ordered && i < left.size(); i++) {
+           ordered = left.get(i).getProductID().equals(String.format("M%05d", 4 * i + 3));
+       }
+       System.out.println("Survivors in order (expected true): " + ordered);
+       System.out.println("Compacted along the way (expected true): " + (large.getTombstoneCount() < 15_000));
+       System.out.println("Last page (expected [M19999]): " + ids(large.getProductsPage(4_999, 10)));
+   }
+   
+   /**
+    * Helper for the tombstone test: product IDs in list order
+    */
+   private static java.util.List<String> ids(java.util.List<Product> products) {
+       java.util.List<String> ids = new java.util.ArrayList<>();
+       for (Product product : products) {
+           ids.add(product.getProductID());
+       }
+       return ids;
+   }
+   
+   /**
+    * Helper for the change event test: waits (up to 5 seconds) until a
+    * subscriber has received a number of events
+    */
+   private void waitForEvents(java.util.List<ChangeEvent> received, int count) throws InterruptedException {
+       long deadline = System.currentTimeMillis() + 5_000;
+       while (received.size() < count && System.currentTimeMillis() < deadline) {
+           Thread.sleep(5);
+       }
+   }
+   
+   /**
+    * Helper for the replication test: waits (up to 5 seconds) until the replica
+    * has applied everything the primary has committed
+    */
+   private void waitForReplica(ReplicaSupermarket replica, SupermarketManager primaryManager) throws InterruptedException {
+       long deadline = System.currentTimeMillis() + 5_000;
+       while (System.currentTimeMillis() < deadline
+               && (!replica.isSynchronised() || replica.getAppliedSequence() < primaryManager.getCommittedSequence())) {
+           Thread.sleep(10);
+       }
+   }
+   
+   /**
+    * Helper for the HTTP test: sends one request and returns "status body"
+    * 
+    * @param client HTTP client to use
+    * @param method HTTP method
+    * @param url Full request URL
+    * @param json Request body, or null for no body
+    * @return Status code followed by the response body
+    * @throws Exception if the request fails
+    */
+   private String send(java.net.http.HttpClient client, String method, String url, String json) throws Exception {
+       java.net.http.HttpRequest.BodyPublisher body = json == null
+               ? java.net.http.HttpRequest.BodyPublishers.noBody()
+               : java.net.http.HttpRequest.BodyPublishers.ofString(json);
+       java.net.http.HttpRequest request = java.net.http.HttpRequest.newBuilder(java.net.URI.create(url))
+               .method(method, body)
+               .build();
+       java.net.http.HttpResponse<String> response =
+               client.send(request, java.net.http.HttpResponse.BodyHandlers.ofString());
+       return response.statusCode() + " " + response.body();
+   }
+   
+   /**
+    * Main method to run the comprehensive test suite.
+    * This is the entry Point when the class is executed directly
+    * 
+    * @param args Command Line arguments (not used in this test)
+    */
+   public static void main(String[] args) {
+       System.out.println("Starting Comprehensive Test Suite...");
+       System.out.println("=".repeat(70));
+       
+       // Create test instance and run all tests
+       ComprehensiveTest test = new ComprehensiveTest();
+       test.runAllTests();
+       
+       System.out.println("\nTest execution completed. Check output above for the results.");
+   }
 }
\ No newline at end of file
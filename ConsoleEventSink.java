@@ -0,0 +1,51 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.io.PrintStream;
+
+/**
+ * Event sink that prints each event immediately
+ * This reproduces the original console behaviour of the menu application.
+ * Printing happens on the calling thread, so it is meant for interactive
+ * use rather than load.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class ConsoleEventSink implements EventSink {
+
+    // Where messages are printed; null means whatever System.out is at the time
+    private final PrintStream out;
+
+    // Lowest level that is printed
+    private final Level minimumLevel;
+
+    /**
+     * Creates a sink printing to System.out
+     *
+     * @param minimumLevel Lowest level to print
+     */
+    public ConsoleEventSink(Level minimumLevel) {
+        this(null, minimumLevel);
+    }
+
+    /**
+     * Creates a sink printing to the given stream
+     *
+     * @param out Stream to print to
+     * @param minimumLevel Lowest level to print
+     */
+    public ConsoleEventSink(PrintStream out, Level minimumLevel) {
+        this.out = out;
+        this.minimumLevel = minimumLevel;
+    }
+
+    @Override
+    public boolean isEnabled(Level level) {
+        return level.compareTo(minimumLevel) >= 0;
+    }
+
+    @Override
+    public void emit(SupermarketEvent event) {
+        (out != null ? out : System.out).println(event.toMessage());
+    }
+}
@@ -0,0 +1,85 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.time.LocalDate;
+
+/**
+ * Totals of one product's stock movements over one day (or a longer period)
+ * Built by ActivityHistory as activities are accepted, so reports over long
+ * periods add up a few numbers per day instead of every activity.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class DailyRollup {
+
+    private final LocalDate date;
+    private long unitsAdded;
+    private long unitsRemoved;
+    private int activityCount;
+
+    /**
+     * Creates an empty rollup
+     *
+     * @param date Day covered (for period totals, the first day of the period)
+     */
+    DailyRollup(LocalDate date) {
+        this.date = date;
+    }
+
+    // Adds one activity to the totals
+    void add(Activity activity) {
+        if ("AddToStock".equals(activity.getActivityName())) {
+            unitsAdded += activity.getActivityProductQuantity();
+        } else if ("RemoveFromStock".equals(activity.getActivityName())) {
+            unitsRemoved += activity.getActivityProductQuantity();
+        }
+        activityCount++;
+    }
+
+    // Adds another rollup to the totals
+    void add(DailyRollup other) {
+        unitsAdded += other.unitsAdded;
+        unitsRemoved += other.unitsRemoved;
+        activityCount += other.activityCount;
+    }
+
+    // Copy for callers, so they never see later activities
+    DailyRollup copy() {
+        DailyRollup copy = new DailyRollup(date);
+        copy.add(this);
+        return copy;
+    }
+
+    /**
+     * @return Day covered (first day for period totals)
+     */
+    public LocalDate getDate() {
+        return date;
+    }
+
+    /**
+     * @return Units added by AddToStock activities
+     */
+    public long getUnitsAdded() {
+        return unitsAdded;
+    }
+
+    /**
+     * @return Units removed by RemoveFromStock activities
+     */
+    public long getUnitsRemoved() {
+        return unitsRemoved;
+    }
+
+    /**
+     * @return Number of activities counted
+     */
+    public int getActivityCount() {
+        return activityCount;
+    }
+
+    @Override
+    public String toString() {
+        return date + ": +" + unitsAdded + " -" + unitsRemoved + " (" + activityCount + " activities)";
+    }
+}
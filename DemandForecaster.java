@@ -0,0 +1,232 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Streaming demand forecast and reorder suggestions
+ * Follows a manager as a change listener and keeps, for every product, a few
+ * numbers updated in O(1) per activity:
+ * - the stock after the last activity
+ * - an exponentially weighted moving average (EWMA) of units removed per day
+ *   (each finished day counts alpha, older days fade by (1 - alpha) per day)
+ * - the units removed so far on the current day
+ *
+ * From these it projects the day each product runs out (stock / daily rate)
+ * and keeps products indexed by that day, so "which products run out within
+ * N days" reads one end of a sorted index instead of scanning the catalog.
+ * Moving a product in the index is O(log products).
+ *
+ * Usage:
+ *   DemandForecaster forecaster = DemandForecaster.attach(manager, 0.3, 2, 7);
+ *   forecaster.getProductsStockingOutWithin(LocalDate.now(), 3);
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class DemandForecaster implements SupermarketChangeListener {
+
+    // Index key for products that are not expected to run out
+    private static final long NO_STOCKOUT = Long.MAX_VALUE;
+
+    /**
+     * Running estimates for one product (guarded by the forecaster's monitor)
+     */
+    private static final class Demand {
+        int stock;
+        double rate;                  // EWMA of finished days
+        long day = Long.MIN_VALUE;    // Epoch day of the current day bucket
+        long dayUnits;                // Units removed so far on the current day
+        long stockoutDay = NO_STOCKOUT; // Where the product currently sits in the index
+    }
+
+    private final Map<String, Demand> demands = new HashMap<>();
+
+    // Projected stock-out epoch day -> products expected to run out that day
+    private final TreeMap<Long, Set<String>> byStockoutDay = new TreeMap<>();
+
+    private final double alpha;
+    private final int leadTimeDays;
+    private final int targetCoverDays;
+
+    /**
+     * Creates a forecaster that is not yet following a manager
+     *
+     * @param alpha Weight of the latest day, between 0 and 1 (e.g. 0.3)
+     * @param leadTimeDays Days a reorder takes to arrive
+     * @param targetCoverDays Days of demand a reorder should cover after it arrives
+     */
+    public DemandForecaster(double alpha, int leadTimeDays, int targetCoverDays) {
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("alpha must be in (0, 1]: " + alpha);
+        }
+        this.alpha = alpha;
+        this.leadTimeDays = leadTimeDays;
+        this.targetCoverDays = targetCoverDays;
+    }
+
+    /**
+     * Creates a forecaster following a manager, starting from its current stock
+     *
+     * @param manager Manager to follow
+     * @param alpha Weight of the latest day
+     * @param leadTimeDays Days a reorder takes to arrive
+     * @param targetCoverDays Days of demand a reorder should cover
+     * @return The attached forecaster
+     */
+    public static DemandForecaster attach(SupermarketManager manager, double alpha,
+            int leadTimeDays, int targetCoverDays) {
+        DemandForecaster forecaster = new DemandForecaster(alpha, leadTimeDays, targetCoverDays);
+        manager.addChangeListener(forecaster, products -> {
+            synchronized (forecaster) {
+                for (Product product : products) {
+                    forecaster.demands.computeIfAbsent(product.getProductID(), id -> new Demand()).stock =
+                            product.getProductQuantity();
+                }
+            }
+        });
+        return forecaster;
+    }
+
+    // ---------------------------------------------------------------
+    // Following the manager
+    // ---------------------------------------------------------------
+
+    @Override
+    public synchronized void productCreated(long sequence, Product product, Activity initialActivity) {
+        Demand demand = new Demand();
+        demand.stock = product.getProductQuantity(); // Already includes the initial activity
+        demand.day = dayOf(initialActivity);
+        demands.put(product.getProductID(), demand);
+    }
+
+    @Override
+    public synchronized void productDeleted(long sequence, String productId) {
+        Demand demand = demands.remove(productId);
+        if (demand != null) {
+            unindex(productId, demand.stockoutDay);
+        }
+    }
+
+    @Override
+    public synchronized void activityApplied(long sequence, String productId, Activity activity) {
+        Demand demand = demands.computeIfAbsent(productId, id -> new Demand());
+        roll(demand, dayOf(activity));
+        int quantity = activity.getActivityProductQuantity();
+        if ("AddToStock".equals(activity.getActivityName())) {
+            demand.stock += quantity;
+        } else if ("RemoveFromStock".equals(activity.getActivityName())) {
+            demand.stock = Math.max(0, demand.stock - quantity); // Same rule as Product
+            demand.dayUnits += quantity;
+        }
+        reindex(productId, demand);
+    }
+
+    // Day an activity counts towards; the manager accepts undated activities,
+    // and this runs inside its publish loop, so they count as today
+    private static long dayOf(Activity activity) {
+        LocalDate date = activity == null ? null : activity.getActivityDate();
+        return (date == null ? LocalDate.now() : date).toEpochDay();
+    }
+
+    // Closes finished days into the EWMA: O(1) however many days passed
+    // Back-dated activities count towards the current day
+    private void roll(Demand demand, long day) {
+        if (demand.day == Long.MIN_VALUE) {
+            demand.day = day;
+            return;
+        }
+        if (day <= demand.day) {
+            return;
+        }
+        demand.rate = alpha * demand.dayUnits + (1 - alpha) * demand.rate;
+        long quietDays = day - demand.day - 1;
+        if (quietDays > 0) {
+            demand.rate *= Math.pow(1 - alpha, quietDays); // Days without removals
+        }
+        demand.dayUnits = 0;
+        demand.day = day;
+    }
+
+    // Rate used for projections: the EWMA, raised if today is already busier
+    private double currentRate(Demand demand) {
+        return Math.max(demand.rate, alpha * demand.dayUnits + (1 - alpha) * demand.rate);
+    }
+
+    // Moves a product to its new projected stock-out day in the index
+    private void reindex(String productId, Demand demand) {
+        long stockoutDay = stockoutDay(demand);
+        if (stockoutDay == demand.stockoutDay) {
+            return;
+        }
+        unindex(productId, demand.stockoutDay);
+        if (stockoutDay != NO_STOCKOUT) {
+            byStockoutDay.computeIfAbsent(stockoutDay, day -> new LinkedHashSet<>()).add(productId);
+        }
+        demand.stockoutDay = stockoutDay;
+    }
+
+    private void unindex(String productId, long stockoutDay) {
+        if (stockoutDay == NO_STOCKOUT) {
+            return;
+        }
+        Set<String> sameDay = byStockoutDay.get(stockoutDay);
+        if (sameDay != null && sameDay.remove(productId) && sameDay.isEmpty()) {
+            byStockoutDay.remove(stockoutDay);
+        }
+    }
+
+    private long stockoutDay(Demand demand) {
+        double rate = currentRate(demand);
+        if (demand.day == Long.MIN_VALUE || rate <= 0) {
+            return NO_STOCKOUT;
+        }
+        return demand.day + (long) Math.floor(demand.stock / rate);
+    }
+
+    // ---------------------------------------------------------------
+    // Queries
+    // ---------------------------------------------------------------
+
+    /**
+     * Returns the forecast for one product
+     *
+     * @param productId ID of the product
+     * @return Forecast and reorder suggestion, or null for an unknown product
+     */
+    public synchronized ReorderSuggestion getForecast(String productId) {
+        Demand demand = demands.get(productId);
+        return demand == null ? null : suggestion(productId, demand);
+    }
+
+    /**
+     * Returns the products projected to run out within a number of days
+     * Read from the stock-out index: O(log products + results).
+     *
+     * @param today Day the period starts
+     * @param days Length of the period in days
+     * @return Suggestions for those products, soonest stock-out first
+     */
+    public synchronized List<ReorderSuggestion> getProductsStockingOutWithin(LocalDate today, int days) {
+        List<ReorderSuggestion> result = new ArrayList<>();
+        for (Set<String> sameDay : byStockoutDay.headMap(today.toEpochDay() + days, true).values()) {
+            for (String productId : sameDay) {
+                result.add(suggestion(productId, demands.get(productId)));
+            }
+        }
+        return result;
+    }
+
+    private ReorderSuggestion suggestion(String productId, Demand demand) {
+        double rate = currentRate(demand);
+        LocalDate stockout = demand.stockoutDay == NO_STOCKOUT ? null : LocalDate.ofEpochDay(demand.stockoutDay);
+        int order = (int) Math.max(0, Math.ceil(rate * (leadTimeDays + targetCoverDays)) - demand.stock);
+        return new ReorderSuggestion(productId, demand.stock, rate, stockout, order);
+    }
+}
@@ -0,0 +1,58 @@
+package com.mycompany.supermarketmanagementsystem;
+
+/**
+ * Destination for the events SupermarketManager reports about its operations
+ * Replaces direct console printing in the hot paths: the manager first asks
+ * isEnabled(level) and only builds an event when the answer is yes, so with
+ * a disabled or no-op sink no message is ever formatted.
+ *
+ * Implementations:
+ * - ConsoleEventSink : prints each event straight away (the classic console behaviour)
+ * - AsyncEventSink   : queues events and prints them in batches on a background thread
+ * - EventSink.NONE   : discards everything
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public interface EventSink {
+
+    /**
+     * Importance of an event
+     * INFO is used for successful operations and WARN for rejected ones.
+     */
+    enum Level {
+        DEBUG, INFO, WARN, ERROR
+    }
+
+    /**
+     * Sink that accepts nothing; the manager skips event creation entirely
+     */
+    EventSink NONE = new EventSink() {
+        @Override
+        public boolean isEnabled(Level level) {
+            return false;
+        }
+
+        @Override
+        public void emit(SupermarketEvent event) {
+            // Discard
+        }
+    };
+
+    /**
+     * Tells whether events of the given level would be kept
+     * Must be cheap: it is called on every operation.
+     *
+     * @param level Level of the event about to be reported
+     * @return true if an event of this level should be built and emitted
+     */
+    boolean isEnabled(Level level);
+
+    /**
+     * Receives one event
+     * Only called after isEnabled returned true for the event's level.
+     *
+     * @param event The event
+     */
+    void emit(SupermarketEvent event);
+}
@@ -0,0 +1,484 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32C;
+
+/**
+ * Rebuilds a manager after a crash by replaying the activity journal on several threads
+ * The journal is split by product ID hash into one partition per thread:
+ * - every record's checksum is verified once, before replay: the journal
+ *   (memory-mapped) is cut into stretches of whole records, found from the
+ *   length fields alone, and the threads checksum the stretches in parallel
+ * - every thread then walks the verified records but only decodes and
+ *   applies those of its own products, so the expensive work is shared out
+ *   and nothing is passed between threads
+ * - a product's records are all handled by the same thread, in journal
+ *   order, so its quantity, stock lots and recent activities come out
+ *   exactly as from a serial replay
+ * - products are built privately by each thread, then put into the manager
+ *   in the order they were created, so the catalog order also matches
+ *
+ * Replay stops at the first record that is incomplete or damaged (every
+ * thread stops at the same place, found by the checksum pass); isComplete tells whether that happened
+ * before the end of the last segment.
+ *
+ * If the directory holds a checkpoint (see BackgroundCheckpointer), the
+ * newest one that loads is the starting point: its products are shared out
+ * the same way, and each skips the journal records its copy already holds
+ * (those up to the sequence it was copied at). Creations and deletions after
+ * the checkpoint's own sequence are replayed as usual.
+ *
+ * Example after a crash:
+ *   JournalRecovery recovery = JournalRecovery.recover(journalDirectory,
+ *           Runtime.getRuntime().availableProcessors());
+ *   SupermarketManager manager = recovery.getManager();
+ *   ActivityJournal journal = ActivityJournal.attach(manager, journalDirectory); // Carries on numbering
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class JournalRecovery {
+
+    // Journal bytes checksummed by one task; several per segment keep every thread busy
+    private static final int STRETCH_BYTES = 4 << 20;
+
+    private final SupermarketManager manager;
+    private final int threads;
+    private long recordsReplayed;
+    private long checkpointSequence;
+    private long lastSequence;
+    private boolean complete = true;
+    private double elapsedMillis;
+
+    private JournalRecovery(SupermarketManager manager, int threads) {
+        this.manager = manager;
+        this.threads = threads;
+    }
+
+    /**
+     * Replays a journal into a new manager with the default history depth
+     *
+     * @param directory Journal directory
+     * @param threads Number of partitions replayed at once (e.g. the number of cores)
+     * @return Recovery result holding the rebuilt manager
+     * @throws IOException if a segment cannot be read
+     */
+    public static JournalRecovery recover(Path directory, int threads) throws IOException {
+        return recover(directory, threads, Product.DEFAULT_HISTORY_DEPTH);
+    }
+
+    /**
+     * Replays a journal into a new manager
+     *
+     * @param directory Journal directory
+     * @param threads Number of partitions replayed at once (e.g. the number of cores)
+     * @param historyDepth Number of recent activities each product keeps (as in the crashed manager)
+     * @return Recovery result holding the rebuilt manager
+     * @throws IOException if a segment cannot be read
+     * @throws IllegalArgumentException if threads or historyDepth is not positive
+     */
+    public static JournalRecovery recover(Path directory, int threads, int historyDepth) throws IOException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        long start = System.nanoTime();
+        SupermarketManager manager = new SupermarketManager();
+        manager.setHistoryDepth(historyDepth);
+        JournalRecovery recovery = new JournalRecovery(manager, threads);
+        CatalogStore checkpoint = openNewestCheckpoint(directory);
+        try {
+            recovery.replay(directory, checkpoint, historyDepth);
+        } finally {
+            if (checkpoint != null) {
+                checkpoint.close(); // Every history was read in by its partition
+            }
+        }
+        recovery.elapsedMillis = (System.nanoTime() - start) / 1e6;
+        return recovery;
+    }
+
+    // The newest checkpoint that can be read, or null if there is none
+    private static CatalogStore openNewestCheckpoint(Path directory) throws IOException {
+        for (Path checkpoint : BackgroundCheckpointer.checkpoints(directory)) {
+            try {
+                return CatalogStore.openCheckpoint(checkpoint);
+            } catch (IOException e) {
+                // Damaged: an older checkpoint still has its journal segments
+            }
+        }
+        return null;
+    }
+
+    private void replay(Path directory, CatalogStore checkpoint, int historyDepth) throws IOException {
+        List<Path> segments = ActivityJournal.segments(directory);
+        List<MappedByteBuffer> mapped = new ArrayList<>(segments.size());
+        for (Path segment : segments) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                mapped.add(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+
+        ExecutorService pool = threads == 1 ? null : Executors.newFixedThreadPool(threads);
+        try {
+            int[] ends = verify(mapped, pool);
+
+            long since = checkpoint == null ? 0 : checkpoint.getJournalSequence();
+            List<Partition> partitions = new ArrayList<>(threads);
+            for (int p = 0; p < threads; p++) {
+                partitions.add(new Partition(p, threads, mapped, ends, historyDepth, since));
+            }
+            if (checkpoint != null) {
+                // Checkpoint products go before any created later, in their catalog order
+                List<Product> saved = checkpoint.getCheckpointProducts();
+                for (int i = 0; i < saved.size(); i++) {
+                    Product product = saved.get(i);
+                    partitions.get(partitionOf(product.getProductID(), threads)).products.put(product.getProductID(),
+                            new Partition.Created(product, Long.MIN_VALUE + i, checkpoint.getProductJournalSequence(i)));
+                }
+                checkpointSequence = since;
+            }
+            runAll(partitions, pool);
+
+            // Surviving products go in in creation order, as a serial replay would have added them
+            List<Partition.Created> survivors = new ArrayList<>();
+            for (Partition partition : partitions) {
+                survivors.addAll(partition.products.values());
+                recordsReplayed += partition.recordsReplayed;
+            }
+            survivors.sort((a, b) -> Long.compare(a.sequence, b.sequence));
+            for (Partition.Created created : survivors) {
+                manager.restoreProduct(created.product);
+            }
+            Partition first = partitions.get(0); // Every partition read up to the same record
+            lastSequence = Math.max(first.lastSequence, since);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    // Checks every record's checksum once, in stretches shared out over the threads
+    // Returns where the valid records end in each segment to replay; segments
+    // after the first damaged record are left out
+    private int[] verify(List<MappedByteBuffer> mapped, ExecutorService pool) throws IOException {
+        // Record boundaries come from the length fields alone, a cheap serial walk
+        List<Stretch> stretches = new ArrayList<>();
+        int replayed = 0;
+        for (int s = 0; s < mapped.size(); s++) {
+            MappedByteBuffer segment = mapped.get(s);
+            boolean last = s == mapped.size() - 1;
+            if (!ActivityJournal.hasValidHeader(segment)) {
+                complete = last; // A crash can leave the newest segment without its header
+                break;
+            }
+            replayed++;
+            int position = ActivityJournal.SEGMENT_HEADER_BYTES;
+            int stretchStart = position;
+            while (segment.limit() - position >= ActivityJournal.RECORD_HEADER_BYTES) {
+                int length = segment.getInt(position);
+                if (length <= ActivityJournal.BODY_PRODUCT_ID
+                        || length > segment.limit() - position - ActivityJournal.RECORD_HEADER_BYTES) {
+                    break;
+                }
+                position += ActivityJournal.RECORD_HEADER_BYTES + length;
+                if (position - stretchStart >= STRETCH_BYTES) {
+                    stretches.add(new Stretch(s, segment, stretchStart, position));
+                    stretchStart = position;
+                }
+            }
+            // The last stretch also covers any tail too short to be a record, so it comes out damaged
+            stretches.add(new Stretch(s, segment, stretchStart, segment.limit()));
+            if (position < segment.limit()) {
+                break; // Nothing after an unreadable record can be trusted
+            }
+        }
+
+        runAll(stretches, pool);
+
+        int[] ends = new int[replayed];
+        for (int s = 0; s < replayed; s++) {
+            ends[s] = mapped.get(s).limit();
+        }
+        for (Stretch stretch : stretches) {
+            if (stretch.validEnd < stretch.end) {
+                // Only a torn record at the very end is expected after a crash
+                ends[stretch.segment] = stretch.validEnd;
+                complete = stretch.segment == mapped.size() - 1;
+                return Arrays.copyOf(ends, stretch.segment + 1);
+            }
+        }
+        return ends;
+    }
+
+    // Runs the tasks on the pool (or on this thread without one) and waits for them all
+    private static void runAll(List<? extends Runnable> tasks, ExecutorService pool) throws IOException {
+        if (pool == null) {
+            for (Runnable task : tasks) {
+                task.run();
+            }
+            return;
+        }
+        try {
+            List<Future<?>> running = new ArrayList<>(tasks.size());
+            for (Runnable task : tasks) {
+                running.add(pool.submit(task));
+            }
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Recovery interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            throw new IllegalStateException("Recovery failed", e.getCause());
+        }
+    }
+
+    // A run of whole records in one segment, checked by one thread
+    private static final class Stretch implements Runnable {
+
+        private final int segment;
+        private final ByteBuffer bytes;
+        private final int start;
+        private final int end;
+        private int validEnd; // Read after the pool's Future.get
+
+        Stretch(int segment, MappedByteBuffer bytes, int start, int end) {
+            this.segment = segment;
+            this.bytes = bytes.duplicate(); // Checksumming moves the position and limit
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public void run() {
+            CRC32C checksum = new CRC32C();
+            int position = start;
+            int next;
+            while (position < end && (next = ActivityJournal.nextRecord(bytes, position, checksum)) > 0) {
+                position = next;
+            }
+            validEnd = position;
+        }
+    }
+
+    // Partition of a product ID: the same hash of its modified UTF-8 bytes as Partition.owns
+    private static int partitionOf(String productId, int partitions) {
+        ByteArrayOutputStream utf = new ByteArrayOutputStream(productId.length() + 2);
+        try {
+            new DataOutputStream(utf).writeUTF(productId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Not thrown by an in-memory stream
+        }
+        byte[] bytes = utf.toByteArray();
+        return partitionOf(bytes, 2, bytes.length, partitions);
+    }
+
+    private static int partitionOf(ByteBuffer bytes, int start, int end, int partitions) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + bytes.get(i);
+        }
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, partitions);
+    }
+
+    private static int partitionOf(byte[] bytes, int start, int end, int partitions) {
+        return partitionOf(ByteBuffer.wrap(bytes), start, end, partitions);
+    }
+
+    // One thread's share of the journal: the products whose ID hashes to it
+    private static final class Partition implements Runnable {
+
+        // A live product, the sequence it was created at, and the last sequence already in it
+        private static final class Created {
+            private final Product product;
+            private final long sequence;
+            private final long appliedThrough;
+
+            Created(Product product, long sequence, long appliedThrough) {
+                this.product = product;
+                this.sequence = sequence;
+                this.appliedThrough = appliedThrough;
+            }
+        }
+
+        private final int index;
+        private final int partitions;
+        private final List<MappedByteBuffer> segments;
+        private final int[] ends;
+        private final int historyDepth;
+        private final long since;
+        private final Map<String, Created> products = new HashMap<>();
+        private long recordsReplayed;
+        private long lastSequence;
+
+        Partition(int index, int partitions, List<MappedByteBuffer> segments, int[] ends, int historyDepth,
+                long since) {
+            this.index = index;
+            this.partitions = partitions;
+            this.segments = segments; // Only read at absolute positions, so shared by every thread
+            this.ends = ends;
+            this.historyDepth = historyDepth;
+            this.since = since;
+        }
+
+        @Override
+        public void run() {
+            for (Created created : products.values()) {
+                created.product.getActivities(); // Checkpoint histories, read in here rather than one by one later
+            }
+            try {
+                // Checksums were verified by the stretches: records are only walked here
+                for (int s = 0; s < ends.length; s++) {
+                    MappedByteBuffer segment = segments.get(s);
+                    int position = ActivityJournal.SEGMENT_HEADER_BYTES;
+                    while (position < ends[s]) {
+                        int body = position + ActivityJournal.RECORD_HEADER_BYTES;
+                        int next = body + segment.getInt(position);
+                        lastSequence = segment.getLong(body + ActivityJournal.BODY_SEQUENCE);
+                        if (lastSequence > since && owns(segment, body)) {
+                            apply(segment, body, next - body);
+                            recordsReplayed++;
+                        }
+                        position = next;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // Whether the record's product belongs to this partition (hash of the ID bytes)
+        private boolean owns(MappedByteBuffer segment, int body) {
+            int idStart = body + ActivityJournal.BODY_PRODUCT_ID;
+            int idEnd = idStart + 2 + (segment.getShort(idStart) & 0xFFFF);
+            return partitionOf(segment, idStart + 2, idEnd, partitions) == index;
+        }
+
+        // Decodes one record and applies it to this partition's products
+        private void apply(MappedByteBuffer segment, int body, int length) throws IOException {
+            byte[] bytes = new byte[length];
+            segment.get(body, bytes);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            byte type = in.readByte();
+            long sequence = in.readLong();
+            String productId = in.readUTF();
+            if (type == ActivityJournal.DELETED) {
+                products.remove(productId);
+                return;
+            }
+            Activity activity = readActivity(in);
+            if (type == ActivityJournal.CREATED) {
+                String name = in.readUTF();
+                LocalDate entryDate = date(in.readLong());
+                // Same steps as SupermarketManager.createProduct
+                Product product = new Product(productId, name, entryDate, activity.getActivityProductQuantity(),
+                        historyDepth);
+                product.addActivity(activity);
+                products.put(productId, new Created(product, sequence, sequence));
+            } else {
+                Created created = products.get(productId);
+                if (created != null && sequence > created.appliedThrough) {
+                    created.product.addActivity(activity);
+                }
+            }
+        }
+
+        private static Activity readActivity(DataInputStream in) throws IOException {
+            byte kind = in.readByte();
+            int quantity = in.readInt();
+            LocalDate date = date(in.readLong());
+            String id = in.readUTF();
+            String name = kind == ActivityJournal.KIND_ADD ? "AddToStock"
+                    : kind == ActivityJournal.KIND_REMOVE ? "RemoveFromStock" : in.readUTF();
+            return new Activity(id, name, quantity, date);
+        }
+
+        private static LocalDate date(long epochDay) {
+            return epochDay == ActivityJournal.NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+        }
+    }
+
+    /**
+     * @return Manager rebuilt from the journal
+     */
+    public SupermarketManager getManager() {
+        return manager;
+    }
+
+    /**
+     * @return Number of partitions replayed at once
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @return Number of journal records applied
+     */
+    public long getRecordsReplayed() {
+        return recordsReplayed;
+    }
+
+    /**
+     * @return Journal sequence of the checkpoint recovery started from (0 if there was none)
+     */
+    public long getCheckpointSequence() {
+        return checkpointSequence;
+    }
+
+    /**
+     * @return Sequence of the last record read (0 for an empty journal)
+     */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * @return false if replay stopped at a damaged record before the end of the last segment
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return Time recovery took, in milliseconds
+     */
+    public double getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("recovered %d products from %s%d records (last sequence %d) on %d threads in %.1f ms%s",
+                manager.getAllProducts().size(),
+                checkpointSequence == 0 ? "" : "checkpoint " + checkpointSequence + " and ",
+                recordsReplayed, lastSequence, threads, elapsedMillis,
+                complete ? "" : " - stopped early at a damaged record");
+    }
+}
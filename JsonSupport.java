@@ -0,0 +1,207 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON helper used by the HTTP API
+ * The project has no external libraries, so this class provides just enough
+ * JSON support for the API: parsing flat request objects and writing responses.
+ *
+ * Supported input: a single JSON object whose values are strings, numbers,
+ * booleans or null (no nested objects or arrays).
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class JsonSupport {
+
+    /**
+     * Private constructor - this is a static utility class
+     */
+    private JsonSupport() {
+    }
+
+    /**
+     * Parses a flat JSON object into a map of field name to raw value text
+     * String values are unescaped; numbers and booleans are kept as their literal text
+     *
+     * @param json JSON text of the object, e.g. {"productId":"P001","quantity":5}
+     * @return Map of field names to values in the order they appear
+     * @throws IllegalArgumentException if the text is not a flat JSON object
+     */
+    public static Map<String, String> parseObject(String json) {
+        if (json == null) {
+            throw new IllegalArgumentException("Request body is empty");
+        }
+        Map<String, String> fields = new LinkedHashMap<>();
+        int[] pos = {skipWhitespace(json, 0)};
+
+        // Object must start with '{'
+        expect(json, pos, '{');
+        pos[0] = skipWhitespace(json, pos[0]);
+        if (pos[0] < json.length() && json.charAt(pos[0]) == '}') {
+            return fields; // Empty object
+        }
+
+        while (true) {
+            // Field name is always a string
+            pos[0] = skipWhitespace(json, pos[0]);
+            String name = readString(json, pos);
+            pos[0] = skipWhitespace(json, pos[0]);
+            expect(json, pos, ':');
+            pos[0] = skipWhitespace(json, pos[0]);
+
+            // Field value: string or literal (number, true, false, null)
+            String value;
+            if (pos[0] < json.length() && json.charAt(pos[0]) == '"') {
+                value = readString(json, pos);
+            } else {
+                int start = pos[0];
+                while (pos[0] < json.length() && ",} \t\r\n".indexOf(json.charAt(pos[0])) < 0) {
+                    pos[0]++;
+                }
+                value = json.substring(start, pos[0]);
+                if (value.isEmpty() || value.charAt(0) == '{' || value.charAt(0) == '[') {
+                    throw new IllegalArgumentException("Unsupported value for field '" + name + "'");
+                }
+                if (value.equals("null")) {
+                    value = null;
+                }
+            }
+            fields.put(name, value);
+
+            pos[0] = skipWhitespace(json, pos[0]);
+            if (pos[0] >= json.length()) {
+                throw new IllegalArgumentException("Unterminated JSON object");
+            }
+            char c = json.charAt(pos[0]++);
+            if (c == '}') {
+                return fields; // End of object
+            }
+            if (c != ',') {
+                throw new IllegalArgumentException("Expected ',' or '}' at position " + (pos[0] - 1));
+            }
+        }
+    }
+
+    /**
+     * Escapes a string and wraps it in quotes for JSON output
+     *
+     * @param value String to quote (null is written as null)
+     * @return JSON string literal
+     */
+    public static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c)); // Other control characters
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Converts a product to a JSON object
+     *
+     * @param product Product to convert
+     * @return JSON text for the product
+     */
+    public static String productToJson(Product product) {
+        return "{\"productId\":" + quote(product.getProductID())
+                + ",\"productName\":" + quote(product.getProductName())
+                + ",\"entryDate\":" + quote(String.valueOf(product.getProductEntryDate()))
+                + ",\"quantity\":" + product.getProductQuantity() + "}";
+    }
+
+    /**
+     * Converts an activity to a JSON object
+     *
+     * @param activity Activity to convert
+     * @return JSON text for the activity
+     */
+    public static String activityToJson(Activity activity) {
+        return "{\"activityId\":" + quote(activity.getActivityID())
+                + ",\"activityName\":" + quote(activity.getActivityName())
+                + ",\"quantity\":" + activity.getActivityProductQuantity()
+                + ",\"activityDate\":" + quote(String.valueOf(activity.getActivityDate())) + "}";
+    }
+
+    /**
+     * Joins already-encoded JSON values into a JSON array
+     *
+     * @param values Encoded JSON values
+     * @return JSON array text
+     */
+    public static String array(List<String> values) {
+        return "[" + String.join(",", values) + "]";
+    }
+
+    // Helper: skips spaces, tabs and line breaks starting at index i
+    private static int skipWhitespace(String json, int i) {
+        while (i < json.length() && Character.isWhitespace(json.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    // Helper: consumes the expected character or fails with a position message
+    private static void expect(String json, int[] pos, char expected) {
+        if (pos[0] >= json.length() || json.charAt(pos[0]) != expected) {
+            throw new IllegalArgumentException("Expected '" + expected + "' at position " + pos[0]);
+        }
+        pos[0]++;
+    }
+
+    // Helper: reads a quoted string starting at pos, handling escape sequences
+    private static String readString(String json, int[] pos) {
+        expect(json, pos, '"');
+        StringBuilder sb = new StringBuilder();
+        while (pos[0] < json.length()) {
+            char c = json.charAt(pos[0]++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (pos[0] >= json.length()) {
+                break;
+            }
+            char e = json.charAt(pos[0]++);
+            switch (e) {
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'u':
+                    if (pos[0] + 4 > json.length()) {
+                        throw new IllegalArgumentException("Invalid unicode escape");
+                    }
+                    sb.append((char) Integer.parseInt(json.substring(pos[0], pos[0] + 4), 16));
+                    pos[0] += 4;
+                    break;
+                default: sb.append(e); // \" \\ \/
+            }
+        }
+        throw new IllegalArgumentException("Unterminated string");
+    }
+}
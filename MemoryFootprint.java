@@ -0,0 +1,346 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimated heap used by a manager's catalog and activity histories
+ * Produced by SupermarketManager.estimateMemoryFootprint, broken down by
+ * structure, for sizing JVMs and for checking that compaction features
+ * really save memory.
+ *
+ * How it is estimated:
+ * - object sizes follow the usual 64-bit HotSpot layout with compressed
+ *   references (heaps under 32 GB): 12-byte object header, 4-byte references,
+ *   16-byte array header, everything rounded up to 8 bytes; an object's own
+ *   size is worked out once per class from its fields
+ * - strings count their object and their byte array (1 byte per character,
+ *   2 if any character is outside Latin-1)
+ * - per-product structures are measured on a sample of products spread over
+ *   the catalog and scaled up to the whole catalog; the product list and
+ *   indexes are computed from their sizes
+ * - shared objects (activity names, which are constants) are not counted;
+ *   each LocalDate is counted even though some may be shared, and the
+ *   lower-case name keys of the name index are left out
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class MemoryFootprint {
+
+    /** Product list, ID index, name index and entry date index */
+    public static final String CATALOG = "Product list and indexes";
+
+    /** Product objects with their ID, name and entry date */
+    public static final String PRODUCTS = "Products";
+
+    /** CustomLinkedList objects and their nodes */
+    public static final String HISTORY_NODES = "Activity history lists and nodes";
+
+    /** Activity objects with their ID and date */
+    public static final String ACTIVITIES = "Activities";
+
+    /** Quantity-sorted activity arrays and cached views */
+    public static final String SORTED_VIEWS = "Sorted activity views";
+
+    /** Stock lot queues and lots */
+    public static final String STOCK_LOTS = "Stock lots";
+
+    // Layout of a 64-bit JVM with compressed references
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int ALIGNMENT = 8;
+
+    // Own size of each class measured so far
+    private static final Map<Class<?>, Long> SHALLOW_SIZES = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> sampledBytes = new LinkedHashMap<>();
+    private final Map<String, Long> bytesByStructure = new LinkedHashMap<>();
+    private final int productCount;
+    private int sampledProducts;
+    private long sampledActivities;
+
+    /**
+     * Starts an estimate for a catalog
+     *
+     * @param productCount Number of products in the catalog
+     */
+    MemoryFootprint(int productCount) {
+        this.productCount = productCount;
+        for (String structure : new String[] {CATALOG, PRODUCTS, HISTORY_NODES, ACTIVITIES, SORTED_VIEWS, STOCK_LOTS}) {
+            sampledBytes.put(structure, 0L);
+            bytesByStructure.put(structure, 0L);
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Building the estimate
+    // ---------------------------------------------------------------
+
+    // Adds bytes measured on a sampled product (scaled up by finish)
+    void addSampled(String structure, long bytes) {
+        sampledBytes.merge(structure, bytes, Long::sum);
+    }
+
+    // Adds bytes measured for the whole catalog (not scaled)
+    void addCatalog(String structure, long bytes) {
+        bytesByStructure.merge(structure, bytes, Long::sum);
+    }
+
+    // Counts one sampled product and its activities
+    void sampledProduct(int activities) {
+        sampledProducts++;
+        sampledActivities += activities;
+    }
+
+    // Scales the sampled structures up to the whole catalog
+    MemoryFootprint finish() {
+        double scale = sampledProducts == 0 ? 0 : (double) productCount / sampledProducts;
+        for (Map.Entry<String, Long> entry : sampledBytes.entrySet()) {
+            bytesByStructure.merge(entry.getKey(), Math.round(entry.getValue() * scale), Long::sum);
+        }
+        return this;
+    }
+
+    // ---------------------------------------------------------------
+    // Object sizes
+    // ---------------------------------------------------------------
+
+    /**
+     * Returns the size of an object of a class, not counting what it refers to
+     *
+     * @param type Class of the object
+     * @return Bytes, rounded up to the 8-byte alignment
+     */
+    static long shallowSize(Class<?> type) {
+        return SHALLOW_SIZES.computeIfAbsent(type, t -> {
+            long bytes = OBJECT_HEADER;
+            for (Class<?> c = t; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        bytes += fieldSize(field.getType());
+                    }
+                }
+            }
+            return align(bytes);
+        });
+    }
+
+    /**
+     * Same as shallowSize(Class) for a JDK class that is not public (e.g. "java.util.HashMap$Node")
+     *
+     * @param className Binary name of the class
+     * @return Bytes, or the size of a bare object if the class does not exist
+     */
+    static long shallowSize(String className) {
+        try {
+            return shallowSize(Class.forName(className));
+        } catch (ClassNotFoundException e) {
+            return align(OBJECT_HEADER);
+        }
+    }
+
+    /**
+     * @param length Number of elements
+     * @return Bytes used by an array of references of that length
+     */
+    static long referenceArraySize(int length) {
+        return align(ARRAY_HEADER + (long) REFERENCE * length);
+    }
+
+    /**
+     * @param text String (may be null)
+     * @return Bytes used by the string and its characters, 0 for null
+     */
+    static long stringSize(String text) {
+        if (text == null) {
+            return 0;
+        }
+        int bytesPerChar = 1;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        return shallowSize(String.class) + align(ARRAY_HEADER + (long) bytesPerChar * text.length());
+    }
+
+    /**
+     * @param date Date (may be null)
+     * @return Bytes used by the date, 0 for null
+     */
+    static long dateSize(LocalDate date) {
+        return date == null ? 0 : shallowSize(LocalDate.class);
+    }
+
+    /**
+     * Estimates an index from keys to concurrent sets of products
+     *
+     * @param keys Number of keys
+     * @param products Number of products in the sets
+     * @param entryBytes Size of the map's entry per key
+     * @return Estimated bytes: map table and entries, plus one set (map, view, table) per key
+     */
+    static long estimateSetIndexBytes(int keys, int products, long entryBytes) {
+        long perKey = entryBytes + REFERENCE * 2 // Table slot (kept at most half full)
+                + shallowSize("java.util.concurrent.ConcurrentHashMap$KeySetView")
+                + shallowSize(ConcurrentHashMap.class) + referenceArraySize(16);
+        return (long) keys * perKey
+                + (long) products * (shallowSize("java.util.concurrent.ConcurrentHashMap$Node") + REFERENCE * 2);
+    }
+
+    private static int fieldSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    // ---------------------------------------------------------------
+    // Results
+    // ---------------------------------------------------------------
+
+    /**
+     * @return Estimated bytes per structure (see the constants), in report order
+     */
+    public Map<String, Long> getBytesByStructure() {
+        return Collections.unmodifiableMap(bytesByStructure);
+    }
+
+    /**
+     * @return Estimated bytes of all structures together
+     */
+    public long getTotalBytes() {
+        long total = 0;
+        for (long bytes : bytesByStructure.values()) {
+            total += bytes;
+        }
+        return total;
+    }
+
+    /**
+     * @return Number of products in the catalog
+     */
+    public int getProductCount() {
+        return productCount;
+    }
+
+    /**
+     * @return Number of products measured
+     */
+    public int getSampledProducts() {
+        return sampledProducts;
+    }
+
+    /**
+     * @return Average number of activities kept per sampled product
+     */
+    public double getActivitiesPerProduct() {
+        return sampledProducts == 0 ? 0 : (double) sampledActivities / sampledProducts;
+    }
+
+    /**
+     * @return Estimated bytes per activity kept (its node, object, ID and date)
+     */
+    public double getBytesPerActivity() {
+        return sampledActivities == 0 ? 0
+                : (double) (sampledBytes.get(ACTIVITIES) + nodeBytes()) / sampledActivities;
+    }
+
+    /**
+     * @return Estimated bytes per product, not counting its activities
+     */
+    public double getBytesPerProduct() {
+        if (productCount == 0) {
+            return 0;
+        }
+        double perActivity = getBytesPerActivity() * getActivitiesPerProduct() * productCount;
+        return (getTotalBytes() - perActivity) / productCount;
+    }
+
+    /**
+     * Projects the heap needed for another catalog size, from this catalog's per-product
+     * and per-activity costs
+     *
+     * @param products Number of products
+     * @param activitiesPerProduct Activities kept per product (at most the history depth)
+     * @return Estimated bytes
+     */
+    public long estimateBytesFor(long products, int activitiesPerProduct) {
+        return Math.round(products * (getBytesPerProduct() + activitiesPerProduct * getBytesPerActivity()));
+    }
+
+    // Node bytes in the sample, without the list objects themselves
+    private long nodeBytes() {
+        return sampledActivities * shallowSize(nodeClass());
+    }
+
+    // Node class of CustomLinkedList (private there)
+    static Class<?> nodeClass() {
+        for (Class<?> inner : CustomLinkedList.class.getDeclaredClasses()) {
+            if (inner.getSimpleName().equals("Node")) {
+                return inner;
+            }
+        }
+        return Object.class;
+    }
+
+    /**
+     * @return Report as a JSON object (bytes per structure, totals and per-item costs)
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{\"structures\":{");
+        boolean first = true;
+        for (Map.Entry<String, Long> entry : bytesByStructure.entrySet()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append(JsonSupport.quote(entry.getKey())).append(':').append(entry.getValue());
+        }
+        return sb.append("},\"totalBytes\":").append(getTotalBytes())
+                .append(",\"products\":").append(productCount)
+                .append(",\"sampledProducts\":").append(sampledProducts)
+                .append(",\"activitiesPerProduct\":").append(String.format(Locale.ROOT, "%.2f", getActivitiesPerProduct()))
+                .append(",\"bytesPerProduct\":").append(Math.round(getBytesPerProduct()))
+                .append(",\"bytesPerActivity\":").append(Math.round(getBytesPerActivity()))
+                .append('}').toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-36s %15s%n", "Structure", "Estimated bytes"));
+        sb.append("-".repeat(52)).append(System.lineSeparator());
+        for (Map.Entry<String, Long> entry : bytesByStructure.entrySet()) {
+            sb.append(String.format("%-36s %,15d%n", entry.getKey(), entry.getValue()));
+        }
+        sb.append("-".repeat(52)).append(System.lineSeparator());
+        sb.append(String.format("%-36s %,15d%n", "Total", getTotalBytes()));
+        sb.append(String.format("%d products (%d sampled), %.1f activities each: about %,d bytes per product"
+                + " plus %,d per activity", productCount, sampledProducts, getActivitiesPerProduct(),
+                Math.round(getBytesPerProduct()), Math.round(getBytesPerActivity())));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,909 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Product catalog stored outside the Java heap
+ * Products and their last 4 activities are fixed-size records in direct
+ * (or memory-mapped) buffers, so the heap and GC pause times no longer grow
+ * with the number of products. Only views created by callers live on the heap.
+ *
+ * The records form an open-addressing hash table keyed by ProductID (linear
+ * probing, deleted records become tombstones), so the table is also the index.
+ * Its capacity is fixed when the catalog is created; adding beyond it fails
+ * with IllegalStateException.
+ *
+ * Record layout (RECORD_SIZE = 256 bytes):
+ *   0 state (empty/live/deleted)   1 ID length   2 name length
+ *   3 history count   4 newest history entry   8 quantity   12 entry epoch day
+ *   16 ID hash   24 ID (max 32 bytes UTF-8)   56 name (max 40 bytes UTF-8)
+ *   96 history: 4 entries of 40 bytes (type, activity ID length, quantity,
+ *      epoch day, activity ID max 28 bytes)
+ *
+ * Two kinds of memory:
+ * - new OffHeapProductCatalog(n) : direct buffers, gone when the JVM exits
+ * - OffHeapProductCatalog.open(file, n) : a memory-mapped file. Reopening the
+ *   same file makes the catalog available again at once, with nothing to load.
+ *
+ * Only AddToStock and RemoveFromStock activities can be stored. getActivities()
+ * on a view returns a copy, because the history is not made of Java objects.
+ * Stock lots are not kept: a view reports its whole quantity as one lot
+ * received on the entry date.
+ *
+ * Thread Safety: one read/write lock, as in ColumnarProductCatalog.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class OffHeapProductCatalog implements ProductCatalog, AutoCloseable {
+
+    // Record layout (byte offsets inside a record)
+    static final int RECORD_SIZE = 256;
+    private static final int STATE = 0;
+    private static final int ID_LENGTH = 1;
+    private static final int NAME_LENGTH = 2;
+    private static final int HISTORY_COUNT = 3;
+    private static final int HISTORY_NEWEST = 4;
+    private static final int QUANTITY = 8;
+    private static final int ENTRY_DAY = 12;
+    private static final int ID_HASH = 16;
+    private static final int ID_BYTES = 24;
+    private static final int NAME_BYTES = 56;
+    private static final int HISTORY = 96;
+
+    // History entry layout (offsets inside one activity entry)
+    private static final int HISTORY_SIZE = 4;
+    private static final int ACTIVITY_SIZE = 40;
+    private static final int ACTIVITY_TYPE = 0;
+    private static final int ACTIVITY_ID_LENGTH = 1;
+    private static final int ACTIVITY_QUANTITY = 4;
+    private static final int ACTIVITY_DAY = 8;
+    private static final int ACTIVITY_ID = 12;
+
+    // Field limits imposed by the fixed-size record
+    static final int MAX_ID_BYTES = 32;
+    static final int MAX_NAME_BYTES = 40;
+    static final int MAX_ACTIVITY_ID_BYTES = 28;
+
+    // Record states
+    private static final byte EMPTY = 0;
+    private static final byte LIVE = 1;
+    private static final byte DELETED = 2;
+
+    // Activity types
+    private static final byte ADD_TO_STOCK = 1;
+    private static final byte REMOVE_FROM_STOCK = 2;
+
+    // Marker for a missing date
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    // Records per buffer: one buffer cannot exceed 2 GB, so memory is split in chunks of 1 GB
+    private static final int CHUNK_SHIFT = 22;
+    private static final int CHUNK_RECORDS = 1 << CHUNK_SHIFT;
+
+    // Table is sized so it is at most 75% full at the expected product count
+    private static final double LOAD_FACTOR = 0.75;
+
+    // File header: magic, version, record size, capacity, size, used slots
+    private static final long MAGIC = 0x534D4B544F464648L; // "SMKTOFFH"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int HEADER_VERSION = 8;
+    private static final int HEADER_RECORD_SIZE = 12;
+    private static final int HEADER_CAPACITY = 16;
+    private static final int HEADER_SIZE = 24;
+    private static final int HEADER_USED = 32;
+
+    private final ByteBuffer header;
+    private final ByteBuffer[] chunks;
+    private final int capacity;
+    private final FileChannel channel; // null for direct memory
+
+    // Live records, and live plus deleted (slots that are no longer EMPTY)
+    private int size;
+    private int used;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Creates a catalog in direct (off-heap) memory
+     * The memory counts against -XX:MaxDirectMemorySize and is released
+     * when the catalog is garbage collected.
+     *
+     * @param expectedProducts Largest number of products the catalog must hold
+     */
+    public OffHeapProductCatalog(int expectedProducts) {
+        this.capacity = capacityFor(expectedProducts);
+        this.channel = null;
+        this.header = ByteBuffer.allocateDirect(HEADER_BYTES);
+        this.chunks = new ByteBuffer[chunkCount(capacity)];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = ByteBuffer.allocateDirect(chunkBytes(capacity, i));
+        }
+        writeHeader();
+    }
+
+    // File-backed catalog (see open)
+    private OffHeapProductCatalog(FileChannel channel, int capacity, boolean existing) throws IOException {
+        this.channel = channel;
+        this.capacity = capacity;
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        this.chunks = new ByteBuffer[chunkCount(capacity)];
+        for (int i = 0; i < chunks.length; i++) {
+            long position = HEADER_BYTES + ((long) i << CHUNK_SHIFT) * RECORD_SIZE;
+            chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, chunkBytes(capacity, i));
+        }
+        if (existing) {
+            this.size = (int) header.getLong(HEADER_SIZE);
+            this.used = (int) header.getLong(HEADER_USED);
+        } else {
+            writeHeader();
+        }
+    }
+
+    /**
+     * Opens (or creates) a catalog backed by a memory-mapped file
+     * An existing file is used as it is, keeping all its products; its
+     * capacity then comes from the file and expectedProducts is ignored.
+     *
+     * @param file Catalog file
+     * @param expectedProducts Largest number of products, used when the file is new
+     * @return Catalog over the file
+     * @throws IOException if the file cannot be opened or is not a catalog file
+     */
+    public static OffHeapProductCatalog open(Path file, int expectedProducts) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() >= HEADER_BYTES) {
+                ByteBuffer existing = ByteBuffer.allocate(HEADER_BYTES);
+                channel.read(existing, 0);
+                if (existing.getLong(0) != MAGIC || existing.getInt(HEADER_VERSION) != VERSION
+                        || existing.getInt(HEADER_RECORD_SIZE) != RECORD_SIZE) {
+                    throw new IOException("Not an off-heap catalog file: " + file);
+                }
+                return new OffHeapProductCatalog(channel, (int) existing.getLong(HEADER_CAPACITY), true);
+            }
+            return new OffHeapProductCatalog(channel, capacityFor(expectedProducts), false);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes changes of a file-backed catalog to disk
+     * Does nothing for a direct-memory catalog.
+     */
+    public void force() {
+        if (channel == null) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            ((MappedByteBuffer) header).force();
+            for (ByteBuffer chunk : chunks) {
+                ((MappedByteBuffer) chunk).force();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Flushes a file-backed catalog and closes its file
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            force();
+            channel.close();
+        }
+    }
+
+    /**
+     * @return Number of records the catalog can hold
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return Bytes of memory (or file) used by the records
+     */
+    public long getOffHeapBytes() {
+        return HEADER_BYTES + (long) capacity * RECORD_SIZE;
+    }
+
+    // ---------------------------------------------------------------
+    // Changes
+    // ---------------------------------------------------------------
+
+    @Override
+    public OperationOutcome addProduct(String ProductID, String ProductName, LocalDate ProductEntryDate,
+            int ProductQuantity) {
+        if (ProductID == null || ProductID.trim().isEmpty()
+                || ProductName == null || ProductName.trim().isEmpty() || ProductQuantity < 0) {
+            return OperationOutcome.INVALID_INPUT;
+        }
+        byte[] id = ProductID.getBytes(StandardCharsets.UTF_8);
+        byte[] name = ProductName.getBytes(StandardCharsets.UTF_8);
+        if (id.length > MAX_ID_BYTES || name.length > MAX_NAME_BYTES) {
+            return OperationOutcome.INVALID_INPUT;
+        }
+        int hash = hash(id);
+        lock.writeLock().lock();
+        try {
+            int slot = freeSlot(id, hash);
+            if (slot < 0) {
+                return OperationOutcome.DUPLICATE;
+            }
+            writeRecord(slot, id, hash, name, ProductEntryDate, ProductQuantity);
+            size++;
+            updateHeaderCounts();
+            return OperationOutcome.SUCCESS;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Changes a product's ID, keeping its data and history
+     * The ID decides where a record is stored, so the record moves to a new
+     * slot. Views of the product taken before the change no longer find it;
+     * the view the change was made through follows it (see Product.setProductID).
+     *
+     * @param ProductID Current ID of the product
+     * @param newProductID New ID
+     * @return SUCCESS, NOT_FOUND, DUPLICATE if the new ID is taken, or INVALID_INPUT
+     * @throws IllegalStateException if the catalog is full
+     */
+    public OperationOutcome renameProduct(String ProductID, String newProductID) {
+        if (newProductID == null || newProductID.trim().isEmpty()
+                || newProductID.getBytes(StandardCharsets.UTF_8).length > MAX_ID_BYTES) {
+            return OperationOutcome.INVALID_INPUT;
+        }
+        lock.writeLock().lock();
+        try {
+            int slot = find(ProductID);
+            if (slot < 0) {
+                return OperationOutcome.NOT_FOUND;
+            }
+            return renameAt(slot, newProductID.getBytes(StandardCharsets.UTF_8)) < 0
+                    ? OperationOutcome.DUPLICATE : OperationOutcome.SUCCESS;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public OperationOutcome removeProduct(String ProductID) {
+        lock.writeLock().lock();
+        try {
+            int slot = find(ProductID);
+            if (slot < 0) {
+                return OperationOutcome.NOT_FOUND;
+            }
+            // Tombstone: later probes must continue past this slot
+            chunk(slot).put(offset(slot) + STATE, DELETED);
+            size--;
+            updateHeaderCounts();
+            return OperationOutcome.SUCCESS;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public OperationOutcome applyActivity(String ProductID, Activity activity) {
+        if (activity.getActivityProductQuantity() < 0 || typeOf(activity.getActivityName()) == 0
+                || activityIdBytes(activity).length > MAX_ACTIVITY_ID_BYTES) {
+            return OperationOutcome.INVALID_INPUT;
+        }
+        lock.writeLock().lock();
+        try {
+            int slot = find(ProductID);
+            if (slot < 0) {
+                return OperationOutcome.NOT_FOUND;
+            }
+            if (typeOf(activity.getActivityName()) == REMOVE_FROM_STOCK
+                    && chunk(slot).getInt(offset(slot) + QUANTITY) < activity.getActivityProductQuantity()) {
+                return OperationOutcome.INSUFFICIENT_STOCK;
+            }
+            applyAt(slot, activity);
+            return OperationOutcome.SUCCESS;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Lookups and scans
+    // ---------------------------------------------------------------
+
+    @Override
+    public Product getProduct(String ProductID) {
+        lock.readLock().lock();
+        try {
+            int slot = find(ProductID);
+            return slot < 0 ? null : new ProductView(slot, ProductID.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Product> getAllProducts() {
+        lock.readLock().lock();
+        try {
+            List<Product> result = new ArrayList<>(size);
+            for (int slot = 0; slot < capacity; slot++) {
+                if (chunk(slot).get(offset(slot) + STATE) == LIVE) {
+                    result.add(new ProductView(slot, readId(slot)));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getProductCount() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long getTotalStockQuantity() {
+        lock.readLock().lock();
+        try {
+            long total = 0;
+            for (int c = 0; c < chunks.length; c++) {
+                ByteBuffer chunk = chunks[c];
+                for (int offset = 0, end = chunk.capacity(); offset < end; offset += RECORD_SIZE) {
+                    if (chunk.get(offset + STATE) == LIVE) {
+                        total += chunk.getInt(offset + QUANTITY);
+                    }
+                }
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int countQuantityBelow(int threshold) {
+        lock.readLock().lock();
+        try {
+            int count = 0;
+            for (int c = 0; c < chunks.length; c++) {
+                ByteBuffer chunk = chunks[c];
+                for (int offset = 0, end = chunk.capacity(); offset < end; offset += RECORD_SIZE) {
+                    if (chunk.get(offset + STATE) == LIVE && chunk.getInt(offset + QUANTITY) < threshold) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Record access (callers hold the lock)
+    // ---------------------------------------------------------------
+
+    private ByteBuffer chunk(int slot) {
+        return chunks[slot >>> CHUNK_SHIFT];
+    }
+
+    private static int offset(int slot) {
+        return (slot & (CHUNK_RECORDS - 1)) * RECORD_SIZE;
+    }
+
+    // Slot holding a live product with this ID, or -1
+    private int find(String ProductID) {
+        if (ProductID == null) {
+            return -1;
+        }
+        byte[] id = ProductID.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(id);
+        int slot = homeSlot(hash);
+        for (int probes = 0; probes < capacity; probes++) {
+            byte state = chunk(slot).get(offset(slot) + STATE);
+            if (state == EMPTY) {
+                return -1;
+            }
+            if (state == LIVE && matches(slot, id, hash)) {
+                return slot;
+            }
+            slot = nextSlot(slot);
+        }
+        return -1;
+    }
+
+    // Slot a new record with this ID can go in, or -1 if the ID is already live
+    // Reuses the first deleted slot on the probe path (caller holds the write lock)
+    private int freeSlot(byte[] id, int hash) {
+        int reusable = -1;
+        int slot = homeSlot(hash);
+        for (int probes = 0; probes < capacity; probes++) {
+            byte state = chunk(slot).get(offset(slot) + STATE);
+            if (state == EMPTY) {
+                break;
+            }
+            if (state == DELETED) {
+                if (reusable < 0) {
+                    reusable = slot;
+                }
+            } else if (matches(slot, id, hash)) {
+                return -1;
+            }
+            slot = nextSlot(slot);
+        }
+        if (reusable < 0) {
+            if (used == capacity || chunk(slot).get(offset(slot) + STATE) != EMPTY) {
+                throw new IllegalStateException("Off-heap catalog is full (capacity " + capacity + ")");
+            }
+            reusable = slot;
+            used++;
+        }
+        return reusable;
+    }
+
+    // Moves a live record to the slot of a new ID (caller holds the write lock)
+    // Returns the record's new slot, or -1 if the ID belongs to another product
+    private int renameAt(int slot, byte[] id) {
+        int hash = hash(id);
+        if (matches(slot, id, hash)) {
+            return slot;
+        }
+        int target = freeSlot(id, hash);
+        if (target < 0) {
+            return -1;
+        }
+        ByteBuffer from = chunk(slot);
+        ByteBuffer to = chunk(target);
+        int source = offset(slot);
+        int base = offset(target);
+        for (int i = STATE + 1; i < RECORD_SIZE; i++) {
+            to.put(base + i, from.get(source + i));
+        }
+        to.put(base + ID_LENGTH, (byte) id.length);
+        to.putInt(base + ID_HASH, hash);
+        to.put(base + ID_BYTES, id);
+        to.put(base + STATE, LIVE);
+        from.put(source + STATE, DELETED); // Tombstone, as in removeProduct
+        updateHeaderCounts();
+        return target;
+    }
+
+    // True if the record at slot is live and has exactly this ID
+    private boolean matches(int slot, byte[] id, int hash) {
+        ByteBuffer chunk = chunk(slot);
+        int base = offset(slot);
+        if (chunk.get(base + STATE) != LIVE || chunk.getInt(base + ID_HASH) != hash
+                || chunk.get(base + ID_LENGTH) != id.length) {
+            return false;
+        }
+        for (int i = 0; i < id.length; i++) {
+            if (chunk.get(base + ID_BYTES + i) != id[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeRecord(int slot, byte[] id, int hash, byte[] name, LocalDate date, int quantity) {
+        ByteBuffer chunk = chunk(slot);
+        int base = offset(slot);
+        chunk.put(base + ID_LENGTH, (byte) id.length);
+        chunk.put(base + NAME_LENGTH, (byte) name.length);
+        chunk.put(base + HISTORY_COUNT, (byte) 0);
+        chunk.put(base + HISTORY_NEWEST, (byte) 0);
+        chunk.putInt(base + QUANTITY, quantity);
+        chunk.putInt(base + ENTRY_DAY, toEpochDay(date));
+        chunk.putInt(base + ID_HASH, hash);
+        chunk.put(base + ID_BYTES, id);
+        chunk.put(base + NAME_BYTES, name);
+        chunk.put(base + STATE, LIVE); // Last, so the record is complete once it is live
+    }
+
+    private byte[] readId(int slot) {
+        return readBytes(slot, ID_BYTES, chunk(slot).get(offset(slot) + ID_LENGTH));
+    }
+
+    private byte[] readBytes(int slot, int field, int length) {
+        byte[] bytes = new byte[length];
+        chunk(slot).get(offset(slot) + field, bytes);
+        return bytes;
+    }
+
+    // Same stock rules as Product.addActivity; the history keeps the newest 4
+    private void applyAt(int slot, Activity activity) {
+        ByteBuffer chunk = chunk(slot);
+        int base = offset(slot);
+        byte type = typeOf(activity.getActivityName());
+        int count = chunk.get(base + HISTORY_COUNT);
+        int newest = count == 0 ? 0 : (chunk.get(base + HISTORY_NEWEST) + 1) & (HISTORY_SIZE - 1);
+        byte[] activityId = activityIdBytes(activity);
+        int entry = base + HISTORY + newest * ACTIVITY_SIZE;
+        chunk.put(entry + ACTIVITY_TYPE, type);
+        chunk.put(entry + ACTIVITY_ID_LENGTH, (byte) activityId.length);
+        chunk.putInt(entry + ACTIVITY_QUANTITY, activity.getActivityProductQuantity());
+        chunk.putInt(entry + ACTIVITY_DAY, toEpochDay(activity.getActivityDate()));
+        chunk.put(entry + ACTIVITY_ID, activityId);
+        chunk.put(base + HISTORY_NEWEST, (byte) newest);
+        chunk.put(base + HISTORY_COUNT, (byte) Math.min(HISTORY_SIZE, count + 1));
+
+        int quantity = chunk.getInt(base + QUANTITY);
+        if (type == ADD_TO_STOCK) {
+            quantity += activity.getActivityProductQuantity();
+        } else {
+            quantity = Math.max(0, quantity - activity.getActivityProductQuantity());
+        }
+        chunk.putInt(base + QUANTITY, quantity);
+    }
+
+    // Rebuilds a record's history as Activity objects, newest first
+    private List<Activity> readHistory(int slot) {
+        ByteBuffer chunk = chunk(slot);
+        int base = offset(slot);
+        int count = chunk.get(base + HISTORY_COUNT);
+        int newest = chunk.get(base + HISTORY_NEWEST);
+        List<Activity> history = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int entry = base + HISTORY + ((newest - i) & (HISTORY_SIZE - 1)) * ACTIVITY_SIZE;
+            byte[] activityId = new byte[chunk.get(entry + ACTIVITY_ID_LENGTH)];
+            chunk.get(entry + ACTIVITY_ID, activityId);
+            history.add(new Activity(new String(activityId, StandardCharsets.UTF_8),
+                    chunk.get(entry + ACTIVITY_TYPE) == ADD_TO_STOCK ? "AddToStock" : "RemoveFromStock",
+                    chunk.getInt(entry + ACTIVITY_QUANTITY),
+                    fromEpochDay(chunk.getInt(entry + ACTIVITY_DAY))));
+        }
+        return history;
+    }
+
+    private void writeHeader() {
+        header.putLong(0, MAGIC);
+        header.putInt(HEADER_VERSION, VERSION);
+        header.putInt(HEADER_RECORD_SIZE, RECORD_SIZE);
+        header.putLong(HEADER_CAPACITY, capacity);
+        updateHeaderCounts();
+    }
+
+    private void updateHeaderCounts() {
+        header.putLong(HEADER_SIZE, size);
+        header.putLong(HEADER_USED, used);
+    }
+
+    // ---------------------------------------------------------------
+    // Static helpers
+    // ---------------------------------------------------------------
+
+    private static int capacityFor(int expectedProducts) {
+        return (int) Math.min(Integer.MAX_VALUE - 8, Math.max(16, (long) Math.ceil(expectedProducts / LOAD_FACTOR)));
+    }
+
+    private static int chunkCount(int capacity) {
+        return (capacity + CHUNK_RECORDS - 1) >>> CHUNK_SHIFT;
+    }
+
+    private static int chunkBytes(int capacity, int chunkIndex) {
+        int records = Math.min(CHUNK_RECORDS, capacity - (chunkIndex << CHUNK_SHIFT));
+        return records * RECORD_SIZE;
+    }
+
+    // Mixes all bits of the hash (MurmurHash3 finaliser): homeSlot uses the
+    // high bits, and IDs like P00001, P00002 differ only in the low ones
+    private static int hash(byte[] id) {
+        int h = Arrays.hashCode(id);
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+
+    // Maps a hash onto 0 .. capacity-1 without a division
+    private int homeSlot(int hash) {
+        return (int) (((hash & 0xFFFFFFFFL) * capacity) >>> 32);
+    }
+
+    private int nextSlot(int slot) {
+        return slot + 1 == capacity ? 0 : slot + 1;
+    }
+
+    private static byte typeOf(String activityName) {
+        if ("AddToStock".equals(activityName)) {
+            return ADD_TO_STOCK;
+        }
+        return "RemoveFromStock".equals(activityName) ? REMOVE_FROM_STOCK : 0;
+    }
+
+    private static byte[] activityIdBytes(Activity activity) {
+        String id = activity.getActivityID();
+        return id == null ? new byte[0] : id.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int toEpochDay(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    private static LocalDate fromEpochDay(int day) {
+        return day == NO_DATE ? null : LocalDate.ofEpochDay(day);
+    }
+
+    /**
+     * Flyweight Product over one off-heap record
+     * Remembers the record's slot and the product ID; every call checks the
+     * slot still holds that product, since records move only when renamed.
+     * Every public Product method is overridden, since the fields of Product
+     * itself are never filled in.
+     */
+    private final class ProductView extends Product {
+
+        // Changed only by setProductID (under the write lock)
+        private int slot;
+        private byte[] id;
+        private int hash;
+
+        ProductView(int slot, byte[] id) {
+            this.slot = slot;
+            this.id = id;
+            this.hash = OffHeapProductCatalog.hash(id);
+        }
+
+        // Record offset, after checking the product was not deleted (caller holds the lock)
+        private int liveOffset() {
+            if (!matches(slot, id, hash)) {
+                throw new IllegalStateException("Product " + new String(id, StandardCharsets.UTF_8)
+                        + " is no longer in the catalog");
+            }
+            return offset(slot);
+        }
+
+        @Override
+        public String getProductID() {
+            lock.readLock().lock(); // The ID changes under the write lock (setProductID)
+            try {
+                return new String(id, StandardCharsets.UTF_8);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Changes the product's ID (see renameProduct)
+         *
+         * @param ProductID New product ID
+         * @throws IllegalArgumentException if the ID is empty, too long or belongs to another product
+         * @throws IllegalStateException if the catalog is full
+         */
+        @Override
+        public void setProductID(String ProductID) {
+            byte[] newId = ProductID == null ? new byte[0] : ProductID.getBytes(StandardCharsets.UTF_8);
+            if (ProductID == null || ProductID.trim().isEmpty() || newId.length > MAX_ID_BYTES) {
+                throw new IllegalArgumentException("Product ID cannot be stored off-heap: " + ProductID);
+            }
+            lock.writeLock().lock();
+            try {
+                liveOffset();
+                int moved = renameAt(slot, newId);
+                if (moved < 0) {
+                    throw new IllegalArgumentException("Product ID " + ProductID + " is already in the catalog");
+                }
+                slot = moved;
+                id = newId;
+                hash = OffHeapProductCatalog.hash(newId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public String getProductName() {
+            lock.readLock().lock();
+            try {
+                int base = liveOffset();
+                return new String(readBytes(slot, NAME_BYTES, chunk(slot).get(base + NAME_LENGTH)),
+                        StandardCharsets.UTF_8);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public void setProductName(String ProductName) {
+            byte[] name = ProductName.getBytes(StandardCharsets.UTF_8);
+            if (name.length > MAX_NAME_BYTES) {
+                throw new IllegalArgumentException("Product name longer than " + MAX_NAME_BYTES + " bytes");
+            }
+            lock.writeLock().lock();
+            try {
+                int base = liveOffset();
+                chunk(slot).put(base + NAME_LENGTH, (byte) name.length);
+                chunk(slot).put(base + NAME_BYTES, name);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public LocalDate getProductEntryDate() {
+            lock.readLock().lock();
+            try {
+                return fromEpochDay(chunk(slot).getInt(liveOffset() + ENTRY_DAY));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public void setProductEntryDate(LocalDate ProductEntryDate) {
+            lock.writeLock().lock();
+            try {
+                chunk(slot).putInt(liveOffset() + ENTRY_DAY, toEpochDay(ProductEntryDate));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public int getProductQuantity() {
+            lock.readLock().lock();
+            try {
+                return chunk(slot).getInt(liveOffset() + QUANTITY);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public void setProductQuantity(int ProductQuantity) {
+            lock.writeLock().lock();
+            try {
+                chunk(slot).putInt(liveOffset() + QUANTITY, Math.max(0, ProductQuantity));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Applies an activity to the record
+         *
+         * @param activity AddToStock or RemoveFromStock activity
+         * @throws IllegalArgumentException for other activity types or over-long activity IDs
+         */
+        @Override
+        public void addActivity(Activity activity) {
+            if (typeOf(activity.getActivityName()) == 0
+                    || activityIdBytes(activity).length > MAX_ACTIVITY_ID_BYTES) {
+                throw new IllegalArgumentException("Activity cannot be stored off-heap: " + activity);
+            }
+            lock.writeLock().lock();
+            try {
+                liveOffset();
+                applyAt(slot, activity);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Returns a copy of the recent activities, newest first
+         * Changing the returned list does not change the catalog.
+         */
+        @Override
+        public CustomLinkedList<Activity> getActivities() {
+            List<Activity> history;
+            lock.readLock().lock();
+            try {
+                liveOffset();
+                history = readHistory(slot);
+            } finally {
+                lock.readLock().unlock();
+            }
+            CustomLinkedList<Activity> copy = new CustomLinkedList<>(HISTORY_SIZE);
+            for (int i = history.size() - 1; i >= 0; i--) {
+                copy.addFirst(history.get(i));
+            }
+            return copy;
+        }
+
+        @Override
+        public List<Activity> getActivitiesSortedByProductQuantity() {
+            List<Activity> activityList;
+            lock.readLock().lock();
+            try {
+                liveOffset();
+                activityList = readHistory(slot);
+            } finally {
+                lock.readLock().unlock();
+            }
+            SortAlgorithms.bubbleSortActivities(activityList);
+            return activityList;
+        }
+
+        /**
+         * A record keeps one quantity, not the product's deliveries, so the whole
+         * quantity is reported as a single lot received on the entry date
+         *
+         * @return That lot, or an empty list if the quantity is 0 or there is no entry date
+         */
+        @Override
+        public List<StockLot> getStockLots() {
+            List<StockLot> lots = new ArrayList<>(1);
+            lock.readLock().lock();
+            try {
+                int base = liveOffset();
+                LocalDate entryDate = fromEpochDay(chunk(slot).getInt(base + ENTRY_DAY));
+                int quantity = chunk(slot).getInt(base + QUANTITY);
+                if (quantity > 0 && entryDate != null) {
+                    lots.add(new StockLot(null, entryDate, quantity, 0));
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            return lots;
+        }
+
+        /**
+         * @return Entry date while there is stock (see getStockLots), otherwise null
+         */
+        @Override
+        public LocalDate getOldestStockDate() {
+            List<StockLot> lots = getStockLots();
+            return lots.isEmpty() ? null : lots.get(0).getReceivedDate();
+        }
+
+        /**
+         * @param cutoff First date that does not count
+         * @return The whole quantity if the product was entered before the cutoff (see getStockLots), otherwise 0
+         */
+        @Override
+        public int getStockReceivedBefore(LocalDate cutoff) {
+            for (StockLot lot : getStockLots()) {
+                if (lot.getReceivedDate().isBefore(cutoff)) {
+                    return lot.getRemainingQuantity();
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * @return Always true: the history is part of the record
+         */
+        @Override
+        public boolean isHistoryLoaded() {
+            return true;
+        }
+
+        // The record is off the heap; only the view itself is counted
+        @Override
+        void accountMemory(MemoryFootprint footprint) {
+            footprint.addSampled(MemoryFootprint.PRODUCTS, MemoryFootprint.shallowSize(getClass()));
+            footprint.sampledProduct(0);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.mycompany.supermarketmanagementsystem;
+
+/**
+ * Structured result of a SupermarketManager operation
+ * Lets callers (HTTP API, pipelines, tests) react to what happened without
+ * parsing console messages.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public enum OperationOutcome {
+    // The operation was applied
+    SUCCESS,
+    // A product with the same ID already exists, or an activity key was already applied
+    DUPLICATE,
+    // The product does not exist
+    NOT_FOUND,
+    // RemoveFromStock asked for more than is in stock
+    INSUFFICIENT_STOCK,
+    // Input failed validation (empty ID or name, negative quantity...)
+    INVALID_INPUT,
+    // Not attempted: admission control is at its limits (see ActivityAdmission); retry later
+    OVERLOADED;
+
+    /**
+     * @return true if the operation was applied
+     */
+    public boolean isSuccess() {
+        return this == SUCCESS;
+    }
+}
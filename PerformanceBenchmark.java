@@ -0,0 +1,1940 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Performance benchmarks for the supermarket management system
+ * Companion to ComprehensiveTest: instead of checking behaviour, each
+ * benchmark measures throughput of one part of the system and prints a
+ * small results table.
+ *
+ * Usage: java PerformanceBenchmark [benchmark] [options...]
+ * - skew [threads] [operations] : single-writer pipeline vs lock-based manager under hot-SKU skew
+ * - shards [maxShards] [operations] : sharded manager throughput as the shard count grows
+ * - snapshot [threads] [operations] : checkout throughput with and without reports running on snapshots
+ * - basket [threads] [baskets] : basket throughput and optimistic retries at 0%, 10%, 50% and 100% overlap
+ * - dedup [keys] : cost of recognising repeated activity keys, and memory per key
+ * - sortedview [depth] [reads] : sorted activity reads, copy + bubble sort vs the cached view
+ * - lots [openLots] : FIFO removal cost with many open lots, and the stock age query vs a scan
+ * - history [days] [perDay] : long-range report from raw activities vs daily rollups, and compaction
+ * - forecast [operations] : checkout cost of the streaming forecast, stock-out query vs a scan
+ * - cdc [threads] [operations] : checkout throughput with no change stream, a subscriber keeping up, and a stalled one
+ * - query [products] : ad-hoc query, hand-written loop vs parallel scan, and a name index lookup
+ * - ageing [products] : products entered in a date range and the oldest products, scan vs entry date index
+ * - memory [products] [activities] : sampled memory footprint estimate vs the heap actually used
+ * - lazyload [products] [workingSet%] : startup time and resident memory of a saved catalog, eager vs lazy histories
+ * - codec [products] [activities] : history size and scan speed, plain encoding vs ActivityCodec
+ * - journal [activities] [products] : month-end totals from the activity journal, mapped parallel scan vs decoding
+ * - recovery [activities] [products] [maxThreads] : journal replay time after a crash, 1 thread up to maxThreads
+ * - checkpoint [products] [threads] [operations] : checkout p50/p99 with and without background checkpoints
+ * - admission [clients] [seconds] : checkout latency under overload, with and without ActivityAdmission
+ * - delete [maxProducts] : mass delisting with tombstones vs removal from the products list
+ * - columnar [products] : heap size and scan speed, object catalog vs ColumnarProductCatalog
+ * - offheap [products...] : heap vs off-heap catalog at each size (e.g. offheap 1000000 10000000 50000000;
+ *   large sizes need -Xmx for the heap run and -XX:MaxDirectMemorySize for the off-heap run)
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class PerformanceBenchmark {
+
+    // Number of products created for the skew benchmark
+    private static final int SKEW_PRODUCTS = 1_000;
+
+    // Number of "hot" products that receive most of the traffic
+    private static final int HOT_PRODUCTS = 4;
+
+    // Share of operations that hit a hot product (0.9 = 90%)
+    private static final double HOT_SHARE = 0.9;
+
+    // Lines in every basket of the basket benchmark
+    private static final int BASKET_LINES = 20;
+
+    // Products every thread may touch in the basket benchmark
+    private static final int SHARED_BASKET_PRODUCTS = 20;
+
+    // How many futures a producer lets run ahead before waiting in pipeline mode
+    private static final int PIPELINE_WINDOW = 64;
+
+    /**
+     * Compares the lock-based manager with the single-writer pipeline
+     * Every thread performs the same mix of AddToStock/RemoveFromStock, with
+     * most operations targeting a handful of hot products.
+     *
+     * @param threads Number of concurrent checkout threads
+     * @param operations Total number of activities across all threads
+     * @throws Exception if a benchmark thread fails
+     */
+    public static void benchmarkSingleWriterVsLocks(int threads, int operations) throws Exception {
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("SINGLE-WRITER PIPELINE vs LOCK-BASED MANAGER (hot-SKU skew)");
+        System.out.println("threads=" + threads + " operations=" + operations
+                + " hot products=" + HOT_PRODUCTS + " hot share=" + (int) (HOT_SHARE * 100) + "%");
+        System.out.println("=".repeat(70));
+
+        // Warm up both paths once so the JIT has compiled them
+        runLockBased(threads, operations / 10);
+        runPipeline(threads, operations / 10);
+
+        double lockOps = runLockBased(threads, operations);
+        double pipelineOps = runPipeline(threads, operations);
+
+        System.out.printf("%-28s %15s%n", "Mode", "ops/sec");
+        System.out.println("-".repeat(70));
+        System.out.printf("%-28s %,15.0f%n", "Lock-based manager", lockOps);
+        System.out.printf("%-28s %,15.0f%n", "Single-writer pipeline", pipelineOps);
+        System.out.println("=".repeat(70));
+    }
+
+    // Lock-based run: every thread calls the manager directly
+    private static double runLockBased(int threads, int operations) throws Exception {
+        SupermarketManager manager = quietly(PerformanceBenchmark::createSkewCatalog);
+        int perThread = operations / threads;
+        double elapsed = timeThreads(threads, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            LocalDate today = LocalDate.now();
+            for (int i = 0; i < perThread; i++) {
+                String id = pickSkewedProduct(random);
+                manager.addActivityToProduct(id, (i & 1) == 0 ? "AddToStock" : "RemoveFromStock", 1, today);
+            }
+        });
+        return perThread * threads / elapsed;
+    }
+
+    /**
+     * Measures checkout throughput while a reporting thread keeps opening
+     * snapshots and totalling the whole catalog
+     *
+     * @param threads Number of checkout threads
+     * @param operations Total number of activities across all threads
+     * @throws Exception if a benchmark thread fails
+     */
+    public static void benchmarkSnapshotReads(int threads, int operations) throws Exception {
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("CHECKOUTS WHILE REPORTING FROM SNAPSHOTS");
+        System.out.println("threads=" + threads + " operations=" + operations);
+        System.out.println("=".repeat(70));
+
+        runLockBased(threads, operations / 10); // Warm-up
+        double alone = runLockBased(threads, operations);
+
+        SupermarketManager manager = quietly(PerformanceBenchmark::createSkewCatalog);
+        AtomicBoolean reporting = new AtomicBoolean(true);
+        AtomicLong reports = new AtomicLong();
+        Thread reporter = new Thread(() -> {
+            while (reporting.get()) {
+                try (CatalogSnapshot snapshot = manager.snapshot()) {
+                    snapshot.getTotalStockQuantity();
+                }
+                reports.incrementAndGet();
+            }
+        });
+        reporter.start();
+        int perThread = operations / threads;
+        double elapsed = timeThreads(threads, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            LocalDate today = LocalDate.now();
+            for (int i = 0; i < perThread; i++) {
+                String id = pickSkewedProduct(random);
+                manager.addActivityToProduct(id, (i & 1) == 0 ? "AddToStock" : "RemoveFromStock", 1, today);
+            }
+        });
+        reporting.set(false);
+        reporter.join();
+        double withReports = perThread * threads / elapsed;
+
+        System.out.printf("%-32s %15s%n", "Mode", "ops/sec");
+        System.out.println("-".repeat(70));
+        System.out.printf("%-32s %,15.0f%n", "Checkouts only", alone);
+        System.out.printf("%-32s %,15.0f%n", "Checkouts + snapshot reports", withReports);
+        System.out.println("Snapshot reports completed: " + reports.get()
+                + ", versions kept afterwards: " + manager.getRetainedVersionCount());
+        System.out.println("=".repeat(70));
+    }
+
+    /**
+     * Measures basket throughput and optimistic retries as baskets overlap more
+     * Each thread owns a range of products; a line goes to the small shared
+     * set with the given overlap probability, otherwise to the thread's own range.
+     *
+     * @param threads Number of checkout threads
+     * @param baskets Total number of baskets per overlap level
+     * @throws Exception if a benchmark thread fails
+     */
+    public static void benchmarkBaskets(int threads, int baskets) throws Exception {
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("ALL-OR-NOTHING BASKETS UNDER OVERLAP");
+        System.out.println("threads=" + threads + " baskets=" + baskets + " lines/basket=" + BASKET_LINES
+                + " shared products=" + SHARED_BASKET_PRODUCTS);
+        System.out.println("=".repeat(70));
+
+        runBaskets(threads, baskets / 10, 0.1); // Warm-up
+        System.out.printf("%-10s %15s %15s %15s%n", "Overlap", "baskets/sec", "retries", "retries/basket");
+        System.out.println("-".repeat(70));
+        for (double overlap : new double[] {0.0, 0.1, 0.5, 1.0}) {
+            AtomicLong retries = new AtomicLong();
+            double rate = runBaskets(threads, baskets, overlap, retries);
+            System.out.printf("%-10s %,15.0f %,15d %15.3f%n", (int) (overlap * 100) + "%", rate,
+                    retries.get(), (double) retries.get() / baskets);
+        }
+        System.out.println("=".repeat(70));
+    }
+
+    private static double runBaskets(int threads, int baskets, double overlap) throws Exception {
+        return runBaskets(threads, baskets, overlap, new AtomicLong());
+    }
+
+    // Basket run: each thread applies baskets mixing shared and private products
+    private static double runBaskets(int threads, int baskets, double overlap, AtomicLong retries) throws Exception {
+        SupermarketManager manager = quietly(PerformanceBenchmark::createSkewCatalog);
+        int perThread = baskets / threads;
+        int privateRange = (SKEW_PRODUCTS - SHARED_BASKET_PRODUCTS) / threads;
+        AtomicLong nextThread = new AtomicLong();
+        double elapsed = timeThreads(threads, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            LocalDate today = LocalDate.now();
+            int first = SHARED_BASKET_PRODUCTS + (int) nextThread.getAndIncrement() * privateRange;
+            for (int i = 0; i < perThread; i++) {
+                StockBasket basket = new StockBasket();
+                for (int line = 0; line < BASKET_LINES; line++) {
+                    String id = random.nextDouble() < overlap
+                            ? skewProductId(random.nextInt(SHARED_BASKET_PRODUCTS))
+                            : skewProductId(first + random.nextInt(privateRange));
+                    if ((line & 1) == 0) {
+                        basket.remove(id, 1);
+                    } else {
+                        basket.add(id, 1);
+                    }
+                }
+                BasketResult result = manager.applyBasket(basket, today);
+                retries.addAndGet(result.getAttempts() - 1);
+            }
+        });
+        return perThread * threads / elapsed;
+    }
+
+    /**
+     * Measures the cost of activity-key deduplication
+     * Times the key filter alone for new and repeated keys, then a checkout
+     * with and without a key on the manager.
+     *
+     * @param keys Number of distinct keys (one day's worth of movements)
+     */
+    public static void benchmarkActivityKeys(int keys) {
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("ACTIVITY KEY DEDUPLICATION");
+        System.out.println("keys=" + keys);
+        System.out.println("=".repeat(70));
+
+        String[] keyNames = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            keyNames[i] = "till-" + (i % 64) + ":" + i;
+        }
+        ActivityKeyFilter filter = new ActivityKeyFilter(java.time.Duration.ofHours(24), keys);
+        long start = System.nanoTime();
+        for (String key : keyNames) {
+            filter.add(key);
+        }
+        double addNanos = (double) (System.nanoTime() - start) / keys;
+        start = System.nanoTime();
+        int repeats = 0;
+        for (String key : keyNames) {
+            if (filter.contains(key)) {
+                repeats++;
+            }
+        }
+        double repeatNanos = (double) (System.nanoTime() - start) / keys;
+
+        SupermarketManager manager = quietly(PerformanceBenchmark::createSkewCatalog);
+        LocalDate today = LocalDate.now();
+        int operations = Math.min(keys, 1_000_000);
+        start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            manager.addActivityToProduct(skewProductId(i % SKEW_PRODUCTS), (i & 1) == 0 ? "AddToStock" : "RemoveFromStock", 1, today);
+        }
+        double plainNanos = (double) (System.nanoTime() - start) / operations;
+        start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            manager.addActivityToProduct(keyNames[i], skewProductId(i % SKEW_PRODUCTS),
+                    (i & 1) == 0 ? "AddToStock" : "RemoveFromStock", 1, today);
+        }
+        double keyedNanos = (double) (System.nanoTime() - start) / operations;
+
+        System.out.printf("%-36s %12s%n", "Step", "ns/op");
+        System.out.println("-".repeat(70));
+        System.out.printf("%-36s %12.0f%n", "Filter: record new key", addNanos);
+        System.out.printf("%-36s %12.0f%n", "Filter: recognise repeated key", repeatNanos);
+        System.out.printf("%-36s %12.0f%n", "Checkout without key", plainNanos);
+        System.out.printf("%-36s %12.0f%n", "Checkout with key", keyedNanos);
+        System.out.println("Repeats recognised: " + repeats + "/" + keys
+                + ", filter memory: " + filter.getMemoryBytes() / (1024 * 1024) + " MB ("
+                + filter.getMemoryBytes() / Math.max(1, filter.size()) + " bytes/key)");
+        System.out.println("=".repeat(70));
+    }
+
+    /**
+     * Compares reading the quantity-sorted activities by copying and
+     * bubble-sorting the history on every read with the cached sorted view
+     *
+     * @param depth History depth of the product
+     * @param reads Number of reads to time
+     */
+    public static void benchmarkSortedView(int depth, int reads) {
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("QUANTITY-SORTED ACTIVITY VIEW");
+        System.out.println("history depth=" + depth + " reads=" + reads);
+        System.out.println("=".repeat(70));
+
+        Product product = new Product("P1", "Benchmark", LocalDate.now(), 0, depth);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < depth * 2; i++) {
+            product.addActivity(new Activity("A" + i, "AddToStock", random.nextInt(1_000), LocalDate.now()));
+        }
+
+        long checksum = 0;
+        for (int round = 0; round < 2; round++) { // First round warms up the JIT
+            long start = System.nanoTime();
+            for (int i = 0; i < reads; i++) {
+                List<Activity> copy = product.getActivities().getAllElements();
+                SortAlgorithms.bubbleSortActivities(copy);
+                checksum += copy.size();
+            }
+            double copyNanos = (double) (System.nanoTime() - start) / reads;
+            start = System.nanoTime();
+            for (int i = 0; i < reads; i++) {
+                checksum += product.getActivitiesSortedByProductQuantity().size();
+            }
+            double cachedNanos = (double) (System.nanoTime() - start) / reads;
+            start = System.nanoTime();
+            for (int i = 0; i < reads; i++) {
+                product.addActivity(new Activity("B" + i, "AddToStock", random.nextInt(1_000), LocalDate.now()));
+                checksum += product.getActivitiesSortedByProductQuantity().size();
+            }
+            double changedNanos = (double) (System.nanoTime() - start) / reads;
+            if (round == 1) {
+                System.out.printf("%-40s %12s%n", "Read", "ns/read");
+                System.out.println("-".repeat(70));
+                System.out.printf("%-40s %12.0f%n", "Copy + bubble sort every read", copyNanos);
+                System.out.printf("%-40s %12.0f%n", "Cached view, unchanged product", cachedNanos);
+                System.out.printf("%-40s %12.0f%n", "Add activity, then read view", changedNanos);
+            }
+        }
+        System.out.println("(checksum " + checksum + ")");
+        System.out.println("=".repeat(70));
+    }
+
+    /**
+     * Measures FIFO removals on a product with many open stock lots, and the
+     * catalog-wide "stock older than N days" query against a full scan
+     *
+     * @param lots Number of open lots on the benchmark product
+     */
+    public static void benchmarkStockLots(int lots) {
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("FIFO STOCK LOTS");
+        System.out.println("open lots=" + lots);
+        System.out.println("=".repeat(70));
+
+        LocalDate today = LocalDate.now();
+        Product product = new Product("P1", "Benchmark", today.minusYears(5), 0);
+        for (int i = 0; i < lots; i++) {
+            product.addActivity(new Activity("A" + i, "AddToStock", 10, today.minusDays(lots - i)));
+        }
+        // Each removal empties one lot and takes from the next, then a delivery refills
+        int rounds = 200_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            product.addActivity(new Activity("R" + i, "RemoveFromStock", 15, today));
+            product.addActivity(new Activity("D" + i, "AddToStock", 15, today));
+        }
+        double removeNanos = (double) (System.nanoTime() - start) / rounds;
+
+        SupermarketManager manager = quietly(PerformanceBenchmark::createSkewCatalog);
+        for (int i = 0; i < SKEW_PRODUCTS; i++) {
+            manager.addActivityToProduct(skewProductId(i), "AddToStock", 5, today.minusDays(i % 60));
+        }
+        int queries = 10_000;
+        long total = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            total += manager.getStockOlderThan(30);
+        }
+        double indexNanos = (double) (System.nanoTime() - start) / queries;
+        LocalDate cutoff = today.minusDays(30);
+        start = System.nanoTime();
+        for (int i = 0; i < queries / 100; i++) {
+            for (Product each : manager.getAllProducts()) {
+                total -= each.getStockReceivedBefore(cutoff);
+            }
+        }
+        double scanNanos = (double) (System.nanoTime() - start) / (queries / 100);
+
+        System.out.printf("%-44s %12s%n", "Operation", "ns/op");
+        System.out.println("-".repeat(70));
+        System.out.printf("%-44s %12.0f%n", "Remove + delivery with " + lots + " open lots", removeNanos);
+        System.out.printf("%-44s %12.0f%n", "Stock older than 30 days (index)", indexNanos);
+        System.out.printf("%-44s %12.0f%n", "Stock older than 30 days (scan " + SKEW_PRODUCTS + " products)", scanNanos);
+        System.out.println("Open lots afterwards: " + product.getStockLots().size() + " (checksum " + total + ")");
+        System.out.println("=".repeat(70));
+    }
+
+    /**
+     * Measures a one-year report from raw activities against the daily
+     * rollups, and how many raw activities compaction leaves
+     *
+     * @param days Days of history to build
+     * @param perDay Activities per product per day
+     */
+    public static void benchmarkActivityHistory(int days, int perDay) {
+        int products = 100;
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("DAILY ROLLUPS AND COMPACTION");
+        System.out.println("products=" + products + " days=" + days + " activities/product/day=" + perDay);
+        System.out.println("=".repeat(70));
+
+        LocalDate today = LocalDate.now();
+        ActivityHistory history = new ActivityHistory(30);
+        long sequence = 0;
+        for (int day = days - 1; day >= 0; day--) {
+            LocalDate date = today.minusDays(day);
+            for (int p = 0; p < products; p++) {
+                for (int i = 0; i < perDay; i++) {
+                    history.activityApplied(++sequence, skewProductId(p),
+                            new Activity("A" + sequence, (i & 1) == 0 ? "AddToStock" : "RemoveFromStock", 1 + i, date));
+                }
+            }
+        }
+        LocalDate from = today.minusDays(days - 1);
+        long rawBefore = history.getRawActivityCount();
+
+        long checksum = 0;
+        int reports = 20;
+        long start = System.nanoTime();
+        for (int r = 0; r < reports; r++) {
+            for (int p = 0; p < products; p++) {
+                for (Activity activity : history.getActivities(skewProductId(p), from, today)) {
+                    checksum += activity.getActivityProductQuantity();
+                }
+            }
+        }
+        double rawMillis = (System.nanoTime() - start) / 1e6 / reports;
+        start = System.nanoTime();
+        for (int r = 0; r < reports; r++) {
+            for (int p = 0; p < products; p++) {
+                DailyRollup total = history.getPeriodTotals(skewProductId(p), from, today);
+                checksum -= total.getUnitsAdded() + total.getUnitsRemoved();
+            }
+        }
+        double rollupMillis = (System.nanoTime() - start) / 1e6 / reports;
+        start = System.nanoTime();
+        long compacted = history.compact(today);
+        double compactMillis = (System.nanoTime() - start) / 1e6;
+
+        System.out.printf("%-40s %12s%n", "Step", "ms");
+        System.out.println("-".repeat(70));
+        System.out.printf("%-40s %12.2f%n", "Full-period report from raw activities", rawMillis);
+        System.out.printf("%-40s %12.2f%n", "Full-period report from rollups", rollupMillis);
+        System.out.printf("%-40s %12.2f%n", "Compaction (30-day retention)", compactMillis);
+        System.out.println("Raw activities " + rawBefore + " -> " + history.getRawActivityCount()
+                + " (compacted " + compacted + "), rollups " + history.getRollupCount()
+                + ", checksum " + checksum + " (0 = reports agree)");
+        System.out.println("=".repeat(70));
+    }
+
+    /**
+     * Measures the cost of the streaming forecast per checkout, and the
+     * stock-out query against recomputing every product
+     *
+     * @param operations Number of checkouts to time
+     */
+    public static void benchmarkForecast(int operations) {
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("STREAMING DEMAND FORECAST");
+        System.out.println("products=" + SKEW_PRODUCTS + " operations=" + operations);
+        System.out.println("=".repeat(70));
+
+        LocalDate today = LocalDate.now();
+        SupermarketManager plain = quietly(PerformanceBenchmark::createForecastCatalog);
+        SupermarketManager forecast = quietly(PerformanceBenchmark::createForecastCatalog);
+        DemandForecaster forecaster = DemandForecaster.attach(forecast, 0.3, 2, 7);
+        double[] nanos = new double[2];
+        for (int round = 0; round < 2; round++) { // First round warms up the JIT
+            SupermarketManager[] managers = {plain, forecast};
+            for (int m = 0; m < 2; m++) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long start = System.nanoTime();
+                for (int i = 0; i < operations; i++) {
+                    LocalDate date = today.plusDays(i / (operations / 30));
+                    managers[m].addActivityToProduct(skewProductId(random.nextInt(SKEW_PRODUCTS)),
+                            "RemoveFromStock", 1 + random.nextInt(50), date);
+                }
+                nanos[m] = (double) (System.nanoTime() - start) / operations;
+            }
+        }
+        int queries = 10_000;
+        int found = 0;
+        int scanFound = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            found = forecaster.getProductsStockingOutWithin(today.plusDays(30), 7).size();
+        }
+        double queryNanos = (double) (System.nanoTime() - start) / queries;
+        start = System.nanoTime();
+        for (int i = 0; i < queries / 100; i++) {
+            int count = 0;
+            for (Product product : forecast.getAllProducts()) {
+                ReorderSuggestion suggestion = forecaster.getForecast(product.getProductID());
+                if (suggestion.getProjectedStockoutDate() != null
+                        && !suggestion.getProjectedStockoutDate().isAfter(today.plusDays(37))) {
+                    count++;
+                }
+            }
+            scanFound = count;
+        }
+        double scanNanos = (double) (System.nanoTime() - start) / (queries / 100);
+
+        System.out.printf("%-40s %12s%n", "Step", "ns/op");
+        System.out.println("-".repeat(70));
+        System.out.printf("%-40s %12.0f%n", "Checkout without forecast", nanos[0]);
+        System.out.printf("%-40s %12.0f%n", "Checkout with forecast", nanos[1]);
+        System.out.printf("%-40s %12.0f%n", "Stock-out query (index)", queryNanos);
+        System.out.printf("%-40s %12.0f%n", "Stock-out query (scan all products)", scanNanos);
+        System.out.println("Products running out within 7 days: " + found + " (scan found " + scanFound + ")");
+        System.out.println("=".repeat(70));
+    }
+
+    /**
+     * Measures checkout throughput with the change event stream: without a
+     * publisher, with a subscriber that keeps up, and with an extra subscriber
+     * that stops requesting (it must not slow the checkouts down)
+     *
+     * @param threads Number of checkout threads
+     * @param operations Total number of activities across all threads, per mode
+     * @throws Exception if a benchmark thread fails
+     */
+    public static void benchmarkChangeEvents(int threads, int operations) throws Exception {
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("CHANGE EVENT STREAM");
+        System.out.println("threads=" + threads + " operations=" + operations);
+        System.out.println("=".repeat(70));
+
+        String[] modes = {"No publisher", "Subscriber keeping up", "Plus a stalled subscriber"};
+        double[] throughput = new double[modes.length];
+        long delivered = 0;
+        long overflows = 0;
+        for (int m = 0; m < modes.length; m++) {
+            SupermarketManager manager = quietly(PerformanceBenchmark::createSkewCatalog);
+            ChangeEventPublisher publisher = null;
+            AtomicLong received = new AtomicLong();
+            if (m > 0) {
+                publisher = ChangeEventPublisher.attach(manager, 65_536, 1_024);
+                publisher.subscribe(new Flow.Subscriber<ChangeEvent>() {
+                    public void onSubscribe(Flow.Subscription subscription) { subscription.request(Long.MAX_VALUE); }
+                    public void onNext(ChangeEvent event) { received.incrementAndGet(); }
+                    public void onError(Throwable error) { }
+                    public void onComplete() { }
+                });
+            }
+            if (m > 1) {
+                publisher.subscribe(new Flow.Subscriber<ChangeEvent>() {
+                    public void onSubscribe(Flow.Subscription subscription) { subscription.request(1); }
+                    public void onNext(ChangeEvent event) { }
+                    public void onError(Throwable error) { }
+                    public void onComplete() { }
+                });
+            }
+            int perThread = operations / threads;
+            Runnable checkouts = () -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                LocalDate today = LocalDate.now();
+                for (int i = 0; i < perThread; i++) {
+                    manager.addActivityToProduct(skewProductId(random.nextInt(SKEW_PRODUCTS)),
+                            (i & 1) == 0 ? "AddToStock" : "RemoveFromStock", 1, today);
+                }
+            };
+            timeThreads(threads, checkouts); // Warm-up
+            double elapsed = timeThreads(threads, checkouts);
+            throughput[m] = perThread * threads / elapsed;
+            if (publisher != null) {
+                long deadline = System.currentTimeMillis() + 5_000;
+                while (received.get() < publisher.getLastSequence() && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(1);
+                }
+                delivered = received.get();
+                overflows = publisher.getOverflowCount();
+                publisher.close();
+            }
+        }
+
+        System.out.printf("%-32s %15s%n", "Mode", "ops/sec");
+        System.out.println("-".repeat(70));
+        for (int m = 0; m < modes.length; m++) {
+            System.out.printf("%-32s %,15.0f%n", modes[m], throughput[m]);
+        }
+        System.out.println("Events delivered to the subscriber keeping up: " + delivered
+                + ", buffer overflows: " + overflows);
+        System.out.println("=".repeat(70));
+    }
+
+    /**
+     * Measures ad-hoc queries on a large catalog: a hand-written loop over
+     * getAllProducts against the query engine's parallel scan, and an exact
+     * name query answered from the name index
+     *
+     * @param productCount Number of products in the catalog
+     */
+    public static void benchmarkQueries(int productCount) {
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("AD-HOC PRODUCT QUERIES");
+        System.out.println("products=" + productCount + " cores=" + Runtime.getRuntime().availableProcessors());
+        System.out.println("=".repeat(70));
+
+        LocalDate start = LocalDate.now().minusDays(1_000);
+        SupermarketManager manager = new SupermarketManager();
+        manager.setEventSink(EventSink.NONE);
+        for (int i = 0; i < productCount; i++) {
+            String name = (i % 50 == 0 ? "Milk " : "Product ") + (i % (productCount / 10 + 1));
+            manager.createProduct(String.format("Q%08d", i), name, start.plusDays(i % 1_000), (i * 31) % 500);
+        }
+        LocalDate cutoff = start.plusDays(100);
+        ProductQuery lowAndOld = ProductQuery.where(ProductPredicate.quantityBelow(10)
+                .and(ProductPredicate.enteredBefore(cutoff)));
+        ProductQuery milkOut = ProductQuery.where(ProductPredicate.nameContains("milk")
+                .and(ProductPredicate.quantityBelow(20)));
+        ProductQuery exactName = ProductQuery.where(ProductPredicate.nameEquals("Milk 50"));
+
+        int rounds = 20;
+        double[] millis = new double[4];
+        int[] found = new int[4];
+        for (int round = 0; round < 2; round++) { // First round warms up the JIT
+            long begin = System.nanoTime();
+            for (int r = 0; r < rounds; r++) {
+                List<String> matches = new ArrayList<>();
+                for (Product product : manager.getAllProducts()) {
+                    if (product.getProductQuantity() < 10 && product.getProductEntryDate().isBefore(cutoff)) {
+                        matches.add(product.getProductID());
+                    }
+                }
+                found[0] = matches.size();
+            }
+            millis[0] = (System.nanoTime() - begin) / 1e6 / rounds;
+            begin = System.nanoTime();
+            for (int r = 0; r < rounds; r++) {
+                found[1] = manager.query(lowAndOld, Product::getProductID).size();
+            }
+            millis[1] = (System.nanoTime() - begin) / 1e6 / rounds;
+            begin = System.nanoTime();
+            for (int r = 0; r < rounds; r++) {
+                found[2] = manager.query(milkOut, Product::getProductID).size();
+            }
+            millis[2] = (System.nanoTime() - begin) / 1e6 / rounds;
+            begin = System.nanoTime();
+            for (int r = 0; r < rounds * 1_000; r++) {
+                found[3] = manager.query(exactName, Product::getProductID).size();
+            }
+            millis[3] = (System.nanoTime() - begin) / 1e6 / (rounds * 1_000);
+        }
+
+        System.out.printf("%-44s %10s %10s%n", "Query", "ms", "matches");
+        System.out.println("-".repeat(70));
+        System.out.printf("%-44s %10.3f %10d%n", "Hand-written loop (qty < 10, old)", millis[0], found[0]);
+        System.out.printf("%-44s %10.3f %10d%n", "Query engine (qty < 10, old)", millis[1], found[1]);
+        System.out.printf("%-44s %10.3f %10d%n", "Query engine (name contains milk, qty < 20)", millis[2], found[2]);
+        System.out.printf("%-44s %10.3f %10d%n", "Query engine (name = 'milk 50', index)", millis[3], found[3]);
+        System.out.println("Plans: " + manager.explain(lowAndOld));
+        System.out.println("       " + manager.explain(exactName));
+        System.out.println("=".repeat(70));
+    }
+
+    /**
+     * Measures ageing queries on a large catalog: products entered in a
+     * one-week range and the 10 oldest products, scanning and sorting every
+     * product against reading the entry date index
+     *
+     * @param productCount Number of products in the catalog
+     */
+    public static void benchmarkEntryDates(int productCount) {
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("AGEING QUERIES BY ENTRY DATE");
+        System.out.println("products=" + productCount);
+        System.out.println("=".repeat(70));
+
+        LocalDate start = LocalDate.now().minusDays(3_650);
+        SupermarketManager manager = new SupermarketManager();
+        manager.setEventSink(EventSink.NONE);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < productCount; i++) {
+            manager.createProduct(String.format("E%08d", i), "Product " + i, start.plusDays(random.nextInt(3_650)), 10);
+        }
+        LocalDate from = start.plusDays(1_000);
+        LocalDate to = from.plusDays(6);
+
+        int rounds = 20;
+        double[] millis = new double[4];
+        int[] found = new int[4];
+        for (int round = 0; round < 2; round++) { // First round warms up the JIT
+            long begin = System.nanoTime();
+            for (int r = 0; r < rounds; r++) {
+                List<Product> matches = new ArrayList<>();
+                for (Product product : manager.getAllProducts()) {
+                    LocalDate entered = product.getProductEntryDate();
+                    if (!entered.isBefore(from) && !entered.isAfter(to)) {
+                        matches.add(product);
+                    }
+                }
+                found[0] = matches.size();
+            }
+            millis[0] = (System.nanoTime() - begin) / 1e6 / rounds;
+            begin = System.nanoTime();
+            for (int r = 0; r < rounds; r++) {
+                found[1] = manager.getProductsEnteredBetween(from, to).size();
+            }
+            millis[1] = (System.nanoTime() - begin) / 1e6 / rounds;
+            begin = System.nanoTime();
+            for (int r = 0; r < rounds; r++) {
+                List<Product> all = manager.getAllProducts();
+                all.sort(java.util.Comparator.comparing(Product::getProductEntryDate));
+                found[2] = all.subList(0, Math.min(10, all.size())).size();
+            }
+            millis[2] = (System.nanoTime() - begin) / 1e6 / rounds;
+            begin = System.nanoTime();
+            for (int r = 0; r < rounds * 100; r++) {
+                found[3] = manager.getOldestProducts(10).size();
+            }
+            millis[3] = (System.nanoTime() - begin) / 1e6 / (rounds * 100);
+        }
+
+        System.out.printf("%-40s %12s %10s%n", "Query", "ms", "results");
+        System.out.println("-".repeat(70));
+        System.out.printf("%-40s %12.3f %10d%n", "One-week range (scan)", millis[0], found[0]);
+        System.out.printf("%-40s %12.3f %10d%n", "One-week range (index)", millis[1], found[1]);
+        System.out.printf("%-40s %12.3f %10d%n", "10 oldest (sort all)", millis[2], found[2]);
+        System.out.printf("%-40s %12.3f %10d%n", "10 oldest (index)", millis[3], found[3]);
+        System.out.println("=".repeat(70));
+    }
+
+    /**
+     * Checks the memory footprint estimate against the heap actually used:
+     * builds a catalog, measures the used heap after a full GC before and
+     * after, and compares it with the sampled estimate
+     *
+     * @param productCount Number of products
+     * @param activitiesPerProduct Activities added to each product after creation
+     */
+    public static void benchmarkMemoryFootprint(int productCount, int activitiesPerProduct) {
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("MEMORY FOOTPRINT ESTIMATE VS MEASURED HEAP");
+        System.out.println("products=" + productCount + " activities=" + activitiesPerProduct);
+        System.out.println("=".repeat(70));
+
+        long before = usedHeapAfterGc();
+        SupermarketManager manager = new SupermarketManager();
+        manager.setEventSink(EventSink.NONE);
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < productCount; i++) {
+            String id = String.format("F%08d", i);
+            manager.createProduct(id, "Product " + i, today.minusDays(i % 365), 1_000);
+            for (int a = 0; a < activitiesPerProduct; a++) {
+                manager.addActivityToProduct(id, (a & 1) == 0 ? "RemoveFromStock" : "AddToStock", 1, today);
+            }
+        }
+        long measured = usedHeapAfterGc() - before;
+
+        long start = System.nanoTime();
+        MemoryFootprint footprint = manager.estimateMemoryFootprint();
+        double estimateMillis = (System.nanoTime() - start) / 1e6;
+
+        System.out.println(footprint);
+        System.out.println("-".repeat(70));
+        System.out.printf("%-40s %,15d%n", "Measured heap growth (bytes)", measured);
+        System.out.printf("%-40s %,15d%n", "Estimated (bytes)", footprint.getTotalBytes());
+        System.out.printf("%-40s %14.1f%%%n", "Estimate / measured",
+                measured <= 0 ? 0 : 100.0 * footprint.getTotalBytes() / measured);
+        System.out.printf("%-40s %15.2f%n", "Estimate time (ms)", estimateMillis);
+        System.out.println("(Measured growth also includes the version history kept for snapshots,"
+                + " which the estimate leaves out)");
+        System.out.println("=".repeat(70));
+        java.lang.ref.Reference.reachabilityFence(manager); // Catalog must not be collected before measuring
+    }
+
+    // Helper: heap in use after asking for a full collection
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Startup time and resident memory of a saved catalog, with every history
+     * loaded at startup vs histories loaded lazily and only a working set used
+     *
+     * @param productCount Number of products saved
+     * @param workingSetPercent Share of products whose history is used after startup
+     * @throws IOException if the temporary files cannot be written
+     */
+    public static void benchmarkLazyLoad(int productCount, int workingSetPercent) throws IOException {
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("CATALOG STARTUP: EAGER vs LAZY HISTORY LOADING");
+        System.out.println("products=" + productCount + " working set=" + workingSetPercent + "%");
+        System.out.println("=".repeat(70));
+
+        Path directory = Files.createTempDirectory("catalog-store");
+        try {
+            SupermarketManager original = new SupermarketManager();
+            original.setEventSink(EventSink.NONE);
+            LocalDate today = LocalDate.now();
+            for (int i = 0; i < productCount; i++) {
+                String id = String.format("Z%08d", i);
+                original.createProduct(id, "Product " + i, today.minusDays(i % 365), 1_000);
+                for (int a = 0; a < Product.DEFAULT_HISTORY_DEPTH; a++) {
+                    original.addActivityToProduct(id, (a & 1) == 0 ? "RemoveFromStock" : "AddToStock", 1, today);
+                }
+            }
+            CatalogStore.save(original, directory);
+            original = null;
+            System.out.printf("%-12s %14s %16s %18s%n", "Mode", "Startup (ms)", "Working set (ms)", "Resident (MB)");
+            System.out.println("-".repeat(70));
+            runLoad("eager", directory, productCount, 100, true);
+            runLoad("lazy", directory, productCount, workingSetPercent, false);
+            System.out.println("=".repeat(70));
+        } finally {
+            for (String file : new String[] {CatalogStore.CATALOG_FILE, CatalogStore.HISTORY_FILE}) {
+                Files.deleteIfExists(directory.resolve(file));
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    // One load: eager reads every history as part of startup; lazy reads the working set afterwards
+    private static void runLoad(String mode, Path directory, int productCount, int workingSetPercent,
+            boolean eager) throws IOException {
+        long before = usedHeapAfterGc();
+        long start = System.nanoTime();
+        try (CatalogStore store = CatalogStore.open(directory)) {
+            SupermarketManager manager = store.getManager();
+            if (eager) {
+                for (Product product : manager.getAllProducts()) {
+                    product.getActivities();
+                }
+            }
+            double startupMillis = (System.nanoTime() - start) / 1e6;
+            start = System.nanoTime();
+            int step = Math.max(1, 100 / Math.max(1, workingSetPercent));
+            for (int i = 0; i < productCount; i += step) {
+                manager.getProduct(String.format("Z%08d", i)).getActivitiesSortedByProductQuantity();
+            }
+            double workingSetMillis = (System.nanoTime() - start) / 1e6;
+            long resident = usedHeapAfterGc() - before;
+            System.out.printf("%-12s %14.1f %16.1f %18.1f%n", mode, startupMillis, workingSetMillis,
+                    resident / (1024.0 * 1024.0));
+            System.out.println("  histories read: " + store.getLoadedHistoryCount() + " of " + store.getProductCount());
+            java.lang.ref.Reference.reachabilityFence(manager);
+        }
+    }
+
+    /**
+     * Size and scan speed of activity histories, plain encoding vs ActivityCodec
+     * Histories are encoded per product (as CatalogStore writes them); the scan
+     * adds up removed stock over every history.
+     *
+     * @param productCount Number of product histories
+     * @param activitiesPerProduct Activities in each history
+     * @throws IOException if decoding fails
+     */
+    public static void benchmarkActivityCodec(int productCount, int activitiesPerProduct) throws IOException {
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("ACTIVITY HISTORY ENCODING: PLAIN vs DELTA/VARINT");
+        System.out.println("products=" + productCount + " activities per product=" + activitiesPerProduct);
+        System.out.println("=".repeat(70));
+
+        byte[][] plain = new byte[productCount][];
+        byte[][] compact = new byte[productCount][];
+        long plainBytes = 0;
+        long compactBytes = 0;
+        long millis = System.currentTimeMillis() - 86_400_000L * 365;
+        LocalDate start = LocalDate.now().minusDays(365);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int p = 0; p < productCount; p++) {
+            List<Activity> history = new ArrayList<>(activitiesPerProduct);
+            for (int a = 0; a < activitiesPerProduct; a++) {
+                millis += random.nextInt(60_000);
+                history.add(new Activity("ACT" + millis + "_" + random.nextInt(1000),
+                        random.nextBoolean() ? "AddToStock" : "RemoveFromStock", 1 + random.nextInt(50),
+                        start.plusDays(a)));
+            }
+            java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+            try (java.io.DataOutputStream out = new java.io.DataOutputStream(bytes)) {
+                out.writeInt(history.size());
+                for (Activity activity : history) {
+                    ReplicationProtocol.writeActivity(out, activity);
+                }
+            }
+            plain[p] = bytes.toByteArray();
+            compact[p] = ActivityCodec.encode(history);
+            plainBytes += plain[p].length;
+            compactBytes += compact[p].length;
+        }
+
+        long expected = 0;
+        double plainMillis = Double.MAX_VALUE;
+        double compactMillis = Double.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long begin = System.nanoTime();
+            long removed = 0;
+            for (byte[] history : plain) {
+                java.io.DataInputStream in = new java.io.DataInputStream(new java.io.ByteArrayInputStream(history));
+                for (int a = in.readInt(); a > 0; a--) {
+                    Activity activity = ReplicationProtocol.readActivity(in);
+                    if ("RemoveFromStock".equals(activity.getActivityName())) {
+                        removed += activity.getActivityProductQuantity();
+                    }
+                }
+            }
+            plainMillis = Math.min(plainMillis, (System.nanoTime() - begin) / 1e6);
+            expected = removed;
+
+            begin = System.nanoTime();
+            removed = 0;
+            for (byte[] history : compact) {
+                ActivityCodec.Cursor cursor = new ActivityCodec.Cursor(history);
+                while (cursor.next()) {
+                    if (cursor.isRemoveFromStock()) {
+                        removed += cursor.getQuantity();
+                    }
+                }
+            }
+            compactMillis = Math.min(compactMillis, (System.nanoTime() - begin) / 1e6);
+            if (removed != expected) {
+                throw new IllegalStateException("Scans disagree: " + removed + " vs " + expected);
+            }
+        }
+
+        long activities = (long) productCount * activitiesPerProduct;
+        System.out.printf("%-12s %15s %12s %14s%n", "Encoding", "Bytes", "Per activity", "Scan (ms)");
+        System.out.println("-".repeat(70));
+        System.out.printf("%-12s %,15d %12.1f %14.1f%n", "plain", plainBytes, (double) plainBytes / activities, plainMillis);
+        System.out.printf("%-12s %,15d %12.1f %14.1f%n", "codec", compactBytes, (double) compactBytes / activities, compactMillis);
+        System.out.printf("Size ratio: %.1fx smaller, scan %.1fx faster (best of 5)%n",
+                (double) plainBytes / compactBytes, plainMillis / compactMillis);
+        System.out.println("=".repeat(70));
+    }
+
+    /**
+     * Month-end analytics over the activity journal: the memory-mapped parallel
+     * scan vs decoding every record into Activity objects, with a plain
+     * sequential read of the files as the bandwidth ceiling
+     *
+     * @param activities Number of activities journaled
+     * @param productCount Number of products they are spread over
+     * @throws IOException if the journal cannot be written or read
+     */
+    public static void benchmarkJournalAnalytics(int activities, int productCount) throws IOException {
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("ACTIVITY JOURNAL ANALYTICS: MAPPED PARALLEL SCAN vs OBJECT DECODE");
+        System.out.println("activities=" + activities + " products=" + productCount
+                + " cores=" + Runtime.getRuntime().availableProcessors());
+        System.out.println("=".repeat(70));
+
+        Path directory = Files.createTempDirectory("activity-journal");
+        try {
+            SupermarketManager manager = quietly(() -> {
+                SupermarketManager m = new SupermarketManager();
+                for (int i = 0; i < productCount; i++) {
+                    m.createProduct(String.format("J%07d", i), "Product " + i, LocalDate.now(), 1_000_000);
+                }
+                return m;
+            });
+            manager.setEventSink(EventSink.NONE);
+            ActivityJournal journal = ActivityJournal.attach(manager, directory);
+            LocalDate start = LocalDate.now().minusDays(30);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long begin = System.nanoTime();
+            for (int i = 0; i < activities; i++) {
+                manager.addActivityToProduct(String.format("J%07d", random.nextInt(productCount)),
+                        random.nextBoolean() ? "AddToStock" : "RemoveFromStock", 1 + random.nextInt(5),
+                        start.plusDays(random.nextInt(30)));
+            }
+            manager.removeChangeListener(journal);
+            journal.close();
+            double writeSeconds = (System.nanoTime() - begin) / 1e9;
+            List<Path> segments = ActivityJournal.segments(directory);
+            long bytes = 0;
+            for (Path segment : segments) {
+                bytes += Files.size(segment);
+            }
+            System.out.printf("Journaled %,d activities (%,d bytes, %d segments) at %,.0f activities/s%n",
+                    activities, bytes, segments.size(), activities / writeSeconds);
+            System.out.println("-".repeat(70));
+            System.out.printf("%-34s %12s %12s%n", "Scan", "Time (ms)", "MB/s");
+
+            double best = Double.MAX_VALUE;
+            for (int round = 0; round < 3; round++) {
+                long t = System.nanoTime();
+                java.nio.ByteBuffer chunk = java.nio.ByteBuffer.allocateDirect(1 << 20);
+                for (Path segment : segments) {
+                    try (java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(segment)) {
+                        while (channel.read(chunk) > 0) {
+                            chunk.clear();
+                        }
+                    }
+                }
+                best = Math.min(best, (System.nanoTime() - t) / 1e6);
+            }
+            printScan("sequential read (no parsing)", best, bytes);
+
+            best = Double.MAX_VALUE;
+            long expectedRemoved = 0;
+            for (int round = 0; round < 3; round++) {
+                long t = System.nanoTime();
+                java.util.Map<String, long[]> totals = new java.util.HashMap<>();
+                for (Path segment : segments) {
+                    try (java.io.DataInputStream in = new java.io.DataInputStream(
+                            new java.io.BufferedInputStream(Files.newInputStream(segment), 1 << 16))) {
+                        in.skipNBytes(ActivityJournal.SEGMENT_HEADER_BYTES);
+                        while (in.available() > 0) {
+                            in.readInt(); // Length
+                            in.readInt(); // CRC
+                            byte type = in.readByte();
+                            in.readLong();
+                            String productId = in.readUTF();
+                            if (type == ActivityJournal.DELETED) {
+                                continue;
+                            }
+                            byte kind = in.readByte();
+                            int quantity = in.readInt();
+                            long day = in.readLong();
+                            Activity activity = new Activity(in.readUTF(),
+                                    kind == ActivityJournal.KIND_ADD ? "AddToStock"
+                                            : kind == ActivityJournal.KIND_REMOVE ? "RemoveFromStock" : in.readUTF(),
+                                    quantity, LocalDate.ofEpochDay(day));
+                            if (type == ActivityJournal.CREATED) {
+                                in.readUTF();
+                                in.readLong();
+                            }
+                            long[] product = totals.computeIfAbsent(productId, id -> new long[2]);
+                            product["RemoveFromStock".equals(activity.getActivityName()) ? 1 : 0]
+                                    += activity.getActivityProductQuantity();
+                        }
+                    }
+                }
+                best = Math.min(best, (System.nanoTime() - t) / 1e6);
+                expectedRemoved = totals.values().stream().mapToLong(t2 -> t2[1]).sum();
+            }
+            printScan("decode to Activity objects", best, bytes);
+
+            best = Double.MAX_VALUE;
+            ActivityLogReport report = null;
+            for (int round = 0; round < 3; round++) {
+                report = ActivityLogAnalytics.scan(directory);
+                best = Math.min(best, report.getElapsedMillis());
+            }
+            printScan("mapped parallel scan", best, bytes);
+            if (report.getTotals().getUnitsRemoved() != expectedRemoved) {
+                throw new IllegalStateException("Scans disagree on units removed");
+            }
+            System.out.println("-".repeat(70));
+            System.out.println(report.getProductTotals().size() + " products, " + report.getDailyTotals().size()
+                    + " days; files were just written, so reads come from the page cache");
+            System.out.println("=".repeat(70));
+        } finally {
+            for (Path segment : ActivityJournal.segments(directory)) {
+                Files.deleteIfExists(segment);
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    /**
+     * Crash recovery time from the activity journal as the number of replay threads grows
+     *
+     * @param activities Number of activities journaled
+     * @param productCount Number of products they are spread over
+     * @param maxThreads Largest thread count tried (doubling from 1)
+     * @throws IOException if the journal cannot be written or read
+     */
+    public static void benchmarkJournalRecovery(int activities, int productCount, int maxThreads) throws IOException {
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("JOURNAL RECOVERY TIME vs THREADS");
+        System.out.println("activities=" + activities + " products=" + productCount
+                + " cores=" + Runtime.getRuntime().availableProcessors());
+        System.out.println("=".repeat(70));
+
+        Path directory = Files.createTempDirectory("journal-recovery");
+        try {
+            SupermarketManager manager = quietly(() -> {
+                SupermarketManager m = new SupermarketManager();
+                for (int i = 0; i < productCount; i++) {
+                    m.createProduct(String.format("J%07d", i), "Product " + i, LocalDate.now(), 1_000_000);
+                }
+                return m;
+            });
+            manager.setEventSink(EventSink.NONE);
+            ActivityJournal journal = ActivityJournal.open(directory);
+            manager.addChangeListener(journal); // Products created above are not journaled
+            LocalDate start = LocalDate.now().minusDays(1);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < productCount; i++) {
+                // Journal the catalog itself: delete and create again
+                String id = String.format("J%07d", i);
+                manager.deleteProduct(id);
+                manager.createProduct(id, "Product " + i, start, 1_000_000);
+            }
+            for (int i = 0; i < activities; i++) {
+                manager.addActivityToProduct(String.format("J%07d", random.nextInt(productCount)),
+                        random.nextBoolean() ? "AddToStock" : "RemoveFromStock", 1 + random.nextInt(5), start);
+            }
+            manager.removeChangeListener(journal);
+            journal.close();
+
+            System.out.printf("%-10s %14s %12s %16s%n", "Threads", "Recovery (ms)", "Speed-up", "Records/s");
+            System.out.println("-".repeat(70));
+            JournalRecovery.recover(directory, 1); // Warm-up
+            double serial = 0;
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                double best = Double.MAX_VALUE;
+                JournalRecovery recovery = null;
+                for (int round = 0; round < 3; round++) {
+                    recovery = JournalRecovery.recover(directory, threads);
+                    best = Math.min(best, recovery.getElapsedMillis());
+                }
+                if (threads == 1) {
+                    serial = best;
+                }
+                System.out.printf("%-10d %14.1f %11.2fx %,16.0f%n", threads, best, serial / best,
+                        recovery.getRecordsReplayed() / (best / 1000));
+            }
+            System.out.println("=".repeat(70));
+        } finally {
+            for (Path segment : ActivityJournal.segments(directory)) {
+                Files.deleteIfExists(segment);
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    // Helper: one line of the journal scan table
+    private static void printScan(String label, double millis, long bytes) {
+        System.out.printf("%-34s %12.1f %12.0f%n", label, millis, bytes / (1024.0 * 1024.0) / (millis / 1000.0));
+    }
+
+    /**
+     * Checkout latency with and without checkpoints being taken in the background
+     * Both runs journal every activity; the second also runs BackgroundCheckpointer
+     * back to back on another thread, so the percentiles show what a checkpoint
+     * costs a checkout.
+     *
+     * @param productCount Number of products in the catalog
+     * @param threads Number of checkout threads
+     * @param operations Activities per checkout thread per run
+     * @throws Exception if the journal or a checkpoint cannot be written
+     */
+    public static void benchmarkCheckpointLatency(int productCount, int threads, int operations) throws Exception {
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("CHECKOUT LATENCY DURING BACKGROUND CHECKPOINTS");
+        System.out.println("products=" + productCount + " threads=" + threads + " operations/thread=" + operations
+                + " cores=" + Runtime.getRuntime().availableProcessors());
+        System.out.println("=".repeat(70));
+
+        Path directory = Files.createTempDirectory("journal-checkpoint");
+        try {
+            SupermarketManager manager = new SupermarketManager();
+            manager.setEventSink(EventSink.NONE);
+            ActivityJournal journal = ActivityJournal.open(directory, 4L << 20);
+            manager.addChangeListener(journal);
+            for (int i = 0; i < productCount; i++) {
+                manager.createProduct(String.format("C%07d", i), "Product " + i, LocalDate.now(), 1_000_000);
+            }
+            BackgroundCheckpointer checkpointer = new BackgroundCheckpointer(manager, journal);
+            checkpointer.setArchiveSegments(false); // Nothing scans this journal
+
+            System.out.printf("%-22s %10s %10s %10s %10s%n", "Run", "p50 (us)", "p99 (us)", "p99.9 (us)", "max (us)");
+            System.out.println("-".repeat(70));
+            runCheckouts(manager, threads, operations); // Warm-up
+            printLatencies("no checkpoint", runCheckouts(manager, threads, operations));
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            Thread background = new Thread(() -> {
+                while (running.get()) {
+                    try {
+                        checkpointer.checkpoint();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            }, "benchmark-checkpointer");
+            background.start();
+            long[] during = runCheckouts(manager, threads, operations);
+            running.set(false);
+            background.join();
+            printLatencies("checkpoints running", during);
+            System.out.println("-".repeat(70));
+            System.out.printf("Checkpoints taken: %d (last %.1f ms), journal segments trimmed: %d, left: %d%n",
+                    checkpointer.getCheckpointsTaken(), checkpointer.getLastMillis(),
+                    checkpointer.getSegmentsTrimmed(), ActivityJournal.segments(directory).size());
+            System.out.println("=".repeat(70));
+            manager.removeChangeListener(journal);
+            journal.close();
+        } finally {
+            for (Path checkpoint : BackgroundCheckpointer.checkpoints(directory)) {
+                for (Path file : List.of(checkpoint.resolve(CatalogStore.CATALOG_FILE),
+                        checkpoint.resolve(CatalogStore.HISTORY_FILE))) {
+                    Files.deleteIfExists(file);
+                }
+                Files.deleteIfExists(checkpoint);
+            }
+            for (Path segment : ActivityJournal.segments(directory)) {
+                Files.deleteIfExists(segment);
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    // Checkout run: every thread times each of its activities; returns all latencies in nanoseconds, sorted
+    private static long[] runCheckouts(SupermarketManager manager, int threads, int operations) throws Exception {
+        int productCount = manager.getAllProducts().size();
+        long[] latencies = new long[threads * operations];
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t * operations;
+                running.add(pool.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    LocalDate today = LocalDate.now();
+                    for (int i = 0; i < operations; i++) {
+                        String id = String.format("C%07d", random.nextInt(productCount));
+                        String type = random.nextBoolean() ? "AddToStock" : "RemoveFromStock";
+                        long start = System.nanoTime();
+                        manager.addActivityToProduct(id, type, 1 + random.nextInt(3), today);
+                        latencies[offset + i] = System.nanoTime() - start;
+                    }
+                }));
+            }
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    // Helper: one line of the checkout latency table
+    private static void printLatencies(String label, long[] sorted) {
+        System.out.printf("%-22s %10.1f %10.1f %10.1f %10.1f%n", label,
+                sorted[(int) (sorted.length * 0.50)] / 1e3, sorted[(int) (sorted.length * 0.99)] / 1e3,
+                sorted[(int) (sorted.length * 0.999)] / 1e3, sorted[sorted.length - 1] / 1e3);
+    }
+
+    /**
+     * Checkout latency under overload, with and without ActivityAdmission in front of the manager
+     * Every activity also goes through a change listener that takes about
+     * 50 us (like a slow synchronous log), so the offered load from many
+     * client threads is far more than the manager can absorb.
+     *
+     * @param clients Number of client threads, half checkouts and half restocks
+     * @param seconds Length of each run
+     * @throws Exception if a run fails
+     */
+    public static void benchmarkAdmission(int clients, int seconds) throws Exception {
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("CHECKOUT LATENCY UNDER OVERLOAD: ADMISSION CONTROL");
+        System.out.println("clients=" + clients + " seconds=" + seconds
+                + " cores=" + Runtime.getRuntime().availableProcessors());
+        System.out.println("=".repeat(70));
+
+        SupermarketManager manager = new SupermarketManager();
+        manager.setEventSink(EventSink.NONE);
+        for (int i = 0; i < 1_000; i++) {
+            manager.createProduct(String.format("O%04d", i), "Product " + i, LocalDate.now(), 100_000_000);
+        }
+        manager.addChangeListener(new SupermarketChangeListener() {
+            @Override
+            public void productCreated(long sequence, Product product, Activity initialActivity) {
+            }
+
+            @Override
+            public void productDeleted(long sequence, String productId) {
+            }
+
+            @Override
+            public void activityApplied(long sequence, String productId, Activity activity) {
+                long until = System.nanoTime() + 50_000;
+                while (System.nanoTime() < until) {
+                    Thread.onSpinWait(); // The slow downstream work
+                }
+            }
+        });
+        int cores = Runtime.getRuntime().availableProcessors();
+        ActivityAdmission admission = new ActivityAdmission(manager, cores, 4 * cores, cores, 5);
+
+        System.out.printf("%-16s %9s %9s %9s %10s %10s%n", "Run", "ops/s", "p50 (us)", "p99 (us)", "shed chk", "shed rst");
+        System.out.println("-".repeat(70));
+        runOverload("warm-up", manager, null, clients, 1);
+        runOverload("no admission", manager, null, clients, seconds);
+        runOverload("admission", manager, admission, clients, seconds);
+        System.out.println("-".repeat(70));
+        System.out.println(admission);
+        System.out.println("=".repeat(70));
+    }
+
+    // Overload run: clients loop until the time is up; prints checkout latency and shed counts
+    private static void runOverload(String label, SupermarketManager manager, ActivityAdmission admission,
+            int clients, int seconds) throws Exception {
+        long[][] latencies = new long[clients][];
+        int[] counts = new int[clients];
+        AtomicLong applied = new AtomicLong();
+        AtomicLong[] shed = {new AtomicLong(), new AtomicLong()};
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        Thread[] threads = new Thread[clients];
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            boolean checkout = c % 2 == 0;
+            threads[c] = new Thread(() -> {
+                long[] mine = new long[1 << 16];
+                int count = 0;
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                LocalDate today = LocalDate.now();
+                while (System.nanoTime() < end) {
+                    String id = String.format("O%04d", random.nextInt(1_000));
+                    String type = checkout ? "RemoveFromStock" : "AddToStock";
+                    long start = System.nanoTime();
+                    OperationOutcome outcome = admission == null
+                            ? manager.tryAddActivityToProduct(id, type, 1, today)
+                            : admission.tryAddActivityToProduct(id, type, 1, today);
+                    long elapsed = System.nanoTime() - start;
+                    if (outcome == OperationOutcome.OVERLOADED) {
+                        shed[checkout ? 0 : 1].incrementAndGet();
+                        LockSupport.parkNanos(admission.getRetryAfterMillis() * 1_000_000L); // Honour the hint
+                        continue;
+                    }
+                    applied.incrementAndGet();
+                    if (checkout) {
+                        if (count == mine.length) {
+                            mine = Arrays.copyOf(mine, count * 2);
+                        }
+                        mine[count++] = elapsed;
+                    }
+                }
+                latencies[client] = mine;
+                counts[client] = count;
+            });
+            threads[c].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        long[] all = new long[total];
+        int at = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies[c], 0, all, at, counts[c]);
+            at += counts[c];
+        }
+        Arrays.sort(all);
+        System.out.printf("%-16s %,9d %9.0f %9.0f %,10d %,10d%n", label, applied.get() / seconds,
+                all.length == 0 ? 0 : all[all.length / 2] / 1e3,
+                all.length == 0 ? 0 : all[(int) (all.length * 0.99)] / 1e3, shed[0].get(), shed[1].get());
+    }
+
+    /**
+     * Mass delisting: deleting half the catalog with tombstones, against removing from a list
+     * The list column repeats what deletion used to cost: a search for the
+     * product and an array shift per removal.
+     *
+     * @param maxProducts Largest catalog tried (doubling from a quarter of it)
+     */
+    public static void benchmarkDelete(int maxProducts) {
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("MASS DELISTING: TOMBSTONES vs LIST REMOVAL");
+        System.out.println("=".repeat(70));
+        System.out.printf("%-10s %16s %16s %16s%n", "Products", "Tombstone (ms)", "List remove (ms)", "Compaction (ms)");
+        System.out.println("-".repeat(70));
+        LocalDate today = LocalDate.now();
+        for (int n = Math.max(1, maxProducts / 4); n <= maxProducts; n *= 2) {
+            SupermarketManager manager = new SupermarketManager();
+            manager.setEventSink(EventSink.NONE);
+            for (int i = 0; i < n; i++) {
+                manager.createProduct(String.format("D%07d", i), "Product " + i, today, 1);
+            }
+            List<Product> list = manager.getAllProducts();
+            List<Product> delisted = new ArrayList<>();
+            for (int i = 0; i < n; i += 2) {
+                delisted.add(list.get(i)); // Every other product, as when a supplier's range is dropped
+            }
+
+            long start = System.nanoTime();
+            for (Product product : delisted) {
+                manager.deleteProduct(product.getProductID());
+            }
+            double tombstoneMillis = (System.nanoTime() - start) / 1e6;
+            start = System.nanoTime();
+            manager.compactCatalog(); // Whatever the inline passes left
+            double compactMillis = (System.nanoTime() - start) / 1e6;
+
+            start = System.nanoTime();
+            for (Product product : delisted) {
+                list.remove(product);
+            }
+            double listMillis = (System.nanoTime() - start) / 1e6;
+            System.out.printf("%-10d %16.1f %16.1f %16.2f%n", n, tombstoneMillis, listMillis, compactMillis);
+        }
+        System.out.println("=".repeat(70));
+    }
+
+    // Pipeline run: every thread submits to the ring and waits in windows
+    private static double runPipeline(int threads, int operations) throws Exception {
+        SupermarketManager manager = quietly(PerformanceBenchmark::createSkewCatalog);
+        SingleWriterPipeline pipeline = new SingleWriterPipeline(manager, 1 << 14);
+        pipeline.start();
+        int perThread = operations / threads;
+        double elapsed = timeThreads(threads, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            LocalDate today = LocalDate.now();
+            List<CompletableFuture<Boolean>> window = new ArrayList<>(PIPELINE_WINDOW);
+            for (int i = 0; i < perThread; i++) {
+                String id = pickSkewedProduct(random);
+                window.add(pipeline.addActivity(id, (i & 1) == 0 ? "AddToStock" : "RemoveFromStock", 1, today));
+                if (window.size() == PIPELINE_WINDOW) {
+                    window.forEach(CompletableFuture::join);
+                    window.clear();
+                }
+            }
+            window.forEach(CompletableFuture::join);
+        });
+        pipeline.shutdown();
+        System.out.println("  pipeline batches=" + pipeline.getBatchCount()
+                + " avg batch=" + (pipeline.getEventCount() / Math.max(1, pipeline.getBatchCount()))
+                + " largest batch=" + pipeline.getLargestBatch());
+        return perThread * threads / elapsed;
+    }
+
+    /**
+     * Measures ShardedSupermarketManager throughput for 1, 2, 4... shards
+     * Traffic is spread evenly over many products, so each doubling of the
+     * shard count should come close to doubling throughput until cores run out.
+     *
+     * @param maxShards Largest shard count to try
+     * @param operations Total number of activities per run
+     * @throws Exception if a benchmark thread fails
+     */
+    public static void benchmarkShardScaling(int maxShards, int operations) throws Exception {
+        int products = 10_000;
+        int producers = Runtime.getRuntime().availableProcessors();
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("SHARDED MANAGER SCALING");
+        System.out.println("producers=" + producers + " operations=" + operations + " products=" + products);
+        System.out.println("=".repeat(70));
+        System.out.printf("%-10s %15s %12s%n", "Shards", "ops/sec", "speed-up");
+        System.out.println("-".repeat(70));
+
+        double baseline = 0;
+        for (int shardCount = 1; shardCount <= maxShards; shardCount *= 2) {
+            ShardedSupermarketManager sharded = new ShardedSupermarketManager(shardCount);
+            sharded.setEventSink(EventSink.NONE); // Measure the operations, not the logging
+            quietly(() -> {
+                for (int i = 0; i < products; i++) {
+                    sharded.createProduct(skewProductId(i), "Product " + i, LocalDate.now(), 1_000_000);
+                }
+                return null;
+            });
+            int perThread = operations / producers;
+            double elapsed = timeThreads(producers, () -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                LocalDate today = LocalDate.now();
+                List<CompletableFuture<Boolean>> window = new ArrayList<>(PIPELINE_WINDOW);
+                for (int i = 0; i < perThread; i++) {
+                    String id = skewProductId(random.nextInt(products));
+                    window.add(sharded.addActivityToProductAsync(id, (i & 1) == 0 ? "AddToStock" : "RemoveFromStock", 1, today));
+                    if (window.size() == PIPELINE_WINDOW) {
+                        window.forEach(CompletableFuture::join);
+                        window.clear();
+                    }
+                }
+                window.forEach(CompletableFuture::join);
+            });
+            sharded.shutdown();
+            double opsPerSecond = perThread * producers / elapsed;
+            if (baseline == 0) {
+                baseline = opsPerSecond;
+            }
+            System.out.printf("%-10d %,15.0f %11.2fx%n", shardCount, opsPerSecond, opsPerSecond / baseline);
+        }
+        System.out.println("=".repeat(70));
+    }
+
+    /**
+     * Compares the object-per-product catalog with ColumnarProductCatalog
+     * Loads the same products into both, then reports the heap each one uses
+     * and how long full scans (total stock, quantity below a threshold) take.
+     *
+     * @param products Number of products to load
+     */
+    public static void benchmarkColumnarCatalog(int products) {
+        int scans = 20;
+        int threshold = 50;
+        LocalDate today = LocalDate.now();
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("OBJECT CATALOG vs COLUMNAR CATALOG");
+        System.out.println("products=" + products + " scans=" + scans);
+        System.out.println("=".repeat(70));
+
+        long baseline = usedHeap();
+        SupermarketManager manager = new SupermarketManager();
+        manager.setEventSink(EventSink.NONE);
+        for (int i = 0; i < products; i++) {
+            manager.createProduct(skewProductId(i), "Product " + (i % 1_000), today, i % 100);
+        }
+        long objectBytes = usedHeap() - baseline;
+        List<Product> objects = manager.getAllProducts();
+        long objectScanNanos = 0;
+        long objectResult = 0;
+        for (int s = 0; s < scans; s++) {
+            long begin = System.nanoTime();
+            long total = 0;
+            int below = 0;
+            for (Product product : objects) {
+                int quantity = product.getProductQuantity();
+                total += quantity;
+                if (quantity < threshold) {
+                    below++;
+                }
+            }
+            objectScanNanos += System.nanoTime() - begin;
+            objectResult = total + below;
+        }
+
+        // Bulk-load the same products (without activity history), then drop the objects
+        ColumnarProductCatalog columnar = new ColumnarProductCatalog(products);
+        for (Product product : objects) {
+            columnar.addProduct(product.getProductID(), product.getProductName(),
+                    product.getProductEntryDate(), product.getProductQuantity());
+        }
+        objects = null;
+        manager = null;
+        long columnarBytes = usedHeap() - baseline;
+        long columnarScanNanos = 0;
+        long columnarResult = 0;
+        for (int s = 0; s < scans; s++) {
+            long begin = System.nanoTime();
+            long total = columnar.getTotalStockQuantity();
+            int below = columnar.countQuantityBelow(threshold);
+            columnarScanNanos += System.nanoTime() - begin;
+            columnarResult = total + below;
+        }
+
+        System.out.printf("%-22s %15s %18s%n", "Catalog", "heap (MB)", "scan (ms/scan)");
+        System.out.println("-".repeat(70));
+        System.out.printf("%-22s %,15.1f %18.2f%n", "Product objects",
+                objectBytes / 1e6, objectScanNanos / 1e6 / scans);
+        System.out.printf("%-22s %,15.1f %18.2f%n", "Columnar",
+                columnarBytes / 1e6, columnarScanNanos / 1e6 / scans);
+        System.out.println("Results match: " + (objectResult == columnarResult)
+                + " (the object catalog also holds each product's activity history)");
+        System.out.println("=".repeat(70));
+    }
+
+    /**
+     * Compares the heap catalog (SupermarketManager) with OffHeapProductCatalog
+     * For every size: load time, heap used, off-heap bytes, random lookup
+     * time, full-scan time and GC time spent while loading. The mapped-file
+     * variant also reports how long reopening the loaded file takes.
+     *
+     * @param sizes Product counts to test
+     * @throws IOException if the mapped file cannot be created
+     */
+    public static void benchmarkOffHeapCatalog(int[] sizes) throws IOException {
+        int lookups = 1_000_000;
+        LocalDate today = LocalDate.now();
+        System.out.println("\n" + "=".repeat(90));
+        System.out.println("HEAP CATALOG vs OFF-HEAP CATALOG");
+        System.out.println("lookups per size=" + lookups);
+        System.out.println("=".repeat(90));
+        System.out.printf("%-12s %-16s %9s %10s %12s %11s %10s %9s%n", "Products", "Mode",
+                "load (s)", "heap (MB)", "off-heap(MB)", "lookup (ns)", "scan (ms)", "GC (ms)");
+        System.out.println("-".repeat(90));
+
+        for (int products : sizes) {
+            // Heap: one Product object (plus history) per product
+            long baseline = usedHeap();
+            long gcBefore = gcMillis();
+            long begin = System.nanoTime();
+            SupermarketManager manager = new SupermarketManager();
+            manager.setEventSink(EventSink.NONE);
+            for (int i = 0; i < products; i++) {
+                manager.createProduct(skewProductId(i), "Product " + (i % 1_000), today, i % 100);
+            }
+            double loadSeconds = (System.nanoTime() - begin) / 1e9;
+            long gc = gcMillis() - gcBefore;
+            long heapBytes = usedHeap() - baseline;
+            double lookupNanos = timeLookups(manager::getProduct, products, lookups);
+            List<Product> all = manager.getAllProducts();
+            begin = System.nanoTime();
+            long total = 0;
+            for (Product product : all) {
+                total += product.getProductQuantity();
+            }
+            double scanMillis = (System.nanoTime() - begin) / 1e6;
+            printOffHeapRow(products, "Heap objects", loadSeconds, heapBytes, 0, lookupNanos, scanMillis, gc);
+            all = null;
+            manager = null;
+
+            // Off-heap: fixed-size records in direct buffers
+            baseline = usedHeap();
+            gcBefore = gcMillis();
+            begin = System.nanoTime();
+            OffHeapProductCatalog offHeap = new OffHeapProductCatalog(products);
+            for (int i = 0; i < products; i++) {
+                offHeap.addProduct(skewProductId(i), "Product " + (i % 1_000), today, i % 100);
+            }
+            loadSeconds = (System.nanoTime() - begin) / 1e9;
+            gc = gcMillis() - gcBefore;
+            heapBytes = usedHeap() - baseline;
+            lookupNanos = timeLookups(offHeap::getProduct, products, lookups);
+            begin = System.nanoTime();
+            total += offHeap.getTotalStockQuantity();
+            scanMillis = (System.nanoTime() - begin) / 1e6;
+            printOffHeapRow(products, "Off-heap direct", loadSeconds, heapBytes, offHeap.getOffHeapBytes(),
+                    lookupNanos, scanMillis, gc);
+            offHeap = null;
+
+            // Mapped file: load once, close, then time the restart
+            Path file = Files.createTempFile("offheap-catalog", ".dat");
+            Files.delete(file);
+            try {
+                begin = System.nanoTime();
+                try (OffHeapProductCatalog mapped = OffHeapProductCatalog.open(file, products)) {
+                    for (int i = 0; i < products; i++) {
+                        mapped.addProduct(skewProductId(i), "Product " + (i % 1_000), today, i % 100);
+                    }
+                }
+                loadSeconds = (System.nanoTime() - begin) / 1e9;
+                begin = System.nanoTime();
+                try (OffHeapProductCatalog reopened = OffHeapProductCatalog.open(file, products)) {
+                    double restartMillis = (System.nanoTime() - begin) / 1e6;
+                    lookupNanos = timeLookups(reopened::getProduct, products, lookups);
+                    begin = System.nanoTime();
+                    total += reopened.getTotalStockQuantity();
+                    scanMillis = (System.nanoTime() - begin) / 1e6;
+                    printOffHeapRow(products, "Off-heap mapped", loadSeconds, 0, reopened.getOffHeapBytes(),
+                            lookupNanos, scanMillis, 0);
+                    System.out.printf("%-12s %-16s restart took %.1f ms for %,d products%n", "", "",
+                            restartMillis, reopened.getProductCount());
+                }
+            } finally {
+                Files.deleteIfExists(file);
+            }
+            if (total < 0) {
+                System.out.println(total); // Keeps the scans from being optimised away
+            }
+        }
+        System.out.println("=".repeat(90));
+    }
+
+    // Helper: one row of the off-heap benchmark table
+    private static void printOffHeapRow(int products, String mode, double loadSeconds, long heapBytes,
+            long offHeapBytes, double lookupNanos, double scanMillis, long gcMillis) {
+        System.out.printf("%-12s %-16s %9.2f %10.1f %12.1f %11.0f %10.1f %9d%n", String.format("%,d", products),
+                mode, loadSeconds, heapBytes / 1e6, offHeapBytes / 1e6, lookupNanos, scanMillis, gcMillis);
+    }
+
+    // Helper: average nanoseconds of a random lookup plus a quantity read
+    private static double timeLookups(java.util.function.Function<String, Product> lookup, int products, int lookups) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long sum = 0;
+        long begin = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            sum += lookup.apply(skewProductId(random.nextInt(products))).getProductQuantity();
+        }
+        double nanos = (System.nanoTime() - begin) / (double) lookups;
+        return sum < 0 ? -1 : nanos;
+    }
+
+    // Helper: total time spent in garbage collection so far
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    // ---------------------------------------------------------------
+    // Helpers
+    // ---------------------------------------------------------------
+
+    // Helper: heap in use after asking for a full collection
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Runs the task on the given number of threads, all starting together,
+     * and measures the elapsed wall-clock time
+     * Console output is discarded while the threads run, so the benchmark
+     * measures the system rather than terminal speed.
+     *
+     * @param threads Number of threads
+     * @param task Work each thread performs
+     * @return Elapsed seconds
+     * @throws Exception if a thread fails or the wait is interrupted
+     */
+    private static double timeThreads(int threads, Runnable task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        List<Throwable> failures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    task.run();
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+            worker.start();
+        }
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long begin = System.nanoTime();
+        try {
+            start.countDown();
+            done.await();
+        } finally {
+            System.setOut(console);
+        }
+        double elapsedSeconds = (System.nanoTime() - begin) / 1e9;
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Benchmark thread failed", failures.get(0));
+        }
+        return elapsedSeconds;
+    }
+
+    // Helper: runs a supplier with console output discarded
+    private static <T> T quietly(java.util.function.Supplier<T> supplier) {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            return supplier.get();
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    // Helper: creates the catalog used by the skew benchmark
+    private static SupermarketManager createSkewCatalog() {
+        SupermarketManager manager = new SupermarketManager();
+        manager.setEventSink(EventSink.NONE); // Measure the operations, not the logging
+        for (int i = 0; i < SKEW_PRODUCTS; i++) {
+            manager.createProduct(skewProductId(i), "Product " + i, LocalDate.now(), 1_000_000);
+        }
+        return manager;
+    }
+
+    // Helper: catalog with stock levels from low to high, for the forecast benchmark
+    private static SupermarketManager createForecastCatalog() {
+        SupermarketManager manager = new SupermarketManager();
+        manager.setEventSink(EventSink.NONE);
+        for (int i = 0; i < SKEW_PRODUCTS; i++) {
+            manager.createProduct(skewProductId(i), "Product " + i, LocalDate.now(), (i % 100 + 1) * 5_000);
+        }
+        return manager;
+    }
+
+    // Helper: picks a product, hot products with probability HOT_SHARE
+    private static String pickSkewedProduct(ThreadLocalRandom random) {
+        if (random.nextDouble() < HOT_SHARE) {
+            return skewProductId(random.nextInt(HOT_PRODUCTS));
+        }
+        return skewProductId(random.nextInt(SKEW_PRODUCTS));
+    }
+
+    // Helper: product ID for index i (P00000, P00001, ...)
+    private static String skewProductId(int i) {
+        return String.format("P%05d", i);
+    }
+
+    /**
+     * Runs the benchmark named by the first argument
+     *
+     * @param args Benchmark name followed by its options
+     * @throws Exception if a benchmark fails
+     */
+    public static void main(String[] args) throws Exception {
+        String benchmark = args.length > 0 ? args[0] : "skew";
+        switch (benchmark) {
+            case "skew": {
+                int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+                int operations = args.length > 2 ? Integer.parseInt(args[2]) : 400_000;
+                benchmarkSingleWriterVsLocks(threads, operations);
+                break;
+            }
+            case "shards": {
+                int maxShards = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+                int operations = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+                benchmarkShardScaling(maxShards, operations);
+                break;
+            }
+            case "snapshot": {
+                int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+                int operations = args.length > 2 ? Integer.parseInt(args[2]) : 400_000;
+                benchmarkSnapshotReads(threads, operations);
+                break;
+            }
+            case "basket": {
+                int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+                int baskets = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+                benchmarkBaskets(threads, baskets);
+                break;
+            }
+            case "dedup": {
+                int keys = args.length > 1 ? Integer.parseInt(args[1]) : 4_000_000;
+                benchmarkActivityKeys(keys);
+                break;
+            }
+            case "sortedview": {
+                int depth = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+                int reads = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+                benchmarkSortedView(depth, reads);
+                break;
+            }
+            case "lots": {
+                int lots = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+                benchmarkStockLots(lots);
+                break;
+            }
+            case "history": {
+                int days = args.length > 1 ? Integer.parseInt(args[1]) : 365;
+                int perDay = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+                benchmarkActivityHistory(days, perDay);
+                break;
+            }
+            case "forecast": {
+                int operations = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+                benchmarkForecast(operations);
+                break;
+            }
+            case "cdc": {
+                int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+                int operations = args.length > 2 ? Integer.parseInt(args[2]) : 2_000_000;
+                benchmarkChangeEvents(threads, operations);
+                break;
+            }
+            case "query": {
+                int products = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+                benchmarkQueries(products);
+                break;
+            }
+            case "ageing": {
+                int products = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+                benchmarkEntryDates(products);
+                break;
+            }
+            case "memory": {
+                int products = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+                int activities = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+                benchmarkMemoryFootprint(products, activities);
+                break;
+            }
+            case "lazyload": {
+                int products = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+                int workingSet = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+                benchmarkLazyLoad(products, workingSet);
+                break;
+            }
+            case "codec": {
+                int products = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+                int activities = args.length > 2 ? Integer.parseInt(args[2]) : Product.DEFAULT_HISTORY_DEPTH;
+                benchmarkActivityCodec(products, activities);
+                break;
+            }
+            case "journal": {
+                int activities = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+                int products = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+                benchmarkJournalAnalytics(activities, products);
+                break;
+            }
+            case "recovery": {
+                int activities = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+                int products = args.length > 2 ? Integer.parseInt(args[2]) : 50_000;
+                int maxThreads = args.length > 3 ? Integer.parseInt(args[3])
+                        : Runtime.getRuntime().availableProcessors();
+                benchmarkJournalRecovery(activities, products, maxThreads);
+                break;
+            }
+            case "checkpoint": {
+                int products = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+                int threads = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+                int operations = args.length > 3 ? Integer.parseInt(args[3]) : 200_000;
+                benchmarkCheckpointLatency(products, threads, operations);
+                break;
+            }
+            case "admission": {
+                int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+                int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+                benchmarkAdmission(clients, seconds);
+                break;
+            }
+            case "delete": {
+                int products = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+                benchmarkDelete(products);
+                break;
+            }
+            case "columnar": {
+                int products = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+                benchmarkColumnarCatalog(products);
+                break;
+            }
+            case "offheap": {
+                int[] sizes = args.length > 1 ? new int[args.length - 1] : new int[] {1_000_000};
+                for (int i = 1; i < args.length; i++) {
+                    sizes[i - 1] = Integer.parseInt(args[i]);
+                }
+                benchmarkOffHeapCatalog(sizes);
+                break;
+            }
+            default:
+                System.out.println("Unknown benchmark: " + benchmark);
+        }
+    }
+}
@@ -1,203 +1,654 @@
-package com.mycompany.supermarketmanagementsystem;
-
-import java.time.LocalDate;
-import java.util.List;
-
-/**
- * Represents a product in the Supermarket System
- * Users CustomLinkedList to maintain Only the last 4 Activities
- * This class is central to the inventory management system, tracking
- * product details, stock levels, and associated stock movement activities.
- * 
- * Key Features: 
- * - Manages product information including ID, name, and stock quantity
- * - Tracks the last 4 activities using custom data structure
- * - provides sorting functionality for activity display
- * - Ensures data integrity through validation checks
- * 
- * @author Group 10
- * @version 1.0
- */
-public class Product {
-    // Unique identifier for the product (e.g., P001, P002)
-    private String ProductID;
-    
-    // Descriptive name of the product (e.g., Milk, Bread)
-    private String ProductName;
-    
-    // Date when the product was first added to the system
-    private LocalDate ProductEntryDate;
-    
-    // Current quantity of this product available in stock
-    private int ProductQuantity;
-    
-    // Custom data structure to store only the last 4 activities (FIFO constraint)
-    // This fulfils the requirement to implement  custom data structure
-    private final CustomLinkedList<Activity> activities; 
-    
-    /**
-     * Constructor to initialize product with basic details
-     * Creates a new product instance and initializes the custom linked list
-     * with a maximum capacity of 4 activities as per requirements.
-     * 
-     * @param ProductID Unique identifier for  the product
-     * @param ProductName Name of the product
-     * @param initialProductQuantity starting quantity in stock
-     * @param ProductEntryDate Date when product was entered into the system
-     * @throws IllegalArgumentException if initialProductQuantity is negative 
-     */
- public Product(String ProductID, String ProductName, LocalDate 
-            ProductEntryDate, int initialProductQuantity) {
-        this.ProductID = ProductID;
-        this.ProductName = ProductName;
-        this.ProductEntryDate = ProductEntryDate;
-        this.ProductQuantity = initialProductQuantity;
-        this.activities = new CustomLinkedList<>(4); // Maintain only last 4 activities
-    }
-    
-    /**
-     * Adds an activity to the product and updates stock quantity
-     * Uses custom linked list to maintain activity history
-     * Also updates product stock quantity based on activity type
-     * 
-     * Business Logic:
-     * - "AddToStock": Increases product quantity by specified amount
-     * - "RemoveFromStock": Decreases product quantity by specified amount
-     * - Ensures stock quantity never becomes negative
-     * 
-     * @param activity The activity to add (AddToStock/RemoveFromStock)
-     * @throws IllegalArgumentException if activity type is unrecognized
-     */
-   public void addActivity(Activity activity) {
-        // Add activity to the beginning of custom linked list
-        // This maintains recent activities first, older ones are automatically removed after 4
-       activities.addFirst(activity);
-       
-       // Update product quantitu based on activity type with validation
-       if ("AddToStock".equals (activity.getActivityName())){
-           // Add Stock: increase product quantity
-           ProductQuantity += activity.getActivityProductQuantity();
-            } else if ("RemoveFromStock".equals(activity.getActivityName())) {
-               // Remove stock: decrease product quantity
-                ProductQuantity -= activity.getActivityProductQuantity();
-                // Ensure quantity never goea negative
-                //  This prevents negative stock levels which would indicate system error
-                if (ProductQuantity < 0) ProductQuantity = 0;
-            }
-       // Note: Consider adding else block to handle invalid activity types
-   }
-   
-   /**
-    * Returns activities sorted by product quantity using custom bubble sort
-    * Implements functionality requirement #5
-    * 
-    * Sorting logic:
-    * - Sorts activities in ascending order by the quantity involved in each activity
-    * - Only sorts the last 4 activities (due to linked list constraint)
-    * 
-    * @return List of activities sorted by product quantity in ascending order 
-    */
-   public List<Activity> getActivitiesSortedByProductQuantity() {
-       // Get all activities from custom linked list (maximum 4)
-     List<Activity> activityList = activities.getAllElements();
-     
-     // Use custom bubble sort algorithm to sort by activity quantity
-     // This implements the sorting requirement for the coursework
-     SortAlgorithms.bubbleSortActivities(activityList);
-     
-     return activityList;
-   }
-   
-   // Getters and setters
-   
-   /**
-    * Retrieves the unique product identifier
-    * @return The product ID as a String
-    */
-   public String getProductID() { return ProductID; }
-   
-   /**
-    * Updates the product identifier
-    * @param ProductID New product ID to set
-    */
-   public void setProductID(String ProductID) {this.ProductID = ProductID; }
-   
-   /**
-    * Retrieves the product name 
-    * @return The product name as a String
-    */
-   public String getProductName() { return ProductName; }
-   
-   /**
-    * Updates the product name
-    * @param ProductName New product name to set
-    */
-   public void setProductName(String ProductName) { this.ProductName = ProductName; }
-   
-   /**
-    * Retrieves the product entry date
-    * @return The date when product was first added to system
-    */
-   public LocalDate getProductEntryDate() { return ProductEntryDate; }
-   
-   /**
-    * Updates the product entry date
-    * @param ProductEntryDate New entry date to set
-    */
-   public void setProductEntryDate(LocalDate ProductEntryDate)
-   { this.ProductEntryDate = ProductEntryDate; }
-   
-   /**
-    * Retrieves current product quantity in stock
-    * @return Current stock quantity
-    */
-   public int getProductQuantity() { return ProductQuantity; }
-   
-   /**
-    * Updates product quantity with validation
-    * Ensures quantity never becomes negative
-    * 
-    * @param ProductQuantity New quantity to set
-    */
-   public void setProductQuantity(int ProductQuantity) {
-       // Validation to prevent negative product quantities
-       // Using Math.max ensures quantity is alway >= 0
-       this.ProductQuantity = Math.max(0, ProductQuantity); 
-   }
-   
-   /**
-    * Retrieves the custom linked list containing activities
-    * Note: This returns the actual linked list, not a copy
-    * 
-    * @return CustomLinkedList containing the last 4 activities 
-    */
-   public CustomLinkedList<Activity> getActivities() { return activities; }
-   
-   /**
-    * String representation for display purposes
-    * Provides formatted output for console display or logging
-    *
-    * Format: " Product ID:XXX | Name: XXX | Entry Date: XXX | ProductQuantity: XXX " 
-    * 
-    * @return Formatted string containing all product details 
-    */
-   @Override
-   public String toString() {
-       return String.format("Product ID: %s | Name: %s | Entry Date: %s | ProductQuantity: %d",
-                   ProductID, ProductName, ProductEntryDate, ProductQuantity);
-                   
-   
-   }
-
-   
-   // Note for future enhancements:
-   // 1. Add methpd to get total activity count
-   // 2. Add validation for Product ID format (e.g., must start with 'P')
-   // 3. Add method to check if product is out of stock
-   // 4. Consider implementing Comparable interface for product sorting
-   // 5. Add method to get activities sorted by date
-   
-}
-
-
+package com.mycompany.supermarketmanagementsystem;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Supplier;
+
+/**
+ * Represents a product in the Supermarket System
+ * Users CustomLinkedList to maintain Only the last 4 Activities
+ * This class is central to the inventory management system, tracking
+ * product details, stock levels, and associated stock movement activities.
+ * 
+ * Key Features: 
+ * - Manages product information including ID, name, and stock quantity
+ * - Tracks the last 4 activities using custom data structure
+ * - Tracks stock lots (one per delivery), removing the oldest stock first
+ * - provides sorting functionality for activity display
+ * - Ensures data integrity through validation checks
+ * 
+ * @author Group 10
+ * @version 1.0
+ */
+public class Product {
+    /**
+     * Number of activities a product keeps unless told otherwise
+     */
+    public static final int DEFAULT_HISTORY_DEPTH = 4;
+    
+    // Unique identifier for the product (e.g., P001, P002)
+    private String ProductID;
+    
+    // Descriptive name of the product (e.g., Milk, Bread)
+    private String ProductName;
+    
+    // Date when the product was first added to the system
+    private LocalDate ProductEntryDate;
+    
+    // Current quantity of this product available in stock
+    // volatile so threads reading without the manager's product lock see the latest value
+    private volatile int ProductQuantity;
+    
+    // Custom data structure to store only the last 4 activities (FIFO constraint)
+    // This fulfils the requirement to implement  custom data structure
+    private final CustomLinkedList<Activity> activities; 
+    
+    // The same activities kept sorted by quantity as they arrive (sorted insert + eviction),
+    // so the sorted display never has to copy and re-sort the history
+    private Activity[] sortedByQuantity;
+    private int sortedCount;
+    
+    // Modification count of the history that sortedByQuantity matches;
+    // anything else means the history was changed directly and the order must be rebuilt
+    private int sortedModCount;
+    
+    // Read-only copy of the sorted activities handed to callers, null once stale
+    // Repeated reads of an unchanged product return this same list
+    private volatile List<Activity> sortedView;
+    
+    // Deliveries with stock left, oldest at the head (a binary heap)
+    // Removing stock takes from the head: O(log lots) per emptied lot, even with
+    // thousands of open lots. Created with the first lot.
+    private PriorityQueue<StockLot> lots;
+    
+    // Arrival counter, keeps same-day lots in FIFO order
+    private long lotSequence;
+    
+    // Catalog-wide index told about every lot change (null when not in a manager)
+    private StockAgeIndex ageIndex;
+    
+    // Catalog-wide index told about name changes (null when not in a manager)
+    private ProductNameIndex nameIndex;
+    
+    // Catalog-wide index told about entry date changes (null when not in a manager)
+    private ProductEntryDateIndex entryDateIndex;
+    
+    // Manager whose catalog lists the product (null when not in a manager)
+    private volatile SupermarketManager owner;
+    
+    // Position in the manager's product list, so deletion finds it without a search
+    // (-1 when not in a manager; guarded by the manager's catalog lock)
+    private int catalogSlot = -1;
+    
+    // Where the kept history is read from on first use (a product loaded by
+    // CatalogStore), null once it is in memory
+    private volatile Supplier<List<Activity>> historySource;
+    
+    /**
+     * Constructor to initialize product with basic details
+     * Creates a new product instance and initializes the custom linked list
+     * with a maximum capacity of 4 activities as per requirements.
+     * 
+     * @param ProductID Unique identifier for  the product
+     * @param ProductName Name of the product
+     * @param initialProductQuantity starting quantity in stock
+     * @param ProductEntryDate Date when product was entered into the system
+     * @throws IllegalArgumentException if initialProductQuantity is negative 
+     */
+ public Product(String ProductID, String ProductName, LocalDate 
+            ProductEntryDate, int initialProductQuantity) {
+        this.ProductID = ProductID;
+        this.ProductName = ProductName;
+        this.ProductEntryDate = ProductEntryDate;
+        this.ProductQuantity = initialProductQuantity;
+        this.activities = new CustomLinkedList<>(DEFAULT_HISTORY_DEPTH); // Maintain only last 4 activities
+        this.sortedByQuantity = new Activity[DEFAULT_HISTORY_DEPTH];
+        addLot(null, ProductEntryDate, initialProductQuantity); // Initial stock counts as received on entry
+    }
+    
+    /**
+     * Constructor for a product that keeps a longer (or shorter) activity history
+     * 
+     * @param ProductID Unique identifier for  the product
+     * @param ProductName Name of the product
+     * @param ProductEntryDate Date when product was entered into the system
+     * @param initialProductQuantity starting quantity in stock
+     * @param historyDepth Number of most recent activities to keep
+     * @throws IllegalArgumentException if historyDepth is not positive
+     */
+    public Product(String ProductID, String ProductName, LocalDate ProductEntryDate,
+            int initialProductQuantity, int historyDepth) {
+        this.ProductID = ProductID;
+        this.ProductName = ProductName;
+        this.ProductEntryDate = ProductEntryDate;
+        this.ProductQuantity = initialProductQuantity;
+        this.activities = new CustomLinkedList<>(historyDepth);
+        this.sortedByQuantity = new Activity[historyDepth];
+        addLot(null, ProductEntryDate, initialProductQuantity);
+    }
+    
+    /**
+     * Constructor for views whose data is stored elsewhere
+     * Used by ColumnarProductCatalog and OffHeapProductCatalog, whose products
+     * are lightweight views over their own storage. Such subclasses override
+     * every public method (rejecting what their storage does not keep) and
+     * accountMemory, so none of the fields here are used.
+     */
+    protected Product() {
+        this.activities = null;
+    }
+    
+    /**
+     * Adds an activity to the product and updates stock quantity
+     * Uses custom linked list to maintain activity history
+     * Also updates product stock quantity based on activity type
+     * 
+     * Business Logic:
+     * - "AddToStock": Increases product quantity by specified amount
+     * - "RemoveFromStock": Decreases product quantity by specified amount
+     * - Ensures stock quantity never becomes negative
+     * 
+     * @param activity The activity to add (AddToStock/RemoveFromStock)
+     * @throws IllegalArgumentException if activity type is unrecognized
+     */
+   public void addActivity(Activity activity) {
+       ensureHistoryLoaded(); // The new activity goes on top of the saved ones
+        // Add activity to the beginning of custom linked list
+        // This maintains recent activities first, older ones are automatically removed after 4
+       boolean sortedInStep = sortedModCount == activities.getModificationCount();
+       Activity evicted = activities.addFirst(activity);
+       
+       // Keep the sorted order in step: drop the evicted activity, insert the new one
+       if (sortedInStep) {
+           if (evicted != null) {
+               removeSorted(evicted);
+           }
+           insertSorted(activity);
+           sortedModCount = activities.getModificationCount();
+       }
+       sortedView = null;
+       
+       // Update product quantitu based on activity type with validation
+       if ("AddToStock".equals (activity.getActivityName())){
+           // Add Stock: increase product quantity
+           ProductQuantity += activity.getActivityProductQuantity();
+           // Every delivery becomes a stock lot
+           addLot(activity.getActivityID(), activity.getActivityDate(), activity.getActivityProductQuantity());
+            } else if ("RemoveFromStock".equals(activity.getActivityName())) {
+               // Remove stock: decrease product quantity
+                ProductQuantity -= activity.getActivityProductQuantity();
+                // Take the items from the oldest deliveries first
+                consumeLots(activity.getActivityProductQuantity());
+                // Ensure quantity never goea negative
+                //  This prevents negative stock levels which would indicate system error
+                if (ProductQuantity < 0) ProductQuantity = 0;
+            }
+       // Note: Consider adding else block to handle invalid activity types
+   }
+   
+   /**
+    * Returns activities sorted by product quantity
+    * Implements functionality requirement #5
+    * 
+    * Sorting logic:
+    * - Sorts activities in ascending order by the quantity involved in each activity
+    * - Activities with equal quantities stay newest first (the same order the
+    *   custom bubble sort in SortAlgorithms gives)
+    * - Only the kept history is sorted (last 4 activities by default)
+    * 
+    * The order is kept up to date as activities arrive, so this is O(k) at most
+    * and reading an unchanged product again returns the same list without
+    * allocating anything.
+    * 
+    * @return Read-only list of activities sorted by product quantity in ascending order 
+    */
+   public List<Activity> getActivitiesSortedByProductQuantity() {
+       ensureHistoryLoaded();
+       List<Activity> view = sortedView;
+       if (view != null && sortedModCount == activities.getModificationCount()) {
+           return view;
+       }
+       if (sortedModCount != activities.getModificationCount()) {
+           rebuildSorted(); // History was changed without addActivity (e.g. replication)
+       }
+       view = List.of(Arrays.copyOf(sortedByQuantity, sortedCount));
+       sortedView = view;
+       return view;
+   }
+   
+   // Inserts an activity before any with the same quantity (newest first among equals)
+   private void insertSorted(Activity activity) {
+       if (sortedCount == sortedByQuantity.length) {
+           sortedByQuantity = Arrays.copyOf(sortedByQuantity, sortedCount * 2);
+       }
+       int quantity = activity.getActivityProductQuantity();
+       int low = 0;
+       int high = sortedCount;
+       while (low < high) {
+           int mid = (low + high) >>> 1;
+           if (sortedByQuantity[mid].getActivityProductQuantity() < quantity) {
+               low = mid + 1;
+           } else {
+               high = mid;
+           }
+       }
+       System.arraycopy(sortedByQuantity, low, sortedByQuantity, low + 1, sortedCount - low);
+       sortedByQuantity[low] = activity;
+       sortedCount++;
+   }
+   
+   // Removes the activity that the history just evicted
+   private void removeSorted(Activity activity) {
+       for (int i = 0; i < sortedCount; i++) {
+           if (sortedByQuantity[i] == activity) {
+               System.arraycopy(sortedByQuantity, i + 1, sortedByQuantity, i, sortedCount - i - 1);
+               sortedByQuantity[--sortedCount] = null;
+               return;
+           }
+       }
+   }
+   
+   // Rebuilds the sorted order from the history, oldest activity first
+   private void rebuildSorted() {
+       List<Activity> history = activities.getAllElements();
+       Arrays.fill(sortedByQuantity, null);
+       sortedCount = 0;
+       for (int i = history.size() - 1; i >= 0; i--) {
+           insertSorted(history.get(i));
+       }
+       sortedModCount = activities.getModificationCount();
+   }
+   
+   // Stock lots (FIFO)
+   
+   /**
+    * Returns the deliveries that still have stock, oldest first
+    * 
+    * @return Copies of the open lots; their remaining quantities add up to the product quantity
+    */
+   public List<StockLot> getStockLots() {
+       List<StockLot> open = new ArrayList<>();
+       if (lots != null) {
+           for (StockLot lot : lots) {
+               open.add(lot.copy());
+           }
+       }
+       open.sort(StockLot.OLDEST_FIRST);
+       return open;
+   }
+   
+   /**
+    * @return Date of the oldest stock still on the shelf, or null if there is none
+    */
+   public LocalDate getOldestStockDate() {
+       StockLot oldest = lots == null ? null : lots.peek();
+       return oldest == null ? null : oldest.getReceivedDate();
+   }
+   
+   /**
+    * Returns how many items in stock arrived before a date
+    * 
+    * @param cutoff First date that does not count
+    * @return Number of items received before the cutoff and not yet removed
+    */
+   public int getStockReceivedBefore(LocalDate cutoff) {
+       int total = 0;
+       if (lots != null) {
+           for (StockLot lot : lots) {
+               if (lot.getReceivedDate().isBefore(cutoff)) {
+                   total += lot.getRemainingQuantity();
+               }
+           }
+       }
+       return total;
+   }
+   
+   // Opens a lot for a delivery
+   private void addLot(String sourceActivityId, LocalDate receivedDate, int quantity) {
+       if (quantity <= 0) {
+           return;
+       }
+       if (receivedDate == null) {
+           receivedDate = ProductEntryDate != null ? ProductEntryDate : LocalDate.now();
+       }
+       if (lots == null) {
+           lots = new PriorityQueue<>(StockLot.OLDEST_FIRST);
+       }
+       lots.add(new StockLot(sourceActivityId, receivedDate, quantity, lotSequence++));
+       if (ageIndex != null) {
+           ageIndex.added(receivedDate, quantity);
+       }
+   }
+   
+   // Takes items from the oldest lots first, closing lots that run empty
+   private void consumeLots(int quantity) {
+       while (quantity > 0 && lots != null && !lots.isEmpty()) {
+           StockLot oldest = lots.peek();
+           int taken = oldest.take(quantity);
+           quantity -= taken;
+           if (ageIndex != null) {
+               ageIndex.removed(oldest.getReceivedDate(), taken);
+           }
+           if (oldest.getRemainingQuantity() == 0) {
+               lots.poll();
+           }
+       }
+   }
+   
+   // Connects the product to a catalog-wide index, reporting the lots it already has
+   void attachStockAgeIndex(StockAgeIndex index) {
+       if (lots != null) {
+           for (StockLot lot : lots) {
+               index.added(lot.getReceivedDate(), lot.getRemainingQuantity());
+           }
+       }
+       this.ageIndex = index;
+   }
+   
+   // Disconnects the product (when it leaves the catalog), taking its lots out of the index
+   void detachStockAgeIndex() {
+       if (ageIndex != null && lots != null) {
+           for (StockLot lot : lots) {
+               ageIndex.removed(lot.getReceivedDate(), lot.getRemainingQuantity());
+           }
+       }
+       this.ageIndex = null;
+   }
+   
+   // Connects the product to the catalog's name index
+   void attachNameIndex(ProductNameIndex index) {
+       index.added(this, ProductName);
+       this.nameIndex = index;
+   }
+   
+   // Disconnects the product (when it leaves the catalog)
+   void detachNameIndex() {
+       if (nameIndex != null) {
+           nameIndex.removed(this, ProductName);
+       }
+       this.nameIndex = null;
+   }
+   
+   // Connects the product to the catalog's entry date index
+   void attachEntryDateIndex(ProductEntryDateIndex index) {
+       index.added(this, ProductEntryDate);
+       this.entryDateIndex = index;
+   }
+   
+   // Disconnects the product (when it leaves the catalog)
+   void detachEntryDateIndex() {
+       if (entryDateIndex != null) {
+           entryDateIndex.removed(this, ProductEntryDate);
+       }
+       this.entryDateIndex = null;
+   }
+   
+   // Connects the product to the manager whose catalog now lists it
+   void attachOwner(SupermarketManager manager) {
+       this.owner = manager;
+   }
+   
+   // Disconnects the product (when it leaves the catalog)
+   void detachOwner() {
+       this.owner = null;
+   }
+   
+   // Position in the manager's product list (see SupermarketManager.compactCatalog)
+   int getCatalogSlot() {
+       return catalogSlot;
+   }
+   
+   void setCatalogSlot(int slot) {
+       this.catalogSlot = slot;
+   }
+   
+   // Lazily loaded history (CatalogStore)
+   
+   // Makes the history load from a source on first use
+   // The source returns the saved activities oldest first
+   void setHistorySource(Supplier<List<Activity>> source) {
+       this.historySource = source;
+   }
+   
+   // Where the history is still to be loaded from, or null once it is in memory
+   Supplier<List<Activity>> getHistorySource() {
+       return historySource;
+   }
+   
+   // Number of activities the history keeps, without loading it
+   int getHistoryDepth() {
+       return activities.getMaxSize();
+   }
+   
+   // Reads the saved history in if it is still on disk
+   // Loading adds the activities without touching the quantity or the lots, which
+   // were restored with restoreStock; the sorted order rebuilds on next use
+   private void ensureHistoryLoaded() {
+       if (historySource == null) {
+           return;
+       }
+       synchronized (activities) {
+           Supplier<List<Activity>> source = historySource;
+           if (source != null) {
+               for (Activity activity : source.get()) {
+                   activities.addFirst(activity);
+               }
+               historySource = null;
+           }
+       }
+   }
+   
+   // Sets the quantity and open lots exactly as saved (before joining a catalog)
+   // The lots come oldest first and keep that order
+   void restoreStock(int quantity, List<StockLot> savedLots) {
+       ProductQuantity = quantity;
+       lots = null;
+       for (StockLot lot : savedLots) {
+           if (lots == null) {
+               lots = new PriorityQueue<>(StockLot.OLDEST_FIRST);
+           }
+           StockLot restored = new StockLot(lot.getSourceActivityId(), lot.getReceivedDate(),
+                   lot.getReceivedQuantity(), lotSequence++);
+           restored.take(lot.getReceivedQuantity() - lot.getRemainingQuantity());
+           lots.add(restored);
+       }
+   }
+   
+   // Adds this product's structures to a memory estimate
+   // Caller holds the product's lock, so the history and lots are stable
+   void accountMemory(MemoryFootprint footprint) {
+       footprint.addSampled(MemoryFootprint.PRODUCTS, MemoryFootprint.shallowSize(getClass())
+               + MemoryFootprint.stringSize(ProductID) + MemoryFootprint.stringSize(ProductName)
+               + MemoryFootprint.dateSize(ProductEntryDate));
+       List<Activity> history = activities.toArrayList();
+       footprint.addSampled(MemoryFootprint.HISTORY_NODES, MemoryFootprint.shallowSize(CustomLinkedList.class)
+               + history.size() * MemoryFootprint.shallowSize(MemoryFootprint.nodeClass()));
+       long activityBytes = 0;
+       for (Activity activity : history) {
+           // Activity names are shared constants and not counted
+           activityBytes += MemoryFootprint.shallowSize(Activity.class)
+                   + MemoryFootprint.stringSize(activity.getActivityID())
+                   + MemoryFootprint.dateSize(activity.getActivityDate());
+       }
+       footprint.addSampled(MemoryFootprint.ACTIVITIES, activityBytes);
+       List<Activity> view = sortedView;
+       footprint.addSampled(MemoryFootprint.SORTED_VIEWS, MemoryFootprint.referenceArraySize(sortedByQuantity.length)
+               + (view == null ? 0 : MemoryFootprint.shallowSize(view.getClass())
+                       + MemoryFootprint.referenceArraySize(view.size())));
+       long lotBytes = 0;
+       if (lots != null) {
+           lotBytes = MemoryFootprint.shallowSize(PriorityQueue.class)
+                   + MemoryFootprint.referenceArraySize(Math.max(11, lots.size())); // 11: initial capacity
+           for (StockLot lot : lots) {
+               // The source activity ID is shared with the activity
+               lotBytes += MemoryFootprint.shallowSize(StockLot.class) + MemoryFootprint.dateSize(lot.getReceivedDate());
+           }
+       }
+       footprint.addSampled(MemoryFootprint.STOCK_LOTS, lotBytes);
+       footprint.sampledProduct(history.size());
+   }
+   
+   // Getters and setters
+   
+   /**
+    * Retrieves the unique product identifier
+    * @return The product ID as a String
+    */
+   public String getProductID() { return ProductID; }
+   
+   /**
+    * Updates the product identifier
+    * Refused while the product is in a manager's catalog: the manager's ID
+    * index, product locks and change listeners (journal, replicas) all know
+    * it by its ID. Delete it and create it again under the new ID instead.
+    * 
+    * @param ProductID New product ID to set
+    * @throws IllegalStateException if the product is in a manager's catalog
+    */
+   public void setProductID(String ProductID) {
+       if (owner != null) {
+           throw new IllegalStateException("Product " + this.ProductID + " is in a catalog; its ID cannot change");
+       }
+       this.ProductID = ProductID;
+   }
+   
+   /**
+    * Retrieves the product name 
+    * @return The product name as a String
+    */
+   public String getProductName() { return ProductName; }
+   
+   /**
+    * Updates the product name
+    * In a manager's catalog the change is made under the product's lock and
+    * recorded as a new version, so later snapshots see it.
+    * @param ProductName New product name to set
+    */
+   public void setProductName(String ProductName) {
+       SupermarketManager manager = owner;
+       if (manager == null) {
+           changeName(ProductName);
+       } else {
+           manager.editProduct(this, () -> changeName(ProductName)); // Snapshots see the new name too
+       }
+   }
+   
+   private void changeName(String ProductName) {
+       ProductNameIndex index = nameIndex;
+       if (index != null) {
+           index.removed(this, this.ProductName); // Keep name queries finding the product
+           index.added(this, ProductName);
+       }
+       this.ProductName = ProductName;
+   }
+   
+   /**
+    * Retrieves the product entry date
+    * @return The date when product was first added to system
+    */
+   public LocalDate getProductEntryDate() { return ProductEntryDate; }
+   
+   /**
+    * Updates the product entry date
+    * In a manager's catalog the change is made under the product's lock and
+    * recorded as a new version, so later snapshots see it.
+    * @param ProductEntryDate New entry date to set
+    */
+   public void setProductEntryDate(LocalDate ProductEntryDate) {
+       SupermarketManager manager = owner;
+       if (manager == null) {
+           changeEntryDate(ProductEntryDate);
+       } else {
+           manager.editProduct(this, () -> changeEntryDate(ProductEntryDate)); // Snapshots see the new date too
+       }
+   }
+   
+   private void changeEntryDate(LocalDate ProductEntryDate) {
+       ProductEntryDateIndex index = entryDateIndex;
+       if (index != null) {
+           index.removed(this, this.ProductEntryDate); // Keep ageing queries finding the product
+           index.added(this, ProductEntryDate);
+       }
+       this.ProductEntryDate = ProductEntryDate;
+   }
+   
+   /**
+    * Retrieves current product quantity in stock
+    * @return Current stock quantity
+    */
+   public int getProductQuantity() { return ProductQuantity; }
+   
+   /**
+    * Updates product quantity with validation
+    * Ensures quantity never becomes negative
+    * 
+    * @param ProductQuantity New quantity to set
+    */
+   public void setProductQuantity(int ProductQuantity) {
+       // Validation to prevent negative product quantities
+       // Using Math.max ensures quantity is alway >= 0
+       int newQuantity = Math.max(0, ProductQuantity);
+       // Keep the lots adding up: a correction down takes the oldest stock,
+       // a correction up counts as stock received today
+       int difference = newQuantity - this.ProductQuantity;
+       if (difference < 0) {
+           consumeLots(-difference);
+       } else if (difference > 0) {
+           addLot(null, LocalDate.now(), difference);
+       }
+       this.ProductQuantity = newQuantity; 
+   }
+   
+   /**
+    * Retrieves the custom linked list containing activities
+    * Note: This returns the actual linked list, not a copy
+    * 
+    * @return CustomLinkedList containing the last 4 activities (or the configured history depth)
+    */
+   public CustomLinkedList<Activity> getActivities() {
+       ensureHistoryLoaded();
+       return activities;
+   }
+   
+   /**
+    * Tells whether the activity history is in memory
+    * Always true except for a product loaded by CatalogStore whose history
+    * has not been asked for yet; the quantity and stock lots are always loaded.
+    * 
+    * @return true if the history is in memory
+    */
+   public boolean isHistoryLoaded() {
+       return historySource == null;
+   }
+   
+   /**
+    * String representation for display purposes
+    * Provides formatted output for console display or logging
+    *
+    * Format: " Product ID:XXX | Name: XXX | Entry Date: XXX | ProductQuantity: XXX " 
+    * 
+    * @return Formatted string containing all product details 
+    */
+   @Override
+   public String toString() {
+       return String.format("Product ID: %s | Name: %s | Entry Date: %s | ProductQuantity: %d",
+                   getProductID(), getProductName(), getProductEntryDate(), getProductQuantity());
+                   
+   
+   }
+
+   
+   // Note for future enhancements:
+   // 1. Add methpd to get total activity count
+   // 2. Add validation for Product ID format (e.g., must start with 'P')
+   // 3. Add method to check if product is out of stock
+   // 4. Consider implementing Comparable interface for product sorting
+   // 5. Add method to get activities sorted by date
+   
+}
+
+
  
\ No newline at end of file
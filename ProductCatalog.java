@@ -0,0 +1,80 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Alternative product storage that does not keep one Product object per product
+ * Implemented by ColumnarProductCatalog (primitive arrays on the heap) and
+ * OffHeapProductCatalog (records outside the Java heap). Both hand out
+ * Product views, so code written against Product keeps working.
+ *
+ * Operations follow the same rules and outcomes as SupermarketManager, but
+ * record no initial activity, print nothing and notify no listeners: a
+ * catalog is plain storage, meant for bulk-loaded data and reporting scans.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public interface ProductCatalog {
+
+    /**
+     * Adds a product
+     *
+     * @param ProductID Unique product identifier
+     * @param ProductName Name of the product
+     * @param ProductEntryDate Date when product was added (may be null)
+     * @param ProductQuantity Stock quantity
+     * @return SUCCESS, DUPLICATE or INVALID_INPUT
+     */
+    OperationOutcome addProduct(String ProductID, String ProductName, LocalDate ProductEntryDate,
+            int ProductQuantity);
+
+    /**
+     * Removes a product
+     *
+     * @param ProductID ID of the product to remove
+     * @return SUCCESS or NOT_FOUND
+     */
+    OperationOutcome removeProduct(String ProductID);
+
+    /**
+     * Applies an activity with the same rules as SupermarketManager.addActivityToProduct
+     *
+     * @param ProductID ID of the product to update
+     * @param activity Activity to apply (AddToStock/RemoveFromStock)
+     * @return SUCCESS, NOT_FOUND, INSUFFICIENT_STOCK or INVALID_INPUT
+     */
+    OperationOutcome applyActivity(String ProductID, Activity activity);
+
+    /**
+     * Returns a view of a product
+     *
+     * @param ProductID ID of the product
+     * @return View of the product, or null if not found
+     */
+    Product getProduct(String ProductID);
+
+    /**
+     * @return Views of all products
+     */
+    List<Product> getAllProducts();
+
+    /**
+     * @return Number of products in the catalog
+     */
+    int getProductCount();
+
+    /**
+     * @return Total stock quantity over all products
+     */
+    long getTotalStockQuantity();
+
+    /**
+     * Counts products whose stock is below a threshold
+     *
+     * @param threshold Quantity threshold (exclusive)
+     * @return Number of products with quantity &lt; threshold
+     */
+    int countQuantityBelow(int threshold);
+}
@@ -0,0 +1,127 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Catalog-wide index of products by entry date, oldest first
+ * Products in a manager report their entry date when they join, when they
+ * leave and whenever it is changed, so ageing questions ("entered between X
+ * and Y", "the N oldest products") read one sorted range instead of testing
+ * every product: O(log d + k) for k results over d distinct dates.
+ *
+ * Products entered on the same day are returned in product ID order.
+ * Products without an entry date are not indexed (no date query matches them).
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+final class ProductEntryDateIndex {
+
+    private static final Comparator<Product> BY_ID = Comparator.comparing(Product::getProductID);
+
+    // Entry date -> products entered that day
+    private final ConcurrentSkipListMap<LocalDate, Set<Product>> productsByDate = new ConcurrentSkipListMap<>();
+
+    /**
+     * Records a product under an entry date
+     *
+     * @param product Product
+     * @param date Its entry date (ignored if null)
+     */
+    void added(Product product, LocalDate date) {
+        if (date != null) {
+            // Added inside compute, like removed: a set emptied and unmapped by a
+            // concurrent removal must not receive the product after it is gone
+            productsByDate.compute(date, (d, products) -> {
+                Set<Product> set = products == null ? ConcurrentHashMap.newKeySet() : products;
+                set.add(product);
+                return set;
+            });
+        }
+    }
+
+    /**
+     * Removes a product from under an entry date
+     *
+     * @param product Product
+     * @param date The date it was recorded under (ignored if null)
+     */
+    void removed(Product product, LocalDate date) {
+        if (date != null) {
+            productsByDate.computeIfPresent(date, (d, products) -> {
+                products.remove(product);
+                return products.isEmpty() ? null : products;
+            });
+        }
+    }
+
+    /**
+     * Estimates the memory used by the index
+     *
+     * @param products Number of products in the index
+     * @return Estimated bytes
+     */
+    long estimateBytes(int products) {
+        int dates = productsByDate.size();
+        return MemoryFootprint.estimateSetIndexBytes(dates, products,
+                MemoryFootprint.shallowSize("java.util.concurrent.ConcurrentSkipListMap$Node"))
+                + dates / 2 * MemoryFootprint.shallowSize("java.util.concurrent.ConcurrentSkipListMap$Index")
+                + dates * MemoryFootprint.dateSize(LocalDate.MIN);
+    }
+
+    /**
+     * Returns the products entered between two dates, oldest first
+     *
+     * @param from First entry date
+     * @param to Last entry date
+     * @param limit Maximum number of products
+     * @return Matching products
+     */
+    List<Product> between(LocalDate from, LocalDate to, int limit) {
+        List<Product> result = new ArrayList<>();
+        if (from.isAfter(to)) {
+            return result;
+        }
+        for (Set<Product> sameDay : productsByDate.subMap(from, true, to, true).values()) {
+            if (!addDay(result, sameDay, limit)) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the oldest products
+     *
+     * @param limit Number of products
+     * @return Up to limit products, oldest first
+     */
+    List<Product> oldest(int limit) {
+        List<Product> result = new ArrayList<>();
+        for (Set<Product> sameDay : productsByDate.values()) {
+            if (!addDay(result, sameDay, limit)) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    // Adds one day's products in ID order; returns false once the limit is reached
+    private static boolean addDay(List<Product> result, Set<Product> sameDay, int limit) {
+        List<Product> day = new ArrayList<>(sameDay);
+        day.sort(BY_ID);
+        for (Product product : day) {
+            if (result.size() >= limit) {
+                return false;
+            }
+            result.add(product);
+        }
+        return result.size() < limit;
+    }
+}
@@ -0,0 +1,82 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Catalog-wide index of products by name (ignoring case)
+ * Products in a manager report their name when they join and whenever it is
+ * changed, so a query on an exact name finds its products in O(1) instead of
+ * testing every product. Several products may share a name.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+final class ProductNameIndex {
+
+    // Lower-case name -> products with that name
+    private final ConcurrentHashMap<String, Set<Product>> productsByName = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the key a name is indexed under
+     *
+     * @param name Product name (may be null)
+     * @return Lower-case name, empty for null
+     */
+    static String key(String name) {
+        return name == null ? "" : name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Records a product under a name
+     *
+     * @param product Product
+     * @param name Its name
+     */
+    void added(Product product, String name) {
+        // Added inside compute, like removed: a set emptied and unmapped by a
+        // concurrent removal must not receive the product after it is gone
+        productsByName.compute(key(name), (k, products) -> {
+            Set<Product> set = products == null ? ConcurrentHashMap.newKeySet() : products;
+            set.add(product);
+            return set;
+        });
+    }
+
+    /**
+     * Removes a product from under a name
+     *
+     * @param product Product
+     * @param name The name it was recorded under
+     */
+    void removed(Product product, String name) {
+        productsByName.computeIfPresent(key(name), (k, products) -> {
+            products.remove(product);
+            return products.isEmpty() ? null : products;
+        });
+    }
+
+    /**
+     * Estimates the memory used by the index, not counting the name keys
+     *
+     * @param products Number of products in the index
+     * @return Estimated bytes
+     */
+    long estimateBytes(int products) {
+        return MemoryFootprint.estimateSetIndexBytes(productsByName.size(), products,
+                MemoryFootprint.shallowSize("java.util.concurrent.ConcurrentHashMap$Node"));
+    }
+
+    /**
+     * Returns the products with a name
+     *
+     * @param key Lower-case name (see key)
+     * @return Live read-only view of those products, empty if none
+     */
+    Set<Product> get(String key) {
+        Set<Product> products = productsByName.get(key);
+        return products == null ? Collections.emptySet() : Collections.unmodifiableSet(products);
+    }
+}
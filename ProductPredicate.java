@@ -0,0 +1,354 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * Condition on a product's fields, for SupermarketManager.query
+ * Built from the factory methods and combined with and / or / negate, e.g.
+ *   quantityBelow(10).and(enteredBefore(LocalDate.of(2024, 2, 1)))
+ *   nameContains("milk").and(quantityEquals(0))
+ *
+ * Besides testing products, a predicate tells the query planner which
+ * conditions every match must meet (the conjuncts of an "and"), so a
+ * condition on the ID, the exact name or the entry date can be answered
+ * from an index instead of scanning the catalog.
+ *
+ * Name conditions ignore case. Ranges include both ends.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public abstract class ProductPredicate {
+
+    /**
+     * Tests one product
+     *
+     * @param product Product to test
+     * @return true if the product matches
+     */
+    public abstract boolean test(Product product);
+
+    /**
+     * @param other Second condition
+     * @return Condition met when both are met
+     */
+    public ProductPredicate and(ProductPredicate other) {
+        return new And(this, other);
+    }
+
+    /**
+     * @param other Second condition
+     * @return Condition met when either is met
+     */
+    public ProductPredicate or(ProductPredicate other) {
+        return new Or(this, other);
+    }
+
+    /**
+     * @return Condition met when this one is not
+     */
+    public ProductPredicate negate() {
+        return new Not(this);
+    }
+
+    // Adds the conditions every match must meet (used by the planner)
+    void addConjuncts(List<ProductPredicate> conjuncts) {
+        conjuncts.add(this);
+    }
+
+    // ---------------------------------------------------------------
+    // Factories
+    // ---------------------------------------------------------------
+
+    /**
+     * @return Condition met by every product
+     */
+    public static ProductPredicate all() {
+        return new Custom("true", product -> true);
+    }
+
+    /**
+     * @param ProductID Product ID
+     * @return Condition met by the product with that ID
+     */
+    public static ProductPredicate idEquals(String ProductID) {
+        return new IdEquals(ProductID);
+    }
+
+    /**
+     * @param ProductName Product name (any case)
+     * @return Condition met by products with exactly that name
+     */
+    public static ProductPredicate nameEquals(String ProductName) {
+        return new NameEquals(ProductName);
+    }
+
+    /**
+     * @param text Text to look for (any case)
+     * @return Condition met by products whose name contains the text
+     */
+    public static ProductPredicate nameContains(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        return new Custom("name contains '" + text + "'", product -> product.getProductName() != null
+                && product.getProductName().toLowerCase(Locale.ROOT).contains(lower));
+    }
+
+    /**
+     * @param quantity Stock quantity
+     * @return Condition met by products with exactly that quantity in stock
+     */
+    public static ProductPredicate quantityEquals(int quantity) {
+        return quantityBetween(quantity, quantity);
+    }
+
+    /**
+     * @param quantity Exclusive upper bound
+     * @return Condition met by products with less than that in stock
+     */
+    public static ProductPredicate quantityBelow(int quantity) {
+        if (quantity == Integer.MIN_VALUE) {
+            return quantityBetween(0, -1); // Nothing is below it; quantity - 1 would wrap around
+        }
+        return quantityBetween(Integer.MIN_VALUE, quantity - 1);
+    }
+
+    /**
+     * @param quantity Inclusive lower bound
+     * @return Condition met by products with at least that in stock
+     */
+    public static ProductPredicate quantityAtLeast(int quantity) {
+        return quantityBetween(quantity, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param min Lowest quantity
+     * @param max Highest quantity
+     * @return Condition met by products whose stock is between min and max
+     */
+    public static ProductPredicate quantityBetween(int min, int max) {
+        return new QuantityRange(min, max);
+    }
+
+    /**
+     * @param date First date that does not match
+     * @return Condition met by products entered before the date
+     */
+    public static ProductPredicate enteredBefore(LocalDate date) {
+        if (!date.isAfter(LocalDate.MIN)) {
+            return enteredBetween(LocalDate.MAX, LocalDate.MIN); // Nothing is before it; minusDays would throw
+        }
+        return enteredBetween(LocalDate.MIN, date.minusDays(1));
+    }
+
+    /**
+     * @param date First date that matches
+     * @return Condition met by products entered on or after the date
+     */
+    public static ProductPredicate enteredOnOrAfter(LocalDate date) {
+        return enteredBetween(date, LocalDate.MAX);
+    }
+
+    /**
+     * @param from First entry date
+     * @param to Last entry date
+     * @return Condition met by products entered between the two dates
+     */
+    public static ProductPredicate enteredBetween(LocalDate from, LocalDate to) {
+        return new EntryDateRange(from, to);
+    }
+
+    /**
+     * Condition written as code; always evaluated by scanning
+     *
+     * @param description Text shown in query plans
+     * @param condition Condition to test
+     * @return The condition as a ProductPredicate
+     */
+    public static ProductPredicate matching(String description, Predicate<Product> condition) {
+        return new Custom(description, condition);
+    }
+
+    // ---------------------------------------------------------------
+    // Conditions
+    // ---------------------------------------------------------------
+
+    static final class IdEquals extends ProductPredicate {
+        final String productId;
+
+        IdEquals(String productId) {
+            this.productId = productId;
+        }
+
+        @Override
+        public boolean test(Product product) {
+            return productId.equals(product.getProductID());
+        }
+
+        @Override
+        public String toString() {
+            return "id = '" + productId + "'";
+        }
+    }
+
+    static final class NameEquals extends ProductPredicate {
+        final String key; // Lower-case name, as kept by the name index
+
+        NameEquals(String name) {
+            this.key = ProductNameIndex.key(name);
+        }
+
+        @Override
+        public boolean test(Product product) {
+            return key.equals(ProductNameIndex.key(product.getProductName()));
+        }
+
+        @Override
+        public String toString() {
+            return "name = '" + key + "'";
+        }
+    }
+
+    static final class QuantityRange extends ProductPredicate {
+        final int min;
+        final int max;
+
+        QuantityRange(int min, int max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public boolean test(Product product) {
+            int quantity = product.getProductQuantity();
+            return quantity >= min && quantity <= max;
+        }
+
+        @Override
+        public String toString() {
+            if (min > max) {
+                return "quantity in empty range";
+            }
+            if (min == max) {
+                return "quantity = " + min;
+            }
+            if (min == Integer.MIN_VALUE) {
+                return "quantity < " + ((long) max + 1);
+            }
+            return max == Integer.MAX_VALUE ? "quantity >= " + min : "quantity in [" + min + ", " + max + "]";
+        }
+    }
+
+    static final class EntryDateRange extends ProductPredicate {
+        final LocalDate from;
+        final LocalDate to;
+
+        EntryDateRange(LocalDate from, LocalDate to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean test(Product product) {
+            LocalDate date = product.getProductEntryDate();
+            return date != null && !date.isBefore(from) && !date.isAfter(to);
+        }
+
+        @Override
+        public String toString() {
+            if (from.isAfter(to)) {
+                return "entry date in empty range";
+            }
+            if (from.equals(LocalDate.MIN)) {
+                return "entered before " + to.plusDays(1);
+            }
+            return to.equals(LocalDate.MAX) ? "entered on or after " + from : "entry date in [" + from + ", " + to + "]";
+        }
+    }
+
+    private static final class Custom extends ProductPredicate {
+        private final String description;
+        private final Predicate<Product> condition;
+
+        Custom(String description, Predicate<Product> condition) {
+            this.description = description;
+            this.condition = condition;
+        }
+
+        @Override
+        public boolean test(Product product) {
+            return condition.test(product);
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+
+    private static final class And extends ProductPredicate {
+        private final ProductPredicate left;
+        private final ProductPredicate right;
+
+        And(ProductPredicate left, ProductPredicate right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean test(Product product) {
+            return left.test(product) && right.test(product);
+        }
+
+        @Override
+        void addConjuncts(List<ProductPredicate> conjuncts) {
+            left.addConjuncts(conjuncts);
+            right.addConjuncts(conjuncts);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + " and " + right + ")";
+        }
+    }
+
+    private static final class Or extends ProductPredicate {
+        private final ProductPredicate left;
+        private final ProductPredicate right;
+
+        Or(ProductPredicate left, ProductPredicate right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean test(Product product) {
+            return left.test(product) || right.test(product);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + " or " + right + ")";
+        }
+    }
+
+    private static final class Not extends ProductPredicate {
+        private final ProductPredicate inner;
+
+        Not(ProductPredicate inner) {
+            this.inner = inner;
+        }
+
+        @Override
+        public boolean test(Product product) {
+            return !inner.test(product);
+        }
+
+        @Override
+        public String toString() {
+            return "not " + inner;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.mycompany.supermarketmanagementsystem;
+
+/**
+ * An ad-hoc question about the catalog, for SupermarketManager.query
+ * A condition on the products plus an optional limit on the number of
+ * results; what is returned for each match (the projection) is chosen when
+ * the query is run.
+ *
+ * Example:
+ *   ProductQuery query = ProductQuery.where(
+ *           ProductPredicate.nameContains("milk").and(ProductPredicate.quantityEquals(0))).limit(20);
+ *   List<String> ids = manager.query(query, Product::getProductID);
+ *   manager.explain(query); // "parallel scan of 250000 products: ..."
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class ProductQuery {
+
+    private final ProductPredicate predicate;
+    private int limit = Integer.MAX_VALUE;
+
+    private ProductQuery(ProductPredicate predicate) {
+        this.predicate = predicate;
+    }
+
+    /**
+     * Creates a query for the products meeting a condition
+     *
+     * @param predicate Condition every result meets
+     * @return The query
+     */
+    public static ProductQuery where(ProductPredicate predicate) {
+        if (predicate == null) {
+            throw new IllegalArgumentException("Query condition cannot be null");
+        }
+        return new ProductQuery(predicate);
+    }
+
+    /**
+     * Limits the number of results
+     *
+     * @param limit Maximum number of results
+     * @return This query, for chaining
+     * @throws IllegalArgumentException if limit is negative
+     */
+    public ProductQuery limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative: " + limit);
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * @return Condition every result meets
+     */
+    public ProductPredicate getPredicate() {
+        return predicate;
+    }
+
+    /**
+     * @return Maximum number of results (Integer.MAX_VALUE for no limit)
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public String toString() {
+        return "where " + predicate + (limit == Integer.MAX_VALUE ? "" : " limit " + limit);
+    }
+}
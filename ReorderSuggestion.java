@@ -0,0 +1,86 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.time.LocalDate;
+
+/**
+ * Demand forecast and reorder suggestion for one product
+ * Produced by DemandForecaster from its running per-product estimates.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class ReorderSuggestion {
+
+    private final String productId;
+    private final int stockQuantity;
+    private final double dailyRemovalRate;
+    private final LocalDate projectedStockoutDate;
+    private final int suggestedOrderQuantity;
+
+    /**
+     * Creates a suggestion
+     *
+     * @param productId ID of the product
+     * @param stockQuantity Stock after the last activity
+     * @param dailyRemovalRate Smoothed units removed per day
+     * @param projectedStockoutDate Day the stock is expected to run out (null if never)
+     * @param suggestedOrderQuantity Units to order to reach the target cover
+     */
+    ReorderSuggestion(String productId, int stockQuantity, double dailyRemovalRate,
+            LocalDate projectedStockoutDate, int suggestedOrderQuantity) {
+        this.productId = productId;
+        this.stockQuantity = stockQuantity;
+        this.dailyRemovalRate = dailyRemovalRate;
+        this.projectedStockoutDate = projectedStockoutDate;
+        this.suggestedOrderQuantity = suggestedOrderQuantity;
+    }
+
+    /**
+     * @return ID of the product
+     */
+    public String getProductId() {
+        return productId;
+    }
+
+    /**
+     * @return Stock after the last activity
+     */
+    public int getStockQuantity() {
+        return stockQuantity;
+    }
+
+    /**
+     * @return Exponentially weighted units removed per day
+     */
+    public double getDailyRemovalRate() {
+        return dailyRemovalRate;
+    }
+
+    /**
+     * @return Days the current stock lasts at the current rate (infinite with no demand)
+     */
+    public double getDaysOfCover() {
+        return dailyRemovalRate <= 0 ? Double.POSITIVE_INFINITY : stockQuantity / dailyRemovalRate;
+    }
+
+    /**
+     * @return Day the stock is expected to run out, or null with no demand
+     */
+    public LocalDate getProjectedStockoutDate() {
+        return projectedStockoutDate;
+    }
+
+    /**
+     * @return Units to order now to cover the lead time and the target cover
+     */
+    public int getSuggestedOrderQuantity() {
+        return suggestedOrderQuantity;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: stock %d, %.1f/day, runs out %s, order %d", productId, stockQuantity,
+                dailyRemovalRate, projectedStockoutDate == null ? "never" : projectedStockoutDate,
+                suggestedOrderQuantity);
+    }
+}
@@ -0,0 +1,313 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Read-only replica of a SupermarketManager running in another process
+ * Connects to a ReplicationPrimary over a local TCP socket, loads the
+ * catalog snapshot, then applies the primary's changes in sequence order.
+ * Reporting queries are answered from the local copy, so they never touch
+ * the primary's JVM.
+ *
+ * Only read operations are offered. If the connection drops, the replica
+ * reconnects and rebuilds its copy from a fresh snapshot; until the new copy
+ * is complete, queries keep being answered from the previous one.
+ *
+ * Replication lag metrics:
+ * - lag in events: primary's latest sequence minus the last applied sequence
+ * - lag in milliseconds: how long ago the oldest not-yet-seen change was made
+ *   on the primary (0 when fully caught up)
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class ReplicaSupermarket {
+
+    // Wait before reconnecting after the connection drops
+    private static final long RECONNECT_DELAY_MILLIS = 1_000;
+
+    private final String host;
+    private final int port;
+
+    // Local copy of the catalog; replaced as a whole after each resync
+    private volatile SupermarketManager manager = new SupermarketManager();
+
+    // Replication progress
+    private volatile long appliedSequence;
+    private volatile long primarySequence;
+    private volatile long lastAppliedTimestamp;
+    private volatile long lastApplyDelayMillis;
+    private volatile boolean synchronised;
+    private volatile long snapshotsLoaded;
+
+    private final Thread reader;
+    private volatile boolean running;
+    private volatile Socket socket;
+
+    /**
+     * Creates a replica for the primary at host:port (not connected yet)
+     *
+     * @param host Primary host, normally "localhost"
+     * @param port Primary's replication port
+     */
+    public ReplicaSupermarket(String host, int port) {
+        this.host = host;
+        this.port = port;
+        this.reader = new Thread(this::readLoop, "replica-reader");
+        this.reader.setDaemon(true);
+    }
+
+    /**
+     * Starts connecting to the primary and applying its changes
+     */
+    public void start() {
+        running = true;
+        reader.start();
+    }
+
+    /**
+     * Disconnects from the primary and stops applying changes
+     */
+    public void stop() {
+        running = false;
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Read-only queries
+    // ---------------------------------------------------------------
+
+    /**
+     * Retrieves a product from the local copy
+     * The returned product must be treated as read-only.
+     *
+     * @param ProductID ID of the product
+     * @return Product if found, null otherwise
+     */
+    public Product getProduct(String ProductID) {
+        return manager.getProduct(ProductID);
+    }
+
+    /**
+     * @return Copy of all products in the local copy
+     */
+    public List<Product> getAllProducts() {
+        return manager.getAllProducts();
+    }
+
+    /**
+     * @return Number of products in the local copy
+     */
+    public int getProductCount() {
+        return manager.getProductCount();
+    }
+
+    /**
+     * Returns a product's most recent activities, newest first
+     *
+     * @param ProductID ID of the product
+     * @param limit Maximum number of activities
+     * @return Activities, or null if the product does not exist
+     */
+    public List<Activity> getRecentActivities(String ProductID, int limit) {
+        return manager.getRecentActivities(ProductID, limit);
+    }
+
+    /**
+     * Displays all products (same table as the primary)
+     */
+    public void displayAllProducts() {
+        manager.displayAllProducts();
+    }
+
+    /**
+     * Displays a product's activity history sorted by quantity
+     *
+     * @param ProductID ID of the product
+     */
+    public void displayProductActivities(String ProductID) {
+        manager.displayProductActivities(ProductID);
+    }
+
+    // ---------------------------------------------------------------
+    // Replication metrics
+    // ---------------------------------------------------------------
+
+    /**
+     * @return Sequence number of the last change applied to the local copy
+     */
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    /**
+     * @return Latest sequence number known to exist on the primary
+     */
+    public long getPrimarySequence() {
+        return primarySequence;
+    }
+
+    /**
+     * @return Number of primary changes not yet applied here
+     */
+    public long getReplicationLagEvents() {
+        return Math.max(0, primarySequence - appliedSequence);
+    }
+
+    /**
+     * @return Approximate age in milliseconds of the oldest change not yet applied
+     */
+    public long getReplicationLagMillis() {
+        if (getReplicationLagEvents() == 0) {
+            return 0;
+        }
+        // Behind: at least the delay of the last applied change, growing while nothing arrives
+        return Math.max(lastApplyDelayMillis, System.currentTimeMillis() - lastAppliedTimestamp);
+    }
+
+    /**
+     * @return true once a snapshot has been loaded and the connection is live
+     */
+    public boolean isSynchronised() {
+        return synchronised;
+    }
+
+    /**
+     * Builds a one-line metrics report
+     *
+     * @return Metrics text
+     */
+    public String getMetricsReport() {
+        return String.format("replica synchronised=%s products=%d applied=%d primary=%d lagEvents=%d lagMillis=%d snapshots=%d",
+                synchronised, getProductCount(), appliedSequence, primarySequence,
+                getReplicationLagEvents(), getReplicationLagMillis(), snapshotsLoaded);
+    }
+
+    // ---------------------------------------------------------------
+    // Replication stream
+    // ---------------------------------------------------------------
+
+    // Connects, applies the stream, and reconnects after failures
+    private void readLoop() {
+        while (running) {
+            try (Socket s = new Socket(InetAddress.getByName(host), port)) {
+                socket = s;
+                DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+                applyStream(in);
+            } catch (IOException e) {
+                // Connection lost or refused: retry after a short pause
+            }
+            synchronised = false;
+            if (running) {
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Applies messages until the stream ends
+    private void applyStream(DataInputStream in) throws IOException {
+        while (running) {
+            byte type = in.readByte();
+            switch (type) {
+                case ReplicationProtocol.SNAPSHOT: {
+                    long sequence = in.readLong();
+                    int count = in.readInt();
+                    // Build the new copy off to the side, then swap it in whole
+                    SupermarketManager fresh = new SupermarketManager();
+                    for (int i = 0; i < count; i++) {
+                        fresh.restoreProduct(ReplicationProtocol.readSnapshotProduct(in));
+                    }
+                    manager = fresh;
+                    appliedSequence = sequence;
+                    primarySequence = Math.max(primarySequence, sequence);
+                    lastAppliedTimestamp = System.currentTimeMillis();
+                    snapshotsLoaded++;
+                    synchronised = true;
+                    break;
+                }
+                case ReplicationProtocol.CREATED: {
+                    long sequence = in.readLong();
+                    long timestamp = in.readLong();
+                    String id = in.readUTF();
+                    String name = in.readUTF();
+                    LocalDate entryDate = ReplicationProtocol.readDate(in);
+                    int historyDepth = in.readInt();
+                    Activity initial = ReplicationProtocol.readActivity(in);
+                    // Rebuild exactly as createProduct did: initial quantity, then the initial activity
+                    Product product = new Product(id, name, entryDate, initial.getActivityProductQuantity(),
+                            historyDepth);
+                    product.addActivity(initial);
+                    manager.restoreProduct(product);
+                    applied(sequence, timestamp);
+                    break;
+                }
+                case ReplicationProtocol.DELETED: {
+                    long sequence = in.readLong();
+                    long timestamp = in.readLong();
+                    manager.restoreDeletion(in.readUTF());
+                    applied(sequence, timestamp);
+                    break;
+                }
+                case ReplicationProtocol.ACTIVITY: {
+                    long sequence = in.readLong();
+                    long timestamp = in.readLong();
+                    String productId = in.readUTF();
+                    manager.restoreActivity(productId, ReplicationProtocol.readActivity(in));
+                    applied(sequence, timestamp);
+                    break;
+                }
+                case ReplicationProtocol.HEARTBEAT: {
+                    primarySequence = Math.max(primarySequence, in.readLong());
+                    in.readLong(); // Heartbeat timestamp is not needed
+                    break;
+                }
+                default:
+                    throw new IOException("Unknown replication message type: " + type);
+            }
+        }
+    }
+
+    // Records progress after one change has been applied
+    private void applied(long sequence, long primaryTimestamp) {
+        long now = System.currentTimeMillis();
+        appliedSequence = sequence;
+        primarySequence = Math.max(primarySequence, sequence);
+        lastApplyDelayMillis = Math.max(0, now - primaryTimestamp);
+        lastAppliedTimestamp = primaryTimestamp;
+    }
+
+    /**
+     * Runs a replica process that prints its replication metrics every few seconds
+     * Usage: java ReplicaSupermarket [primaryPort] [host]
+     *
+     * @param args Optional primary replication port (default 9090) and host (default localhost)
+     * @throws InterruptedException if interrupted while sleeping
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 9090;
+        String host = args.length > 1 ? args[1] : "localhost";
+        ReplicaSupermarket replica = new ReplicaSupermarket(host, port);
+        replica.start();
+        while (true) {
+            Thread.sleep(5_000);
+            System.out.println(replica.getMetricsReport());
+        }
+    }
+}
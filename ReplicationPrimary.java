@@ -0,0 +1,255 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Primary side of primary/replica log shipping
+ * Streams every change applied by a SupermarketManager to replica processes
+ * over a local TCP socket, so reporting queries can run in other JVMs
+ * instead of competing with checkouts.
+ *
+ * For each replica that connects:
+ * 1. A consistent snapshot of the catalog is taken and sent first
+ * 2. Every later change (create, delete, activity) follows in sequence order
+ * 3. Heartbeats carry the primary's latest sequence so the replica can
+ *    report how far behind it is
+ *
+ * Changes are queued per replica and sent by that replica's own thread, so
+ * a slow replica never slows the primary down. If a replica falls so far
+ * behind that its queue fills up, it is disconnected and resynchronises
+ * from a fresh snapshot when it reconnects.
+ *
+ * Disconnections and connection errors are reported to the manager's
+ * EventSink as REPLICATE events.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class ReplicationPrimary {
+
+    // Maximum number of queued messages per replica before it is dropped
+    private static final int MAX_QUEUED_MESSAGES = 100_000;
+
+    // How often heartbeats are sent
+    private static final long HEARTBEAT_MILLIS = 250;
+
+    // The manager whose changes are shipped
+    private final SupermarketManager manager;
+
+    // Listening socket (bound to the loopback address only)
+    private final ServerSocket serverSocket;
+
+    // Currently connected replicas
+    private final List<ReplicaSession> sessions = new CopyOnWriteArrayList<>();
+
+    // Sends heartbeats to every replica
+    private final ScheduledExecutorService heartbeats;
+
+    // Thread accepting new replica connections
+    private final Thread acceptor;
+
+    private volatile boolean running;
+
+    /**
+     * One connected replica: its socket, outgoing queue and sender thread
+     * The session is itself registered as a change listener on the manager.
+     */
+    private class ReplicaSession implements SupermarketChangeListener {
+        private final Socket socket;
+        private final BlockingQueue<byte[]> queue = new LinkedBlockingQueue<>(MAX_QUEUED_MESSAGES);
+        private volatile boolean open = true;
+
+        ReplicaSession(Socket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public void productCreated(long sequence, Product product, Activity initialActivity) {
+            offer(ReplicationProtocol.encodeCreated(sequence, System.currentTimeMillis(), product, initialActivity));
+        }
+
+        @Override
+        public void productDeleted(long sequence, String productId) {
+            offer(ReplicationProtocol.encodeDeleted(sequence, System.currentTimeMillis(), productId));
+        }
+
+        @Override
+        public void activityApplied(long sequence, String productId, Activity activity) {
+            offer(ReplicationProtocol.encodeActivity(sequence, System.currentTimeMillis(), productId, activity));
+        }
+
+        // Queues a message without ever blocking the primary
+        void offer(byte[] message) {
+            if (open && !queue.offer(message)) {
+                report(EventSink.Level.WARN, OperationOutcome.OVERLOADED, "Replication: replica "
+                        + socket.getRemoteSocketAddress() + " fell too far behind and was disconnected");
+                close();
+            }
+        }
+
+        // Sender loop: snapshot first, then queued changes in order
+        void run() {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+                // The consumer runs while no change can be applied, so the committed
+                // sequence is exactly the last change contained in the snapshot
+                byte[][] snapshot = new byte[1][];
+                manager.addChangeListener(this, products -> snapshot[0] =
+                        ReplicationProtocol.encodeSnapshot(manager.getCommittedSequence(), products));
+                out.write(snapshot[0]);
+                out.flush();
+
+                while (open) {
+                    byte[] message = queue.poll(HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (message == null) {
+                        continue;
+                    }
+                    out.write(message);
+                    // Send everything already queued before flushing, so bursts go out together
+                    while ((message = queue.poll()) != null) {
+                        out.write(message);
+                    }
+                    out.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                // Replica went away or primary is stopping; fall through to clean up
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            open = false;
+            manager.removeChangeListener(this);
+            sessions.remove(this);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+    }
+
+    /**
+     * Creates a primary for the given manager, listening on localhost
+     *
+     * @param manager Manager whose changes are shipped
+     * @param port TCP port for replicas, 0 to pick a free one
+     * @throws IOException if the port cannot be bound
+     */
+    public ReplicationPrimary(SupermarketManager manager, int port) throws IOException {
+        this.manager = manager;
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "replication-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        this.acceptor = new Thread(this::acceptLoop, "replication-acceptor");
+        this.acceptor.setDaemon(true);
+    }
+
+    /**
+     * Starts accepting replicas and sending heartbeats
+     */
+    public void start() {
+        running = true;
+        acceptor.start();
+        heartbeats.scheduleAtFixedRate(() -> {
+            byte[] heartbeat = ReplicationProtocol.encodeHeartbeat(manager.getCommittedSequence(),
+                    System.currentTimeMillis());
+            for (ReplicaSession session : sessions) {
+                session.offer(heartbeat);
+            }
+        }, HEARTBEAT_MILLIS, HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops accepting replicas and disconnects the connected ones
+     */
+    public void stop() {
+        running = false;
+        heartbeats.shutdownNow();
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+        for (ReplicaSession session : sessions) {
+            session.close();
+        }
+    }
+
+    /**
+     * @return Port replicas should connect to
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return Number of currently connected replicas
+     */
+    public int getReplicaCount() {
+        return sessions.size();
+    }
+
+    // Accepts replica connections and starts a sender thread for each
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                ReplicaSession session = new ReplicaSession(socket);
+                sessions.add(session);
+                Thread sender = new Thread(session::run, "replication-sender-" + socket.getPort());
+                sender.setDaemon(true);
+                sender.start();
+            } catch (IOException e) {
+                if (running) {
+                    report(EventSink.Level.ERROR, null, "Replication: accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Reports a replication event through the manager's sink, if it wants the level
+    private void report(EventSink.Level level, OperationOutcome outcome, String message) {
+        EventSink sink = manager.getEventSink();
+        if (sink.isEnabled(level)) {
+            sink.emit(new SupermarketEvent(level, SupermarketEvent.Operation.REPLICATE, outcome,
+                    null, null, null, 0, 0, message));
+        }
+    }
+
+    /**
+     * Runs a primary process: a manager with the HTTP API for writes and
+     * replication for replicas
+     * Usage: java ReplicationPrimary [replicationPort] [httpPort]
+     *
+     * @param args Optional replication port (default 9090) and HTTP port (default 8080)
+     * @throws IOException if a port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int replicationPort = args.length > 0 ? Integer.parseInt(args[0]) : 9090;
+        int httpPort = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+        SupermarketManager manager = new SupermarketManager();
+        ReplicationPrimary primary = new ReplicationPrimary(manager, replicationPort);
+        primary.start();
+        SupermarketHttpServer http = new SupermarketHttpServer(manager, "localhost", httpPort);
+        http.start();
+        System.out.println("Primary: replication on port " + primary.getPort()
+                + ", HTTP API on http://localhost:" + http.getPort());
+    }
+}
@@ -0,0 +1,187 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Wire format shared by ReplicationPrimary and ReplicaSupermarket
+ * Every message starts with a one-byte type followed by its fields, written
+ * with DataOutputStream so both sides agree on byte order and string format.
+ *
+ * Message types:
+ * - SNAPSHOT  : sequence, product count, then each product with its history
+ *               depth and history (ActivityCodec bytes, oldest first)
+ * - CREATED   : sequence, timestamp, product fields, history depth, initial activity
+ * - DELETED   : sequence, timestamp, product ID
+ * - ACTIVITY  : sequence, timestamp, product ID, activity
+ * - HEARTBEAT : primary's latest sequence, timestamp
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+final class ReplicationProtocol {
+
+    static final byte SNAPSHOT = 'S';
+    static final byte CREATED = 'C';
+    static final byte DELETED = 'D';
+    static final byte ACTIVITY = 'A';
+    static final byte HEARTBEAT = 'H';
+
+    // Marker for a missing date
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    /**
+     * Private constructor - static helpers only
+     */
+    private ReplicationProtocol() {
+    }
+
+    // ---------------------------------------------------------------
+    // Encoding (primary side)
+    // ---------------------------------------------------------------
+
+    /**
+     * Encodes a full catalog snapshot
+     * Must be called while the catalog cannot change (see SupermarketManager.addChangeListener).
+     *
+     * @param sequence Sequence of the last change included in the snapshot
+     * @param products Every product in the catalog
+     * @return Encoded message
+     */
+    static byte[] encodeSnapshot(long sequence, List<Product> products) {
+        return encode(out -> {
+            out.writeByte(SNAPSHOT);
+            out.writeLong(sequence);
+            out.writeInt(products.size());
+            for (Product product : products) {
+                out.writeUTF(product.getProductID());
+                out.writeUTF(product.getProductName());
+                writeDate(out, product.getProductEntryDate());
+                out.writeInt(product.getProductQuantity());
+                out.writeInt(product.getActivities().getMaxSize()); // The primary's depth may not be the default
+                // History is stored newest first; send it oldest first so the replica can replay it
+                List<Activity> history = new ArrayList<>(product.getActivities().getAllElements());
+                Collections.reverse(history);
+                byte[] encoded = ActivityCodec.encode(history);
+                out.writeInt(encoded.length);
+                out.write(encoded);
+            }
+        });
+    }
+
+    static byte[] encodeCreated(long sequence, long timestamp, Product product, Activity initialActivity) {
+        return encode(out -> {
+            out.writeByte(CREATED);
+            out.writeLong(sequence);
+            out.writeLong(timestamp);
+            out.writeUTF(product.getProductID());
+            out.writeUTF(product.getProductName());
+            writeDate(out, product.getProductEntryDate());
+            out.writeInt(product.getActivities().getMaxSize());
+            writeActivity(out, initialActivity);
+        });
+    }
+
+    static byte[] encodeDeleted(long sequence, long timestamp, String productId) {
+        return encode(out -> {
+            out.writeByte(DELETED);
+            out.writeLong(sequence);
+            out.writeLong(timestamp);
+            out.writeUTF(productId);
+        });
+    }
+
+    static byte[] encodeActivity(long sequence, long timestamp, String productId, Activity activity) {
+        return encode(out -> {
+            out.writeByte(ACTIVITY);
+            out.writeLong(sequence);
+            out.writeLong(timestamp);
+            out.writeUTF(productId);
+            writeActivity(out, activity);
+        });
+    }
+
+    static byte[] encodeHeartbeat(long sequence, long timestamp) {
+        return encode(out -> {
+            out.writeByte(HEARTBEAT);
+            out.writeLong(sequence);
+            out.writeLong(timestamp);
+        });
+    }
+
+    // ---------------------------------------------------------------
+    // Decoding helpers (replica side)
+    // ---------------------------------------------------------------
+
+    /**
+     * Reads one product of a snapshot, rebuilding its quantity and history exactly
+     *
+     * @param in Input positioned at a snapshot product
+     * @return Rebuilt product
+     * @throws IOException if the stream fails
+     */
+    static Product readSnapshotProduct(DataInputStream in) throws IOException {
+        String id = in.readUTF();
+        String name = in.readUTF();
+        LocalDate entryDate = readDate(in);
+        int quantity = in.readInt();
+        int historyDepth = in.readInt();
+        Product product = new Product(id, name, entryDate, quantity, historyDepth);
+        byte[] encoded = new byte[in.readInt()];
+        in.readFully(encoded);
+        for (Activity activity : ActivityCodec.decode(encoded)) {
+            // addFirst keeps newest first without touching the quantity already set
+            product.getActivities().addFirst(activity);
+        }
+        return product;
+    }
+
+    static Activity readActivity(DataInputStream in) throws IOException {
+        String id = in.readUTF();
+        String name = in.readUTF();
+        int quantity = in.readInt();
+        LocalDate date = readDate(in);
+        return new Activity(id, name, quantity, date);
+    }
+
+    static LocalDate readDate(DataInputStream in) throws IOException {
+        long epochDay = in.readLong();
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    // ---------------------------------------------------------------
+    // Shared helpers
+    // ---------------------------------------------------------------
+
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] encode(Writer writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Cannot happen for an in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    static void writeActivity(DataOutputStream out, Activity activity) throws IOException {
+        out.writeUTF(activity.getActivityID());
+        out.writeUTF(String.valueOf(activity.getActivityName()));
+        out.writeInt(activity.getActivityProductQuantity());
+        writeDate(out, activity.getActivityDate());
+    }
+
+    static void writeDate(DataOutputStream out, LocalDate date) throws IOException {
+        out.writeLong(date == null ? NO_DATE : date.toEpochDay());
+    }
+}
@@ -0,0 +1,145 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request latency metrics for the HTTP API
+ * Records how long each request takes, grouped by route (e.g. "GET /products/{id}").
+ *
+ * Recording is lock-free so that thousands of concurrent request threads can
+ * update the same route without waiting for each other:
+ * - LongAdder counters for request count, errors and total time
+ * - A power-of-two histogram of latencies (in microseconds) for percentiles
+ *
+ * Percentiles are estimated from the histogram, so they are accurate to
+ * within a factor of two, which is enough to spot latency problems. An
+ * estimate never exceeds the slowest request actually recorded.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class RequestMetrics {
+
+    // Number of histogram buckets: bucket i holds latencies below 2^i microseconds
+    private static final int BUCKETS = 40;
+
+    // Metrics for each route, created on first use
+    private final Map<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+
+    /**
+     * Latency statistics for a single route
+     */
+    private static class RouteMetrics {
+        final LongAdder count = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        final LongAdder[] histogram = new LongAdder[BUCKETS];
+
+        RouteMetrics() {
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+    }
+
+    /**
+     * Records one completed request
+     *
+     * @param route Route name, e.g. "GET /products"
+     * @param status HTTP status code returned
+     * @param elapsedNanos Time taken to handle the request in nanoseconds
+     */
+    public void record(String route, int status, long elapsedNanos) {
+        RouteMetrics m = routes.computeIfAbsent(route, r -> new RouteMetrics());
+        m.count.increment();
+        if (status >= 500) {
+            m.errors.increment(); // Only server errors count as errors
+        }
+        m.totalNanos.add(elapsedNanos);
+        m.maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+
+        // Bucket index = number of bits needed for the latency in microseconds
+        long micros = Math.max(0, elapsedNanos / 1_000);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        m.histogram[bucket].increment();
+    }
+
+    /**
+     * Returns the total number of requests recorded for a route
+     *
+     * @param route Route name
+     * @return Number of requests, 0 if the route was never called
+     */
+    public long getCount(String route) {
+        RouteMetrics m = routes.get(route);
+        return m == null ? 0 : m.count.sum();
+    }
+
+    /**
+     * Estimates a latency percentile for a route
+     *
+     * @param route Route name
+     * @param percentile Percentile between 0 and 100 (e.g. 99 for p99)
+     * @return Estimated latency in microseconds (upper bound of the bucket, at most the
+     *         maximum recorded), 0 if no data
+     */
+    public long getPercentileMicros(String route, double percentile) {
+        RouteMetrics m = routes.get(route);
+        return m == null ? 0 : percentile(m, percentile);
+    }
+
+    /**
+     * Builds a JSON report of all routes for the /metrics endpoint
+     *
+     * @return JSON object keyed by route name
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{");
+        boolean first = true;
+        for (Map.Entry<String, RouteMetrics> entry : routes.entrySet()) {
+            RouteMetrics m = entry.getValue();
+            long count = m.count.sum();
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append(JsonSupport.quote(entry.getKey())).append(":{")
+                    .append("\"count\":").append(count)
+                    .append(",\"errors\":").append(m.errors.sum())
+                    .append(",\"meanMicros\":").append(count == 0 ? 0 : m.totalNanos.sum() / count / 1_000)
+                    .append(",\"p50Micros\":").append(percentile(m, 50))
+                    .append(",\"p99Micros\":").append(percentile(m, 99))
+                    .append(",\"maxMicros\":").append(m.maxNanos.get() / 1_000)
+                    .append('}');
+        }
+        return sb.append('}').toString();
+    }
+
+    // Helper: walks the histogram until the requested share of requests is covered
+    private static long percentile(RouteMetrics m, double percentile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = m.histogram[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(total * percentile / 100.0);
+        long maxMicros = m.maxNanos.get() / 1_000;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                // Upper bound of bucket i in microseconds, but never above the slowest request
+                return Math.min(1L << i, maxMicros);
+            }
+        }
+        return maxMicros;
+    }
+}
@@ -0,0 +1,323 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Partitioned (sharded) version of SupermarketManager
+ * Splits the catalog into N shards by ProductID hash. Each shard is a
+ * complete SupermarketManager with its own product list, ID index and
+ * activity state, owned by one dedicated thread.
+ *
+ * Routing rules:
+ * - Single-product operations (create, delete, activity, lookup) run on the
+ *   thread of the shard that owns the product. That thread is the only one
+ *   touching its shard, so it applies changes without any locking and no
+ *   shard ever waits for another one.
+ * - Catalog-wide operations (listing, counts, stock totals) fan out to every
+ *   shard in parallel and merge the partial results.
+ *
+ * Because shards share nothing, throughput grows with the number of cores
+ * as long as traffic is spread over many products.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class ShardedSupermarketManager {
+
+    // One manager per shard, each used only by its own thread
+    private final SupermarketManager[] shards;
+
+    // One single-threaded executor per shard
+    private final ExecutorService[] executors;
+
+    /**
+     * Creates a sharded manager with the given number of shards
+     *
+     * @param shardCount Number of shards (typically the number of cores)
+     * @throws IllegalArgumentException if shardCount is not positive
+     */
+    public ShardedSupermarketManager(int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        this.shards = new SupermarketManager[shardCount];
+        this.executors = new ExecutorService[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            final int shardNumber = i;
+            shards[i] = new SupermarketManager();
+            executors[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "supermarket-shard-" + shardNumber);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /**
+     * Returns the number of shards
+     *
+     * @return Shard count
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Sets the event sink on every shard (see SupermarketManager.setEventSink)
+     * The sink is shared, so it must be thread-safe.
+     *
+     * @param eventSink New event sink
+     */
+    public void setEventSink(EventSink eventSink) {
+        for (SupermarketManager shard : shards) {
+            shard.setEventSink(eventSink);
+        }
+    }
+
+    /**
+     * Returns the shard number that owns a product ID
+     *
+     * @param ProductID Product identifier
+     * @return Shard number between 0 and getShardCount() - 1
+     */
+    public int shardFor(String ProductID) {
+        // Spread the hash so similar IDs (P001, P002...) land on different shards
+        int h = ProductID == null ? 0 : ProductID.hashCode();
+        h ^= (h >>> 16);
+        return Math.floorMod(h, shards.length);
+    }
+
+    // ---------------------------------------------------------------
+    // Single-product operations (routed to the owning shard)
+    // ---------------------------------------------------------------
+
+    /**
+     * Creates a product on its owning shard (see SupermarketManager.createProduct)
+     *
+     * @param ProductID Unique product identifier
+     * @param ProductName Name of the product
+     * @param ProductEntryDate Date when product was added
+     * @param initialProductQuantity Starting stock quantity
+     * @return true if product created successfully, false otherwise
+     */
+    public boolean createProduct(String ProductID, String ProductName, LocalDate ProductEntryDate,
+            int initialProductQuantity) {
+        return onShard(ProductID, m -> m.createProductUnlocked(ProductID, ProductName,
+                ProductEntryDate, initialProductQuantity).isSuccess()).join();
+    }
+
+    /**
+     * Deletes a product from its owning shard
+     *
+     * @param ProductID ID of the product to delete
+     * @return true if product deleted successfully, false otherwise
+     */
+    public boolean deleteProduct(String ProductID) {
+        return onShard(ProductID, m -> m.deleteProductUnlocked(ProductID).isSuccess()).join();
+    }
+
+    /**
+     * Applies an activity on the owning shard and waits for the result
+     *
+     * @param ProductID ID of the product to update
+     * @param activityName Type of activity (AddToStock/RemoveFromStock)
+     * @param ProductQuantity Number of items to add/remove
+     * @param activityDate Date of the activity
+     * @return true if activity added successfully, false otherwise
+     */
+    public boolean addActivityToProduct(String ProductID, String activityName, int ProductQuantity,
+            LocalDate activityDate) {
+        return addActivityToProductAsync(ProductID, activityName, ProductQuantity, activityDate).join();
+    }
+
+    /**
+     * Applies an activity on the owning shard without waiting
+     * Lets one caller keep many shards busy at the same time.
+     *
+     * @param ProductID ID of the product to update
+     * @param activityName Type of activity (AddToStock/RemoveFromStock)
+     * @param ProductQuantity Number of items to add/remove
+     * @param activityDate Date of the activity
+     * @return Future completing with true if the activity was added
+     */
+    public CompletableFuture<Boolean> addActivityToProductAsync(String ProductID, String activityName,
+            int ProductQuantity, LocalDate activityDate) {
+        return onShard(ProductID, m -> m.addActivityUnlocked(ProductID, activityName,
+                ProductQuantity, activityDate).isSuccess());
+    }
+
+    /**
+     * Retrieves a product from its owning shard
+     *
+     * @param ProductID ID of the product
+     * @return Product if found, null otherwise
+     */
+    public Product getProduct(String ProductID) {
+        return onShard(ProductID, m -> m.getProduct(ProductID)).join();
+    }
+
+    /**
+     * Displays a product's sorted activities (printed by the owning shard's thread)
+     *
+     * @param ProductID ID of the product
+     */
+    public void displayProductActivities(String ProductID) {
+        onShard(ProductID, m -> {
+            m.displayProductActivities(ProductID);
+            return null;
+        }).join();
+    }
+
+    // ---------------------------------------------------------------
+    // Catalog-wide operations (fan out to every shard, then merge)
+    // ---------------------------------------------------------------
+
+    /**
+     * Returns every product from every shard
+     * Products are grouped by shard; within a shard they keep insertion order.
+     *
+     * @return New list containing all products
+     */
+    public List<Product> getAllProducts() {
+        List<Product> all = new ArrayList<>();
+        for (List<Product> part : fanOut(SupermarketManager::getAllProducts)) {
+            all.addAll(part);
+        }
+        return all;
+    }
+
+    /**
+     * Returns the total number of products across all shards
+     *
+     * @return Product count
+     */
+    public int getProductCount() {
+        int total = 0;
+        for (Integer count : fanOut(SupermarketManager::getProductCount)) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Returns a projection of the products matching a query across all shards
+     * Each shard plans and runs the query on its own products in parallel;
+     * the results are joined in shard order and cut to the query's limit.
+     *
+     * @param <R> Type returned for each match
+     * @param query Condition and limit
+     * @param projection What to return for each match
+     * @return One projected value per match
+     */
+    public <R> List<R> query(ProductQuery query, Function<? super Product, ? extends R> projection) {
+        List<R> result = new ArrayList<>();
+        for (List<R> part : fanOut(m -> m.<R>query(query, projection))) {
+            for (R value : part) {
+                if (result.size() == query.getLimit()) {
+                    return result;
+                }
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the total stock quantity of all products across all shards
+     * Each shard sums its own products in parallel, then the sums are added.
+     *
+     * @return Total number of items in stock
+     */
+    public long getTotalStockQuantity() {
+        long total = 0;
+        for (Long shardTotal : fanOut(m -> {
+            long sum = 0;
+            for (Product product : m.getAllProducts()) {
+                sum += product.getProductQuantity();
+            }
+            return sum;
+        })) {
+            total += shardTotal;
+        }
+        return total;
+    }
+
+    /**
+     * Displays all products from all shards in one table
+     * Uses the same layout as SupermarketManager.displayAllProducts
+     */
+    public void displayAllProducts() {
+        List<Product> products = getAllProducts();
+        if (products.isEmpty()) {
+            System.out.println("No products available in the system.");
+            return;
+        }
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("ALL PRODUCTS IN SYSTEM (" + shards.length + " shards)");
+        System.out.println("=".repeat(80));
+        System.out.printf("%-12s %-20s %-15s %-10s %n", "Product ID", "Product Name", "Product Entry Date", "Product Quantity");
+        System.out.println("-".repeat(80));
+        for (Product product : products) {
+            System.out.printf("%-12s %-20s %-15s %-10d%n",
+                    product.getProductID(),
+                    product.getProductName(),
+                    product.getProductEntryDate(),
+                    product.getProductQuantity());
+        }
+        System.out.println("=".repeat(80));
+        System.out.println("Total products:" + products.size());
+    }
+
+    /**
+     * Stops all shard threads after their queued work has finished
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void shutdown() throws InterruptedException {
+        for (ExecutorService executor : executors) {
+            executor.shutdown();
+        }
+        for (ExecutorService executor : executors) {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Helpers
+    // ---------------------------------------------------------------
+
+    // Runs a task on the thread of the shard owning the product
+    private <T> CompletableFuture<T> onShard(String ProductID, Function<SupermarketManager, T> task) {
+        int shard = shardFor(ProductID);
+        return CompletableFuture.supplyAsync(() -> task.apply(shards[shard]), executors[shard]);
+    }
+
+    // Runs a task on every shard at once and collects the results in shard order
+    private <T> List<T> fanOut(Function<SupermarketManager, T> task) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            final SupermarketManager shard = shards[i];
+            futures.add(CompletableFuture.supplyAsync(() -> task.apply(shard), executors[i]));
+        }
+        List<T> results = new ArrayList<>(shards.length);
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shards", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Shard task failed", e.getCause());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,428 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Single-writer execution mode for a SupermarketManager
+ * All mutations are placed on a pre-allocated ring buffer and applied by one
+ * writer thread, in the style of the LMAX Disruptor. Because only the writer
+ * thread ever touches the manager, it applies events without taking any locks,
+ * so hot products no longer make checkout threads fight over the same lock.
+ *
+ * How it works:
+ * 1. A producer claims the next sequence number with one atomic increment
+ * 2. It fills the pre-allocated slot for that sequence and publishes it
+ * 3. The writer thread picks up every slot published so far as one batch
+ *    and applies the events in sequence order
+ * 4. Each producer gets a CompletableFuture that completes with the result
+ *
+ * Rules of use:
+ * - Once the pipeline is started, the manager must only be used through it.
+ *   Reads go through query() so they also run on the writer thread.
+ * - Producers block (spin, then park) when the ring is full
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class SingleWriterPipeline {
+
+    // Kinds of events that can be placed on the ring
+    private static final int CREATE_PRODUCT = 1;
+    private static final int DELETE_PRODUCT = 2;
+    private static final int ADD_ACTIVITY = 3;
+    private static final int QUERY = 4;
+
+    /**
+     * A pre-allocated ring buffer slot
+     * Slots are reused for every lap around the ring, so producers only write
+     * fields into them and never allocate a new event object.
+     */
+    private static class Slot {
+        int kind;
+        String productId;
+        String productName;
+        String activityName;
+        int quantity;
+        LocalDate date;
+        Function<SupermarketManager, ?> query;
+        CompletableFuture<Object> future;
+
+        // Clears references so finished events can be garbage collected
+        void clear() {
+            productId = null;
+            productName = null;
+            activityName = null;
+            date = null;
+            query = null;
+            future = null;
+        }
+    }
+
+    /**
+     * One activity in a batch submission (see submitActivities)
+     */
+    public static class ActivityCommand {
+        private final String productId;
+        private final String activityName;
+        private final int quantity;
+        private final LocalDate activityDate;
+
+        /**
+         * @param productId ID of the product to update
+         * @param activityName AddToStock or RemoveFromStock
+         * @param quantity Number of items added or removed
+         * @param activityDate Date of the activity
+         */
+        public ActivityCommand(String productId, String activityName, int quantity, LocalDate activityDate) {
+            this.productId = productId;
+            this.activityName = activityName;
+            this.quantity = quantity;
+            this.activityDate = activityDate;
+        }
+    }
+
+    // The manager owned by the writer thread
+    private final SupermarketManager manager;
+
+    // Ring of pre-allocated slots; size is a power of two so index = sequence & mask
+    private final Slot[] ring;
+    private final int mask;
+
+    // published[i] holds the sequence currently published in slot i (-1 = never)
+    private final AtomicLongArray published;
+
+    // Next sequence a producer will claim, with the CLOSED bit set by shutdown
+    // Claims and closing go through this one counter, so once it is closed no
+    // claim can succeed and the writer knows exactly how far to drain
+    private final AtomicLong claimSequence = new AtomicLong(0);
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    // Highest sequence the writer has finished with; producers wait on it when the ring is full
+    private volatile long consumedSequence = -1;
+
+    // Writer thread and its running flag
+    private final Thread writer;
+    private volatile boolean running;
+
+    // Statistics about batching
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong eventCount = new AtomicLong();
+    private volatile int largestBatch;
+
+    /**
+     * Creates a pipeline for the given manager (not started yet)
+     *
+     * @param manager Manager the writer thread will own
+     * @param capacity Number of ring slots, rounded up to a power of two
+     * @throws IllegalArgumentException if capacity is not positive
+     */
+    public SingleWriterPipeline(SupermarketManager manager, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1; // Round up to the next power of two
+        }
+        this.manager = manager;
+        this.ring = new Slot[size];
+        this.mask = size - 1;
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            ring[i] = new Slot(); // Pre-allocate every slot up front
+            published.set(i, -1);
+        }
+        this.writer = new Thread(this::writerLoop, "supermarket-single-writer");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Starts the writer thread
+     */
+    public void start() {
+        running = true;
+        writer.start();
+    }
+
+    /**
+     * Stops the pipeline after every event published so far has been applied
+     * An event claimed before the shutdown is still applied; submissions
+     * after it fail with IllegalStateException.
+     *
+     * @throws InterruptedException if interrupted while waiting for the writer
+     */
+    public void shutdown() throws InterruptedException {
+        running = false;
+        claimSequence.getAndUpdate(sequence -> sequence | CLOSED);
+        LockSupport.unpark(writer);
+        writer.join();
+    }
+
+    // ---------------------------------------------------------------
+    // Producer API
+    // ---------------------------------------------------------------
+
+    /**
+     * Queues a product creation
+     *
+     * @param productId Unique product identifier
+     * @param productName Name of the product
+     * @param entryDate Date when product was added
+     * @param initialQuantity Starting stock quantity
+     * @return Future completing with true if the product was created
+     */
+    public CompletableFuture<Boolean> createProduct(String productId, String productName,
+            LocalDate entryDate, int initialQuantity) {
+        long seq = claim(1);
+        Slot slot = ring[(int) seq & mask];
+        slot.kind = CREATE_PRODUCT;
+        slot.productId = productId;
+        slot.productName = productName;
+        slot.date = entryDate;
+        slot.quantity = initialQuantity;
+        return publishBoolean(seq, slot);
+    }
+
+    /**
+     * Queues a product deletion
+     *
+     * @param productId ID of the product to delete
+     * @return Future completing with true if the product was deleted
+     */
+    public CompletableFuture<Boolean> deleteProduct(String productId) {
+        long seq = claim(1);
+        Slot slot = ring[(int) seq & mask];
+        slot.kind = DELETE_PRODUCT;
+        slot.productId = productId;
+        return publishBoolean(seq, slot);
+    }
+
+    /**
+     * Queues an activity (AddToStock or RemoveFromStock)
+     *
+     * @param productId ID of the product to update
+     * @param activityName Type of activity
+     * @param quantity Number of items to add/remove
+     * @param activityDate Date of the activity
+     * @return Future completing with true if the activity was applied
+     */
+    public CompletableFuture<Boolean> addActivity(String productId, String activityName,
+            int quantity, LocalDate activityDate) {
+        long seq = claim(1);
+        fillActivity(ring[(int) seq & mask], productId, activityName, quantity, activityDate);
+        return publishBoolean(seq, ring[(int) seq & mask]);
+    }
+
+    /**
+     * Queues several activities as one block of consecutive ring slots
+     * The whole block is claimed with a single atomic operation and is applied
+     * by the writer back to back, normally inside one batch.
+     *
+     * @param commands Activities to apply, in order (at most the ring capacity)
+     * @return One future per command, in the same order
+     * @throws IllegalArgumentException if there are more commands than ring slots
+     */
+    public List<CompletableFuture<Boolean>> submitActivities(List<ActivityCommand> commands) {
+        int n = commands.size();
+        if (n > ring.length) {
+            throw new IllegalArgumentException("Batch of " + n + " exceeds ring capacity " + ring.length);
+        }
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>(n);
+        if (n == 0) {
+            return futures;
+        }
+        long first = claim(n);
+        for (int i = 0; i < n; i++) {
+            ActivityCommand c = commands.get(i);
+            Slot slot = ring[(int) (first + i) & mask];
+            fillActivity(slot, c.productId, c.activityName, c.quantity, c.activityDate);
+            futures.add(publishBoolean(first + i, slot));
+        }
+        return futures;
+    }
+
+    /**
+     * Runs a read-only query on the writer thread
+     * This is how reports see a consistent view of the manager in this mode.
+     *
+     * @param <T> Result type
+     * @param query Function reading from the manager
+     * @return Future completing with the query's result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> query(Function<SupermarketManager, T> query) {
+        long seq = claim(1);
+        Slot slot = ring[(int) seq & mask];
+        slot.kind = QUERY;
+        slot.query = query;
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        slot.future = future;
+        published.set((int) seq & mask, seq);
+        return (CompletableFuture<T>) (CompletableFuture<?>) future;
+    }
+
+    // ---------------------------------------------------------------
+    // Statistics
+    // ---------------------------------------------------------------
+
+    /**
+     * @return Number of batches the writer has applied
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * @return Number of events the writer has applied
+     */
+    public long getEventCount() {
+        return eventCount.get();
+    }
+
+    /**
+     * @return Largest number of events applied in one batch
+     */
+    public int getLargestBatch() {
+        return largestBatch;
+    }
+
+    // ---------------------------------------------------------------
+    // Ring buffer internals
+    // ---------------------------------------------------------------
+
+    /**
+     * Claims n consecutive sequences, waiting while the ring is full
+     *
+     * @param n Number of slots to claim
+     * @return First claimed sequence
+     * @throws IllegalStateException if the pipeline is not started or is shut down
+     */
+    private long claim(int n) {
+        long first;
+        do {
+            first = claimSequence.get();
+            if (!running || (first & CLOSED) != 0) {
+                throw new IllegalStateException("Pipeline is not running");
+            }
+        } while (!claimSequence.compareAndSet(first, first + n)); // Fails once shutdown has closed it
+        long last = first + n - 1;
+        // Wait until the writer has freed the slots from the previous lap
+        int spins = 0;
+        while (last - ring.length > consumedSequence) {
+            if (++spins < 100) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(1_000);
+            }
+        }
+        return first;
+    }
+
+    // Helper: fills a slot with an activity event
+    private static void fillActivity(Slot slot, String productId, String activityName,
+            int quantity, LocalDate activityDate) {
+        slot.kind = ADD_ACTIVITY;
+        slot.productId = productId;
+        slot.activityName = activityName;
+        slot.quantity = quantity;
+        slot.date = activityDate;
+    }
+
+    // Helper: attaches a future and makes the slot visible to the writer
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<Boolean> publishBoolean(long seq, Slot slot) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        slot.future = future;
+        // Volatile write: everything written to the slot above becomes visible to the writer
+        published.set((int) seq & mask, seq);
+        return (CompletableFuture<Boolean>) (CompletableFuture<?>) future;
+    }
+
+    /**
+     * Writer thread: applies published events in sequence order, one batch at a time
+     */
+    private void writerLoop() {
+        long next = 0;
+        int idleSpins = 0;
+        while (true) {
+            // Find the end of the run of consecutively published slots
+            long end = next;
+            while (end - next < ring.length && published.get((int) end & mask) == end) {
+                end++;
+            }
+
+            if (end == next) {
+                // Nothing published; stop if shut down and every claimed slot was applied
+                if (claimSequence.get() == (next | CLOSED)) {
+                    return;
+                }
+                if (++idleSpins < 100) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(50_000);
+                }
+                continue;
+            }
+            idleSpins = 0;
+
+            // Apply the batch [next, end) without any locks
+            for (long seq = next; seq < end; seq++) {
+                apply(ring[(int) seq & mask]);
+            }
+
+            int size = (int) (end - next);
+            batchCount.incrementAndGet();
+            eventCount.addAndGet(size);
+            if (size > largestBatch) {
+                largestBatch = size;
+            }
+
+            // Release the whole batch of slots back to producers at once
+            consumedSequence = end - 1;
+            next = end;
+        }
+    }
+
+    /**
+     * Applies one event to the manager and completes its future
+     *
+     * @param slot Slot holding the event
+     */
+    private void apply(Slot slot) {
+        CompletableFuture<Object> future = slot.future;
+        try {
+            Object result;
+            switch (slot.kind) {
+                case CREATE_PRODUCT:
+                    result = manager.createProductUnlocked(slot.productId, slot.productName,
+                            slot.date, slot.quantity).isSuccess();
+                    break;
+                case DELETE_PRODUCT:
+                    result = manager.deleteProductUnlocked(slot.productId).isSuccess();
+                    break;
+                case ADD_ACTIVITY:
+                    result = manager.addActivityUnlocked(slot.productId, slot.activityName,
+                            slot.quantity, slot.date).isSuccess();
+                    break;
+                case QUERY:
+                    result = slot.query.apply(manager);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown event kind " + slot.kind);
+            }
+            slot.clear();
+            future.complete(result);
+        } catch (RuntimeException e) {
+            // A failing event must not stop the writer thread
+            slot.clear();
+            future.completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Catalog-wide index of remaining stock by the date it was received
+ * Products report every lot they open and every item taken from a lot, so
+ * "how much stock is older than N days" is answered from one small sorted
+ * map (one entry per delivery date) instead of visiting every product.
+ *
+ * Products on different stripes update it at the same time, so it uses a
+ * concurrent sorted map with a LongAdder per date.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+final class StockAgeIndex {
+
+    // Received date -> items from that date still in stock
+    private final ConcurrentSkipListMap<LocalDate, LongAdder> remainingByDate = new ConcurrentSkipListMap<>();
+
+    /**
+     * Records stock received on a date
+     *
+     * @param receivedDate Date the stock arrived
+     * @param quantity Number of items
+     */
+    void added(LocalDate receivedDate, int quantity) {
+        remainingByDate.computeIfAbsent(receivedDate, date -> new LongAdder()).add(quantity);
+    }
+
+    /**
+     * Records stock from a date leaving the shelf
+     *
+     * @param receivedDate Date the stock arrived
+     * @param quantity Number of items
+     */
+    void removed(LocalDate receivedDate, int quantity) {
+        remainingByDate.computeIfAbsent(receivedDate, date -> new LongAdder()).add(-quantity);
+    }
+
+    /**
+     * Returns the stock received before a date
+     * Runs in O(log d + dates before the cutoff), d being the number of delivery dates.
+     *
+     * @param cutoff First date that does not count
+     * @return Number of items still in stock that arrived before the cutoff
+     */
+    long quantityReceivedBefore(LocalDate cutoff) {
+        long total = 0;
+        for (LongAdder remaining : remainingByDate.headMap(cutoff, false).values()) {
+            total += remaining.sum();
+        }
+        return total;
+    }
+
+    /**
+     * @return Number of items in stock over all dates
+     */
+    long totalQuantity() {
+        long total = 0;
+        for (LongAdder remaining : remainingByDate.values()) {
+            total += remaining.sum();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,81 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A set of stock movements to apply all-or-nothing
+ * Built up line by line (for example one checkout basket) and handed to
+ * SupermarketManager.applyBasket. Either every line is applied or none is.
+ *
+ * Example:
+ *   StockBasket basket = new StockBasket().remove("P001", 2).remove("P002", 1);
+ *   BasketResult result = manager.applyBasket(basket, LocalDate.now());
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class StockBasket {
+
+    /**
+     * One movement of the basket
+     */
+    public static final class Line {
+        private final String productId;
+        private final String activityName;
+        private final int quantity;
+
+        Line(String productId, String activityName, int quantity) {
+            this.productId = productId;
+            this.activityName = activityName;
+            this.quantity = quantity;
+        }
+
+        public String getProductId() { return productId; }
+
+        public String getActivityName() { return activityName; }
+
+        public int getQuantity() { return quantity; }
+    }
+
+    private final List<Line> lines = new ArrayList<>();
+
+    /**
+     * Adds an AddToStock line
+     *
+     * @param ProductID Product to add stock to
+     * @param ProductQuantity Number of items
+     * @return This basket, for chaining
+     */
+    public StockBasket add(String ProductID, int ProductQuantity) {
+        lines.add(new Line(ProductID, "AddToStock", ProductQuantity));
+        return this;
+    }
+
+    /**
+     * Adds a RemoveFromStock line
+     *
+     * @param ProductID Product to remove stock from
+     * @param ProductQuantity Number of items
+     * @return This basket, for chaining
+     */
+    public StockBasket remove(String ProductID, int ProductQuantity) {
+        lines.add(new Line(ProductID, "RemoveFromStock", ProductQuantity));
+        return this;
+    }
+
+    /**
+     * @return The lines, in the order they were added
+     */
+    public List<Line> getLines() {
+        return Collections.unmodifiableList(lines);
+    }
+
+    /**
+     * @return Number of lines
+     */
+    public int size() {
+        return lines.size();
+    }
+}
@@ -0,0 +1,92 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+
+/**
+ * One delivery of a product that still has stock left
+ * Every AddToStock activity creates a lot; RemoveFromStock activities take
+ * stock from the oldest lots first (FIFO), so each lot tells how much of that
+ * delivery is still on the shelf.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class StockLot {
+
+    /**
+     * Orders lots oldest first; lots received the same day keep their arrival order
+     */
+    static final Comparator<StockLot> OLDEST_FIRST =
+            Comparator.comparing((StockLot lot) -> lot.receivedDate).thenComparingLong(lot -> lot.sequence);
+
+    private final String sourceActivityId;
+    private final LocalDate receivedDate;
+    private final int receivedQuantity;
+    private final long sequence;
+    private int remainingQuantity;
+
+    /**
+     * Creates a lot (see Product.addActivity)
+     *
+     * @param sourceActivityId ID of the AddToStock activity, or null for the initial stock
+     * @param receivedDate Date the stock arrived
+     * @param receivedQuantity Number of items delivered
+     * @param sequence Arrival order within the product
+     */
+    StockLot(String sourceActivityId, LocalDate receivedDate, int receivedQuantity, long sequence) {
+        this.sourceActivityId = sourceActivityId;
+        this.receivedDate = receivedDate;
+        this.receivedQuantity = receivedQuantity;
+        this.remainingQuantity = receivedQuantity;
+        this.sequence = sequence;
+    }
+
+    /**
+     * @return ID of the AddToStock activity that delivered this lot (null for initial stock)
+     */
+    public String getSourceActivityId() {
+        return sourceActivityId;
+    }
+
+    /**
+     * @return Date the stock arrived
+     */
+    public LocalDate getReceivedDate() {
+        return receivedDate;
+    }
+
+    /**
+     * @return Number of items originally delivered
+     */
+    public int getReceivedQuantity() {
+        return receivedQuantity;
+    }
+
+    /**
+     * @return Number of items of this delivery still in stock
+     */
+    public int getRemainingQuantity() {
+        return remainingQuantity;
+    }
+
+    // Takes up to quantity items from the lot and returns how many were taken
+    int take(int quantity) {
+        int taken = Math.min(quantity, remainingQuantity);
+        remainingQuantity -= taken;
+        return taken;
+    }
+
+    // Copy for callers, so they never see later consumption
+    StockLot copy() {
+        StockLot copy = new StockLot(sourceActivityId, receivedDate, receivedQuantity, sequence);
+        copy.remainingQuantity = remainingQuantity;
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return "Lot " + receivedDate + ": " + remainingQuantity + "/" + receivedQuantity
+                + (sourceActivityId == null ? " (initial stock)" : " from " + sourceActivityId);
+    }
+}
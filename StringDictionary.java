@@ -0,0 +1,111 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.util.Arrays;
+
+/**
+ * Dictionary encoding for strings
+ * Gives every distinct string a small int code (0, 1, 2...) so that columns
+ * can store ints instead of String references. Repeated values such as
+ * product names are stored only once.
+ *
+ * Implementation: open addressing with linear probing. The table holds
+ * code + 1 (0 means empty slot) and the strings live in one array indexed by
+ * code, so there are no per-entry node or Integer objects.
+ *
+ * Codes are never removed or reused. Not thread-safe; the owner must lock.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+final class StringDictionary {
+
+    // Table is grown when it is more than half full, keeping probe runs short
+    private static final int MIN_TABLE_SIZE = 16;
+
+    private String[] values;
+    private int[] table;
+    private int size;
+
+    /**
+     * Creates a dictionary sized for the expected number of distinct strings
+     *
+     * @param expectedSize Expected number of distinct strings
+     */
+    StringDictionary(int expectedSize) {
+        int capacity = MIN_TABLE_SIZE;
+        while (capacity < 2L * expectedSize) {
+            capacity <<= 1;
+        }
+        this.table = new int[capacity];
+        this.values = new String[Math.max(MIN_TABLE_SIZE, expectedSize)];
+    }
+
+    /**
+     * Returns the code for a string, adding it if it is new
+     *
+     * @param value String to encode (not null)
+     * @return Its code
+     */
+    int encode(String value) {
+        int slot = find(value);
+        if (table[slot] != 0) {
+            return table[slot] - 1;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length + (values.length >> 1) + 1);
+        }
+        int code = size++;
+        values[code] = value;
+        table[slot] = code + 1;
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return code;
+    }
+
+    /**
+     * Returns the code for a string without adding it
+     *
+     * @param value String to look up
+     * @return Its code, or -1 if the string was never encoded
+     */
+    int lookup(String value) {
+        if (value == null) {
+            return -1;
+        }
+        return table[find(value)] - 1;
+    }
+
+    /**
+     * @param code Code returned by encode
+     * @return The string with that code
+     */
+    String decode(int code) {
+        return values[code];
+    }
+
+    /**
+     * @return Number of distinct strings
+     */
+    int size() {
+        return size;
+    }
+
+    // Finds the slot holding value, or the empty slot where it would go
+    private int find(String value) {
+        int mask = table.length - 1;
+        int h = value.hashCode();
+        int slot = (h ^ (h >>> 16)) & mask;
+        while (table[slot] != 0 && !values[table[slot] - 1].equals(value)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int newLength) {
+        table = new int[newLength];
+        for (int code = 0; code < size; code++) {
+            table[find(values[code])] = code + 1;
+        }
+    }
+}
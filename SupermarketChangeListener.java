@@ -0,0 +1,43 @@
+package com.mycompany.supermarketmanagementsystem;
+
+/**
+ * Listener notified of every change applied by a SupermarketManager
+ * Used by features that need to follow the catalog as it changes, such as
+ * replication to other processes.
+ *
+ * Every change gets a sequence number from one global counter, and listeners
+ * are called in sequence order, one change at a time. Calls happen while the
+ * changed product is still locked, so listeners must be quick: they should
+ * copy what they need and hand it to another thread rather than do I/O.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public interface SupermarketChangeListener {
+
+    /**
+     * Called after a product has been created and its initial activity applied
+     *
+     * @param sequence Sequence number of this change
+     * @param product The new product
+     * @param initialActivity The AddToStock activity recording the initial quantity
+     */
+    void productCreated(long sequence, Product product, Activity initialActivity);
+
+    /**
+     * Called after a product has been deleted
+     *
+     * @param sequence Sequence number of this change
+     * @param productId ID of the deleted product
+     */
+    void productDeleted(long sequence, String productId);
+
+    /**
+     * Called after an activity has been applied to a product
+     *
+     * @param sequence Sequence number of this change
+     * @param productId ID of the product the activity was applied to
+     * @param activity The applied activity
+     */
+    void activityApplied(long sequence, String productId, Activity activity);
+}
@@ -0,0 +1,119 @@
+package com.mycompany.supermarketmanagementsystem;
+
+/**
+ * One event reported by SupermarketManager to its EventSink
+ * Holds the raw facts of an operation (what, which product, how many, the
+ * outcome). The human-readable message is only built when a sink asks for
+ * it through toMessage(), so the manager itself never formats text.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class SupermarketEvent {
+
+    /**
+     * Operation that produced the event
+     */
+    public enum Operation {
+        CREATE_PRODUCT, DELETE_PRODUCT, ADD_ACTIVITY,
+        // Replication to replicas (see ReplicationPrimary); always carries a detail message
+        REPLICATE,
+        // Writes to the activity journal (see ActivityJournal); always carries a detail message
+        JOURNAL
+    }
+
+    private final EventSink.Level level;
+    private final Operation operation;
+    private final OperationOutcome outcome;
+    private final String productId;
+    private final String productName;
+    private final String activityName;
+    private final int quantity;
+    private final int stockQuantity;
+    private final String detail;
+
+    /**
+     * Creates an event
+     *
+     * @param level Importance of the event
+     * @param operation Operation performed
+     * @param outcome Result of the operation (null if the event is not about one)
+     * @param productId Product involved (may be null)
+     * @param productName Product name, if known
+     * @param activityName Activity type for ADD_ACTIVITY events
+     * @param quantity Quantity requested by the operation
+     * @param stockQuantity Stock level after the operation (or available stock when rejected)
+     * @param detail Fixed message for INVALID_INPUT, REPLICATE and JOURNAL, otherwise null
+     */
+    public SupermarketEvent(EventSink.Level level, Operation operation, OperationOutcome outcome,
+            String productId, String productName, String activityName, int quantity,
+            int stockQuantity, String detail) {
+        this.level = level;
+        this.operation = operation;
+        this.outcome = outcome;
+        this.productId = productId;
+        this.productName = productName;
+        this.activityName = activityName;
+        this.quantity = quantity;
+        this.stockQuantity = stockQuantity;
+        this.detail = detail;
+    }
+
+    public EventSink.Level getLevel() { return level; }
+
+    public Operation getOperation() { return operation; }
+
+    public OperationOutcome getOutcome() { return outcome; }
+
+    public String getProductId() { return productId; }
+
+    public String getProductName() { return productName; }
+
+    public String getActivityName() { return activityName; }
+
+    public int getQuantity() { return quantity; }
+
+    public int getStockQuantity() { return stockQuantity; }
+
+    /**
+     * Builds the console message for this event
+     * The wording matches what the manager used to print directly.
+     *
+     * @return Message text (may span two lines for successful activities)
+     */
+    public String toMessage() {
+        if (detail != null) {
+            return detail; // Validation messages are fixed strings
+        }
+        switch (operation) {
+            case CREATE_PRODUCT:
+                return outcome == OperationOutcome.SUCCESS
+                        ? "Product created successfully: " + productName
+                        : "Error: Productwith ID" + productId + "already exists!";
+            case DELETE_PRODUCT:
+                return outcome == OperationOutcome.SUCCESS
+                        ? "Product deleted successfully:" + productName
+                        : "Error: Product with ID '" + productId + "' not found!";
+            case ADD_ACTIVITY:
+                if (outcome == OperationOutcome.SUCCESS) {
+                    return "Activity added successfully:" + activityName + " " + quantity + "items"
+                            + System.lineSeparator()
+                            + "Updated quantity for " + productName + " : " + stockQuantity;
+                }
+                if (outcome == OperationOutcome.DUPLICATE) {
+                    return "Repeated activity ignored for product '" + productId + "' (already applied)";
+                }
+                if (outcome == OperationOutcome.INSUFFICIENT_STOCK) {
+                    return "Error: Insufficient stock! Available:" + stockQuantity + ", Requested:" + quantity;
+                }
+                return "Error: Product with ID '" + productId + "'not found!";
+            default:
+                return operation + " " + outcome + " " + productId;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return level + " " + operation + " " + outcome + " " + productId;
+    }
+}
@@ -0,0 +1,510 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Embedded HTTP/JSON API for the supermarket management system
+ * Gives tills and handheld devices network access to a SupermarketManager.
+ * Built on the JDK's own HTTP server (com.sun.net.httpserver), so no extra
+ * libraries are needed.
+ *
+ * Each request runs on its own virtual thread, so tens of thousands of
+ * concurrent connections only cost a small amount of memory each and a slow
+ * client never ties up a platform thread.
+ *
+ * Endpoints:
+ * - POST   /products                          Create product {productId, productName, entryDate, quantity}
+ * - GET    /products?offset=0&amp;limit=50        List products page by page
+ * - GET    /products?enteredFrom=2024-01-01&amp;enteredTo=2024-01-31&amp;limit=50
+ *                                             Products entered in a date range, oldest first
+ * - GET    /products?sort=entryDate&amp;limit=10  Oldest products first
+ * - GET    /products/{id}                     Get one product
+ * - DELETE /products/{id}                     Delete a product
+ * - POST   /products/{id}/activities          Submit activity {activityName, quantity, activityDate}
+ *                                             (an Idempotency-Key header makes retries safe: 200 instead of 201)
+ * - GET    /products/{id}/activities?limit=4  Recent activities, newest first
+ *                                             (&amp;sort=quantity: smallest quantity first)
+ * - GET    /metrics                           Request latency metrics per route
+ * - GET    /metrics/memory                    Estimated heap used by the catalog, by structure
+ * - GET    /metrics/admission                 Admission queue depths and shed counts (with setAdmission)
+ *
+ * With setAdmission, activities are admitted through an ActivityAdmission
+ * front door; one that is shed gets 503 with a Retry-After header.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+public class SupermarketHttpServer {
+
+    // Default and maximum page size for product listing
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    // Size of the pending-connection queue; large so connection bursts are not refused
+    private static final int ACCEPT_BACKLOG = 4096;
+
+    // Business logic layer that all requests are applied to
+    private final SupermarketManager manager;
+
+    // Latency metrics for every route
+    private final RequestMetrics metrics;
+
+    // Underlying JDK HTTP server
+    private final HttpServer server;
+
+    // One new virtual thread per request
+    private final ExecutorService executor;
+
+    // Front door for activities, null to send them straight to the manager
+    private volatile ActivityAdmission admission;
+
+    /**
+     * Simple holder for an HTTP status code and JSON body
+     */
+    private static class Response {
+        final int status;
+        final String body;
+        final long retryAfterSeconds; // Sent as Retry-After when positive
+
+        Response(int status, String body) {
+            this(status, body, 0);
+        }
+
+        Response(int status, String body, long retryAfterSeconds) {
+            this.status = status;
+            this.body = body;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+    }
+
+    /**
+     * Creates the server bound to the given address (not started yet)
+     *
+     * @param manager Manager that requests are applied to
+     * @param host Host name or address to bind, e.g. "localhost"
+     * @param port TCP port to listen on, 0 to pick a free port
+     * @throws IOException if the port cannot be bound
+     */
+    public SupermarketHttpServer(SupermarketManager manager, String host, int port) throws IOException {
+        this.manager = manager;
+        this.metrics = new RequestMetrics();
+        this.server = HttpServer.create(new InetSocketAddress(host, port), ACCEPT_BACKLOG);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/products", this::handleProducts);
+        server.createContext("/metrics", this::handleMetrics);
+    }
+
+    /**
+     * Starts accepting requests
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops the server, waiting up to the given time for running requests to finish
+     *
+     * @param delaySeconds Maximum seconds to wait for in-flight requests
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    /**
+     * Returns the port the server is listening on (useful when started with port 0)
+     *
+     * @return Bound TCP port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Sends activities through an admission front door (null to stop)
+     *
+     * @param admission Front door wrapping this server's manager
+     */
+    public void setAdmission(ActivityAdmission admission) {
+        this.admission = admission;
+    }
+
+    /**
+     * Returns the latency metrics collected by this server
+     *
+     * @return Request metrics
+     */
+    public RequestMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Handles everything under /products and records its latency
+     *
+     * @param exchange Current HTTP exchange
+     * @throws IOException if the response cannot be written
+     */
+    private void handleProducts(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getRawPath();
+
+        // Split "/products/{id}/activities" into its parts
+        String[] parts = path.replaceAll("/+$", "").split("/");
+        String route = routeName(method, parts);
+
+        Response response;
+        try {
+            response = dispatch(exchange, method, parts);
+        } catch (IllegalArgumentException e) {
+            // Bad JSON, bad numbers or bad dates are client errors
+            response = error(400, e.getMessage());
+        } catch (RuntimeException e) {
+            response = error(500, "Internal error: " + e.getMessage());
+        }
+        send(exchange, response);
+        metrics.record(route, response.status, System.nanoTime() - start);
+    }
+
+    /**
+     * Handles GET /metrics and GET /metrics/memory
+     *
+     * @param exchange Current HTTP exchange
+     * @throws IOException if the response cannot be written
+     */
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            send(exchange, error(405, "Method not allowed"));
+            return;
+        }
+        String path = exchange.getRequestURI().getRawPath().replaceAll("/+$", "");
+        if ("/metrics/memory".equals(path)) {
+            send(exchange, new Response(200, manager.estimateMemoryFootprint().toJson()));
+            return;
+        }
+        if ("/metrics/admission".equals(path)) {
+            ActivityAdmission current = admission;
+            send(exchange, current == null ? error(404, "Admission control is not enabled")
+                    : new Response(200, current.toJson()));
+            return;
+        }
+        if (!"/metrics".equals(path)) {
+            send(exchange, error(404, "Unknown path"));
+            return;
+        }
+        send(exchange, new Response(200, metrics.toJson()));
+    }
+
+    /**
+     * Routes a /products request to the matching operation
+     */
+    private Response dispatch(HttpExchange exchange, String method, String[] parts) throws IOException {
+        // parts[0] is "" and parts[1] is "products"
+        if (parts.length == 2) {
+            if ("POST".equals(method)) {
+                return createProduct(readBody(exchange));
+            }
+            if ("GET".equals(method)) {
+                Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+                return listProducts(query);
+            }
+            return error(405, "Method not allowed");
+        }
+
+        String productId = URLDecoder.decode(parts[2], StandardCharsets.UTF_8);
+        if (parts.length == 3) {
+            if ("GET".equals(method)) {
+                return getProduct(productId);
+            }
+            if ("DELETE".equals(method)) {
+                return deleteProduct(productId);
+            }
+            return error(405, "Method not allowed");
+        }
+
+        if (parts.length == 4 && "activities".equals(parts[3])) {
+            if ("POST".equals(method)) {
+                String activityKey = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+                return addActivity(productId, activityKey, readBody(exchange));
+            }
+            if ("GET".equals(method)) {
+                Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+                return recentActivities(productId, query);
+            }
+            return error(405, "Method not allowed");
+        }
+        return error(404, "Unknown path");
+    }
+
+    // ---------------------------------------------------------------
+    // Operations
+    // ---------------------------------------------------------------
+
+    private Response createProduct(String body) {
+        Map<String, String> fields = JsonSupport.parseObject(body);
+        String productId = fields.get("productId");
+        String productName = fields.get("productName");
+        int quantity = parseInt(fields.get("quantity"), "quantity");
+        LocalDate entryDate = fields.get("entryDate") == null
+                ? LocalDate.now() : parseDate(fields.get("entryDate"), "entryDate");
+
+        // Validate here so failures can be reported with the right status code
+        if (productId == null || productId.trim().isEmpty()) {
+            return error(400, "productId cannot be empty");
+        }
+        if (productName == null || productName.trim().isEmpty()) {
+            return error(400, "productName cannot be empty");
+        }
+        if (quantity < 0) {
+            return error(400, "quantity cannot be negative");
+        }
+
+        OperationOutcome outcome = manager.tryCreateProduct(productId, productName, entryDate, quantity);
+        if (outcome != OperationOutcome.SUCCESS) {
+            return outcomeError(outcome, productId);
+        }
+        return productResponse(201, productId);
+    }
+
+    private Response getProduct(String productId) {
+        return productResponse(200, productId);
+    }
+
+    // A product's current state; after a change it may already have been deleted by another request
+    private Response productResponse(int status, String productId) {
+        Product product = manager.getProduct(productId);
+        if (product == null) {
+            return error(404, "Product " + productId + " not found");
+        }
+        return new Response(status, JsonSupport.productToJson(product));
+    }
+
+    private Response deleteProduct(String productId) {
+        OperationOutcome outcome = manager.tryDeleteProduct(productId);
+        if (outcome != OperationOutcome.SUCCESS) {
+            return outcomeError(outcome, productId);
+        }
+        return new Response(204, "");
+    }
+
+    private Response listProducts(Map<String, String> query) {
+        int offset = query.containsKey("offset") ? parseInt(query.get("offset"), "offset") : 0;
+        int limit = query.containsKey("limit") ? parseInt(query.get("limit"), "limit") : DEFAULT_PAGE_SIZE;
+        if (offset < 0 || limit <= 0) {
+            return error(400, "offset must be >= 0 and limit must be > 0");
+        }
+        limit = Math.min(limit, MAX_PAGE_SIZE);
+        if (query.containsKey("enteredFrom") || query.containsKey("enteredTo")) {
+            LocalDate from = query.containsKey("enteredFrom")
+                    ? parseDate(query.get("enteredFrom"), "enteredFrom") : LocalDate.MIN;
+            LocalDate to = query.containsKey("enteredTo")
+                    ? parseDate(query.get("enteredTo"), "enteredTo") : LocalDate.MAX;
+            List<Product> entered = manager.getProductsEnteredBetween(from, to);
+            return productsByEntryDate(entered, limit, entered.size());
+        }
+        if ("entryDate".equals(query.get("sort"))) {
+            return productsByEntryDate(manager.getOldestProducts(limit), limit, manager.getProductCount());
+        }
+
+        List<String> items = new ArrayList<>();
+        for (Product product : manager.getProductsPage(offset, limit)) {
+            items.add(JsonSupport.productToJson(product));
+        }
+        return new Response(200, "{\"offset\":" + offset + ",\"limit\":" + limit
+                + ",\"total\":" + manager.getProductCount()
+                + ",\"products\":" + JsonSupport.array(items) + "}");
+    }
+
+    // Lists products from the entry date index, oldest first
+    private static Response productsByEntryDate(List<Product> products, int limit, int total) {
+        List<String> items = new ArrayList<>();
+        for (Product product : products.subList(0, Math.min(limit, products.size()))) {
+            items.add(JsonSupport.productToJson(product));
+        }
+        return new Response(200, "{\"total\":" + total + ",\"limit\":" + limit
+                + ",\"products\":" + JsonSupport.array(items) + "}");
+    }
+
+    private Response addActivity(String productId, String activityKey, String body) {
+        Map<String, String> fields = JsonSupport.parseObject(body);
+        String activityName = fields.get("activityName");
+        int quantity = parseInt(fields.get("quantity"), "quantity");
+        LocalDate activityDate = fields.get("activityDate") == null
+                ? LocalDate.now() : parseDate(fields.get("activityDate"), "activityDate");
+
+        if (!"AddToStock".equals(activityName) && !"RemoveFromStock".equals(activityName)) {
+            return error(400, "activityName must be AddToStock or RemoveFromStock");
+        }
+        if (quantity < 0) {
+            return error(400, "quantity cannot be negative");
+        }
+
+        ActivityAdmission current = admission;
+        OperationOutcome outcome = current == null
+                ? manager.tryAddActivityToProduct(activityKey, productId, activityName, quantity, activityDate)
+                : current.tryAddActivityToProduct(activityKey, productId, activityName, quantity, activityDate);
+        if (outcome == OperationOutcome.OVERLOADED) {
+            // Retry-After is in whole seconds; the body has the finer hint
+            long retryMillis = current.getRetryAfterMillis();
+            return new Response(503, "{\"error\":\"Too busy, retry later\",\"retryAfterMillis\":" + retryMillis + "}",
+                    Math.max(1, (retryMillis + 999) / 1000));
+        }
+        if (outcome == OperationOutcome.DUPLICATE) {
+            // A retry of a movement that was already applied: report the current state again
+            return productResponse(200, productId);
+        }
+        if (outcome != OperationOutcome.SUCCESS) {
+            return outcomeError(outcome, productId);
+        }
+        return productResponse(201, productId);
+    }
+
+    // Maps a failed operation outcome to its HTTP status and message
+    private static Response outcomeError(OperationOutcome outcome, String productId) {
+        switch (outcome) {
+            case DUPLICATE:
+                return error(409, "Product " + productId + " already exists");
+            case NOT_FOUND:
+                return error(404, "Product " + productId + " not found");
+            case INSUFFICIENT_STOCK:
+                return error(409, "Insufficient stock for " + productId);
+            default:
+                return error(400, "Invalid input for " + productId);
+        }
+    }
+
+    private Response recentActivities(String productId, Map<String, String> query) {
+        int limit = query.containsKey("limit") ? parseInt(query.get("limit"), "limit") : Integer.MAX_VALUE;
+        List<Activity> recent;
+        if ("quantity".equals(query.get("sort"))) {
+            recent = manager.getActivitiesSortedByQuantity(productId);
+            if (recent != null && recent.size() > limit) {
+                recent = recent.subList(0, Math.max(0, limit));
+            }
+        } else {
+            recent = manager.getRecentActivities(productId, limit);
+        }
+        if (recent == null) {
+            return error(404, "Product " + productId + " not found");
+        }
+        List<String> items = new ArrayList<>();
+        for (Activity activity : recent) {
+            items.add(JsonSupport.activityToJson(activity));
+        }
+        return new Response(200, JsonSupport.array(items));
+    }
+
+    // ---------------------------------------------------------------
+    // Helpers
+    // ---------------------------------------------------------------
+
+    // Route name used for metrics; product IDs, unknown paths and unknown methods
+    // are replaced so the number of routes stays fixed whatever clients send
+    private static String routeName(String method, String[] parts) {
+        String name = "GET".equals(method) || "POST".equals(method) || "DELETE".equals(method) ? method : "OTHER";
+        if (parts.length <= 2) {
+            return name + " /products";
+        }
+        if (parts.length == 3) {
+            return name + " /products/{id}";
+        }
+        if (parts.length == 4 && "activities".equals(parts[3])) {
+            return name + " /products/{id}/activities";
+        }
+        return name + " /products/{unknown}";
+    }
+
+    private static Response error(int status, String message) {
+        return new Response(status, "{\"error\":" + JsonSupport.quote(message) + "}");
+    }
+
+    private static int parseInt(String value, String field) {
+        if (value == null) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " must be a whole number");
+        }
+    }
+
+    private static LocalDate parseDate(String value, String field) {
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(field + " must use YYYY-MM-DD format");
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            query.put(URLDecoder.decode(key, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] bytes = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        if (response.retryAfterSeconds > 0) {
+            exchange.getResponseHeaders().set("Retry-After", Long.toString(response.retryAfterSeconds));
+        }
+        // 204 must not have a body; -1 tells the JDK server there is none
+        exchange.sendResponseHeaders(response.status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+        exchange.close();
+    }
+
+    /**
+     * Runs the API as a standalone server
+     * Usage: java SupermarketHttpServer [port] [host]
+     *
+     * @param args Optional port (default 8080) and bind address (default localhost)
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        String host = args.length > 1 ? args[1] : "localhost";
+        SupermarketManager manager = new SupermarketManager();
+        // Log operations from a background thread so request threads never wait on the console
+        manager.setEventSink(new AsyncEventSink(System.out, EventSink.Level.INFO, 65_536));
+        SupermarketHttpServer httpServer = new SupermarketHttpServer(manager, host, port);
+        httpServer.start();
+        System.out.println("Supermarket HTTP API listening on http://" + host + ":" + httpServer.getPort());
+    }
+}
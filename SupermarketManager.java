@@ -1,345 +1,1632 @@
-package com.mycompany.supermarketmanagementsystem;
-
-import java.time.LocalDate;
-import java.util.*;
-
-/**
- * Main management class for supermarket operations
- * Uses ArrayList from Java collections Framework as required
- * Implements all core business logic and functionality
- * 
- * This class serves as the central controller and business logic layer of the system,
- * coordinating all supermarket operations including product management, activity tracking,
- * and inventory control.
- * 
- * Key Responsibilities:
- * 1. Product Management - Creation, deletion, and retrieval of products
- * 2. Activity Management - Handling stock addictions and removals
- * 3. Data validation - Ensuring data integrity through input validation
- * 4. System Coordination - Integrating custom algorithms and data structures
- * 
- * Design Patterns : Follows the manager/Controller pattern for business logic encapsulation
- * 
- * @author Group 10
- * @version 1.0
- */
-public class SupermarketManager {
-    // JCF Data Structure: Arraylist for storing products
-    // ArrayList is chosen beacuse: 
-    // 1. Provides 0(1) access time for random access
-    // 2. Maintains insertion order for predictable interation
-    // 3. Easy to use and integrates well with custom algorithms
-    // 4. Meets the requirement to use java collections Framework
-    private List<Product> products;
-    
-    /**
-     * Constructor initializes the products list
-     * Creates an empty ArrayList to store Product objects
-     * This represents the main product inventory database
-     */
-    public SupermarketManager() {
-        // Initialize products list as an empty ArrayList
-        // Using diamond operator <> for type interface
-        this.products = new ArrayList<>(); 
-    }
-    
-    /**
-     * FUNCTIONALITY #1: Create a new product and add it to the system 
-     * Implements product creation with validation, duplicate checking, and initial activity creation
-     * This is the first core functionality required by the coursework
-     * 
-     * Business Rules:
-     * 1. Product ID must be unique
-     * 2. Product Name cannot be empty
-     * 3. Initial quantity must be non- negative
-     * 4. Automatically creates an initial stock activity
-     * 
-     * @param ProductID Unique product identifier
-     * @param ProductName Name of the product
-     * @param ProductEntryDate Date when product was added
-     * @param initialProductQuantity Starting stock quantity
-     * @return true if product created successfully, false otherwise
-     */
-    public boolean createProduct(String ProductID, String ProductName, LocalDate ProductEntryDate, int initialProductQuantity) {
-        // Input validation
-        
-        // Validate ProductID : Cannot be null or empty
-        if (ProductID == null || ProductID.trim().isEmpty()) {
-            System.out.println("Error: Product ID cannot be empty!");
-            return false; // Early return on validation failure
-        }
-        
-        // Validate Product Name: cannot be null or empty
-        if (ProductName == null || ProductName.trim().isEmpty()) {
-            System.out.println("Error: Product Name cannot be empty!");
-            return false; // Early return on validation failure
-        }
-        
-        // Validate Initial Quantity : must be non-negative
-        if (initialProductQuantity < 0) {
-            System.out.println("Error: Initial Product Quantity cannot be negative!");
-            return false; // Early return on validation failure
-        }
-        
-        // Check for duplicate product ID using custom search algorithm
-        // This demonstrates integration of custom algorithms with business logic
-        
-        if (SearchAlgorithms.linearSearchProduct(products, ProductID) != null) {
-        System.out.println("Error: Productwith ID" + ProductID + "already exists!");
-        return false; // Early return on duplicate detection
-    }
-        
-        // Create and add new product
-        Product product = new Product(ProductID, ProductName, ProductEntryDate, initialProductQuantity);
-        
-        // Add product to the products list 
-        products.add(product);
-        
-        // Create initial stock activity to record the starting quantity
-        // This ensures activities history starts with the initial stock addition
-        Activity initialActivity = new Activity(
-                generateActivityID(), // Generate unique activity ID
-                "AddToStock",  // Activity type for initial quantity
-                initialProductQuantity, // Same as initial quantity
-                ProductEntryDate  // same as product entry date
-        );
-        
-        // Add initial activity to product's activity history
-        product.addActivity(initialActivity);
-        
-        System.out.println("Product created successfully: " + ProductName);
-        return true; // Successfully created product
-    }
-    
-    /**
-     * FUNCTIONALITY #2: Display all products with their general details
-     * Provides formatted output of all products in the system
-     * This is the second core functionality required by the coursework
-     * 
-     * Display format:
-     * - Header with system information
-     * - Table format with columns: Product ID, Name, Entry Date, Quantity
-     * - Footer with total product count
-     * 
-     * Note: Uses printf for formatted output with fixed column widths
-     */
-    public void displayAllProducts() {
-        //Check if products list is empty
-        if (products.isEmpty()) {
-            System.out.println("No products available in the system.");
-            return; // Early Return for empty system
-        }
-        
-        System.out.println("\n" + "=".repeat(80));
-        System.out.println("ALL PRODUCTS IN SYSTEM");
-        System.out.println("=".repeat(80));
-        System.out.printf("%-12s %-20s %-15s %-10s %n", "Product ID", "Product Name", "Product Entry Date", "Product Quantity");
-        System.out.println("-".repeat(80));
-        
-        // Interate through all product using enhanced for loop
-        for (Product product : products) {
-            // Print each product in formatted table row
-            System.out.printf("%-12s %-20s %-15s %-10d%n",
-                    product.getProductID(),
-                    product.getProductName(),
-                    product.getProductEntryDate(),
-                    product.getProductQuantity());
-        }
-        System.out.println("=".repeat(80));
-        System.out.println("Total products:" + products.size());
-    }
-    
-    /**
-     * FUNCTIONALITY #3: Delete a product from the system using product ID
-     * Uses custom linear search algorithm
-     * This is the third core functionality required by the coursework
-     * 
-     * Process:
-     * 1. Search for product using linear search algorithm
-     * 2. If found, remove from products list
-     * 3. Provide success/error feedback to user
-     * 
-     * @param ProductID ID of the Product to delete
-     * @return true if product deleted successfully, false otherwise
-     */
-    public boolean deleteProduct(String ProductID) {
-        // Search for product using custom linear search algorithm
-        Product productToDelete = SearchAlgorithms.linearSearchProduct(products, ProductID);
-        if (productToDelete != null) {
-            // Product found - remove from ArrayList
-        products.remove(productToDelete);
-        
-        // Confirm deletion with product name for user feedback
-        System.out.println("Product deleted successfully:" + productToDelete.getProductName());
-        return true; // Successful deletion
-    } else {
-            // Product not found - provide error message
-            System.out.println("Error: Product with ID '" + ProductID + "' not found!");
-            return false; // Failed deletion
-            }
-    }
-    
-    /**
-     * FUNCTIONALITY #4: Update system with new activities
-     * Handles both AddToStock and RemoveFromStock activities with validation
-     * This is the fourth core functionality required by the coursework
-     * 
-     * Business Rules:
-     * 1. Activity quantity must be non-negative
-     * 2. Product must exist in system
-     * 3. For RemoveFromStock, must have sufficient stock available
-     * 4. Updates product quantity and maintains activity history
-     * 
-     * @param ProductID ID of the product to update
-     * @param activityName Type of activity (AddToStock/RemoveFromStock)
-     * @param ProductQuantity Number of items to add/remove
-     * @param activityDate Date of the activity
-     * @return true if activity added successfully, false otherwise
-     */
-    public boolean addActivityToProduct(String ProductID, String activityName, int  ProductQuantity, LocalDate activityDate) {
-        // Input validation
-        
-        // Validate activity quantity : cannot be negative
-        if (ProductQuantity < 0) {
-            System.out.println("Error: Activity Product Quantity cannot be negative!");
-            return false; // Early return on validation failure
-        }
-        
-        // find product using custom linear search algorithm
-        Product product = SearchAlgorithms.linearSearchProduct(products, ProductID);
-        
-        // ckeck if product exists
-        if (product == null) {
-            System.out.println("Error: Product with ID '" + ProductID + "'not found!");
-            return false; // Early return if product not found
-        }
-        
-        // Additional validation for RemoveFromStock
-        if ("RemoveFromStock".equals(activityName) && product.getProductQuantity() < ProductQuantity) {
-            System.out.println("Error: Insufficient stock! Available:" + product.getProductQuantity() + ", Requested:" + ProductQuantity);
-            return false; // Early return if insufficient stock
-        }
-        
-        // Create and add activity
-        Activity activity = new Activity(
-                generateActivityID(), // Generate unique activity ID
-                activityName, // Activity type
-                ProductQuantity, //  Quantity to add/remove
-                activityDate // Date of activity
-        );
-        
-        // Add activity to product
-        product.addActivity(activity);
-        
-        System.out.println("Activity added successfully:" + activityName + " " + ProductQuantity + "items");
-        System.out.println("Updated quantity for " + product.getProductName() + " : " + product.getProductQuantity());
-        return true; // Successfully added activity
-    }
-    
-    /**
-     * FUNCTIONALITY #5: Display product's last four activities sorted by quantity
-     * Uses custom bubble sort algorithm
-     * This is the fifth core functionality required 
-     * 
-     * Features:
-     * - Shows only last 4 activities 
-     * -Sorts activities by quantity using custom bubble sort
-     * - Displays in formatted table with current stock information
-     * 
-     * @param ProductID ID of the product to display activities for
-     */
-    public void displayProductActivities(String ProductID) {
-    // Search for product using custom linear search algorithm
-        Product product = SearchAlgorithms.linearSearchProduct(products, ProductID);
-        
-        // Check if product exists
-        if (product == null) {
-            System.out.println(ProductID + "Error: Product with ID " + " not found!");
-            return; // Early return if product not found
-        }
-        
-        // Get sorted activities from product
-        List<Activity> sortedActivities =
-                product.getActivitiesSortedByProductQuantity();
-        
-        System.out.println("\n" + "=".repeat(70));
-        System.out.println("ACTIVITIES FOR PRODUCT: " + product.getProductName().toUpperCase());
-        System.out.println("Current Stock:" + product.getProductQuantity());
-        System.out.println("=".repeat(70));
-        
-        // check if activities exist for this product
-        if (sortedActivities.isEmpty()) {
-            System.out.println("No activities found for this product.");
-        } else {
-            // Show number of activities
-            System.out.println("Last " + sortedActivities.size() + " activities sorted by activityProductQuantity:");
-            // Column headers with fixed widths for alignment
-            System.out.printf("%-10s %-15s %-10s %-12s%n", "activityID", "activityType", "activityProductQuantity", "activityDate");
-            System.out.println("-".repeat(70));
-            
-            
-            // Iterate through sorted activities
-            for (Activity activity : sortedActivities) {
-                
-                // Print each activity in formatted table row
-                // Note: Truncates activity ID for display purposes
-                System.out.printf("%-10s %-15s %-10d %-12s%n",
-                        activity.getActivityID().substring(0,8) + "...",
-                        activity.getActivityName(),
-                        activity.getActivityProductQuantity(),
-                        activity.getActivityDate());
-            }
-    }
-    System.out.println("=".repeat(70));
-    }
-    /**
-     * Generates unique activity IDs using timestamp and random number
-     * Ensures each activity has a unique identifier for tracking
-     * 
-     * Format: "ACT" + timestamp + "_" + random number
-     * Example: "ACT1674829401234_456"
-     * 
-     * @return Unique activity ID string
-     */
-    private String generateActivityID() {
-        // Generate ID using:
-        // 1. Prefix "ACT" to identify as activity ID
-        // 2. Current time in milliseconds for uniqueness
-        // 3. Random number 0-999 for additional uniqueness
-        return "ACT" + System.currentTimeMillis() + "_" + new Random().nextInt(1000); 
-    }
-    // Additional utility methods
-    
-    /**
-     * Retrieves a product by ID using custom linear search algorithm
-     * Helper method for external access to specific products
-     * 
-     * @param ProductID of the product to retrieve
-     * @return Product object if found, null if not found
-     */
-    public Product getProduct(String ProductID) {
-        return SearchAlgorithms.linearSearchProduct(products, ProductID);
-    }
-    
-    /**
-     * Returns a copy of all products in the system
-     * Returns a defensive copy to prevent external modification of internal list
-     * 
-     * @return New ArrayList containing all products 
-     */
-    public List<Product> getAllProducts() {
-        // return defensive copy to prevent external modification
-      return new ArrayList<>(products);
-    }
-    
-    /**
-     * Returns the current number of products in the system
-     * Useful for displaying system statistics
-     * 
-     * @return Number of products in the produsts list 
-     */
-
-    public int getProductCount() {
-       return products.size();
-    } 
-}
+package com.mycompany.supermarketmanagementsystem;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Main management class for supermarket operations
+ * Uses ArrayList from Java collections Framework as required
+ * Implements all core business logic and functionality
+ * 
+ * This class serves as the central controller and business logic layer of the system,
+ * coordinating all supermarket operations including product management, activity tracking,
+ * and inventory control.
+ * 
+ * Key Responsibilities:
+ * 1. Product Management - Creation, deletion, and retrieval of products
+ * 2. Activity Management - Handling stock addictions and removals
+ * 3. Data validation - Ensuring data integrity through input validation
+ * 4. System Coordination - Integrating custom algorithms and data structures
+ * 
+ * Design Patterns : Follows the manager/Controller pattern for business logic encapsulation
+ * 
+ * Thread Safety:
+ * The manager can be shared by many threads (for example the HTTP API in
+ * SupermarketHttpServer). The product list is guarded by a read/write lock so
+ * lookups run in parallel, and stock changes take a striped per-product lock so
+ * checkouts on different products do not wait for each other.
+ * 
+ * @author Group 10
+ * @version 1.0
+ */
+public class SupermarketManager {
+    // JCF Data Structure: Arraylist for storing products
+    // ArrayList is chosen beacuse: 
+    // 1. Provides 0(1) access time for random access
+    // 2. Maintains insertion order for predictable interation
+    // 3. Easy to use and integrates well with custom algorithms
+    // 4. Meets the requirement to use java collections Framework
+    // Deleting a product leaves a tombstone (null) in its slot, so a deletion is O(1)
+    // rather than a search and an array shift; compactCatalog reclaims the slots
+    private List<Product> products;
+    
+    // Number of tombstones in the products list
+    private int tombstones;
+    
+    // Deletions compact inline once tombstones reach this many and outnumber live products,
+    // so the list stays at most twice the catalog even if compaction is never run
+    private static final int INLINE_COMPACTION_MIN_TOMBSTONES = 4_096;
+    
+    // Background compaction, see startCompaction (null when not running)
+    private ScheduledExecutorService compactor;
+    
+    // Hash index from product ID to product, kept in step with the products list
+    // Gives O(1) lookups instead of a linear search over every product
+    private final Map<String, Product> productIndex;
+    
+    // Number of stripes used for per-product locking (must be a power of two)
+    private static final int LOCK_STRIPES = 256;
+    
+    // Conflicting attempts allowed before applyBasket checks with its locks held
+    private static final int BASKET_OPTIMISTIC_ATTEMPTS = 4;
+    
+    // Guards the structure of the products list:
+    // read lock for lookups and scans, write lock for create and delete
+    private final ReentrantReadWriteLock catalogLock;
+    
+    // Striped locks guarding stock changes; a product always maps to the same stripe
+    private final ReentrantLock[] productLocks;
+    
+    // Listeners following every applied change (replication, etc.)
+    private final List<SupermarketChangeListener> changeListeners;
+    
+    // Orders change notifications; only taken when at least one listener is registered
+    private final Object changeLock;
+    
+    // Sequence number of the last change handed to the listeners (guarded by changeLock)
+    private long changeSequence;
+    
+    // Sequence number of the last change whose listeners have all finished
+    private volatile long committedSequence;
+    
+    // Versioned copy of every product's state, for point-in-time snapshots
+    private final VersionedCatalog versions;
+    
+    // Remaining stock of every product by the date it was received
+    private final StockAgeIndex stockAges;
+    
+    // Products by name (any case), for queries on an exact name
+    private final ProductNameIndex nameIndex;
+    
+    // Products by entry date, for ageing queries
+    private final ProductEntryDateIndex entryDates;
+    
+    // Catalogs at least this large are scanned by queries on all cores
+    private static final int PARALLEL_QUERY_THRESHOLD = 20_000;
+    
+    // Products measured by estimateMemoryFootprint
+    private static final int MEMORY_SAMPLE_SIZE = 1_000;
+    
+    // Number of recent activities each new product keeps
+    private volatile int historyDepth = Product.DEFAULT_HISTORY_DEPTH;
+    
+    // Keys of recently applied activities, so retried deliveries are not applied twice
+    // Created on the first keyed activity, as most managers never see one
+    private volatile ActivityKeyFilter activityKeys;
+    
+    // Default dedup window and the number of keys it is sized for
+    private static final Duration ACTIVITY_KEY_WINDOW = Duration.ofHours(24);
+    private static final int ACTIVITY_KEY_CAPACITY = 4_000_000;
+    
+    // Where operation events (successes and rejections) are reported
+    // Defaults to printing on the console, as the menu application expects
+    private volatile EventSink eventSink;
+    
+    // Fixed validation messages, so rejecting bad input never builds a string
+    private static final String EMPTY_ID_MESSAGE = "Error: Product ID cannot be empty!";
+    private static final String EMPTY_NAME_MESSAGE = "Error: Product Name cannot be empty!";
+    private static final String NEGATIVE_INITIAL_MESSAGE = "Error: Initial Product Quantity cannot be negative!";
+    private static final String NEGATIVE_ACTIVITY_MESSAGE = "Error: Activity Product Quantity cannot be negative!";
+    
+    /**
+     * Constructor initializes the products list
+     * Creates an empty ArrayList to store Product objects
+     * This represents the main product inventory database
+     */
+    public SupermarketManager() {
+        // Initialize products list as an empty ArrayList
+        // Using diamond operator <> for type interface
+        this.products = new ArrayList<>(); 
+        this.productIndex = new HashMap<>();
+        this.catalogLock = new ReentrantReadWriteLock();
+        this.productLocks = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            productLocks[i] = new ReentrantLock();
+        }
+        this.changeListeners = new CopyOnWriteArrayList<>();
+        this.changeLock = new Object();
+        this.eventSink = new ConsoleEventSink(EventSink.Level.INFO);
+        this.versions = new VersionedCatalog();
+        this.stockAges = new StockAgeIndex();
+        this.nameIndex = new ProductNameIndex();
+        this.entryDates = new ProductEntryDateIndex();
+    }
+    
+    /**
+     * FUNCTIONALITY #1: Create a new product and add it to the system 
+     * Implements product creation with validation, duplicate checking, and initial activity creation
+     * This is the first core functionality required by the coursework
+     * 
+     * Business Rules:
+     * 1. Product ID must be unique
+     * 2. Product Name cannot be empty
+     * 3. Initial quantity must be non- negative
+     * 4. Automatically creates an initial stock activity
+     * 
+     * @param ProductID Unique product identifier
+     * @param ProductName Name of the product
+     * @param ProductEntryDate Date when product was added
+     * @param initialProductQuantity Starting stock quantity
+     * @return true if product created successfully, false otherwise
+     */
+    public boolean createProduct(String ProductID, String ProductName, LocalDate ProductEntryDate, int initialProductQuantity) {
+        return tryCreateProduct(ProductID, ProductName, ProductEntryDate, initialProductQuantity).isSuccess();
+    }
+    
+    /**
+     * Same as createProduct, but tells the caller exactly what happened
+     * 
+     * @param ProductID Unique product identifier
+     * @param ProductName Name of the product
+     * @param ProductEntryDate Date when product was added
+     * @param initialProductQuantity Starting stock quantity
+     * @return SUCCESS, DUPLICATE or INVALID_INPUT
+     */
+    public OperationOutcome tryCreateProduct(String ProductID, String ProductName, LocalDate ProductEntryDate, int initialProductQuantity) {
+        // Structural change: hold the write lock so the duplicate check and the add are atomic
+        catalogLock.writeLock().lock();
+        try {
+            return createProductUnlocked(ProductID, ProductName, ProductEntryDate, initialProductQuantity);
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Lock-free core of createProduct
+     * Only safe when the caller already has exclusive access to this manager,
+     * either by holding the catalog write lock or by being the single writer
+     * thread of a SingleWriterPipeline.
+     * 
+     * @param ProductID Unique product identifier
+     * @param ProductName Name of the product
+     * @param ProductEntryDate Date when product was added
+     * @param initialProductQuantity Starting stock quantity
+     * @return SUCCESS, DUPLICATE or INVALID_INPUT
+     */
+    OperationOutcome createProductUnlocked(String ProductID, String ProductName, LocalDate ProductEntryDate, int initialProductQuantity) {
+        // Input validation
+        
+        // Validate ProductID : Cannot be null or empty
+        if (ProductID == null || ProductID.trim().isEmpty()) {
+            return reportInvalid(SupermarketEvent.Operation.CREATE_PRODUCT, ProductID, EMPTY_ID_MESSAGE);
+        }
+        
+        // Validate Product Name: cannot be null or empty
+        if (ProductName == null || ProductName.trim().isEmpty()) {
+            return reportInvalid(SupermarketEvent.Operation.CREATE_PRODUCT, ProductID, EMPTY_NAME_MESSAGE);
+        }
+        
+        // Validate Initial Quantity : must be non-negative
+        if (initialProductQuantity < 0) {
+            return reportInvalid(SupermarketEvent.Operation.CREATE_PRODUCT, ProductID, NEGATIVE_INITIAL_MESSAGE);
+        }
+        
+        // Check for duplicate product ID using the ID index
+        if (productIndex.containsKey(ProductID)) {
+            return report(EventSink.Level.WARN, SupermarketEvent.Operation.CREATE_PRODUCT,
+                    OperationOutcome.DUPLICATE, ProductID, ProductName, null, initialProductQuantity, 0);
+        }
+        
+        // Create and add new product
+        Product product = new Product(ProductID, ProductName, ProductEntryDate, initialProductQuantity, historyDepth);
+        
+        // Add product to the products list and the ID index
+        product.setCatalogSlot(products.size());
+        products.add(product);
+        productIndex.put(ProductID, product);
+        product.attachStockAgeIndex(stockAges);
+        product.attachNameIndex(nameIndex);
+        product.attachEntryDateIndex(entryDates);
+        product.attachOwner(this);
+        
+        // Create initial stock activity to record the starting quantity
+        // This ensures activities history starts with the initial stock addition
+        Activity initialActivity = new Activity(
+                generateActivityID(), // Generate unique activity ID
+                "AddToStock",  // Activity type for initial quantity
+                initialProductQuantity, // Same as initial quantity
+                ProductEntryDate  // same as product entry date
+        );
+        
+        // Add initial activity to product's activity history
+        product.addActivity(initialActivity);
+        versions.created(product);
+        publishProductCreated(product, initialActivity);
+        
+        return report(EventSink.Level.INFO, SupermarketEvent.Operation.CREATE_PRODUCT,
+                OperationOutcome.SUCCESS, ProductID, ProductName, null, initialProductQuantity,
+                product.getProductQuantity());
+    }
+    
+    /**
+     * FUNCTIONALITY #2: Display all products with their general details
+     * Provides formatted output of all products in the system
+     * This is the second core functionality required by the coursework
+     * 
+     * Display format:
+     * - Header with system information
+     * - Table format with columns: Product ID, Name, Entry Date, Quantity
+     * - Footer with total product count
+     * 
+     * Note: Uses printf for formatted output with fixed column widths
+     */
+    public void displayAllProducts() {
+        // Print from a snapshot: every quantity is from the same moment,
+        // and checkouts are not blocked while the table is printed
+        List<Product> products;
+        try (CatalogSnapshot snapshot = snapshot()) {
+            products = snapshot.getProducts();
+        }
+        
+        //Check if products list is empty
+        if (products.isEmpty()) {
+            System.out.println("No products available in the system.");
+            return; // Early Return for empty system
+        }
+        
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("ALL PRODUCTS IN SYSTEM");
+        System.out.println("=".repeat(80));
+        System.out.printf("%-12s %-20s %-15s %-10s %n", "Product ID", "Product Name", "Product Entry Date", "Product Quantity");
+        System.out.println("-".repeat(80));
+        
+        // Interate through all product using enhanced for loop
+        for (Product product : products) {
+            // Print each product in formatted table row
+            System.out.printf("%-12s %-20s %-15s %-10d%n",
+                    product.getProductID(),
+                    product.getProductName(),
+                    product.getProductEntryDate(),
+                    product.getProductQuantity());
+        }
+        System.out.println("=".repeat(80));
+        System.out.println("Total products:" + products.size());
+    }
+    
+    /**
+     * FUNCTIONALITY #3: Delete a product from the system using product ID
+     * Uses the product ID index for O(1) lookup
+     * This is the third core functionality required by the coursework
+     * 
+     * Process:
+     * 1. Look up product in the ID index
+     * 2. If found, leave a tombstone in its slot of the products list (O(1); see compactCatalog)
+     * 3. Provide success/error feedback to user
+     * 
+     * @param ProductID ID of the Product to delete
+     * @return true if product deleted successfully, false otherwise
+     */
+    public boolean deleteProduct(String ProductID) {
+        return tryDeleteProduct(ProductID).isSuccess();
+    }
+    
+    /**
+     * Same as deleteProduct, but tells the caller exactly what happened
+     * 
+     * @param ProductID ID of the Product to delete
+     * @return SUCCESS or NOT_FOUND
+     */
+    public OperationOutcome tryDeleteProduct(String ProductID) {
+        catalogLock.writeLock().lock();
+        try {
+            return deleteProductUnlocked(ProductID);
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Lock-free core of deleteProduct
+     * Only safe when the caller already has exclusive access to this manager
+     * (catalog write lock held, or running on a SingleWriterPipeline writer thread).
+     * 
+     * @param ProductID ID of the Product to delete
+     * @return SUCCESS or NOT_FOUND
+     */
+    OperationOutcome deleteProductUnlocked(String ProductID) {
+        // Find and unlink the product through the ID index
+        Product productToDelete = productIndex.remove(ProductID);
+        if (productToDelete != null) {
+            // Product found - leave a tombstone in its slot
+            tombstone(productToDelete);
+            productToDelete.detachStockAgeIndex();
+            productToDelete.detachNameIndex();
+            productToDelete.detachEntryDateIndex();
+            productToDelete.detachOwner();
+            versions.deleted(ProductID);
+            publishProductDeleted(ProductID);
+            
+            // Confirm deletion with product name for user feedback
+            return report(EventSink.Level.INFO, SupermarketEvent.Operation.DELETE_PRODUCT,
+                    OperationOutcome.SUCCESS, ProductID, productToDelete.getProductName(), null, 0, 0);
+        } else {
+            // Product not found - report the failure
+            return report(EventSink.Level.WARN, SupermarketEvent.Operation.DELETE_PRODUCT,
+                    OperationOutcome.NOT_FOUND, ProductID, null, null, 0, 0);
+        }
+    }
+    
+    // Leaves a tombstone in a deleted product's slot (catalog write lock or writer thread)
+    private void tombstone(Product product) {
+        products.set(product.getCatalogSlot(), null);
+        product.setCatalogSlot(-1);
+        tombstones++;
+        if (tombstones >= INLINE_COMPACTION_MIN_TOMBSTONES && tombstones > products.size() - tombstones) {
+            compactUnlocked(); // Amortised over the deletions that made the tombstones
+        }
+    }
+    
+    /**
+     * Reclaims the slots of deleted products in one pass over the products list
+     * Live products keep their order; nothing else changes (indexes hold the
+     * products themselves, not their slots). Reads and activities wait for the
+     * pass, which only moves references.
+     * 
+     * @return Number of slots reclaimed
+     */
+    public int compactCatalog() {
+        catalogLock.writeLock().lock();
+        try {
+            return compactUnlocked();
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+    }
+    
+    // Core of compactCatalog: slides live products down over the tombstones
+    private int compactUnlocked() {
+        if (tombstones == 0) {
+            return 0;
+        }
+        int live = 0;
+        for (int slot = 0; slot < products.size(); slot++) {
+            Product product = products.get(slot);
+            if (product != null) {
+                product.setCatalogSlot(live);
+                products.set(live++, product);
+            }
+        }
+        int reclaimed = products.size() - live;
+        products.subList(live, products.size()).clear(); // Cuts the tail; nothing is shifted
+        tombstones = 0;
+        return reclaimed;
+    }
+    
+    /**
+     * Starts compacting the products list in the background at a fixed interval
+     * A pass only runs when there are tombstones. Not for use with a
+     * SingleWriterPipeline, which must be the only thread using the manager.
+     * 
+     * @param interval Time between compaction passes
+     * @param unit Unit of the interval
+     */
+    public synchronized void startCompaction(long interval, TimeUnit unit) {
+        if (compactor != null) {
+            return;
+        }
+        compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "catalog-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+        compactor.scheduleWithFixedDelay(() -> {
+            if (getTombstoneCount() > 0) {
+                compactCatalog();
+            }
+        }, interval, interval, unit);
+    }
+    
+    /**
+     * Stops the background compaction
+     */
+    public synchronized void stopCompaction() {
+        if (compactor != null) {
+            compactor.shutdownNow();
+            compactor = null;
+        }
+    }
+    
+    /**
+     * @return Number of deleted products whose slots have not been reclaimed yet
+     */
+    public int getTombstoneCount() {
+        catalogLock.readLock().lock();
+        try {
+            return tombstones;
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * FUNCTIONALITY #4: Update system with new activities
+     * Handles both AddToStock and RemoveFromStock activities with validation
+     * This is the fourth core functionality required by the coursework
+     * 
+     * Business Rules:
+     * 1. Activity quantity must be non-negative
+     * 2. Product must exist in system
+     * 3. For RemoveFromStock, must have sufficient stock available
+     * 4. Updates product quantity and maintains activity history
+     * 
+     * @param ProductID ID of the product to update
+     * @param activityName Type of activity (AddToStock/RemoveFromStock)
+     * @param ProductQuantity Number of items to add/remove
+     * @param activityDate Date of the activity
+     * @return true if activity added successfully, false otherwise
+     */
+    public boolean addActivityToProduct(String ProductID, String activityName, int  ProductQuantity, LocalDate activityDate) {
+        return tryAddActivityToProduct(ProductID, activityName, ProductQuantity, activityDate).isSuccess();
+    }
+    
+    /**
+     * Same as addActivityToProduct, but tells the caller exactly what happened
+     * 
+     * @param ProductID ID of the product to update
+     * @param activityName Type of activity (AddToStock/RemoveFromStock)
+     * @param ProductQuantity Number of items to add/remove
+     * @param activityDate Date of the activity
+     * @return SUCCESS, NOT_FOUND, INSUFFICIENT_STOCK or INVALID_INPUT
+     */
+    public OperationOutcome tryAddActivityToProduct(String ProductID, String activityName, int  ProductQuantity, LocalDate activityDate) {
+        // Read lock keeps the product from being deleted while its stock is changed
+        catalogLock.readLock().lock();
+        // The stripe lock makes the stock check and the update one atomic step
+        ReentrantLock productLock = lockFor(ProductID);
+        productLock.lock();
+        try {
+            return addActivityUnlocked(ProductID, activityName, ProductQuantity, activityDate);
+        } finally {
+            productLock.unlock();
+            catalogLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Adds an activity that carries a client-chosen key, applying each key only once
+     * Tills deliver movements at-least-once; when a movement is delivered again
+     * with the same key it is not applied again and DUPLICATE is returned.
+     * A key that was rejected (not found, insufficient stock...) is not
+     * remembered, so the till can retry it.
+     * 
+     * A key must identify one movement of one product: repeats are detected
+     * while holding that product's lock, so two copies of a movement arriving
+     * at the same time are still only applied once.
+     * 
+     * @param activityKey Unique key of the movement (null applies it without a check)
+     * @param ProductID ID of the product to update
+     * @param activityName Type of activity (AddToStock/RemoveFromStock)
+     * @param ProductQuantity Number of items to add/remove
+     * @param activityDate Date of the activity
+     * @return SUCCESS, DUPLICATE, NOT_FOUND, INSUFFICIENT_STOCK or INVALID_INPUT
+     */
+    public OperationOutcome tryAddActivityToProduct(String activityKey, String ProductID, String activityName,
+            int ProductQuantity, LocalDate activityDate) {
+        if (activityKey == null) {
+            return tryAddActivityToProduct(ProductID, activityName, ProductQuantity, activityDate);
+        }
+        ActivityKeyFilter keys = activityKeyFilter();
+        catalogLock.readLock().lock();
+        ReentrantLock productLock = lockFor(ProductID);
+        productLock.lock();
+        try {
+            // Fast path for new keys: the filter's Bloom filter answers without a table lookup
+            if (keys.contains(activityKey)) {
+                return report(EventSink.Level.WARN, SupermarketEvent.Operation.ADD_ACTIVITY,
+                        OperationOutcome.DUPLICATE, ProductID, null, activityName, ProductQuantity, 0);
+            }
+            OperationOutcome outcome = addActivityUnlocked(ProductID, activityName, ProductQuantity, activityDate);
+            if (outcome.isSuccess()) {
+                keys.add(activityKey);
+            }
+            return outcome;
+        } finally {
+            productLock.unlock();
+            catalogLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Same as tryAddActivityToProduct with a key, returning only whether it was applied
+     * 
+     * @param activityKey Unique key of the movement
+     * @param ProductID ID of the product to update
+     * @param activityName Type of activity (AddToStock/RemoveFromStock)
+     * @param ProductQuantity Number of items to add/remove
+     * @param activityDate Date of the activity
+     * @return true if the activity was applied now, false if rejected or a repeat
+     */
+    public boolean addActivityToProduct(String activityKey, String ProductID, String activityName,
+            int ProductQuantity, LocalDate activityDate) {
+        return tryAddActivityToProduct(activityKey, ProductID, activityName, ProductQuantity, activityDate).isSuccess();
+    }
+    
+    /**
+     * Replaces the filter used to recognise repeated activity keys
+     * The default remembers keys for up to 24 hours and is sized for 4 million keys.
+     * 
+     * @param filter New filter (keys remembered by the old one are forgotten)
+     */
+    public void setActivityKeyFilter(ActivityKeyFilter filter) {
+        this.activityKeys = filter;
+    }
+    
+    // Helper: returns the key filter, creating the default one on first use
+    private ActivityKeyFilter activityKeyFilter() {
+        ActivityKeyFilter keys = activityKeys;
+        if (keys == null) {
+            synchronized (this) {
+                keys = activityKeys;
+                if (keys == null) {
+                    keys = new ActivityKeyFilter(ACTIVITY_KEY_WINDOW, ACTIVITY_KEY_CAPACITY);
+                    activityKeys = keys;
+                }
+            }
+        }
+        return keys;
+    }
+    
+    /**
+     * Lock-free core of addActivityToProduct
+     * Only safe when the caller holds the catalog read lock and the product's
+     * stripe lock, or is the single writer thread of a SingleWriterPipeline.
+     * 
+     * @param ProductID ID of the product to update
+     * @param activityName Type of activity (AddToStock/RemoveFromStock)
+     * @param ProductQuantity Number of items to add/remove
+     * @param activityDate Date of the activity
+     * @return SUCCESS, NOT_FOUND, INSUFFICIENT_STOCK or INVALID_INPUT
+     */
+    OperationOutcome addActivityUnlocked(String ProductID, String activityName, int  ProductQuantity, LocalDate activityDate) {
+        // Input validation
+        
+        // Validate activity quantity : cannot be negative
+        if (ProductQuantity < 0) {
+            return reportInvalid(SupermarketEvent.Operation.ADD_ACTIVITY, ProductID, NEGATIVE_ACTIVITY_MESSAGE);
+        }
+        
+        // find product using the ID index
+        Product product = productIndex.get(ProductID);
+        
+        // ckeck if product exists
+        if (product == null) {
+            return report(EventSink.Level.WARN, SupermarketEvent.Operation.ADD_ACTIVITY,
+                    OperationOutcome.NOT_FOUND, ProductID, null, activityName, ProductQuantity, 0);
+        }
+        
+        // Additional validation for RemoveFromStock
+        if ("RemoveFromStock".equals(activityName) && product.getProductQuantity() < ProductQuantity) {
+            return report(EventSink.Level.WARN, SupermarketEvent.Operation.ADD_ACTIVITY,
+                    OperationOutcome.INSUFFICIENT_STOCK, ProductID, product.getProductName(), activityName,
+                    ProductQuantity, product.getProductQuantity());
+        }
+        
+        // Create and add activity
+        Activity activity = new Activity(
+                generateActivityID(), // Generate unique activity ID
+                activityName, // Activity type
+                ProductQuantity, //  Quantity to add/remove
+                activityDate // Date of activity
+        );
+        
+        // Add activity to product
+        product.addActivity(activity);
+        versions.updated(product);
+        publishActivityApplied(ProductID, activity);
+        
+        return report(EventSink.Level.INFO, SupermarketEvent.Operation.ADD_ACTIVITY,
+                OperationOutcome.SUCCESS, ProductID, product.getProductName(), activityName,
+                ProductQuantity, product.getProductQuantity());
+    }
+    
+    /**
+     * FUNCTIONALITY #5: Display product's last four activities sorted by quantity
+     * Uses custom bubble sort algorithm
+     * This is the fifth core functionality required 
+     * 
+     * Features:
+     * - Shows only last 4 activities 
+     * -Sorts activities by quantity using custom bubble sort
+     * - Displays in formatted table with current stock information
+     * 
+     * @param ProductID ID of the product to display activities for
+     */
+    public void displayProductActivities(String ProductID) {
+    // Look up product in the ID index
+        Product product = getProduct(ProductID);
+        
+        // Check if product exists
+        if (product == null) {
+            System.out.println(ProductID + "Error: Product with ID " + " not found!");
+            return; // Early return if product not found
+        }
+        
+        // Get sorted activities from product (read under its stripe lock)
+        List<Activity> sortedActivities;
+        ReentrantLock productLock = lockFor(ProductID);
+        productLock.lock();
+        try {
+            sortedActivities = product.getActivitiesSortedByProductQuantity();
+        } finally {
+            productLock.unlock();
+        }
+        
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("ACTIVITIES FOR PRODUCT: " + product.getProductName().toUpperCase());
+        System.out.println("Current Stock:" + product.getProductQuantity());
+        System.out.println("=".repeat(70));
+        
+        // check if activities exist for this product
+        if (sortedActivities.isEmpty()) {
+            System.out.println("No activities found for this product.");
+        } else {
+            // Show number of activities
+            System.out.println("Last " + sortedActivities.size() + " activities sorted by activityProductQuantity:");
+            // Column headers with fixed widths for alignment
+            System.out.printf("%-10s %-15s %-10s %-12s%n", "activityID", "activityType", "activityProductQuantity", "activityDate");
+            System.out.println("-".repeat(70));
+            
+            
+            // Iterate through sorted activities
+            for (Activity activity : sortedActivities) {
+                
+                // Print each activity in formatted table row
+                // Note: Truncates activity ID for display purposes
+                System.out.printf("%-10s %-15s %-10d %-12s%n",
+                        activity.getActivityID().substring(0,8) + "...",
+                        activity.getActivityName(),
+                        activity.getActivityProductQuantity(),
+                        activity.getActivityDate());
+            }
+    }
+    System.out.println("=".repeat(70));
+    }
+    /**
+     * Generates unique activity IDs using timestamp and random number
+     * Ensures each activity has a unique identifier for tracking
+     * 
+     * Format: "ACT" + timestamp + "_" + random number
+     * Example: "ACT1674829401234_456"
+     * 
+     * @return Unique activity ID string
+     */
+    private String generateActivityID() {
+        // Generate ID using:
+        // 1. Prefix "ACT" to identify as activity ID
+        // 2. Current time in milliseconds for uniqueness
+        // 3. Random number 0-999 for additional uniqueness
+        // ThreadLocalRandom avoids a shared seed when many threads create activities
+        return "ACT" + System.currentTimeMillis() + "_" + ThreadLocalRandom.current().nextInt(1000); 
+    }
+    
+    /**
+     * Returns the stripe lock guarding stock changes of the given product
+     * The same product ID always maps to the same lock
+     * 
+     * @param ProductID ID of the product
+     * @return Lock guarding that product's quantity and activity history
+     */
+    private ReentrantLock lockFor(String ProductID) {
+        return productLocks[stripeIndex(ProductID)];
+    }
+    
+    // Stripe number of a product ID
+    private static int stripeIndex(String ProductID) {
+        // Spread the hash bits so similar IDs (P001, P002...) land on different stripes
+        int h = ProductID == null ? 0 : ProductID.hashCode();
+        h ^= (h >>> 16);
+        return h & (LOCK_STRIPES - 1);
+    }
+    // Event reporting
+    
+    /**
+     * Replaces the sink that operation events are reported to
+     * Use EventSink.NONE to turn reporting off, or an AsyncEventSink to keep
+     * console output off the calling threads.
+     * 
+     * @param eventSink New event sink (must not be null)
+     */
+    public void setEventSink(EventSink eventSink) {
+        this.eventSink = Objects.requireNonNull(eventSink, "eventSink");
+    }
+    
+    /**
+     * @return The sink operation events are currently reported to
+     */
+    public EventSink getEventSink() {
+        return eventSink;
+    }
+    
+    // Helper: reports an event if the sink wants this level, then returns the outcome
+    // The event object (and any message text) is only created when someone listens
+    private OperationOutcome report(EventSink.Level level, SupermarketEvent.Operation operation,
+            OperationOutcome outcome, String ProductID, String ProductName, String activityName,
+            int quantity, int stockQuantity) {
+        EventSink sink = eventSink;
+        if (sink.isEnabled(level)) {
+            sink.emit(new SupermarketEvent(level, operation, outcome, ProductID, ProductName,
+                    activityName, quantity, stockQuantity, null));
+        }
+        return outcome;
+    }
+    
+    // Helper: reports a validation failure with its fixed message
+    private OperationOutcome reportInvalid(SupermarketEvent.Operation operation, String ProductID, String message) {
+        EventSink sink = eventSink;
+        if (sink.isEnabled(EventSink.Level.WARN)) {
+            sink.emit(new SupermarketEvent(EventSink.Level.WARN, operation, OperationOutcome.INVALID_INPUT,
+                    ProductID, null, null, 0, 0, message));
+        }
+        return OperationOutcome.INVALID_INPUT;
+    }
+    
+    // Change notification
+    
+    /**
+     * Registers a listener that is told about every later change
+     * 
+     * @param listener Listener to add
+     */
+    public void addChangeListener(SupermarketChangeListener listener) {
+        synchronized (changeLock) {
+            changeListeners.add(listener);
+        }
+    }
+    
+    /**
+     * Registers a listener together with a consistent copy of the current catalog
+     * While the snapshot consumer runs, no change can be applied, so the listener
+     * receives exactly the changes made after the products it was given.
+     * The consumer must copy what it needs before returning.
+     * 
+     * @param listener Listener to add
+     * @param snapshotConsumer Receives every product as of the returned sequence
+     * @return Sequence number of the last change included in the snapshot
+     */
+    public long addChangeListener(SupermarketChangeListener listener,
+            java.util.function.Consumer<List<Product>> snapshotConsumer) {
+        // The write lock waits for in-flight changes (which publish before unlocking)
+        catalogLock.writeLock().lock();
+        try {
+            synchronized (changeLock) {
+                snapshotConsumer.accept(liveProducts());
+                changeListeners.add(listener);
+                return changeSequence;
+            }
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Removes a previously registered listener
+     * 
+     * @param listener Listener to remove
+     */
+    public void removeChangeListener(SupermarketChangeListener listener) {
+        synchronized (changeLock) {
+            changeListeners.remove(listener);
+        }
+    }
+    
+    /**
+     * Returns the sequence number of the last change fully handed to listeners
+     * 
+     * @return Last committed change sequence (0 if nothing has changed while listened to)
+     */
+    public long getCommittedSequence() {
+        return committedSequence;
+    }
+    
+    // Helpers: hand one change to every listener in sequence order
+    // They return straight away when nobody listens, so the plain path pays nothing
+    
+    private void publishProductCreated(Product product, Activity initialActivity) {
+        if (changeListeners.isEmpty()) {
+            return;
+        }
+        synchronized (changeLock) {
+            long sequence = ++changeSequence;
+            for (SupermarketChangeListener listener : changeListeners) {
+                listener.productCreated(sequence, product, initialActivity);
+            }
+            committedSequence = sequence;
+        }
+    }
+    
+    private void publishProductDeleted(String ProductID) {
+        if (changeListeners.isEmpty()) {
+            return;
+        }
+        synchronized (changeLock) {
+            long sequence = ++changeSequence;
+            for (SupermarketChangeListener listener : changeListeners) {
+                listener.productDeleted(sequence, ProductID);
+            }
+            committedSequence = sequence;
+        }
+    }
+    
+    private void publishActivityApplied(String ProductID, Activity activity) {
+        if (changeListeners.isEmpty()) {
+            return;
+        }
+        synchronized (changeLock) {
+            long sequence = ++changeSequence;
+            for (SupermarketChangeListener listener : changeListeners) {
+                listener.activityApplied(sequence, ProductID, activity);
+            }
+            committedSequence = sequence;
+        }
+    }
+    
+    // Hands a whole basket to the listeners with consecutive sequence numbers
+    private void publishBasketApplied(List<StockBasket.Line> lines, List<Activity> activities) {
+        if (changeListeners.isEmpty()) {
+            return;
+        }
+        synchronized (changeLock) {
+            long sequence = changeSequence;
+            for (int i = 0; i < activities.size(); i++) {
+                sequence = ++changeSequence;
+                for (SupermarketChangeListener listener : changeListeners) {
+                    listener.activityApplied(sequence, lines.get(i).getProductId(), activities.get(i));
+                }
+            }
+            committedSequence = sequence;
+        }
+    }
+    
+    // Restoring state copied from elsewhere (replication)
+    // These skip validation, console output and change notification because the
+    // data was already validated and applied once by the system it came from.
+    
+    /**
+     * Inserts a fully built product (with its quantity and history already set)
+     * 
+     * @param product Product to insert
+     * @return true if inserted, false if a product with the same ID already exists
+     */
+    boolean restoreProduct(Product product) {
+        catalogLock.writeLock().lock();
+        try {
+            if (productIndex.containsKey(product.getProductID())) {
+                return false;
+            }
+            product.setCatalogSlot(products.size());
+            products.add(product);
+            productIndex.put(product.getProductID(), product);
+            product.attachStockAgeIndex(stockAges);
+            product.attachNameIndex(nameIndex);
+            product.attachEntryDateIndex(entryDates);
+            product.attachOwner(this);
+            versions.created(product);
+            return true;
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Copies every product while holding its lock, so its quantity, lots and
+     * history are read consistently (used by CatalogStore.save)
+     * Only the copy is made under the lock; each copy is handed on after the
+     * lock is released, so slow work there (e.g. writing to disk) does not
+     * hold up activities on the product. Products created or deleted during
+     * the visit may or may not be seen, except that atListing runs at the
+     * moment the product list is taken, under the catalog read lock: no
+     * creation or deletion is in progress then.
+     * 
+     * @param <T> Type of a product's copy
+     * @param atListing Run as the product list is taken
+     * @param copier Called once per product, under its lock
+     * @param consumer Called with each copy, in catalog order, without the lock
+     */
+    <T> void forEachProductLocked(Runnable atListing, Function<Product, T> copier, Consumer<T> consumer) {
+        List<Product> listed;
+        catalogLock.readLock().lock();
+        try {
+            atListing.run();
+            listed = liveProducts();
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+        for (Product product : listed) {
+            T copy;
+            ReentrantLock productLock = lockFor(product.getProductID());
+            productLock.lock();
+            try {
+                copy = copier.apply(product);
+            } finally {
+                productLock.unlock();
+            }
+            consumer.accept(copy);
+        }
+    }
+    
+    /**
+     * Changes a listed product's name or entry date (see Product.setProductName)
+     * The change runs under the product's lock, as activities do, and records
+     * a new version, so snapshots and basket checks see it together with the
+     * name and date indexes.
+     * 
+     * @param product Product being changed
+     * @param edit Sets the field and updates its index
+     */
+    void editProduct(Product product, Runnable edit) {
+        catalogLock.readLock().lock();
+        ReentrantLock productLock = lockFor(product.getProductID());
+        productLock.lock();
+        try {
+            edit.run();
+            if (productIndex.get(product.getProductID()) == product) {
+                versions.updated(product);
+            }
+        } finally {
+            productLock.unlock();
+            catalogLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Applies an existing activity object to a product, keeping its original ID
+     * 
+     * @param ProductID ID of the product
+     * @param activity Activity to apply
+     * @return true if applied, false if the product does not exist
+     */
+    boolean restoreActivity(String ProductID, Activity activity) {
+        catalogLock.readLock().lock();
+        ReentrantLock productLock = lockFor(ProductID);
+        productLock.lock();
+        try {
+            Product product = productIndex.get(ProductID);
+            if (product == null) {
+                return false;
+            }
+            product.addActivity(activity);
+            versions.updated(product);
+            return true;
+        } finally {
+            productLock.unlock();
+            catalogLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Removes a product without console output
+     * 
+     * @param ProductID ID of the product
+     * @return true if removed, false if it did not exist
+     */
+    boolean restoreDeletion(String ProductID) {
+        catalogLock.writeLock().lock();
+        try {
+            Product product = productIndex.remove(ProductID);
+            if (product == null) {
+                return false;
+            }
+            tombstone(product);
+            product.detachStockAgeIndex();
+            product.detachNameIndex();
+            product.detachEntryDateIndex();
+            product.detachOwner();
+            versions.deleted(ProductID);
+            return true;
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+    }
+    
+    // Basket transactions
+    
+    /**
+     * Applies a basket of AddToStock/RemoveFromStock movements all-or-nothing
+     * If any line cannot be applied (unknown product, not enough stock,
+     * negative quantity) nothing is changed and the failing product is reported.
+     * 
+     * Optimistic concurrency:
+     * 1. Without locks, read each product's current version (an immutable
+     *    quantity + version pair) and check every line against it
+     * 2. Lock the products' stripes in ascending order, check no product changed
+     *    since step 1, apply every line and unlock
+     * 3. If another writer got in between, start again; after
+     *    BASKET_OPTIMISTIC_ATTEMPTS conflicts, do the check with the locks held
+     * 
+     * Baskets on different products only share a stripe lock for the few
+     * microseconds of a commit, and never wait for each other's checks.
+     * Snapshots and change listeners see the basket as one step.
+     * 
+     * @param basket Lines to apply, in order
+     * @param activityDate Date recorded on every activity
+     * @return Result with the outcome, failing product and number of attempts
+     */
+    public BasketResult applyBasket(StockBasket basket, LocalDate activityDate) {
+        List<StockBasket.Line> lines = basket.getLines();
+        for (StockBasket.Line line : lines) {
+            if (line.getQuantity() < 0) {
+                reportInvalid(SupermarketEvent.Operation.ADD_ACTIVITY, line.getProductId(), NEGATIVE_ACTIVITY_MESSAGE);
+                return new BasketResult(OperationOutcome.INVALID_INPUT, line.getProductId(), 0);
+            }
+        }
+        // Each stripe is locked once, always in ascending order, so baskets cannot deadlock
+        int[] stripes = lines.stream().mapToInt(line -> stripeIndex(line.getProductId())).distinct().sorted().toArray();
+        Map<String, VersionedCatalog.Version> readVersions = new HashMap<>();
+        
+        for (int attempt = 1; ; attempt++) {
+            boolean optimistic = attempt <= BASKET_OPTIMISTIC_ATTEMPTS;
+            if (optimistic) {
+                // Read phase: no locks taken
+                readBasketVersions(lines, readVersions);
+                BasketResult rejected = checkBasket(lines, readVersions, attempt);
+                if (rejected != null) {
+                    return rejected;
+                }
+            }
+            
+            catalogLock.readLock().lock();
+            for (int stripe : stripes) {
+                productLocks[stripe].lock();
+            }
+            try {
+                if (optimistic) {
+                    // Validate: every product must still be at the version that was checked
+                    boolean unchanged = true;
+                    for (Map.Entry<String, VersionedCatalog.Version> read : readVersions.entrySet()) {
+                        if (versions.head(read.getKey()) != read.getValue()) {
+                            unchanged = false;
+                            break;
+                        }
+                    }
+                    if (!unchanged) {
+                        continue; // Conflict: another writer changed a product, try again
+                    }
+                } else {
+                    // Too many conflicts: check again with the locks held, which cannot fail to commit
+                    readBasketVersions(lines, readVersions);
+                    BasketResult rejected = checkBasket(lines, readVersions, attempt);
+                    if (rejected != null) {
+                        return rejected;
+                    }
+                }
+                applyBasketLines(lines, activityDate);
+                return new BasketResult(OperationOutcome.SUCCESS, null, attempt);
+            } finally {
+                for (int i = stripes.length - 1; i >= 0; i--) {
+                    productLocks[stripes[i]].unlock();
+                }
+                catalogLock.readLock().unlock();
+            }
+        }
+    }
+    
+    // Helper: reads the current version of every product in the basket
+    private void readBasketVersions(List<StockBasket.Line> lines, Map<String, VersionedCatalog.Version> readVersions) {
+        readVersions.clear();
+        for (StockBasket.Line line : lines) {
+            if (!readVersions.containsKey(line.getProductId())) {
+                readVersions.put(line.getProductId(), versions.head(line.getProductId()));
+            }
+        }
+    }
+    
+    // Helper: checks every line, in order, against the read quantities
+    // Returns the rejection, or null if the whole basket can be applied
+    private BasketResult checkBasket(List<StockBasket.Line> lines,
+            Map<String, VersionedCatalog.Version> readVersions, int attempt) {
+        Map<String, Integer> projected = new HashMap<>();
+        for (StockBasket.Line line : lines) {
+            String id = line.getProductId();
+            VersionedCatalog.Version read = readVersions.get(id);
+            if (read == null || read.deleted) {
+                report(EventSink.Level.WARN, SupermarketEvent.Operation.ADD_ACTIVITY,
+                        OperationOutcome.NOT_FOUND, id, null, line.getActivityName(), line.getQuantity(), 0);
+                return new BasketResult(OperationOutcome.NOT_FOUND, id, attempt);
+            }
+            int quantity = projected.getOrDefault(id, read.quantity);
+            if ("RemoveFromStock".equals(line.getActivityName())) {
+                if (quantity < line.getQuantity()) {
+                    report(EventSink.Level.WARN, SupermarketEvent.Operation.ADD_ACTIVITY,
+                            OperationOutcome.INSUFFICIENT_STOCK, id, read.productName, line.getActivityName(),
+                            line.getQuantity(), quantity);
+                    return new BasketResult(OperationOutcome.INSUFFICIENT_STOCK, id, attempt);
+                }
+                projected.put(id, quantity - line.getQuantity());
+            } else {
+                projected.put(id, quantity + line.getQuantity());
+            }
+        }
+        return null;
+    }
+    
+    // Helper: applies every line (caller holds the catalog read lock and all the basket's stripes)
+    private void applyBasketLines(List<StockBasket.Line> lines, LocalDate activityDate) {
+        List<Activity> applied = new ArrayList<>(lines.size());
+        for (StockBasket.Line line : lines) {
+            Product product = productIndex.get(line.getProductId());
+            Activity activity = new Activity(generateActivityID(), line.getActivityName(),
+                    line.getQuantity(), activityDate);
+            product.addActivity(activity);
+            versions.updated(product);
+            applied.add(activity);
+            report(EventSink.Level.INFO, SupermarketEvent.Operation.ADD_ACTIVITY, OperationOutcome.SUCCESS,
+                    product.getProductID(), product.getProductName(), line.getActivityName(),
+                    line.getQuantity(), product.getProductQuantity());
+        }
+        publishBasketApplied(lines, applied);
+    }
+    
+    // Point-in-time snapshots
+    
+    /**
+     * Opens a consistent point-in-time snapshot of the whole catalog
+     * Reports and exports read every product and quantity from the same
+     * moment while checkouts carry on. Only opening the snapshot waits for
+     * changes already in progress; reading it never blocks writers.
+     * Close the snapshot when done so old versions can be reclaimed.
+     * 
+     * In single-writer modes (SingleWriterPipeline, ShardedSupermarketManager)
+     * take the snapshot on the writer thread, e.g. through SingleWriterPipeline.query.
+     * 
+     * @return Open snapshot (use with try-with-resources)
+     */
+    public CatalogSnapshot snapshot() {
+        // The write lock waits for in-flight changes, so none is half recorded
+        catalogLock.writeLock().lock();
+        try {
+            return versions.openSnapshot();
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * @return Number of product versions currently kept for open snapshots and the live state
+     */
+    long getRetainedVersionCount() {
+        return versions.getRetainedVersionCount();
+    }
+    
+    // Additional utility methods
+    
+    /**
+     * Retrieves a product by ID using the ID index
+     * Helper method for external access to specific products
+     * 
+     * @param ProductID of the product to retrieve
+     * @return Product object if found, null if not found
+     */
+    public Product getProduct(String ProductID) {
+        catalogLock.readLock().lock();
+        try {
+            return productIndex.get(ProductID);
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns a copy of all products in the system
+     * Returns a defensive copy to prevent external modification of internal list
+     * 
+     * @return New ArrayList containing all products 
+     */
+    public List<Product> getAllProducts() {
+        // return defensive copy to prevent external modification
+        catalogLock.readLock().lock();
+        try {
+            return liveProducts();
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+    }
+    
+    // Copy of the products list without tombstones, in insertion order (catalog lock held)
+    private List<Product> liveProducts() {
+        if (tombstones == 0) {
+            return new ArrayList<>(products);
+        }
+        List<Product> live = new ArrayList<>(products.size() - tombstones);
+        for (Product product : products) {
+            if (product != null) {
+                live.add(product);
+            }
+        }
+        return live;
+    }
+    
+    /**
+     * Returns one page of products in insertion order
+     * Used by the HTTP API for paginated listing
+     * 
+     * @param offset Index of the first product to return (0-based)
+     * @param limit Maximum number of products to return
+     * @return New list containing at most limit products, empty if offset is past the end
+     */
+    public List<Product> getProductsPage(int offset, int limit) {
+        if (offset < 0 || limit <= 0) {
+            return new ArrayList<>(); // Nothing to return for an invalid page
+        }
+        catalogLock.readLock().lock();
+        try {
+            if (tombstones == 0) {
+                int from = Math.min(offset, products.size());
+                int to = (int) Math.min((long) from + limit, products.size());
+                return new ArrayList<>(products.subList(from, to));
+            }
+            // Offsets count live products only, so walk past the tombstones
+            List<Product> page = new ArrayList<>(Math.min(limit, products.size()));
+            int seen = 0;
+            for (int slot = 0; slot < products.size() && page.size() < limit; slot++) {
+                Product product = products.get(slot);
+                if (product != null && seen++ >= offset) {
+                    page.add(product);
+                }
+            }
+            return page;
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+    }
+    
+    // Ad-hoc queries
+    // The planner picks the access path from the conditions every match must meet:
+    // - a product ID: one lookup in the ID index
+    // - an exact name: the products under that name in the name index
+    // - an entry date range: that range of the entry date index
+    // - otherwise every product is tested
+    // Large candidate lists (20,000 products or more) are tested on all cores.
+    // Quantity has no index: it changes on every checkout, and keeping a sorted
+    // index in step would add work to each one, so quantity conditions are
+    // tested on the candidates like any other condition.
+    
+    /**
+     * Returns the products matching a query
+     * 
+     * @param query Condition and limit
+     * @return Matching products, in catalog order (whichever access path is used)
+     */
+    public List<Product> query(ProductQuery query) {
+        return query(query, product -> product);
+    }
+    
+    /**
+     * Returns a projection of the products matching a query
+     * 
+     * @param <R> Type returned for each match
+     * @param query Condition and limit
+     * @param projection What to return for each match (e.g. Product::getProductID)
+     * @return One projected value per match, in the same order as query(query)
+     */
+    public <R> List<R> query(ProductQuery query, Function<? super Product, ? extends R> projection) {
+        ProductPredicate predicate = query.getPredicate();
+        ProductPredicate indexed = indexedCondition(predicate);
+        List<Product> candidates = indexed != null ? indexCandidates(indexed) : getAllProducts();
+        Stream<Product> stream = candidates.size() >= PARALLEL_QUERY_THRESHOLD
+                ? candidates.parallelStream() : candidates.stream();
+        return stream.filter(predicate::test)
+                .limit(query.getLimit())
+                .<R>map(projection)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Describes how a query would be run, without running it
+     * 
+     * @param query Query to plan
+     * @return Access path and the condition tested on each candidate
+     */
+    public String explain(ProductQuery query) {
+        ProductPredicate indexed = indexedCondition(query.getPredicate());
+        if (indexed instanceof ProductPredicate.IdEquals) {
+            return "ID index lookup (" + indexed + "), then test " + query;
+        }
+        String scan;
+        int count;
+        if (indexed == null) {
+            count = getProductCount();
+            scan = "scan of " + count + " products";
+        } else {
+            count = indexCandidates(indexed).size();
+            scan = (indexed instanceof ProductPredicate.NameEquals ? "name" : "entry date")
+                    + " index lookup (" + indexed + ", " + count + " candidates)";
+        }
+        return (count >= PARALLEL_QUERY_THRESHOLD ? "parallel " : "") + scan + ", testing " + query;
+    }
+    
+    // Picks the most selective indexed condition every match must meet, null if none
+    private ProductPredicate indexedCondition(ProductPredicate predicate) {
+        List<ProductPredicate> conjuncts = new ArrayList<>();
+        predicate.addConjuncts(conjuncts);
+        ProductPredicate best = null;
+        for (ProductPredicate conjunct : conjuncts) {
+            if (conjunct instanceof ProductPredicate.IdEquals) {
+                return conjunct; // At most one product
+            }
+            if (conjunct instanceof ProductPredicate.NameEquals) {
+                best = conjunct; // Usually a handful of products
+            } else if (best == null && conjunct instanceof ProductPredicate.EntryDateRange) {
+                best = conjunct;
+            }
+        }
+        return best;
+    }
+    
+    // Products an indexed condition narrows the query to, in catalog order whatever the index
+    private List<Product> indexCandidates(ProductPredicate indexed) {
+        List<Product> candidates = new ArrayList<>();
+        catalogLock.readLock().lock();
+        try {
+            if (indexed instanceof ProductPredicate.IdEquals idEquals) {
+                Product product = productIndex.get(idEquals.productId);
+                if (product != null) {
+                    candidates.add(product);
+                }
+            } else if (indexed instanceof ProductPredicate.NameEquals nameEquals) {
+                candidates.addAll(nameIndex.get(nameEquals.key));
+            } else if (indexed instanceof ProductPredicate.EntryDateRange range) {
+                candidates.addAll(entryDates.between(range.from, range.to, Integer.MAX_VALUE));
+            }
+            // Slots only move under the write lock (compaction)
+            candidates.sort(Comparator.comparingInt(Product::getCatalogSlot));
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+        return candidates;
+    }
+    
+    /**
+     * Returns the most recent activities of a product, newest first
+     * The list is copied under the product's lock so it is safe to use while
+     * other threads keep adding activities
+     * 
+     * @param ProductID ID of the product
+     * @param limit Maximum number of activities to return
+     * @return List of recent activities, or null if the product does not exist
+     */
+    public List<Activity> getRecentActivities(String ProductID, int limit) {
+        Product product = getProduct(ProductID);
+        if (product == null) {
+            return null; // Product not found
+        }
+        List<Activity> recent;
+        ReentrantLock productLock = lockFor(ProductID);
+        productLock.lock();
+        try {
+            recent = product.getActivities().getAllElements();
+        } finally {
+            productLock.unlock();
+        }
+        // Activities are stored newest first, so the first entries are the most recent
+        return recent.size() > limit ? new ArrayList<>(recent.subList(0, Math.max(0, limit))) : recent;
+    }
+    
+    /**
+     * Returns a product's kept activities sorted by quantity (smallest first)
+     * The product keeps this order up to date as activities arrive, so asking
+     * again for an unchanged product returns the same read-only list.
+     * 
+     * @param ProductID ID of the product
+     * @return Read-only sorted list, or null if the product does not exist
+     */
+    public List<Activity> getActivitiesSortedByQuantity(String ProductID) {
+        Product product = getProduct(ProductID);
+        if (product == null) {
+            return null; // Product not found
+        }
+        ReentrantLock productLock = lockFor(ProductID);
+        productLock.lock();
+        try {
+            return product.getActivitiesSortedByProductQuantity();
+        } finally {
+            productLock.unlock();
+        }
+    }
+    
+    /**
+     * Returns how many items in stock, over the whole catalog, are older than a number of days
+     * Answered from the stock age index without visiting the products.
+     * 
+     * @param days Age in days (stock received before today minus this many days counts)
+     * @return Number of items that old still in stock
+     */
+    public long getStockOlderThan(int days) {
+        return stockAges.quantityReceivedBefore(LocalDate.now().minusDays(days));
+    }
+    
+    /**
+     * Returns how many items in stock, over the whole catalog, arrived before a date
+     * 
+     * @param cutoff First date that does not count
+     * @return Number of items received before the cutoff still in stock
+     */
+    public long getStockReceivedBefore(LocalDate cutoff) {
+        return stockAges.quantityReceivedBefore(cutoff);
+    }
+    
+    /**
+     * Lists the products still holding stock received before a date
+     * Only looks at each product's oldest lot, so it is O(1) per product.
+     * 
+     * @param cutoff First date that does not count
+     * @return Products whose oldest stock arrived before the cutoff
+     */
+    public List<Product> getProductsWithStockReceivedBefore(LocalDate cutoff) {
+        List<Product> result = new ArrayList<>();
+        for (Product product : getAllProducts()) {
+            ReentrantLock productLock = lockFor(product.getProductID());
+            productLock.lock();
+            try {
+                LocalDate oldest = product.getOldestStockDate();
+                if (oldest != null && oldest.isBefore(cutoff)) {
+                    result.add(product);
+                }
+            } finally {
+                productLock.unlock();
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Lists the products entered between two dates, oldest first
+     * Read from the entry date index: O(log d + k) for k products over d distinct dates.
+     * 
+     * @param from First entry date
+     * @param to Last entry date
+     * @return Products entered from one date to the other (both included)
+     */
+    public List<Product> getProductsEnteredBetween(LocalDate from, LocalDate to) {
+        return entryDates.between(from, to, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Lists the products that have been in the catalog longest
+     * 
+     * @param count Number of products
+     * @return Up to count products, earliest entry date first
+     */
+    public List<Product> getOldestProducts(int count) {
+        return count <= 0 ? new ArrayList<>() : entryDates.oldest(count);
+    }
+    
+    /**
+     * Estimates the heap used by the catalog and activity histories
+     * Measures up to 1,000 products spread evenly over the catalog.
+     * 
+     * @return Estimated bytes by structure
+     */
+    public MemoryFootprint estimateMemoryFootprint() {
+        return estimateMemoryFootprint(MEMORY_SAMPLE_SIZE);
+    }
+    
+    /**
+     * Estimates the heap used by the catalog and activity histories by sampling
+     * Per-product structures are measured on sampleSize products spread evenly
+     * over the catalog and scaled up; the product list and indexes are worked
+     * out from their sizes. Costs O(sampleSize), not O(products).
+     * 
+     * @param sampleSize Number of products to measure
+     * @return Estimated bytes by structure
+     * @throws IllegalArgumentException if sampleSize is not positive
+     */
+    public MemoryFootprint estimateMemoryFootprint(int sampleSize) {
+        if (sampleSize <= 0) {
+            throw new IllegalArgumentException("Sample size must be positive: " + sampleSize);
+        }
+        List<Product> sample = new ArrayList<>();
+        int count;
+        int slots; // Including tombstones
+        catalogLock.readLock().lock();
+        try {
+            count = productIndex.size();
+            slots = products.size();
+            long step = Math.max(1, slots / sampleSize);
+            for (long i = 0; i < slots && sample.size() < sampleSize; i += step) {
+                Product product = products.get((int) i);
+                if (product != null) {
+                    sample.add(product);
+                }
+            }
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+        
+        MemoryFootprint footprint = new MemoryFootprint(count);
+        int tableSize = Integer.highestOneBit(Math.max(1, (int) (count / 0.75f)) * 2 - 1); // HashMap table
+        footprint.addCatalog(MemoryFootprint.CATALOG, MemoryFootprint.referenceArraySize(slots) // products list
+                + MemoryFootprint.referenceArraySize(tableSize)
+                + (long) count * MemoryFootprint.shallowSize("java.util.HashMap$Node") // ID index
+                + nameIndex.estimateBytes(count) + entryDates.estimateBytes(count));
+        for (Product product : sample) {
+            ReentrantLock productLock = lockFor(product.getProductID());
+            productLock.lock();
+            try {
+                product.accountMemory(footprint);
+            } finally {
+                productLock.unlock();
+            }
+        }
+        return footprint.finish();
+    }
+    
+    /**
+     * Returns a product's open stock lots, oldest first
+     * 
+     * @param ProductID ID of the product
+     * @return Copies of the lots, or null if the product does not exist
+     */
+    public List<StockLot> getStockLots(String ProductID) {
+        Product product = getProduct(ProductID);
+        if (product == null) {
+            return null; // Product not found
+        }
+        ReentrantLock productLock = lockFor(ProductID);
+        productLock.lock();
+        try {
+            return product.getStockLots();
+        } finally {
+            productLock.unlock();
+        }
+    }
+    
+    /**
+     * Sets how many recent activities products created from now on keep
+     * Existing products keep their current depth.
+     * 
+     * @param depth Number of activities to keep (Product.DEFAULT_HISTORY_DEPTH is 4)
+     * @throws IllegalArgumentException if depth is not positive
+     */
+    public void setHistoryDepth(int depth) {
+        if (depth <= 0) {
+            throw new IllegalArgumentException("History depth must be positive: " + depth);
+        }
+        this.historyDepth = depth;
+    }
+    
+    /**
+     * @return Number of recent activities new products keep
+     */
+    public int getHistoryDepth() {
+        return historyDepth;
+    }
+    
+    /**
+     * Returns the current number of products in the system
+     * Useful for displaying system statistics
+     * 
+     * @return Number of products in the produsts list 
+     */
+
+    public int getProductCount() {
+        catalogLock.readLock().lock();
+        try {
+            return productIndex.size(); // The list also holds tombstones
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+    } 
+}
@@ -0,0 +1,253 @@
+package com.mycompany.supermarketmanagementsystem;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Multi-version copy of the catalog used for point-in-time snapshots (MVCC)
+ * SupermarketManager records every change here as an immutable Version
+ * holding the product's state after the change and a version number from
+ * one global clock. Each product keeps a short chain of versions, newest first.
+ *
+ * A CatalogSnapshot at version V sees, for every product, the newest version
+ * with number &lt;= V. Writers never wait for snapshot readers, and readers
+ * never see a half-applied change.
+ *
+ * Reclaiming old versions:
+ * - a version is only kept while some open snapshot may still need it
+ * - with no open snapshots, every change simply replaces the previous version
+ * - when the oldest snapshot closes, a sweep trims every chain and drops
+ *   deleted products no snapshot can see any more
+ *
+ * Consistency relies on the manager: versions are recorded while the change
+ * holds the catalog lock (read or write), and a snapshot reads the clock while
+ * holding the write lock, so no change is half recorded at that moment.
+ *
+ * @author Group 10
+ * @version 1.0
+ */
+final class VersionedCatalog {
+
+    /**
+     * Immutable state of one product as of one version
+     */
+    static final class Version {
+        final long version;
+        final long createdVersion; // Version that created the product (used for ordering)
+        final String productId;
+        final String productName;
+        final LocalDate entryDate;
+        final int quantity;
+        final boolean deleted;
+        volatile Version previous;
+
+        Version(long version, long createdVersion, String productId, String productName,
+                LocalDate entryDate, int quantity, boolean deleted, Version previous) {
+            this.version = version;
+            this.createdVersion = createdVersion;
+            this.productId = productId;
+            this.productName = productName;
+            this.entryDate = entryDate;
+            this.quantity = quantity;
+            this.deleted = deleted;
+            this.previous = previous;
+        }
+    }
+
+    // Newest version of every product (including deleted ones still visible to a snapshot)
+    private final Map<String, Version> heads = new ConcurrentHashMap<>();
+
+    // Global version clock
+    private final AtomicLong clock = new AtomicLong();
+
+    // Open snapshots: version -> number of open snapshots at that version
+    private final ConcurrentSkipListMap<Long, Integer> readers = new ConcurrentSkipListMap<>();
+
+    // Version of the oldest open snapshot, Long.MAX_VALUE when there is none
+    private volatile long oldestReader = Long.MAX_VALUE;
+
+    // ---------------------------------------------------------------
+    // Writers (called by the manager with the product locked)
+    // ---------------------------------------------------------------
+
+    /**
+     * Records a newly created (or restored) product
+     *
+     * @param product The product, with its quantity after creation
+     */
+    void created(Product product) {
+        long version = clock.incrementAndGet();
+        install(heads.get(product.getProductID()), new Version(version, version, product.getProductID(),
+                product.getProductName(), product.getProductEntryDate(), product.getProductQuantity(), false, null));
+    }
+
+    /**
+     * Records a change of a product's quantity, name or entry date
+     *
+     * @param product The product, after the change
+     */
+    void updated(Product product) {
+        long version = clock.incrementAndGet();
+        Version head = heads.get(product.getProductID());
+        long createdVersion = head == null || head.deleted ? version : head.createdVersion;
+        install(head, new Version(version, createdVersion, product.getProductID(), product.getProductName(),
+                product.getProductEntryDate(), product.getProductQuantity(), false, null));
+    }
+
+    /**
+     * Records the deletion of a product
+     *
+     * @param ProductID ID of the deleted product
+     */
+    void deleted(String ProductID) {
+        Version head = heads.get(ProductID);
+        if (head == null) {
+            return;
+        }
+        long version = clock.incrementAndGet();
+        if (oldestReader == Long.MAX_VALUE) {
+            heads.remove(ProductID); // No snapshot can still see it
+            return;
+        }
+        install(head, new Version(version, head.createdVersion, ProductID, head.productName,
+                head.entryDate, 0, true, null));
+    }
+
+    // Makes a version the product's newest, keeping only what open snapshots need
+    // The chain is linked before the version is published, so a reader never
+    // finds a new head without the older versions it may still need
+    private void install(Version current, Version version) {
+        long oldest = oldestReader;
+        if (current != null && oldest != Long.MAX_VALUE) {
+            version.previous = current;
+            trim(version, oldest);
+        }
+        heads.put(version.productId, version);
+    }
+
+    // Cuts a chain below the newest version an open snapshot may need
+    private static void trim(Version head, long oldest) {
+        Version keep = head;
+        while (keep.version > oldest && keep.previous != null) {
+            keep = keep.previous;
+        }
+        keep.previous = null;
+    }
+
+    // ---------------------------------------------------------------
+    // Readers
+    // ---------------------------------------------------------------
+
+    /**
+     * Opens a snapshot of the current version
+     * The caller must hold the catalog write lock (see class comment).
+     *
+     * @return New open snapshot
+     */
+    CatalogSnapshot openSnapshot() {
+        long version = clock.get();
+        synchronized (readers) {
+            readers.merge(version, 1, Integer::sum);
+            oldestReader = readers.firstKey();
+        }
+        return new CatalogSnapshot(this, version);
+    }
+
+    /**
+     * Closes a snapshot, reclaiming versions nobody can see any more
+     *
+     * @param version Version of the snapshot being closed
+     */
+    void closeSnapshot(long version) {
+        synchronized (readers) {
+            long before = oldestReader;
+            readers.computeIfPresent(version, (v, count) -> count == 1 ? null : count - 1);
+            long after = readers.isEmpty() ? Long.MAX_VALUE : readers.firstKey();
+            oldestReader = after;
+            if (after != before) {
+                // Still under the readers monitor: a snapshot opening meanwhile
+                // could need versions this trim cuts, so none opens until it is done
+                reclaim(after);
+            }
+        }
+    }
+
+    // Trims every chain and drops deleted products older than every open snapshot
+    // The caller holds the readers monitor, so the oldest open snapshot cannot change meanwhile
+    private void reclaim(long oldest) {
+        for (Map.Entry<String, Version> entry : heads.entrySet()) {
+            Version head = entry.getValue();
+            if (head.deleted && head.version <= oldest) {
+                heads.remove(entry.getKey(), head);
+            } else {
+                trim(head, oldest);
+            }
+        }
+    }
+
+    /**
+     * Returns a product's newest version
+     * Also serves as the product's optimistic version stamp: every change
+     * installs a new Version object, so an unchanged head means an unchanged product.
+     *
+     * @param ProductID ID of the product
+     * @return Newest version (may be a deletion), or null if unknown
+     */
+    Version head(String ProductID) {
+        return ProductID == null ? null : heads.get(ProductID);
+    }
+
+    /**
+     * Returns the state of a product as seen at a version
+     *
+     * @param ProductID ID of the product
+     * @param version Snapshot version
+     * @return The visible version, or null if the product did not exist then
+     */
+    Version visible(String ProductID, long version) {
+        Version head = ProductID == null ? null : heads.get(ProductID);
+        return visible(head, version);
+    }
+
+    static Version visible(Version head, long version) {
+        Version current = head;
+        while (current != null && current.version > version) {
+            current = current.previous;
+        }
+        return current == null || current.deleted ? null : current;
+    }
+
+    /**
+     * @return Newest versions of all products, for snapshots to filter
+     */
+    Iterable<Version> heads() {
+        return heads.values();
+    }
+
+    /**
+     * @return Number of versions currently kept, over all products
+     */
+    long getRetainedVersionCount() {
+        long count = 0;
+        for (Version head : heads.values()) {
+            for (Version v = head; v != null; v = v.previous) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return Number of snapshots currently open
+     */
+    int getOpenSnapshotCount() {
+        int count = 0;
+        for (int open : readers.values()) {
+            count += open;
+        }
+        return count;
+    }
+}